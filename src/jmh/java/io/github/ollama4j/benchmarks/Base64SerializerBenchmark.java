@@ -0,0 +1,115 @@
+package io.github.ollama4j.benchmarks;
+
+import io.github.ollama4j.OllamaAPI;
+import io.github.ollama4j.models.chat.OllamaChatMessage;
+import io.github.ollama4j.models.chat.OllamaChatMessageRole;
+import io.github.ollama4j.models.chat.OllamaChatRequest;
+import io.github.ollama4j.models.chat.OllamaChatRequestBuilder;
+import io.github.ollama4j.models.chat.OllamaChatResult;
+import io.github.ollama4j.utils.Base64Cache;
+import io.github.ollama4j.utils.FileToBase64Serializer;
+import io.github.ollama4j.utils.HttpClientOptions;
+import io.github.ollama4j.utils.Utils;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link FileToBase64Serializer} on multi-megabyte images: serializing a message with one image, and a chat request
+ * carrying it sent to an in-process stub server. As the same image is sent on every invocation, {@code cached=true}
+ * measures re-sending a chat history through the {@link Base64Cache}. {@code cacheLookup} against {@code sha256Key}
+ * compares the cost of finding a cached encoding with that of the content digest it was keyed by before.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class Base64SerializerBenchmark {
+
+    @Param({"1048576", "8388608"})
+    private int imageBytes;
+
+    @Param({"true", "false"})
+    private boolean cached;
+
+    private byte[] image;
+    private Base64Cache cache;
+    private ObjectWriter writer;
+    private OllamaChatMessage message;
+    private OllamaChatRequest request;
+    private StubOllamaServer server;
+    private OllamaAPI ollamaAPI;
+
+    @Setup
+    public void setUp() throws IOException {
+        cache = cached ? new Base64Cache(Base64Cache.DEFAULT_MAX_BYTES, Base64Cache.DEFAULT_MIN_IMAGE_BYTES) : null;
+        writer = cached ? Utils.getObjectMapper().writer().withAttribute(Base64Cache.class, cache) : Utils.getObjectMapper().writer();
+        image = new byte[imageBytes];
+        new Random(42).nextBytes(image);
+        message = new OllamaChatMessage(OllamaChatMessageRole.USER, "What is in this picture?");
+        message.setImages(List.of(image));
+        request = OllamaChatRequestBuilder.getInstance("llava").withMessages(List.of(message)).build();
+        server = new StubOllamaServer().respond("/api/chat", StubOllamaServer.chatResponse(1));
+        ollamaAPI = new OllamaAPI(server.getHost(), HttpClientOptions.builder().base64Cache(cache).build());
+        ollamaAPI.setVerbose(false);
+    }
+
+    @TearDown
+    public void tearDown() {
+        server.close();
+    }
+
+    @Benchmark
+    public void serializeMessage() throws IOException {
+        writer.writeValue(OutputStream.nullOutputStream(), message);
+    }
+
+    /**
+     * Looking up a cached image: a hash of a few sampled bytes, then comparing the image with the cached copy.
+     */
+    @Benchmark
+    public char[] cacheLookup() {
+        return cache != null ? cache.encode(image) : null;
+    }
+
+    /**
+     * The SHA-256 digest of the image, which the cache used to compute as the key of every lookup.
+     */
+    @Benchmark
+    public byte[] sha256Key() throws NoSuchAlgorithmException {
+        return MessageDigest.getInstance("SHA-256").digest(image);
+    }
+
+    @Benchmark
+    public long bodyPublisher() {
+        return ChatRequestSerializationBenchmark.drain(request.getBodyPublisher(cache));
+    }
+
+    @Benchmark
+    public OllamaChatResult chatThroughStubServer() throws Exception {
+        // the chat result appends the answer to the request's history, so every call gets its own copy
+        return ollamaAPI.chat(OllamaChatRequestBuilder.getInstance(request.getModel())
+                .withMessages(new ArrayList<>(request.getMessages())).build());
+    }
+}
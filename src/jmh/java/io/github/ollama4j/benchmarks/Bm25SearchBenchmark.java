@@ -0,0 +1,82 @@
+package io.github.ollama4j.benchmarks;
+
+import io.github.ollama4j.search.Bm25Index;
+import io.github.ollama4j.search.SearchHit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of a top-10 query of three terms against a {@link Bm25Index} of 200,000 chunks of 100 words, drawn from a
+ * vocabulary of 50,000 words with Zipf-distributed frequencies, like natural text. Queries mix a frequent, a common and
+ * a rare word. The time to generate and index the chunks and the encoded size of the posting lists are printed once per
+ * trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class Bm25SearchBenchmark {
+
+    private static final int SIZE = 200_000;
+    private static final int WORDS = 100;
+    private static final int VOCABULARY = 50_000;
+    private static final int BATCH = 1000;
+
+    private Bm25Index index;
+    private String[] queries;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(13);
+        // cumulative Zipf distribution with exponent 1
+        double[] cumulative = new double[VOCABULARY];
+        double sum = 0;
+        for (int w = 0; w < VOCABULARY; w++) {
+            sum += 1.0 / (w + 1);
+            cumulative[w] = sum;
+        }
+        index = new Bm25Index();
+        long start = System.nanoTime();
+        for (int first = 0; first < SIZE; first += BATCH) {
+            List<String> batch = new ArrayList<>(BATCH);
+            for (int i = 0; i < BATCH; i++) {
+                StringBuilder text = new StringBuilder();
+                for (int w = 0; w < WORDS; w++) {
+                    int word = Arrays.binarySearch(cumulative, random.nextDouble() * sum);
+                    text.append('w').append(word < 0 ? -word - 1 : word).append(' ');
+                }
+                batch.add(text.toString());
+            }
+            index.addAll(batch);
+        }
+        long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        queries = new String[256];
+        for (int q = 0; q < queries.length; q++) {
+            queries[q] = "w" + random.nextInt(10) + " w" + (100 + random.nextInt(900)) + " w" + (10_000 + random.nextInt(40_000));
+        }
+        System.out.printf("%nindexed %d chunks in %d ms: %d terms, postings %d MB%n",
+                SIZE, millis, index.getTermCount(), index.getPostingsBytes() >> 20);
+    }
+
+    @Benchmark
+    public List<SearchHit> search() {
+        return index.search(queries[next++ & (queries.length - 1)], 10);
+    }
+}
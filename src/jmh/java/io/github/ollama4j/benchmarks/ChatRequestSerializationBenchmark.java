@@ -0,0 +1,122 @@
+package io.github.ollama4j.benchmarks;
+
+import io.github.ollama4j.OllamaAPI;
+import io.github.ollama4j.models.chat.OllamaChatMessage;
+import io.github.ollama4j.models.chat.OllamaChatMessageRole;
+import io.github.ollama4j.models.chat.OllamaChatRequest;
+import io.github.ollama4j.models.chat.OllamaChatRequestBuilder;
+import io.github.ollama4j.models.chat.OllamaChatResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.net.http.HttpRequest;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialization of {@link OllamaChatRequest}s with long histories, optionally with an image attached to every tenth
+ * message, through {@link OllamaChatRequest#getBodyPublisher()}, and the same request sent to an in-process stub
+ * server.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ChatRequestSerializationBenchmark {
+
+    @Param({"10", "500"})
+    private int historySize;
+
+    @Param({"0", "65536"})
+    private int imageBytes;
+
+    private OllamaChatRequest request;
+    private StubOllamaServer server;
+    private OllamaAPI ollamaAPI;
+
+    @Setup
+    public void setUp() throws IOException {
+        Random random = new Random(42);
+        List<OllamaChatMessage> messages = new ArrayList<>(historySize);
+        for (int i = 0; i < historySize; i++) {
+            OllamaChatMessageRole role = i % 2 == 0 ? OllamaChatMessageRole.USER : OllamaChatMessageRole.ASSISTANT;
+            OllamaChatMessage message = new OllamaChatMessage(role, "Message " + i + " of a long conversation about the capital of France.");
+            if (imageBytes > 0 && i % 10 == 0) {
+                byte[] image = new byte[imageBytes];
+                random.nextBytes(image);
+                message.setImages(List.of(image));
+            }
+            messages.add(message);
+        }
+        request = OllamaChatRequestBuilder.getInstance("llama3").withMessages(messages).build();
+        server = new StubOllamaServer().respond("/api/chat", StubOllamaServer.chatResponse(1));
+        ollamaAPI = new OllamaAPI(server.getHost());
+        ollamaAPI.setVerbose(false);
+    }
+
+    @TearDown
+    public void tearDown() {
+        server.close();
+    }
+
+    @Benchmark
+    public long bodyPublisher() {
+        return drain(request.getBodyPublisher());
+    }
+
+    @Benchmark
+    public OllamaChatResult chatThroughStubServer() throws Exception {
+        // the chat result appends the answer to the request's history, so every call gets its own copy
+        return ollamaAPI.chat(OllamaChatRequestBuilder.getInstance(request.getModel())
+                .withMessages(new ArrayList<>(request.getMessages())).build());
+    }
+
+    /**
+     * Subscribes to the publisher and counts the published bytes, like the HTTP client does when sending the body.
+     */
+    static long drain(HttpRequest.BodyPublisher publisher) {
+        CompletableFuture<Long> length = new CompletableFuture<>();
+        publisher.subscribe(new Flow.Subscriber<>() {
+            private long count;
+
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                subscription.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(ByteBuffer item) {
+                count += item.remaining();
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                length.completeExceptionally(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+                length.complete(count);
+            }
+        });
+        return length.join();
+    }
+}
@@ -0,0 +1,83 @@
+package io.github.ollama4j.benchmarks;
+
+import io.github.ollama4j.OllamaAPI;
+import io.github.ollama4j.models.embeddings.OllamaEmbedFloatResponseModel;
+import io.github.ollama4j.models.embeddings.OllamaEmbedRequestModel;
+import io.github.ollama4j.models.embeddings.OllamaEmbedResponseModel;
+import io.github.ollama4j.utils.Utils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deserialization of embed responses carrying large batches of 768 dimensional vectors, into boxed
+ * {@link OllamaEmbedResponseModel}s and into {@link OllamaEmbedFloatResponseModel}s, from bytes and through
+ * {@link OllamaAPI#embed}/{@link OllamaAPI#embedFloats} against an in-process stub server.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmbedResponseBenchmark {
+
+    private static final int DIMENSION = 768;
+
+    @Param({"16", "512"})
+    private int batchSize;
+
+    private byte[] response;
+    private List<String> inputs;
+    private StubOllamaServer server;
+    private OllamaAPI ollamaAPI;
+
+    @Setup
+    public void setUp() throws IOException {
+        response = StubOllamaServer.embedResponse(batchSize, DIMENSION).getBytes(StandardCharsets.UTF_8);
+        inputs = Collections.nCopies(batchSize, "The capital of France is Paris.");
+        server = new StubOllamaServer().respond("/api/embed", response);
+        ollamaAPI = new OllamaAPI(server.getHost());
+        ollamaAPI.setVerbose(false);
+    }
+
+    @TearDown
+    public void tearDown() {
+        server.close();
+    }
+
+    @Benchmark
+    public OllamaEmbedResponseModel deserialize() throws IOException {
+        return Utils.getObjectMapper().readValue(response, OllamaEmbedResponseModel.class);
+    }
+
+    @Benchmark
+    public OllamaEmbedFloatResponseModel deserializeFloats() throws IOException {
+        return Utils.getObjectMapper().readValue(response, OllamaEmbedFloatResponseModel.class);
+    }
+
+    @Benchmark
+    public OllamaEmbedResponseModel embedThroughStubServer() throws Exception {
+        return ollamaAPI.embed("nomic-embed-text", inputs);
+    }
+
+    @Benchmark
+    public OllamaEmbedFloatResponseModel embedFloatsThroughStubServer() throws Exception {
+        return ollamaAPI.embedFloats(new OllamaEmbedRequestModel("nomic-embed-text", inputs));
+    }
+}
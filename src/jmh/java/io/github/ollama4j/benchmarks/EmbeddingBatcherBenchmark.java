@@ -0,0 +1,64 @@
+package io.github.ollama4j.benchmarks;
+
+import io.github.ollama4j.OllamaAPI;
+import io.github.ollama4j.models.embeddings.OllamaEmbedRequestModel;
+import io.github.ollama4j.utils.EmbeddingBatcher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of 32 threads embedding one text each call, sent one request per text or collected by an
+ * {@link EmbeddingBatcher}, against a stub server taking 5 ms per request and processing one request at a time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+@Threads(32)
+public class EmbeddingBatcherBenchmark {
+
+    private StubOllamaServer server;
+    private OllamaAPI ollamaAPI;
+    private EmbeddingBatcher batcher;
+
+    @Setup
+    public void setUp() throws IOException {
+        server = new StubOllamaServer().respondToEmbed(768, 5);
+        ollamaAPI = new OllamaAPI(server.getHost());
+        ollamaAPI.setVerbose(false);
+        batcher = new EmbeddingBatcher(ollamaAPI, 32, Duration.ofMillis(2));
+    }
+
+    @TearDown
+    public void tearDown() {
+        batcher.close();
+        server.close();
+    }
+
+    @Benchmark
+    public Object separateRequests() throws Exception {
+        return ollamaAPI.embedFloats(new OllamaEmbedRequestModel("nomic-embed-text", List.of("The capital of France is Paris.")));
+    }
+
+    @Benchmark
+    public float[] batched() {
+        return batcher.embed("nomic-embed-text", "The capital of France is Paris." + Thread.currentThread().getId()).join();
+    }
+}
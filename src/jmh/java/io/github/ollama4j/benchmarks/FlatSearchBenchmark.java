@@ -0,0 +1,110 @@
+package io.github.ollama4j.benchmarks;
+
+import io.github.ollama4j.models.embeddings.FloatEmbeddings;
+import io.github.ollama4j.search.FlatVectorStore;
+import io.github.ollama4j.search.SearchHit;
+import io.github.ollama4j.search.SimilarityMetric;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Top-10 search over 20,000 vectors of dimension 768: a naive loop over {@code List<Double>} embeddings as returned by
+ * {@code OllamaAPI.embed}, and a {@link FlatVectorStore} scanning on one thread and on the common fork-join pool.
+ * <p>
+ * Every operation is one floating point operation of the 2·n·d multiply-adds of the dot products, so the scores are
+ * in GFLOP/s. The forks enable the Vector API; add {@code -jvmArgsAppend -Dollama4j.search.vectorApi=false} to the
+ * JMH arguments to measure the scalar kernels instead.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class FlatSearchBenchmark {
+
+    private static final int SIZE = 20_000;
+    private static final int DIMENSION = 768;
+    private static final int FLOPS = 2 * SIZE * DIMENSION;
+    private static final int K = 10;
+
+    private List<List<Double>> lists;
+    private List<Double> listQuery;
+    private float[] query;
+    private FlatVectorStore singleThreaded;
+    private FlatVectorStore parallel;
+    private ForkJoinPool singleThreadPool;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(11);
+        float[] data = new float[SIZE * DIMENSION];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (float) random.nextGaussian();
+        }
+        FloatEmbeddings embeddings = new FloatEmbeddings(data, SIZE, DIMENSION);
+        lists = embeddings.toLists();
+        query = embeddings.getVector(random.nextInt(SIZE));
+        listQuery = new ArrayList<>();
+        for (float component : query) {
+            listQuery.add((double) component);
+        }
+        singleThreadPool = new ForkJoinPool(1);
+        singleThreaded = new FlatVectorStore(DIMENSION, SimilarityMetric.DOT_PRODUCT, singleThreadPool);
+        singleThreaded.addAll(embeddings);
+        parallel = new FlatVectorStore(DIMENSION, SimilarityMetric.DOT_PRODUCT);
+        parallel.addAll(embeddings);
+    }
+
+    @TearDown
+    public void tearDown() {
+        singleThreadPool.shutdown();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(FLOPS)
+    public PriorityQueue<double[]> naiveListOfDoubles() {
+        PriorityQueue<double[]> best = new PriorityQueue<>((a, b) -> Double.compare(a[0], b[0]));
+        for (int i = 0; i < lists.size(); i++) {
+            List<Double> vector = lists.get(i);
+            double score = 0;
+            for (int j = 0; j < vector.size(); j++) {
+                score += vector.get(j) * listQuery.get(j);
+            }
+            best.add(new double[]{score, i});
+            if (best.size() > K) {
+                best.poll();
+            }
+        }
+        return best;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(FLOPS)
+    public List<SearchHit> flatSingleThread() {
+        return singleThreaded.search(query, K);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(FLOPS)
+    public List<SearchHit> flatForkJoin() {
+        return parallel.search(query, K);
+    }
+}
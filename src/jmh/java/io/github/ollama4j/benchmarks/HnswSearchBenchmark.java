@@ -0,0 +1,138 @@
+package io.github.ollama4j.benchmarks;
+
+import io.github.ollama4j.models.embeddings.FloatEmbeddings;
+import io.github.ollama4j.search.HnswIndex;
+import io.github.ollama4j.search.HnswOptions;
+import io.github.ollama4j.search.SearchHit;
+import io.github.ollama4j.search.SimilarityMetric;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of a top-10 query against a {@link HnswIndex} and against a brute-force scan of the same vectors. The
+ * vectors are unit length and clustered around 256 centroids, like the embeddings of a document corpus. The recall of
+ * the index is printed once per trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HnswSearchBenchmark {
+
+    private static final int DIMENSION = 384;
+    private static final int K = 10;
+
+    @Param({"20000", "100000"})
+    private int size;
+
+    @Param({"64"})
+    private int ef;
+
+    private float[][] vectors;
+    private float[][] queries;
+    private HnswIndex index;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(7);
+        float[][] centroids = new float[256][];
+        for (int i = 0; i < centroids.length; i++) {
+            centroids[i] = randomUnitVector(random, null, 0);
+        }
+        vectors = new float[size][];
+        for (int i = 0; i < size; i++) {
+            vectors[i] = randomUnitVector(random, centroids[random.nextInt(centroids.length)], 0.5f);
+        }
+        queries = new float[1024][];
+        for (int i = 0; i < queries.length; i++) {
+            queries[i] = randomUnitVector(random, centroids[random.nextInt(centroids.length)], 0.5f);
+        }
+        float[] data = new float[size * DIMENSION];
+        for (int i = 0; i < size; i++) {
+            System.arraycopy(vectors[i], 0, data, i * DIMENSION, DIMENSION);
+        }
+        index = new HnswIndex(DIMENSION, SimilarityMetric.DOT_PRODUCT, HnswOptions.builder().efConstruction(100).build());
+        index.addAll(new FloatEmbeddings(data, size, DIMENSION));
+        System.out.printf("%nrecall@%d with ef %d: %.3f%n", K, ef, recall());
+    }
+
+    @Benchmark
+    public List<SearchHit> hnsw() {
+        return index.search(nextQuery(), K, ef);
+    }
+
+    @Benchmark
+    public int[] bruteForce() {
+        return bruteForce(nextQuery());
+    }
+
+    private float[] nextQuery() {
+        return queries[next++ & (queries.length - 1)];
+    }
+
+    private int[] bruteForce(float[] query) {
+        int[] ids = new int[K];
+        float[] scores = new float[K];
+        Arrays.fill(scores, Float.NEGATIVE_INFINITY);
+        for (int i = 0; i < vectors.length; i++) {
+            float score = SimilarityMetric.DOT_PRODUCT.score(vectors[i], query);
+            if (score > scores[K - 1]) {
+                int j = K - 1;
+                for (; j > 0 && scores[j - 1] < score; j--) {
+                    scores[j] = scores[j - 1];
+                    ids[j] = ids[j - 1];
+                }
+                scores[j] = score;
+                ids[j] = i;
+            }
+        }
+        return ids;
+    }
+
+    private double recall() {
+        int found = 0;
+        for (int q = 0; q < 100; q++) {
+            int[] exact = bruteForce(queries[q]);
+            for (SearchHit hit : index.search(queries[q], K, ef)) {
+                for (int id : exact) {
+                    if (id == hit.getId()) {
+                        found++;
+                    }
+                }
+            }
+        }
+        return found / (100.0 * K);
+    }
+
+    private static float[] randomUnitVector(Random random, float[] centroid, float noise) {
+        float[] vector = new float[DIMENSION];
+        double norm = 0;
+        for (int i = 0; i < DIMENSION; i++) {
+            vector[i] = (float) random.nextGaussian() * (centroid == null ? 1 : noise / (float) Math.sqrt(DIMENSION))
+                    + (centroid == null ? 0 : centroid[i]);
+            norm += vector[i] * vector[i];
+        }
+        for (int i = 0; i < DIMENSION; i++) {
+            vector[i] /= (float) Math.sqrt(norm);
+        }
+        return vector;
+    }
+}
@@ -0,0 +1,140 @@
+package io.github.ollama4j.benchmarks;
+
+import io.github.ollama4j.models.embeddings.FloatEmbeddings;
+import io.github.ollama4j.search.FlatVectorStore;
+import io.github.ollama4j.search.IvfPqBuilder;
+import io.github.ollama4j.search.IvfPqIndex;
+import io.github.ollama4j.search.IvfPqOptions;
+import io.github.ollama4j.search.SearchHit;
+import io.github.ollama4j.search.SimilarityMetric;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Latency of a top-100 query against an {@link IvfPqIndex} of 200,000 vectors of dimension 256, clustered around 256
+ * centroids, for several numbers of probed lists, and against an exact scan of the same vectors. The index is built by
+ * streaming the vectors in batches of 10,000. The size of the index files and the share of queries whose exact nearest
+ * neighbour is among the first 10 and 100 hits are printed once per trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class IvfPqSearchBenchmark {
+
+    private static final int SIZE = 200_000;
+    private static final int DIMENSION = 256;
+    private static final int BATCH = 10_000;
+    private static final int K = 100;
+
+    @Param({"4", "16", "64"})
+    private int probes;
+
+    private Path directory;
+    private float[][] queries;
+    private FlatVectorStore exact;
+    private IvfPqIndex index;
+    private int next;
+
+    @Setup
+    public void setUp() throws IOException {
+        Random random = new Random(13);
+        float[][] centroids = new float[256][DIMENSION];
+        for (float[] centroid : centroids) {
+            for (int i = 0; i < DIMENSION; i++) {
+                centroid[i] = (float) random.nextGaussian();
+            }
+        }
+        exact = new FlatVectorStore(DIMENSION, SimilarityMetric.COSINE);
+        directory = Files.createTempDirectory("ivfpq");
+        IvfPqOptions options = IvfPqOptions.builder().lists(256).subspaces(32).build();
+        try (IvfPqBuilder builder = IvfPqBuilder.train(directory, batch(random, centroids), SimilarityMetric.COSINE, options)) {
+            for (int first = 0; first < SIZE; first += BATCH) {
+                FloatEmbeddings batch = batch(random, centroids);
+                exact.addAll(batch);
+                builder.addAll(batch);
+            }
+            index = builder.build();
+        }
+        queries = new float[256][];
+        for (int q = 0; q < queries.length; q++) {
+            // a stored vector is unit length: the noise has about the same length as the vector
+            queries[q] = exact.getVector(random.nextInt(SIZE));
+            for (int i = 0; i < DIMENSION; i++) {
+                queries[q][i] += (float) random.nextGaussian() / 16;
+            }
+        }
+        long bytes;
+        try (Stream<Path> files = Files.list(directory)) {
+            bytes = files.mapToLong(file -> file.toFile().length()).sum();
+        }
+        int found10 = 0;
+        int found100 = 0;
+        for (float[] query : queries) {
+            int nearest = exact.search(query, 1).get(0).getId();
+            List<SearchHit> hits = index.search(query, K, probes);
+            int rank = hits.stream().filter(hit -> hit.getId() == nearest).findFirst().map(hits::indexOf).orElse(K);
+            found10 += rank < 10 ? 1 : 0;
+            found100 += rank < K ? 1 : 0;
+        }
+        System.out.printf("%nfloat: %d MB, index files: %d MB, probes %d: recall 1@10 %.3f, 1@100 %.3f%n",
+                (long) SIZE * DIMENSION * Float.BYTES >> 20, bytes >> 20, probes,
+                found10 / (double) queries.length, found100 / (double) queries.length);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        index.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public List<SearchHit> exactFloat() {
+        return exact.search(nextQuery(), K);
+    }
+
+    @Benchmark
+    public List<SearchHit> ivfPq() {
+        return index.search(nextQuery(), K, probes);
+    }
+
+    private float[] nextQuery() {
+        return queries[next++ & (queries.length - 1)];
+    }
+
+    private static FloatEmbeddings batch(Random random, float[][] centroids) {
+        float[] data = new float[BATCH * DIMENSION];
+        for (int v = 0; v < BATCH; v++) {
+            float[] centroid = centroids[random.nextInt(centroids.length)];
+            for (int i = 0; i < DIMENSION; i++) {
+                data[v * DIMENSION + i] = centroid[i] + (float) random.nextGaussian();
+            }
+        }
+        return new FloatEmbeddings(data, BATCH, DIMENSION);
+    }
+}
@@ -0,0 +1,94 @@
+package io.github.ollama4j.benchmarks;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectReader;
+import io.github.ollama4j.OllamaAPI;
+import io.github.ollama4j.models.generate.OllamaGenerateResponseModel;
+import io.github.ollama4j.models.response.OllamaResult;
+import io.github.ollama4j.utils.OptionsBuilder;
+import io.github.ollama4j.utils.Utils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares reading a streamed generate response line by line and parsing every line from a {@link String} with
+ * parsing the byte stream directly through a {@link MappingIterator}. Run with {@code -prof gc} (the default of the
+ * {@code benchmarks} profile) to compare allocation rates. {@link #generateThroughStubServer()} measures a whole
+ * synchronous generate call against an in-process stub server.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NdjsonParsingBenchmark {
+
+    @Param({"10", "1000"})
+    private int parts;
+
+    private byte[] response;
+    private ObjectReader reader;
+    private StubOllamaServer server;
+    private OllamaAPI ollamaAPI;
+
+    @Setup
+    public void setUp() throws IOException {
+        response = StubOllamaServer.generateResponse(parts).getBytes(StandardCharsets.UTF_8);
+        reader = Utils.getObjectMapper().readerFor(OllamaGenerateResponseModel.class);
+        server = new StubOllamaServer().respond("/api/generate", response);
+        ollamaAPI = new OllamaAPI(server.getHost());
+        ollamaAPI.setVerbose(false);
+    }
+
+    @TearDown
+    public void tearDown() {
+        server.close();
+    }
+
+    @Benchmark
+    public int readLineAndParseString() throws IOException {
+        int length = 0;
+        try (BufferedReader lines = new BufferedReader(new InputStreamReader(new ByteArrayInputStream(response), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = lines.readLine()) != null) {
+                OllamaGenerateResponseModel part = Utils.getObjectMapper().readValue(line, OllamaGenerateResponseModel.class);
+                length += part.getResponse().length();
+            }
+        }
+        return length;
+    }
+
+    @Benchmark
+    public int mappingIterator() throws IOException {
+        int length = 0;
+        try (MappingIterator<OllamaGenerateResponseModel> responseParts = reader.readValues(new ByteArrayInputStream(response))) {
+            while (responseParts.hasNextValue()) {
+                length += responseParts.nextValue().getResponse().length();
+            }
+        }
+        return length;
+    }
+
+    @Benchmark
+    public OllamaResult generateThroughStubServer() throws Exception {
+        return ollamaAPI.generate("llama3", "prompt", false, new OptionsBuilder().build(), null);
+    }
+}
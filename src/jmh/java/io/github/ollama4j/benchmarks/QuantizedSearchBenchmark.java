@@ -0,0 +1,127 @@
+package io.github.ollama4j.benchmarks;
+
+import io.github.ollama4j.models.embeddings.FloatEmbeddings;
+import io.github.ollama4j.search.FlatVectorStore;
+import io.github.ollama4j.search.Quantization;
+import io.github.ollama4j.search.QuantizedVectorStore;
+import io.github.ollama4j.search.SearchHit;
+import io.github.ollama4j.search.SimilarityMetric;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Latency of a top-10 query over 50,000 vectors of dimension 768, clustered around 256 centroids: an exact scan of float
+ * vectors, and scans of int8 and binary codes that rescore their best candidates against the float vectors on disk.
+ * The memory taken by the vectors and the recall of the quantized stores are printed once per trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class QuantizedSearchBenchmark {
+
+    private static final int SIZE = 50_000;
+    private static final int DIMENSION = 768;
+    private static final int K = 10;
+
+    private Path directory;
+    private float[][] queries;
+    private FlatVectorStore exact;
+    private QuantizedVectorStore int8;
+    private QuantizedVectorStore binary;
+    private int next;
+
+    @Setup
+    public void setUp() throws IOException {
+        Random random = new Random(13);
+        float[][] centroids = new float[256][DIMENSION];
+        for (float[] centroid : centroids) {
+            for (int i = 0; i < DIMENSION; i++) {
+                centroid[i] = (float) random.nextGaussian();
+            }
+        }
+        float[] data = new float[SIZE * DIMENSION];
+        for (int v = 0; v < SIZE; v++) {
+            float[] centroid = centroids[random.nextInt(centroids.length)];
+            for (int i = 0; i < DIMENSION; i++) {
+                data[v * DIMENSION + i] = centroid[i] + (float) random.nextGaussian();
+            }
+        }
+        queries = new float[256][];
+        for (int q = 0; q < queries.length; q++) {
+            queries[q] = new float[DIMENSION];
+            System.arraycopy(data, random.nextInt(SIZE) * DIMENSION, queries[q], 0, DIMENSION);
+            for (int i = 0; i < DIMENSION; i++) {
+                queries[q][i] += (float) random.nextGaussian();
+            }
+        }
+        FloatEmbeddings embeddings = new FloatEmbeddings(data, SIZE, DIMENSION);
+        exact = new FlatVectorStore(DIMENSION, SimilarityMetric.COSINE);
+        exact.addAll(embeddings);
+        directory = Files.createTempDirectory("quantized");
+        int8 = QuantizedVectorStore.create(directory.resolve("int8"), DIMENSION, SimilarityMetric.COSINE, Quantization.INT8);
+        int8.addAll(embeddings);
+        binary = QuantizedVectorStore.create(directory.resolve("binary"), DIMENSION, SimilarityMetric.COSINE, Quantization.BINARY);
+        binary.addAll(embeddings);
+        System.out.printf("%nfloat: %d MB, int8: %d MB (recall@%d %.3f), binary: %d MB (recall@%d %.3f)%n",
+                (long) SIZE * DIMENSION * Float.BYTES >> 20, int8.getMemoryBytes() >> 20, K, recall(int8),
+                binary.getMemoryBytes() >> 20, K, recall(binary));
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        int8.close();
+        binary.close();
+        Files.delete(directory.resolve("int8"));
+        Files.delete(directory.resolve("binary"));
+        Files.delete(directory);
+    }
+
+    @Benchmark
+    public List<SearchHit> exactFloat() {
+        return exact.search(nextQuery(), K);
+    }
+
+    @Benchmark
+    public List<SearchHit> int8() {
+        return int8.search(nextQuery(), K);
+    }
+
+    @Benchmark
+    public List<SearchHit> binary() {
+        return binary.search(nextQuery(), K);
+    }
+
+    private float[] nextQuery() {
+        return queries[next++ & (queries.length - 1)];
+    }
+
+    private double recall(QuantizedVectorStore store) {
+        int found = 0;
+        for (float[] query : queries) {
+            Set<Integer> expected = exact.search(query, K).stream().map(SearchHit::getId).collect(Collectors.toSet());
+            found += (int) store.search(query, K).stream().filter(hit -> expected.contains(hit.getId())).count();
+        }
+        return found / (double) (queries.length * K);
+    }
+}
@@ -0,0 +1,67 @@
+package io.github.ollama4j.benchmarks;
+
+import io.github.ollama4j.OllamaAPI;
+import io.github.ollama4j.models.response.OllamaAsyncResultStreamer;
+import io.github.ollama4j.models.response.OllamaResultStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link OllamaResultStream#poll()} draining a batch of tokens, and draining an {@link OllamaAsyncResultStreamer} fed
+ * by an in-process stub server once the response is complete.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResultStreamBenchmark {
+
+    @Param({"16", "1024"})
+    private int tokens;
+
+    private StubOllamaServer server;
+    private OllamaAPI ollamaAPI;
+
+    @Setup
+    public void setUp() throws IOException {
+        server = new StubOllamaServer().respond("/api/generate", StubOllamaServer.generateResponse(tokens));
+        ollamaAPI = new OllamaAPI(server.getHost());
+        ollamaAPI.setVerbose(false);
+    }
+
+    @TearDown
+    public void tearDown() {
+        server.close();
+    }
+
+    @Benchmark
+    public String poll() {
+        OllamaResultStream stream = new OllamaResultStream();
+        for (int i = 0; i < tokens; i++) {
+            stream.add("token ");
+        }
+        return stream.poll();
+    }
+
+    @Benchmark
+    public String generateAsyncAndPoll() throws InterruptedException {
+        OllamaAsyncResultStreamer streamer = ollamaAPI.generateAsync("llama3", "prompt", false);
+        streamer.join();
+        return streamer.getStream().poll();
+    }
+}
@@ -0,0 +1,152 @@
+package io.github.ollama4j.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.sun.net.httpserver.HttpServer;
+import io.github.ollama4j.utils.Utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * In-process HTTP server answering Ollama API paths with canned response bodies, so benchmarks measure the client
+ * without a model running. Request bodies are read completely and discarded.
+ */
+public class StubOllamaServer implements AutoCloseable {
+
+    static {
+        // without TCP_NODELAY every response waits for the client's delayed ACK of the headers (~40 ms)
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final Object embedLock = new Object();
+
+    public StubOllamaServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 1024);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    /**
+     * Answers every request to the given path with status 200 and the given body.
+     *
+     * @param path         API path, e.g. {@code /api/chat}
+     * @param responseBody body sent for every request
+     * @return this server
+     */
+    public StubOllamaServer respond(String path, byte[] responseBody) {
+        server.createContext(path, exchange -> {
+            try (InputStream in = exchange.getRequestBody()) {
+                in.transferTo(OutputStream.nullOutputStream());
+            }
+            exchange.sendResponseHeaders(200, responseBody.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(responseBody);
+            }
+        });
+        return this;
+    }
+
+    public StubOllamaServer respond(String path, String responseBody) {
+        return respond(path, responseBody.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Answers '/api/embed' with one vector of the given dimension per input, after the given latency standing in for
+     * the fixed cost of a request to a model. Like a model runner, requests are processed one at a time.
+     *
+     * @param dimension dimension of the vectors
+     * @param latency   delay of every response in milliseconds
+     * @return this server
+     */
+    public StubOllamaServer respondToEmbed(int dimension, long latency) {
+        server.createContext("/api/embed", exchange -> {
+            JsonNode request = Utils.getObjectMapper().readTree(exchange.getRequestBody());
+            byte[] responseBody = embedResponse(request.get("input").size(), dimension).getBytes(StandardCharsets.UTF_8);
+            synchronized (embedLock) {
+                try {
+                    Thread.sleep(latency);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            exchange.sendResponseHeaders(200, responseBody.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(responseBody);
+            }
+        });
+        return this;
+    }
+
+    /**
+     * @return base URL to pass to {@link io.github.ollama4j.OllamaAPI}
+     */
+    public String getHost() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    /**
+     * Builds a streamed generate response of the given number of parts, the last one being {@code done}.
+     */
+    public static String generateResponse(int parts) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < parts; i++) {
+            builder.append("{\"model\":\"llama3\",\"created_at\":\"2024-01-01T00:00:00.000000Z\",\"response\":\"token ")
+                    .append(i)
+                    .append("\",\"done\":")
+                    .append(i == parts - 1)
+                    .append("}\n");
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Builds a streamed chat response of the given number of parts, the last one being {@code done}.
+     */
+    public static String chatResponse(int parts) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < parts; i++) {
+            builder.append("{\"model\":\"llama3\",\"created_at\":\"2024-01-01T00:00:00.000000Z\",\"message\":{\"role\":\"assistant\",\"content\":\"token ")
+                    .append(i)
+                    .append("\"},\"done\":")
+                    .append(i == parts - 1)
+                    .append("}\n");
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Builds an embed response with the given number of vectors of the given dimension.
+     */
+    public static String embedResponse(int vectors, int dimension) {
+        StringBuilder builder = new StringBuilder("{\"model\":\"nomic-embed-text\",\"embeddings\":[");
+        for (int v = 0; v < vectors; v++) {
+            builder.append(v == 0 ? "[" : ",[");
+            for (int d = 0; d < dimension; d++) {
+                if (d > 0) {
+                    builder.append(',');
+                }
+                builder.append(Math.sin(v * 31 + d) * 0.1);
+            }
+            builder.append(']');
+        }
+        return builder.append("],\"total_duration\":1000,\"load_duration\":10,\"prompt_eval_count\":")
+                .append(vectors)
+                .append('}')
+                .toString();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,95 @@
+package io.github.ollama4j.benchmarks;
+
+import com.sun.net.httpserver.HttpServer;
+import io.github.ollama4j.OllamaAPI;
+import io.github.ollama4j.utils.HttpClientOptions;
+import io.github.ollama4j.utils.OptionsBuilder;
+import io.github.ollama4j.utils.Utils;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the throughput of blocking {@link OllamaAPI#generate} calls issued from a fixed pool of platform threads
+ * against one virtual thread per call. A local stub server streams a fixed number of tokens with a delay between
+ * them, simulating long-running generations.
+ * <p>
+ * Not a JMH benchmark; build with {@code mvn -Pbenchmarks test-compile} and run with Java 21 or newer:
+ * {@code java -cp <test-classpath> io.github.ollama4j.benchmarks.VirtualThreadsBenchmark [calls] [platformThreads]}
+ */
+public class VirtualThreadsBenchmark {
+
+    private static final int TOKENS_PER_RESPONSE = 20;
+    private static final long TOKEN_DELAY_MILLIS = 10;
+
+    public static void main(String[] args) throws Exception {
+        int calls = args.length > 0 ? Integer.parseInt(args[0]) : 5_000;
+        int platformThreads = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+
+        HttpServer server = startStubServer();
+        String host = "http://localhost:" + server.getAddress().getPort();
+        try {
+            OllamaAPI platformAPI = new OllamaAPI(host, HttpClientOptions.builder().build());
+            platformAPI.setVerbose(false);
+            platformAPI.setRequestTimeoutSeconds(120);
+            report("platform threads (" + platformThreads + ")", calls,
+                    run(platformAPI, Executors.newFixedThreadPool(platformThreads), calls));
+
+            OllamaAPI virtualAPI = new OllamaAPI(host, HttpClientOptions.builder().virtualThreads(true).build());
+            virtualAPI.setVerbose(false);
+            virtualAPI.setRequestTimeoutSeconds(120);
+            report("virtual threads", calls, run(virtualAPI, Utils.newVirtualThreadPerTaskExecutor(), calls));
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    private static long run(OllamaAPI ollamaAPI, ExecutorService callers, int calls) throws Exception {
+        long start = System.nanoTime();
+        List<Future<?>> results = new ArrayList<>(calls);
+        for (int i = 0; i < calls; i++) {
+            results.add(callers.submit(() -> ollamaAPI.generate("stub", "prompt", false, new OptionsBuilder().build(), token -> {
+            })));
+        }
+        for (Future<?> result : results) {
+            result.get();
+        }
+        long elapsed = System.nanoTime() - start;
+        callers.shutdown();
+        callers.awaitTermination(1, TimeUnit.MINUTES);
+        return elapsed;
+    }
+
+    private static void report(String mode, int calls, long elapsedNanos) {
+        double seconds = elapsedNanos / 1e9;
+        System.out.printf("%-28s %6d calls in %7.2f s -> %8.1f calls/s%n", mode, calls, seconds, calls / seconds);
+    }
+
+    private static HttpServer startStubServer() throws Exception {
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 4096);
+        server.createContext("/api/generate", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream out = exchange.getResponseBody()) {
+                for (int i = 0; i < TOKENS_PER_RESPONSE; i++) {
+                    boolean done = i == TOKENS_PER_RESPONSE - 1;
+                    out.write(("{\"model\":\"stub\",\"response\":\"token \",\"done\":" + done + "}\n").getBytes(StandardCharsets.UTF_8));
+                    out.flush();
+                    Thread.sleep(TOKEN_DELAY_MILLIS);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+        return server;
+    }
+}
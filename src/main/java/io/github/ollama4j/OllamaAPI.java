@@ -1,5 +1,6 @@
 package io.github.ollama4j;
 
+import io.github.ollama4j.exceptions.ContextWindowExceededException;
 import io.github.ollama4j.exceptions.OllamaBaseException;
 import io.github.ollama4j.exceptions.RoleNotFoundException;
 import io.github.ollama4j.exceptions.ToolInvocationException;
@@ -8,8 +9,16 @@ import io.github.ollama4j.models.chat.*;
 import io.github.ollama4j.models.embeddings.OllamaEmbedRequestModel;
 import io.github.ollama4j.models.embeddings.OllamaEmbeddingResponseModel;
 import io.github.ollama4j.models.embeddings.OllamaEmbeddingsRequestModel;
+import io.github.ollama4j.models.embeddings.BulkEmbedOptions;
+import io.github.ollama4j.models.embeddings.BulkEmbedding;
+import io.github.ollama4j.models.embeddings.FloatEmbeddings;
+import io.github.ollama4j.models.embeddings.OllamaEmbedFloatResponseModel;
 import io.github.ollama4j.models.embeddings.OllamaEmbedResponseModel;
+import io.github.ollama4j.models.generate.GenerateSession;
 import io.github.ollama4j.models.generate.OllamaGenerateRequest;
+import io.github.ollama4j.models.generate.OllamaGenerateResponseModel;
+import io.github.ollama4j.models.generate.OllamaGenerateStreamObserver;
+import io.github.ollama4j.models.generate.OllamaStreamDeltaHandler;
 import io.github.ollama4j.models.generate.OllamaStreamHandler;
 import io.github.ollama4j.models.generate.OllamaTokenHandler;
 import io.github.ollama4j.models.ps.ModelsProcessResponse;
@@ -19,7 +28,13 @@ import io.github.ollama4j.tools.*;
 import io.github.ollama4j.tools.annotations.OllamaToolService;
 import io.github.ollama4j.tools.annotations.ToolProperty;
 import io.github.ollama4j.tools.annotations.ToolSpec;
+import io.github.ollama4j.utils.Base64Cache;
+import io.github.ollama4j.utils.ContextWindowGuard;
+import io.github.ollama4j.utils.HttpClientOptions;
+import io.github.ollama4j.utils.EmbeddingCache;
 import io.github.ollama4j.utils.Options;
+import io.github.ollama4j.utils.RequestCoalescer;
+import io.github.ollama4j.utils.ResponseCache;
 import io.github.ollama4j.utils.Utils;
 import lombok.Setter;
 
@@ -33,10 +48,17 @@ import java.net.http.HttpClient;
 import java.net.http.HttpConnectTimeoutException;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
@@ -74,11 +96,95 @@ public class OllamaAPI {
 
     private final ToolRegistry toolRegistry = new ToolRegistry();
 
+    /**
+     * -- SETTER --
+     * Set the HTTP client shared by all requests of this instance. Idle connections of the client are pooled
+     * and reused, so the same client should be kept for the lifetime of the application.
+     */
+    @Setter
+    private HttpClient httpClient;
+
+    /**
+     * -- SETTER --
+     * Set the executor for background work of this instance: running the {@link OllamaAsyncResultStreamer} of
+     * {@link #generateAsync(String, String, boolean)} and invoking the tools requested by the model in chat calls.
+     * If not set, the streamer runs on its own platform thread and tools are invoked on the calling thread.
+     * <p>
+     * The executor is also the default of the helpers that send blocking requests in the background, see
+     * {@link #getTaskExecutor()}.
+     */
+    @Setter
+    private Executor taskExecutor;
+
+    /**
+     * -- SETTER --
+     * Coalesce identical concurrent generate, chat and embed calls: while a request is in flight, identical requests
+     * from other threads attach to it and receive the same result and streamed tokens instead of being sent to the
+     * server again. Disabled by default.
+     */
+    @Setter
+    private boolean coalesceRequests;
+
+    private final RequestCoalescer requestCoalescer = new RequestCoalescer();
+
+    /**
+     * -- SETTER --
+     * Cache for the responses of deterministic generate and chat requests, i.e. requests whose options set a
+     * {@code seed} and a {@code temperature} of 0. Cached responses are keyed by the request and the digest of the
+     * model, so they are not used anymore once the model is changed; see {@link ResponseCache#tiered(int, Path)} for
+     * a cache surviving restarts. Null (the default) disables caching.
+     */
+    @Setter
+    private ResponseCache responseCache;
+
+    /**
+     * -- SETTER --
+     * Persistent cache of embedding vectors used by {@link #embedFloats(OllamaEmbedRequestModel)},
+     * {@link #embed(OllamaEmbedRequestModel)} and the bulk and batched embedding built on them: inputs whose vector is
+     * cached for the current digest of the model are not sent to the server. The cache stores vectors with float
+     * precision, so while it is set {@link #embed(OllamaEmbedRequestModel)} returns all vectors, cached or not, with
+     * float precision. Null (the default) disables caching.
+     */
+    @Setter
+    private EmbeddingCache embeddingCache;
+
+    /**
+     * -- SETTER --
+     * How long the digests of the local models, which key the response and embedding caches, are reused before they
+     * are listed again. Models missing from the listed digests, and a failed request of a cache-enabled call, list them
+     * again right away. Defaults to 30 seconds.
+     */
+    @Setter
+    private Duration modelDigestTtl = Duration.ofSeconds(30);
+
+    /**
+     * -- SETTER --
+     * Guard keeping chat requests within the context window of the model: requests estimated to exceed {@code num_ctx}
+     * are rejected, trimmed or compacted before they are sent, see {@link ContextWindowGuard}. Null (the default)
+     * sends requests as they are.
+     */
+    @Setter
+    private ContextWindowGuard contextWindowGuard;
+
+    /**
+     * -- SETTER --
+     * Cache of the base64 encodings of large images sent with generate and chat requests, so an image resent with
+     * every turn of a chat history is encoded only once, see {@link Base64Cache}. Null (the default) encodes every
+     * image.
+     */
+    @Setter
+    private Base64Cache base64Cache;
+
+    private final Map<String, String> modelDigests = new ConcurrentHashMap<>();
+
+    private final Object modelDigestLock = new Object();
+    private volatile ModelDigests knownModelDigests;
+
     /**
      * Instantiates the Ollama API with default Ollama host: <a href="http://localhost:11434">http://localhost:11434</a>
      **/
     public OllamaAPI() {
-        this.host = "http://localhost:11434";
+        this("http://localhost:11434");
     }
 
     /**
@@ -87,11 +193,36 @@ public class OllamaAPI {
      * @param host the host address of Ollama server
      */
     public OllamaAPI(String host) {
+        this(host, HttpClientOptions.builder().build().createHttpClient());
+    }
+
+    /**
+     * Instantiates the Ollama API with specified Ollama host address and a client created from the given options.
+     *
+     * @param host              the host address of Ollama server
+     * @param httpClientOptions options used to create the shared HTTP client
+     */
+    public OllamaAPI(String host, HttpClientOptions httpClientOptions) {
+        this(host, httpClientOptions.createHttpClient());
+        this.base64Cache = httpClientOptions.getBase64Cache();
+        if (httpClientOptions.isVirtualThreads()) {
+            this.taskExecutor = Utils.newVirtualThreadPerTaskExecutor();
+        }
+    }
+
+    /**
+     * Instantiates the Ollama API with specified Ollama host address and HTTP client.
+     *
+     * @param host       the host address of Ollama server
+     * @param httpClient the HTTP client shared by all requests of this instance
+     */
+    public OllamaAPI(String host, HttpClient httpClient) {
         if (host.endsWith("/")) {
             this.host = host.substring(0, host.length() - 1);
         } else {
             this.host = host;
         }
+        this.httpClient = httpClient;
     }
 
     /**
@@ -104,6 +235,19 @@ public class OllamaAPI {
         this.basicAuth = new BasicAuth(username, password);
     }
 
+    /**
+     * Returns the executor that blocking background work on behalf of this instance runs on: the chunks of
+     * {@link #embedBulk(String, List, BulkEmbedOptions)}, the batches of an
+     * {@link io.github.ollama4j.utils.EmbeddingBatcher} and the summaries of a
+     * {@link io.github.ollama4j.models.chat.ConversationMemory}, unless they are given an executor of their own.
+     *
+     * @return the executor set with {@link #setTaskExecutor(Executor)}, or else the pool of daemon threads shared by the
+     * library
+     */
+    public Executor getTaskExecutor() {
+        return taskExecutor != null ? taskExecutor : Utils.getSharedExecutor();
+    }
+
     /**
      * API to check the reachability of Ollama server.
      *
@@ -111,7 +255,6 @@ public class OllamaAPI {
      */
     public boolean ping() {
         String url = this.host + "/api/tags";
-        HttpClient httpClient = HttpClient.newHttpClient();
         HttpRequest httpRequest = null;
         try {
             httpRequest = getRequestBuilderDefault(new URI(url)).header("Accept", "application/json").header("Content-type", "application/json").GET().build();
@@ -120,7 +263,7 @@ public class OllamaAPI {
         }
         HttpResponse<String> response = null;
         try {
-            response = httpClient.send(httpRequest, HttpResponse.BodyHandlers.ofString());
+            response = this.httpClient.send(httpRequest, HttpResponse.BodyHandlers.ofString());
         } catch (HttpConnectTimeoutException e) {
             return false;
         } catch (IOException | InterruptedException e) {
@@ -140,7 +283,6 @@ public class OllamaAPI {
      */
     public ModelsProcessResponse ps() throws IOException, InterruptedException, OllamaBaseException {
         String url = this.host + "/api/ps";
-        HttpClient httpClient = HttpClient.newHttpClient();
         HttpRequest httpRequest = null;
         try {
             httpRequest = getRequestBuilderDefault(new URI(url)).header("Accept", "application/json").header("Content-type", "application/json").GET().build();
@@ -148,7 +290,7 @@ public class OllamaAPI {
             throw new RuntimeException(e);
         }
         HttpResponse<String> response = null;
-        response = httpClient.send(httpRequest, HttpResponse.BodyHandlers.ofString());
+        response = this.httpClient.send(httpRequest, HttpResponse.BodyHandlers.ofString());
         int statusCode = response.statusCode();
         String responseString = response.body();
         if (statusCode == 200) {
@@ -169,9 +311,8 @@ public class OllamaAPI {
      */
     public List<Model> listModels() throws OllamaBaseException, IOException, InterruptedException, URISyntaxException {
         String url = this.host + "/api/tags";
-        HttpClient httpClient = HttpClient.newHttpClient();
         HttpRequest httpRequest = getRequestBuilderDefault(new URI(url)).header("Accept", "application/json").header("Content-type", "application/json").GET().build();
-        HttpResponse<String> response = httpClient.send(httpRequest, HttpResponse.BodyHandlers.ofString());
+        HttpResponse<String> response = this.httpClient.send(httpRequest, HttpResponse.BodyHandlers.ofString());
         int statusCode = response.statusCode();
         String responseString = response.body();
         if (statusCode == 200) {
@@ -193,9 +334,8 @@ public class OllamaAPI {
      */
     public List<LibraryModel> listModelsFromLibrary() throws OllamaBaseException, IOException, InterruptedException, URISyntaxException {
         String url = "https://ollama.com/library";
-        HttpClient httpClient = HttpClient.newHttpClient();
         HttpRequest httpRequest = getRequestBuilderDefault(new URI(url)).header("Accept", "application/json").header("Content-type", "application/json").GET().build();
-        HttpResponse<String> response = httpClient.send(httpRequest, HttpResponse.BodyHandlers.ofString());
+        HttpResponse<String> response = this.httpClient.send(httpRequest, HttpResponse.BodyHandlers.ofString());
         int statusCode = response.statusCode();
         String responseString = response.body();
         List<LibraryModel> models = new ArrayList<>();
@@ -246,9 +386,8 @@ public class OllamaAPI {
      */
     public LibraryModelDetail getLibraryModelDetails(LibraryModel libraryModel) throws OllamaBaseException, IOException, InterruptedException, URISyntaxException {
         String url = String.format("https://ollama.com/library/%s/tags", libraryModel.getName());
-        HttpClient httpClient = HttpClient.newHttpClient();
         HttpRequest httpRequest = getRequestBuilderDefault(new URI(url)).header("Accept", "application/json").header("Content-type", "application/json").GET().build();
-        HttpResponse<String> response = httpClient.send(httpRequest, HttpResponse.BodyHandlers.ofString());
+        HttpResponse<String> response = this.httpClient.send(httpRequest, HttpResponse.BodyHandlers.ofString());
         int statusCode = response.statusCode();
         String responseString = response.body();
 
@@ -319,8 +458,7 @@ public class OllamaAPI {
         String url = this.host + "/api/pull";
         String jsonData = new ModelRequest(modelName).toString();
         HttpRequest request = getRequestBuilderDefault(new URI(url)).POST(HttpRequest.BodyPublishers.ofString(jsonData)).header("Accept", "application/json").header("Content-type", "application/json").build();
-        HttpClient client = HttpClient.newHttpClient();
-        HttpResponse<InputStream> response = client.send(request, HttpResponse.BodyHandlers.ofInputStream());
+        HttpResponse<InputStream> response = this.httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
         int statusCode = response.statusCode();
         InputStream responseBodyStream = response.body();
         String responseString = "";
@@ -369,8 +507,7 @@ public class OllamaAPI {
         String url = this.host + "/api/show";
         String jsonData = new ModelRequest(modelName).toString();
         HttpRequest request = getRequestBuilderDefault(new URI(url)).header("Accept", "application/json").header("Content-type", "application/json").POST(HttpRequest.BodyPublishers.ofString(jsonData)).build();
-        HttpClient client = HttpClient.newHttpClient();
-        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        HttpResponse<String> response = this.httpClient.send(request, HttpResponse.BodyHandlers.ofString());
         int statusCode = response.statusCode();
         String responseBody = response.body();
         if (statusCode == 200) {
@@ -396,8 +533,7 @@ public class OllamaAPI {
         String url = this.host + "/api/create";
         String jsonData = new CustomModelFilePathRequest(modelName, modelFilePath).toString();
         HttpRequest request = getRequestBuilderDefault(new URI(url)).header("Accept", "application/json").header("Content-Type", "application/json").POST(HttpRequest.BodyPublishers.ofString(jsonData, StandardCharsets.UTF_8)).build();
-        HttpClient client = HttpClient.newHttpClient();
-        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        HttpResponse<String> response = this.httpClient.send(request, HttpResponse.BodyHandlers.ofString());
         int statusCode = response.statusCode();
         String responseString = response.body();
         if (statusCode != 200) {
@@ -429,8 +565,7 @@ public class OllamaAPI {
         String url = this.host + "/api/create";
         String jsonData = new CustomModelFileContentsRequest(modelName, modelFileContents).toString();
         HttpRequest request = getRequestBuilderDefault(new URI(url)).header("Accept", "application/json").header("Content-Type", "application/json").POST(HttpRequest.BodyPublishers.ofString(jsonData, StandardCharsets.UTF_8)).build();
-        HttpClient client = HttpClient.newHttpClient();
-        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        HttpResponse<String> response = this.httpClient.send(request, HttpResponse.BodyHandlers.ofString());
         int statusCode = response.statusCode();
         String responseString = response.body();
         if (statusCode != 200) {
@@ -458,8 +593,7 @@ public class OllamaAPI {
         String url = this.host + "/api/create";
         String jsonData = customModelRequest.toString();
         HttpRequest request = getRequestBuilderDefault(new URI(url)).header("Accept", "application/json").header("Content-Type", "application/json").POST(HttpRequest.BodyPublishers.ofString(jsonData, StandardCharsets.UTF_8)).build();
-        HttpClient client = HttpClient.newHttpClient();
-        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        HttpResponse<String> response = this.httpClient.send(request, HttpResponse.BodyHandlers.ofString());
         int statusCode = response.statusCode();
         String responseString = response.body();
         if (statusCode != 200) {
@@ -487,8 +621,7 @@ public class OllamaAPI {
         String url = this.host + "/api/delete";
         String jsonData = new ModelRequest(modelName).toString();
         HttpRequest request = getRequestBuilderDefault(new URI(url)).method("DELETE", HttpRequest.BodyPublishers.ofString(jsonData, StandardCharsets.UTF_8)).header("Accept", "application/json").header("Content-type", "application/json").build();
-        HttpClient client = HttpClient.newHttpClient();
-        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        HttpResponse<String> response = this.httpClient.send(request, HttpResponse.BodyHandlers.ofString());
         int statusCode = response.statusCode();
         String responseBody = response.body();
         if (statusCode == 404 && responseBody.contains("model") && responseBody.contains("not found")) {
@@ -529,10 +662,9 @@ public class OllamaAPI {
     public List<Double> generateEmbeddings(OllamaEmbeddingsRequestModel modelRequest) throws IOException, InterruptedException, OllamaBaseException {
         URI uri = URI.create(this.host + "/api/embeddings");
         String jsonData = modelRequest.toString();
-        HttpClient httpClient = HttpClient.newHttpClient();
         HttpRequest.Builder requestBuilder = getRequestBuilderDefault(uri).header("Accept", "application/json").POST(HttpRequest.BodyPublishers.ofString(jsonData));
         HttpRequest request = requestBuilder.build();
-        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        HttpResponse<String> response = this.httpClient.send(request, HttpResponse.BodyHandlers.ofString());
         int statusCode = response.statusCode();
         String responseBody = response.body();
         if (statusCode == 200) {
@@ -559,6 +691,10 @@ public class OllamaAPI {
 
     /**
      * Generate embeddings using a {@link OllamaEmbedRequestModel}.
+     * <p>
+     * If an {@link #setEmbeddingCache(EmbeddingCache) embedding cache} is set, the vectors are looked up and cached as
+     * by {@link #embedFloats(OllamaEmbedRequestModel)} and returned with float precision, i.e. as the doubles nearest
+     * to the floats the cache stores. Otherwise they are returned exactly as sent by the server.
      *
      * @param modelRequest request for '/api/embed' endpoint
      * @return embeddings
@@ -567,23 +703,173 @@ public class OllamaAPI {
      * @throws InterruptedException if the operation is interrupted
      */
     public OllamaEmbedResponseModel embed(OllamaEmbedRequestModel modelRequest) throws IOException, InterruptedException, OllamaBaseException {
+        if (embeddingCache == null) {
+            return embedUncached(modelRequest, OllamaEmbedResponseModel.class);
+        }
+        // vectors sent by the server are widened from floats as well, so cached and fresh vectors are alike
+        OllamaEmbedFloatResponseModel floatResponse = embedFloats(modelRequest);
+        OllamaEmbedResponseModel response = new OllamaEmbedResponseModel();
+        response.setModel(floatResponse.getModel());
+        response.setEmbeddings(floatResponse.getEmbeddings().toLists());
+        response.setTotalDuration(floatResponse.getTotalDuration());
+        response.setLoadDuration(floatResponse.getLoadDuration());
+        response.setPromptEvalCount(floatResponse.getPromptEvalCount());
+        return response;
+    }
+
+    /**
+     * Generate embeddings using a {@link OllamaEmbedRequestModel}, decoding the vectors straight into a single
+     * {@code float[]} instead of lists of boxed doubles. Prefer this method for large batches, e.g. when ingesting
+     * documents.
+     *
+     * @param modelRequest request for '/api/embed' endpoint
+     * @return embeddings
+     * @throws OllamaBaseException  if the response indicates an error status
+     * @throws IOException          if an I/O error occurs during the HTTP request
+     * @throws InterruptedException if the operation is interrupted
+     */
+    public OllamaEmbedFloatResponseModel embedFloats(OllamaEmbedRequestModel modelRequest) throws IOException, InterruptedException, OllamaBaseException {
+        EmbeddingCache cache = embeddingCache;
+        if (cache != null) {
+            String digest = modelDigest(modelRequest.getModel());
+            if (digest != null) {
+                try {
+                    return embedWithCache(cache, digest, modelRequest);
+                } catch (OllamaBaseException e) {
+                    forgetModelDigests();
+                    throw e;
+                }
+            }
+        }
+        return embedUncached(modelRequest, OllamaEmbedFloatResponseModel.class);
+    }
+
+    /**
+     * Embeds a large number of texts in chunks sent in parallel, see {@link BulkEmbedding}. The returned iterator yields
+     * the vectors in input order as they become available.
+     *
+     * @param model   name of model to generate embeddings from
+     * @param inputs  texts to embed
+     * @param options chunking, parallelism, retry and progress settings
+     * @return iterator over the vectors of the texts
+     */
+    public BulkEmbedding embedBulk(String model, List<String> inputs, BulkEmbedOptions options) {
+        return new BulkEmbedding(inputs.iterator(), inputs.size(), chunk -> embedChunk(model, chunk, options), options, getTaskExecutor());
+    }
+
+    /**
+     * Embeds a large or unbounded sequence of texts in chunks sent in parallel, see {@link BulkEmbedding}. The texts are
+     * only read from the iterator as chunks are sent.
+     *
+     * @param model   name of model to generate embeddings from
+     * @param inputs  texts to embed
+     * @param options chunking, parallelism, retry and progress settings
+     * @return iterator over the vectors of the texts
+     */
+    public BulkEmbedding embedBulk(String model, Iterator<String> inputs, BulkEmbedOptions options) {
+        return new BulkEmbedding(inputs, -1, chunk -> embedChunk(model, chunk, options), options, getTaskExecutor());
+    }
+
+    private FloatEmbeddings embedChunk(String model, List<String> chunk, BulkEmbedOptions options) throws IOException, InterruptedException, OllamaBaseException {
+        OllamaEmbedRequestModel request = new OllamaEmbedRequestModel(model, chunk);
+        request.setOptions(options.getRequestOptions());
+        return embedFloats(request).getEmbeddings();
+    }
+
+    /**
+     * Looks up the vectors of all inputs in the cache, sends only the missing (distinct) inputs to the server, caches
+     * their vectors and merges them back in input order.
+     */
+    private OllamaEmbedFloatResponseModel embedWithCache(EmbeddingCache cache, String digest, OllamaEmbedRequestModel modelRequest) throws IOException, InterruptedException, OllamaBaseException {
+        List<String> inputs = modelRequest.getInput();
+        float[][] vectors = new float[inputs.size()][];
+        Map<String, List<Integer>> misses = new LinkedHashMap<>();
+        for (int i = 0; i < inputs.size(); i++) {
+            vectors[i] = cache.get(digest, inputs.get(i));
+            if (vectors[i] == null) {
+                misses.computeIfAbsent(inputs.get(i), input -> new ArrayList<>()).add(i);
+            }
+        }
+        OllamaEmbedFloatResponseModel response;
+        if (misses.isEmpty()) {
+            response = new OllamaEmbedFloatResponseModel();
+            response.setModel(modelRequest.getModel());
+        } else {
+            OllamaEmbedRequestModel missRequest = new OllamaEmbedRequestModel(modelRequest.getModel(), new ArrayList<>(misses.keySet()));
+            missRequest.setOptions(modelRequest.getOptions());
+            missRequest.setKeepAlive(modelRequest.getKeepAlive());
+            missRequest.setTruncate(modelRequest.getTruncate());
+            response = embedUncached(missRequest, OllamaEmbedFloatResponseModel.class);
+            FloatEmbeddings computed = response.getEmbeddings();
+            int missIndex = 0;
+            for (Map.Entry<String, List<Integer>> miss : misses.entrySet()) {
+                float[] vector = computed.getVector(missIndex++);
+                cache.put(digest, miss.getKey(), vector);
+                for (int index : miss.getValue()) {
+                    vectors[index] = vector;
+                }
+            }
+        }
+        int dimension = vectors.length > 0 ? vectors[0].length : 0;
+        float[] data = new float[vectors.length * dimension];
+        for (int i = 0; i < vectors.length; i++) {
+            if (vectors[i].length != dimension) {
+                throw new OllamaBaseException("Cached embedding of dimension " + vectors[i].length + " does not match dimension " + dimension);
+            }
+            System.arraycopy(vectors[i], 0, data, i * dimension, dimension);
+        }
+        response.setEmbeddings(new FloatEmbeddings(data, vectors.length, dimension));
+        return response;
+    }
+
+    private <T> T embedUncached(OllamaEmbedRequestModel modelRequest, Class<T> responseType) throws IOException, InterruptedException, OllamaBaseException {
+        if (coalesceRequests) {
+            return requestCoalescer.execute(RequestCoalescer.fingerprint("/api/embed#" + responseType.getSimpleName(), modelRequest), null,
+                    sink -> sendEmbedRequest(modelRequest, responseType));
+        }
+        return sendEmbedRequest(modelRequest, responseType);
+    }
+
+    private <T> T sendEmbedRequest(OllamaEmbedRequestModel modelRequest, Class<T> responseType) throws IOException, InterruptedException, OllamaBaseException {
         URI uri = URI.create(this.host + "/api/embed");
         String jsonData = Utils.getObjectMapper().writeValueAsString(modelRequest);
-        HttpClient httpClient = HttpClient.newHttpClient();
-
         HttpRequest request = HttpRequest.newBuilder(uri).header("Accept", "application/json").POST(HttpRequest.BodyPublishers.ofString(jsonData)).build();
 
-        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        // the vectors are parsed from the stream as it is received, the response body is never held as a String
+        HttpResponse<InputStream> response = this.httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
         int statusCode = response.statusCode();
-        String responseBody = response.body();
-
-        if (statusCode == 200) {
-            return Utils.getObjectMapper().readValue(responseBody, OllamaEmbedResponseModel.class);
-        } else {
-            throw new OllamaBaseException(statusCode + " - " + responseBody);
+        try (InputStream responseBody = response.body()) {
+            if (statusCode == 200) {
+                return Utils.getObjectMapper().readValue(responseBody, responseType);
+            } else {
+                throw new OllamaBaseException(statusCode + " - " + new String(responseBody.readAllBytes(), StandardCharsets.UTF_8));
+            }
         }
     }
 
+    /**
+     * Generate embeddings for a given text from a model without blocking the calling thread.
+     *
+     * @param model  name of model to generate embeddings from
+     * @param inputs text/s to generate embeddings for
+     * @return future completed with the embeddings; cancelling it aborts the HTTP request
+     */
+    public CompletableFuture<OllamaEmbedResponseModel> embedAsync(String model, List<String> inputs) {
+        return embedAsync(new OllamaEmbedRequestModel(model, inputs));
+    }
+
+    /**
+     * Generate embeddings using a {@link OllamaEmbedRequestModel} without blocking the calling thread.
+     *
+     * @param modelRequest request for '/api/embed' endpoint
+     * @return future completed with the embeddings, or failed with an {@link OllamaBaseException} if the response
+     * indicates an error status; cancelling it aborts the HTTP request
+     */
+    public CompletableFuture<OllamaEmbedResponseModel> embedAsync(OllamaEmbedRequestModel modelRequest) {
+        OllamaEmbedEndpointCaller requestCaller = new OllamaEmbedEndpointCaller(host, basicAuth, requestTimeoutSeconds, verbose, httpClient);
+        return requestCaller.callAsync(modelRequest);
+    }
+
     /**
      * Generate response for a question to a model running on Ollama server. This is a sync/blocking
      * call.
@@ -603,7 +889,29 @@ public class OllamaAPI {
         OllamaGenerateRequest ollamaRequestModel = new OllamaGenerateRequest(model, prompt);
         ollamaRequestModel.setRaw(raw);
         ollamaRequestModel.setOptions(options.getOptionsMap());
-        return generateSyncForOllamaRequestModel(ollamaRequestModel, streamHandler);
+        return generateSyncForOllamaRequestModel(ollamaRequestModel, streamObserver(streamHandler));
+    }
+
+    /**
+     * Generate response for a {@link OllamaGenerateRequest}, notifying the given observer of every streamed response
+     * part. Unlike a plain {@link OllamaStreamHandler}, the observer gives access to the text received so far through
+     * {@link OllamaGenerateStreamObserver#getResponse()}, e.g. for a {@link OllamaStreamDeltaHandler} that prints the
+     * new fragments and also needs the running text:
+     * <pre>{@code
+     * OllamaGenerateStreamObserver observer = new OllamaGenerateStreamObserver((OllamaStreamDeltaHandler) System.out::print);
+     * ollamaAPI.generateStreaming(request, observer);
+     * CharSequence text = observer.getResponse();
+     * }</pre>
+     *
+     * @param request        request object to be sent to the server; it is sent with the stream parameter set
+     * @param streamObserver observer of the streamed response parts
+     * @return OllamaResult that includes response text and time taken for response
+     * @throws OllamaBaseException  if the response indicates an error status
+     * @throws IOException          if an I/O error occurs during the HTTP request
+     * @throws InterruptedException if the operation is interrupted
+     */
+    public OllamaResult generateStreaming(OllamaGenerateRequest request, OllamaGenerateStreamObserver streamObserver) throws OllamaBaseException, IOException, InterruptedException {
+        return generateSyncForOllamaRequestModel(request, streamObserver);
     }
 
     /**
@@ -679,11 +987,107 @@ public class OllamaAPI {
         OllamaGenerateRequest ollamaRequestModel = new OllamaGenerateRequest(model, prompt);
         ollamaRequestModel.setRaw(raw);
         URI uri = URI.create(this.host + "/api/generate");
-        OllamaAsyncResultStreamer ollamaAsyncResultStreamer = new OllamaAsyncResultStreamer(getRequestBuilderDefault(uri), ollamaRequestModel, requestTimeoutSeconds);
-        ollamaAsyncResultStreamer.start();
+        OllamaAsyncResultStreamer ollamaAsyncResultStreamer = new OllamaAsyncResultStreamer(httpClient, getRequestBuilderDefault(uri), ollamaRequestModel, requestTimeoutSeconds);
+        if (taskExecutor != null) {
+            taskExecutor.execute(ollamaAsyncResultStreamer);
+        } else {
+            ollamaAsyncResultStreamer.start();
+        }
         return ollamaAsyncResultStreamer;
     }
 
+    /**
+     * Generate response for a question to a model running on Ollama server without blocking the calling thread.
+     * No thread is parked while the request is in flight.
+     *
+     * @param model         the ollama model to ask the question to
+     * @param prompt        the prompt/question text
+     * @param raw           if true no formatting will be applied to the prompt
+     * @param options       the Options object - <a
+     *                      href="https://github.com/jmorganca/ollama/blob/main/docs/modelfile.md#valid-parameters-and-values">More
+     *                      details on the options</a>
+     * @param streamHandler optional callback consumer that will be applied every time a streamed response is received. If not set, the stream parameter of the request is set to false.
+     * @return future completed with the {@link OllamaResult}; cancelling it aborts the HTTP request
+     */
+    public CompletableFuture<OllamaResult> generateAsync(String model, String prompt, boolean raw, Options options, OllamaStreamHandler streamHandler) {
+        OllamaGenerateRequest ollamaRequestModel = new OllamaGenerateRequest(model, prompt);
+        ollamaRequestModel.setRaw(raw);
+        ollamaRequestModel.setOptions(options.getOptionsMap());
+        return generateAsync(ollamaRequestModel, streamHandler);
+    }
+
+    /**
+     * Generate response for a {@link OllamaGenerateRequest} without blocking the calling thread.
+     *
+     * @param request       request object to be sent to the server
+     * @param streamHandler optional callback consumer that will be applied every time a streamed response is received. If not set, the stream parameter of the request is set to false.
+     * @return future completed with the {@link OllamaResult}, or failed with an {@link OllamaBaseException} if the
+     * response indicates an error status; cancelling it aborts the HTTP request
+     */
+    public CompletableFuture<OllamaResult> generateAsync(OllamaGenerateRequest request, OllamaStreamHandler streamHandler) {
+        OllamaGenerateEndpointCaller requestCaller = generateEndpointCaller();
+        request.setStream(streamHandler != null);
+        return requestCaller.callAsync(request, streamHandler);
+    }
+
+    /**
+     * Generate response for a {@link OllamaGenerateRequest} as a reactive stream of response parts. The request is
+     * sent once a subscriber subscribes. The response is read from the connection only as fast as the subscriber
+     * requests parts, so a slow consumer applies backpressure instead of having the response buffered.
+     *
+     * @param request request object to be sent to the server
+     * @return publisher of the streamed response parts, supporting a single subscriber
+     */
+    public Flow.Publisher<OllamaGenerateResponseModel> generateStream(OllamaGenerateRequest request) {
+        OllamaGenerateEndpointCaller requestCaller = generateEndpointCaller();
+        request.setStream(true);
+        return requestCaller.callStreaming(request);
+    }
+
+    /**
+     * Generate response for a {@link OllamaGenerateRequest} and return the last response part, holding the
+     * {@link OllamaGenerateResponseModel#getContext() context} to continue from and the token counts and durations of
+     * the request. The request is always sent: the {@link #responseCache} and {@link #coalesceRequests} do not apply.
+     *
+     * @param request       request object to be sent to the server
+     * @param streamHandler optional callback consumer that will be applied every time a streamed response is received. If not set, the stream parameter of the request is set to false.
+     * @return the last response part, with the whole response text
+     * @throws OllamaBaseException  if the response indicates an error status
+     * @throws IOException          if an I/O error occurs during the HTTP request
+     * @throws InterruptedException if the operation is interrupted
+     * @see GenerateSession
+     */
+    public OllamaGenerateResponseModel generateResponse(OllamaGenerateRequest request, OllamaStreamHandler streamHandler) throws OllamaBaseException, IOException, InterruptedException {
+        OllamaGenerateEndpointCaller requestCaller = generateEndpointCaller();
+        request.setStream(streamHandler != null);
+        OllamaGenerateResponseModel[] last = new OllamaGenerateResponseModel[1];
+        OllamaGenerateStreamObserver observer = new OllamaGenerateStreamObserver(streamHandler) {
+            @Override
+            public void notify(OllamaGenerateResponseModel currentResponsePart) {
+                last[0] = currentResponsePart;
+                super.notify(currentResponsePart);
+            }
+        };
+        requestCaller.call(request, observer);
+        if (last[0] == null) {
+            throw new OllamaBaseException("The response of the model is empty");
+        }
+        last[0].setResponse(observer.getResponse().toString());
+        return last[0];
+    }
+
+    /**
+     * Starts a {@link GenerateSession}: a conversation over the generate endpoint in which every prompt continues from
+     * the context of the previous response, so that the server evaluates only the new tokens.
+     *
+     * @param model   the ollama model to generate with
+     * @param options the options of every request of the session; may be null
+     * @return the session
+     */
+    public GenerateSession generateSession(String model, Options options) {
+        return new GenerateSession(this, model, options);
+    }
+
     /**
      * With one or more image files, ask a question to a model running on Ollama server. This is a
      * sync/blocking call.
@@ -701,13 +1105,14 @@ public class OllamaAPI {
      * @throws InterruptedException if the operation is interrupted
      */
     public OllamaResult generateWithImageFiles(String model, String prompt, List<File> imageFiles, Options options, OllamaStreamHandler streamHandler) throws OllamaBaseException, IOException, InterruptedException {
-        List<String> images = new ArrayList<>();
+        List<ImageAttachment> images = new ArrayList<>();
         for (File imageFile : imageFiles) {
-            images.add(encodeFileToBase64(imageFile));
+            images.add(ImageAttachment.of(imageFile.toPath()));
         }
-        OllamaGenerateRequest ollamaRequestModel = new OllamaGenerateRequest(model, prompt, images);
+        OllamaGenerateRequest ollamaRequestModel = new OllamaGenerateRequest(model, prompt);
+        ollamaRequestModel.setImageAttachments(images);
         ollamaRequestModel.setOptions(options.getOptionsMap());
-        return generateSyncForOllamaRequestModel(ollamaRequestModel, streamHandler);
+        return generateSyncForOllamaRequestModel(ollamaRequestModel, streamObserver(streamHandler));
     }
 
     /**
@@ -741,13 +1146,14 @@ public class OllamaAPI {
      * @throws URISyntaxException   if the URI for the request is malformed
      */
     public OllamaResult generateWithImageURLs(String model, String prompt, List<String> imageURLs, Options options, OllamaStreamHandler streamHandler) throws OllamaBaseException, IOException, InterruptedException, URISyntaxException {
-        List<String> images = new ArrayList<>();
+        List<ImageAttachment> images = new ArrayList<>();
         for (String imageURL : imageURLs) {
-            images.add(encodeByteArrayToBase64(Utils.loadImageBytesFromUrl(imageURL)));
+            images.add(ImageAttachment.of(ByteBuffer.wrap(Utils.loadImageBytesFromUrl(imageURL))));
         }
-        OllamaGenerateRequest ollamaRequestModel = new OllamaGenerateRequest(model, prompt, images);
+        OllamaGenerateRequest ollamaRequestModel = new OllamaGenerateRequest(model, prompt);
+        ollamaRequestModel.setImageAttachments(images);
         ollamaRequestModel.setOptions(options.getOptionsMap());
-        return generateSyncForOllamaRequestModel(ollamaRequestModel, streamHandler);
+        return generateSyncForOllamaRequestModel(ollamaRequestModel, streamObserver(streamHandler));
     }
 
     /**
@@ -826,7 +1232,8 @@ public class OllamaAPI {
      * Hint: the OllamaChatRequestModel#getStream() property is not implemented.
      *
      * @param request      request object to be sent to the server
-     * @param tokenHandler callback handler to handle the last token from stream (caution: all previous messages from stream will be concatenated)
+     * @param tokenHandler callback handler to handle the last token from stream (caution: all previous messages from stream will be concatenated);
+     *                     an {@link OllamaChatStreamObserver} also gives access to the message received so far
      * @return {@link OllamaChatResult}
      * @throws OllamaBaseException  any response code than 200 has been returned
      * @throws IOException          in case the responseStream can not be read
@@ -836,7 +1243,7 @@ public class OllamaAPI {
      * @throws InterruptedException if the operation is interrupted
      */
     public OllamaChatResult chatStreaming(OllamaChatRequest request, OllamaTokenHandler tokenHandler) throws OllamaBaseException, IOException, InterruptedException {
-        OllamaChatEndpointCaller requestCaller = new OllamaChatEndpointCaller(host, basicAuth, requestTimeoutSeconds, verbose);
+        OllamaChatEndpointCaller requestCaller = chatEndpointCaller();
         OllamaChatResult result;
 
         // add all registered tools to Request
@@ -844,28 +1251,16 @@ public class OllamaAPI {
 
         if (tokenHandler != null) {
             request.setStream(true);
-            result = requestCaller.call(request, tokenHandler);
-        } else {
-            result = requestCaller.callSync(request);
         }
+        result = callChat(requestCaller, request, tokenHandler);
 
         // check if toolCallIsWanted
         List<OllamaChatToolCalls> toolCalls = result.getResponseModel().getMessage().getToolCalls();
         int toolCallTries = 0;
         while (toolCalls != null && !toolCalls.isEmpty() && toolCallTries < maxChatToolCallRetries) {
-            for (OllamaChatToolCalls toolCall : toolCalls) {
-                String toolName = toolCall.getFunction().getName();
-                ToolFunction toolFunction = toolRegistry.getToolFunction(toolName);
-                Map<String, Object> arguments = toolCall.getFunction().getArguments();
-                Object res = toolFunction.apply(arguments);
-                request.getMessages().add(new OllamaChatMessage(OllamaChatMessageRole.TOOL, "[TOOL_RESULTS]" + toolName + "(" + arguments.keySet() + ") : " + res + "[/TOOL_RESULTS]"));
-            }
+            addToolResults(request, toolCalls);
 
-            if (tokenHandler != null) {
-                result = requestCaller.call(request, tokenHandler);
-            } else {
-                result = requestCaller.callSync(request);
-            }
+            result = callChat(requestCaller, request, tokenHandler);
             toolCalls = result.getResponseModel().getMessage().getToolCalls();
             toolCallTries++;
         }
@@ -873,6 +1268,102 @@ public class OllamaAPI {
         return result;
     }
 
+    private OllamaChatResult callChat(OllamaChatEndpointCaller requestCaller, OllamaChatRequest request, OllamaTokenHandler tokenHandler) throws OllamaBaseException, IOException, InterruptedException {
+        ContextWindowGuard guard = contextWindowGuard;
+        int promptTokens = guard != null ? guard.fit(request) : 0;
+        String cacheKey = responseCacheKey("/api/chat", request.getModel(), request.getOptions(), request);
+        if (cacheKey != null) {
+            String cached = responseCache.get(cacheKey);
+            if (cached != null) {
+                OllamaChatResponseModel responseModel = Utils.getObjectMapper().readValue(cached, OllamaChatResponseModel.class);
+                if (tokenHandler != null) {
+                    tokenHandler.accept(responseModel);
+                }
+                return new OllamaChatResult(responseModel, request.getMessages());
+            }
+        }
+        OllamaChatResult result;
+        try {
+            result = sendChatRequest(requestCaller, request, tokenHandler);
+        } catch (OllamaBaseException e) {
+            if (cacheKey != null) {
+                forgetModelDigests();
+            }
+            throw e;
+        }
+        if (guard != null) {
+            guard.calibrate(request.getModel(), promptTokens, result.getResponseModel());
+        }
+        if (cacheKey != null && result.getResponseModel() != null) {
+            responseCache.put(cacheKey, Utils.getObjectMapper().writeValueAsString(result.getResponseModel()));
+        }
+        return result;
+    }
+
+    private OllamaChatResult sendChatRequest(OllamaChatEndpointCaller requestCaller, OllamaChatRequest request, OllamaTokenHandler tokenHandler) throws OllamaBaseException, IOException, InterruptedException {
+        if (!coalesceRequests) {
+            return tokenHandler != null ? requestCaller.call(request, tokenHandler) : requestCaller.callSync(request);
+        }
+        OllamaChatResult result = requestCoalescer.execute(RequestCoalescer.fingerprint("/api/chat", request), tokenHandler,
+                (Consumer<OllamaChatResponseModel> sink) -> tokenHandler != null ? requestCaller.call(request, sink::accept) : requestCaller.callSync(request));
+        if (result.getChatHistory() != request.getMessages()) {
+            // attached to an identical request of another caller, append the shared answer to this caller's history
+            result = new OllamaChatResult(result.getResponseModel(), request.getMessages());
+        }
+        return result;
+    }
+
+    /**
+     * Ask a question to a model using an {@link OllamaChatRequest} and receive the answer as a reactive stream of
+     * response parts. The request is sent once a subscriber subscribes. The response is read from the connection
+     * only as fast as the subscriber requests parts, so a slow consumer applies backpressure.
+     * <p>
+     * Registered tools are not invoked; tool calls requested by the model are passed through in the messages of the
+     * response parts.
+     *
+     * @param request request object to be sent to the server
+     * @return publisher of the streamed response parts, supporting a single subscriber
+     */
+    public Flow.Publisher<OllamaChatResponseModel> chatStream(OllamaChatRequest request) {
+        OllamaChatEndpointCaller requestCaller = chatEndpointCaller();
+        request.setStream(true);
+        return requestCaller.callStreaming(request);
+    }
+
+    /**
+     * Ask a question to a model using an {@link OllamaChatRequest} without blocking the calling thread.
+     *
+     * @param request request object to be sent to the server
+     * @return future completed with the {@link OllamaChatResult}; cancelling it aborts the HTTP request
+     */
+    public CompletableFuture<OllamaChatResult> chatAsync(OllamaChatRequest request) {
+        return chatAsync(request, null);
+    }
+
+    /**
+     * Ask a question to a model using an {@link OllamaChatRequest} without blocking the calling thread. Tool calls
+     * requested by the model are invoked when the response arrives and the follow-up request is sent asynchronously
+     * as well.
+     *
+     * @param request      request object to be sent to the server
+     * @param tokenHandler optional callback handler to handle the last token from stream
+     * @return future completed with the {@link OllamaChatResult}, or failed with an {@link OllamaBaseException} if
+     * the response indicates an error status; cancelling it aborts the HTTP request
+     */
+    public CompletableFuture<OllamaChatResult> chatAsync(OllamaChatRequest request, OllamaTokenHandler tokenHandler) {
+        OllamaChatEndpointCaller requestCaller = chatEndpointCaller();
+
+        // add all registered tools to Request
+        request.setTools(toolRegistry.getRegisteredSpecs().stream().map(Tools.ToolSpecification::getToolPrompt).collect(Collectors.toList()));
+        if (tokenHandler != null) {
+            request.setStream(true);
+        }
+
+        CompletableFuture<OllamaChatResult> result = new CompletableFuture<>();
+        chatAsync(requestCaller, request, tokenHandler, 0, result);
+        return result;
+    }
+
     /**
      * Registers a single tool in the tool registry using the provided tool specification.
      *
@@ -1006,52 +1497,166 @@ public class OllamaAPI {
 
     // technical private methods //
 
-    /**
-     * Utility method to encode a file into a Base64 encoded string.
-     *
-     * @param file the file to be encoded into Base64.
-     * @return a Base64 encoded string representing the contents of the file.
-     * @throws IOException if an I/O error occurs during reading the file.
-     */
-    private static String encodeFileToBase64(File file) throws IOException {
-        return Base64.getEncoder().encodeToString(Files.readAllBytes(file.toPath()));
-    }
-
-    /**
-     * Utility method to encode a byte array into a Base64 encoded string.
-     *
-     * @param bytes the byte array to be encoded into Base64.
-     * @return a Base64 encoded string representing the byte array.
-     */
-    private static String encodeByteArrayToBase64(byte[] bytes) {
-        return Base64.getEncoder().encodeToString(bytes);
-    }
-
     /**
      * Generates a request for the Ollama API and returns the result.
      * This method synchronously calls the Ollama API. If a stream handler is provided,
      * the request will be streamed; otherwise, a regular synchronous request will be made.
      *
      * @param ollamaRequestModel the request model containing necessary parameters for the Ollama API request.
-     * @param streamHandler      the stream handler to process streaming responses, or null for non-streaming requests.
+     * @param streamObserver     the observer of streaming responses, or null for non-streaming requests.
      * @return the result of the Ollama API request.
      * @throws OllamaBaseException  if the request fails due to an issue with the Ollama API.
      * @throws IOException          if an I/O error occurs during the request process.
      * @throws InterruptedException if the thread is interrupted during the request.
      */
-    private OllamaResult generateSyncForOllamaRequestModel(OllamaGenerateRequest ollamaRequestModel, OllamaStreamHandler streamHandler) throws OllamaBaseException, IOException, InterruptedException {
-        OllamaGenerateEndpointCaller requestCaller = new OllamaGenerateEndpointCaller(host, basicAuth, requestTimeoutSeconds, verbose);
-        OllamaResult result;
-        if (streamHandler != null) {
+    private OllamaResult generateSyncForOllamaRequestModel(OllamaGenerateRequest ollamaRequestModel, OllamaGenerateStreamObserver streamObserver) throws OllamaBaseException, IOException, InterruptedException {
+        if (streamObserver != null) {
             ollamaRequestModel.setStream(true);
-            result = requestCaller.call(ollamaRequestModel, streamHandler);
+        }
+        String cacheKey = responseCacheKey("/api/generate", ollamaRequestModel.getModel(), ollamaRequestModel.getOptions(), ollamaRequestModel);
+        if (cacheKey != null) {
+            String cached = responseCache.get(cacheKey);
+            if (cached != null) {
+                OllamaResult result = Utils.getObjectMapper().readValue(cached, OllamaResult.class);
+                if (streamObserver != null) {
+                    // replay the cached response as a single, final response part
+                    OllamaGenerateResponseModel responsePart = new OllamaGenerateResponseModel();
+                    responsePart.setModel(ollamaRequestModel.getModel());
+                    responsePart.setResponse(result.getResponse());
+                    responsePart.setDone(true);
+                    streamObserver.notify(responsePart);
+                }
+                return result;
+            }
+        }
+        OllamaResult result;
+        try {
+            result = sendGenerateRequest(ollamaRequestModel, streamObserver);
+        } catch (OllamaBaseException e) {
+            if (cacheKey != null) {
+                forgetModelDigests();
+            }
+            throw e;
+        }
+        if (cacheKey != null) {
+            responseCache.put(cacheKey, Utils.getObjectMapper().writeValueAsString(result));
+        }
+        return result;
+    }
+
+    private static OllamaGenerateStreamObserver streamObserver(OllamaStreamHandler streamHandler) {
+        return streamHandler != null ? new OllamaGenerateStreamObserver(streamHandler) : null;
+    }
+
+    private OllamaResult sendGenerateRequest(OllamaGenerateRequest ollamaRequestModel, OllamaGenerateStreamObserver observer) throws OllamaBaseException, IOException, InterruptedException {
+        OllamaGenerateEndpointCaller requestCaller = generateEndpointCaller();
+        OllamaResult result;
+        if (!coalesceRequests) {
+            result = observer != null ? requestCaller.call(ollamaRequestModel, observer) : requestCaller.callSync(ollamaRequestModel);
         } else {
-            result = requestCaller.callSync(ollamaRequestModel);
+            result = requestCoalescer.execute(RequestCoalescer.fingerprint("/api/generate", ollamaRequestModel), observer != null ? observer::notify : null,
+                    (Consumer<OllamaGenerateResponseModel> sink) -> observer != null
+                            ? requestCaller.call(ollamaRequestModel, OllamaGenerateStreamObserver.ofParts(sink))
+                            : requestCaller.callSync(ollamaRequestModel));
         }
         return result;
     }
 
 
+    /**
+     * Computes the key of a request in the {@link #responseCache}, made up of the model, its current digest and a
+     * fingerprint of the request. Cached responses of the model are invalidated when its digest has changed.
+     *
+     * @return the key, or null if there is no cache, the request is not deterministic or the model is unknown
+     */
+    private String responseCacheKey(String endpoint, String model, Map<String, Object> options, Object request) throws OllamaBaseException, IOException, InterruptedException {
+        ResponseCache cache = responseCache;
+        if (cache == null || options == null || !options.containsKey("seed")
+                || !(options.get("temperature") instanceof Number) || ((Number) options.get("temperature")).doubleValue() != 0) {
+            return null;
+        }
+        String digest = modelDigest(model);
+        if (digest == null) {
+            return null;
+        }
+        String previousDigest = modelDigests.put(model, digest);
+        if (previousDigest != null && !previousDigest.equals(digest)) {
+            cache.invalidate(model + "@");
+        }
+        return model + "@" + digest + "/" + RequestCoalescer.fingerprint(endpoint, request);
+    }
+
+    /**
+     * Looks up the digest of a model in the digests listed within the last {@link #modelDigestTtl}, and lists them again
+     * if they are older or do not include the model. Concurrent callers wait for a single listing.
+     *
+     * @param model name of the model, with or without tag
+     * @return the current digest of the local model, or null if there is no such model
+     */
+    private String modelDigest(String model) throws OllamaBaseException, IOException, InterruptedException {
+        ModelDigests known = knownModelDigests;
+        if (known != null && System.nanoTime() - known.listedAt < modelDigestTtl.toNanos()) {
+            String digest = known.get(model);
+            if (digest != null) {
+                return digest;
+            }
+        }
+        synchronized (modelDigestLock) {
+            ModelDigests current = knownModelDigests;
+            if (current != null && current != known) {
+                // listed by another caller meanwhile
+                return current.get(model);
+            }
+            try {
+                current = new ModelDigests(listModels());
+            } catch (URISyntaxException e) {
+                throw new OllamaBaseException(e.getMessage());
+            }
+            knownModelDigests = current;
+            return current.get(model);
+        }
+    }
+
+    /**
+     * Makes the next cache lookup list the digests of the models again, e.g. after a request failed because a model was
+     * removed or replaced.
+     */
+    private void forgetModelDigests() {
+        knownModelDigests = null;
+    }
+
+    /**
+     * The digests of the local models at the time they were listed.
+     */
+    private static final class ModelDigests {
+
+        private final Map<String, String> digests = new HashMap<>();
+        private final long listedAt = System.nanoTime();
+
+        ModelDigests(List<Model> models) {
+            for (Model model : models) {
+                digests.put(model.getName(), model.getDigest());
+            }
+        }
+
+        String get(String model) {
+            String digest = digests.get(model);
+            return digest != null ? digest : digests.get(model + ":latest");
+        }
+    }
+
+    private OllamaChatEndpointCaller chatEndpointCaller() {
+        OllamaChatEndpointCaller requestCaller = new OllamaChatEndpointCaller(host, basicAuth, requestTimeoutSeconds, verbose, httpClient);
+        requestCaller.setBase64Cache(base64Cache);
+        return requestCaller;
+    }
+
+    private OllamaGenerateEndpointCaller generateEndpointCaller() {
+        OllamaGenerateEndpointCaller requestCaller = new OllamaGenerateEndpointCaller(host, basicAuth, requestTimeoutSeconds, verbose, httpClient);
+        requestCaller.setBase64Cache(base64Cache);
+        return requestCaller;
+    }
+
     /**
      * Get default request builder.
      *
@@ -1085,6 +1690,75 @@ public class OllamaAPI {
         return basicAuth != null;
     }
 
+    /**
+     * Sends one chat request and, if the model asks for tool calls, invokes them and sends the follow-up request
+     * until no more tool calls are wanted or {@link #maxChatToolCallRetries} is reached.
+     */
+    private void chatAsync(OllamaChatEndpointCaller requestCaller, OllamaChatRequest request, OllamaTokenHandler tokenHandler, int toolCallTries, CompletableFuture<OllamaChatResult> result) {
+        ContextWindowGuard guard = contextWindowGuard;
+        int promptTokens;
+        try {
+            promptTokens = guard != null ? guard.fit(request) : 0;
+        } catch (ContextWindowExceededException e) {
+            result.completeExceptionally(e);
+            return;
+        }
+        CompletableFuture<OllamaChatResult> call = requestCaller.callAsync(request, tokenHandler);
+        Utils.propagateCancellation(result, call);
+        call.whenComplete((chatResult, throwable) -> {
+            if (throwable != null) {
+                result.completeExceptionally(throwable);
+                return;
+            }
+            if (guard != null) {
+                guard.calibrate(request.getModel(), promptTokens, chatResult.getResponseModel());
+            }
+            List<OllamaChatToolCalls> toolCalls = chatResult.getResponseModel().getMessage().getToolCalls();
+            if (toolCalls == null || toolCalls.isEmpty() || toolCallTries >= maxChatToolCallRetries) {
+                result.complete(chatResult);
+                return;
+            }
+            try {
+                addToolResults(request, toolCalls);
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+                return;
+            }
+            chatAsync(requestCaller, request, tokenHandler, toolCallTries + 1, result);
+        });
+    }
+
+    /**
+     * Invokes the tools requested by the model and adds their results to the messages of the request. If a
+     * {@link #taskExecutor} is set, the tools are invoked concurrently on it.
+     *
+     * @param request   request to add the tool results to
+     * @param toolCalls tool calls requested by the model
+     */
+    private void addToolResults(OllamaChatRequest request, List<OllamaChatToolCalls> toolCalls) {
+        List<CompletableFuture<Object>> toolResults = new ArrayList<>();
+        for (OllamaChatToolCalls toolCall : toolCalls) {
+            ToolFunction toolFunction = toolRegistry.getToolFunction(toolCall.getFunction().getName());
+            Map<String, Object> arguments = toolCall.getFunction().getArguments();
+            if (taskExecutor != null) {
+                toolResults.add(CompletableFuture.supplyAsync(() -> toolFunction.apply(arguments), taskExecutor));
+            } else {
+                toolResults.add(CompletableFuture.completedFuture(toolFunction.apply(arguments)));
+            }
+        }
+        for (int i = 0; i < toolCalls.size(); i++) {
+            String toolName = toolCalls.get(i).getFunction().getName();
+            Map<String, Object> arguments = toolCalls.get(i).getFunction().getArguments();
+            Object res;
+            try {
+                res = toolResults.get(i).join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+            }
+            request.getMessages().add(new OllamaChatMessage(OllamaChatMessageRole.TOOL, "[TOOL_RESULTS]" + toolName + "(" + arguments.keySet() + ") : " + res + "[/TOOL_RESULTS]"));
+        }
+    }
+
     private Object invokeTool(ToolFunctionCallSpec toolFunctionCallSpec) throws ToolInvocationException {
         try {
             String methodName = toolFunctionCallSpec.getName();
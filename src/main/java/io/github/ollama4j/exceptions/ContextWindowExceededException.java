@@ -0,0 +1,20 @@
+package io.github.ollama4j.exceptions;
+
+import lombok.Getter;
+
+/**
+ * Thrown when a request is estimated not to fit the context window of the model, and cannot be trimmed to fit.
+ */
+@Getter
+public class ContextWindowExceededException extends OllamaBaseException {
+
+    private final int estimatedTokens;
+    private final int availableTokens;
+
+    public ContextWindowExceededException(int estimatedTokens, int availableTokens) {
+        super("The request takes an estimated " + estimatedTokens + " tokens, but only " + availableTokens
+                + " tokens of the context window are left for the prompt");
+        this.estimatedTokens = estimatedTokens;
+        this.availableTokens = availableTokens;
+    }
+}
@@ -1,14 +1,18 @@
 package io.github.ollama4j.impl;
 
-import io.github.ollama4j.models.generate.OllamaStreamHandler;
+import io.github.ollama4j.models.generate.OllamaStreamDeltaHandler;
 
-public class ConsoleOutputStreamHandler implements OllamaStreamHandler {
-    private final StringBuffer response = new StringBuffer();
+/**
+ * Prints a streamed response to the console as it arrives.
+ * <p>
+ * This is an {@link OllamaStreamDeltaHandler}: it is called with each new fragment of the response. It used to be a
+ * plain {@link io.github.ollama4j.models.generate.OllamaStreamHandler} called with the whole response received so far,
+ * so subclasses overriding {@link #accept(String)} now receive fragments instead of the accumulated text.
+ */
+public class ConsoleOutputStreamHandler implements OllamaStreamDeltaHandler {
 
     @Override
-    public void accept(String message) {
-        String substr = message.substring(response.length());
-        response.append(substr);
-        System.out.print(substr);
+    public void accept(String delta) {
+        System.out.print(delta);
     }
 }
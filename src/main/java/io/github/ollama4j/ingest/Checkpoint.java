@@ -0,0 +1,146 @@
+package io.github.ollama4j.ingest;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import io.github.ollama4j.utils.Utils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The progress of an ingestion, recorded in a directory so that it can be resumed after a crash.
+ * <p>
+ * {@value #STATE_FILE} holds the counters, and is replaced atomically. {@value #HASHES_FILE} holds the hashes of the
+ * chunks written to the sink, to restore duplicate elimination; hashes appended after the last state was recorded are
+ * ignored.
+ */
+final class Checkpoint {
+
+    static final String STATE_FILE = "checkpoint.json";
+    static final String HASHES_FILE = "hashes.bin";
+
+    private final Path directory;
+    private final FileChannel hashes;
+
+    /**
+     * Number of the document of the last chunk written, from which reading resumes, as that document may have been
+     * written only in part; after a completed ingestion, the number of documents.
+     */
+    long documents;
+
+    /**
+     * Number of pieces of that document that were written or dropped as duplicates, and are skipped when resuming.
+     */
+    int documentChunks;
+
+    /**
+     * Number of chunks written.
+     */
+    long chunks;
+
+    /**
+     * Number of hashes recorded.
+     */
+    long hashCount;
+
+    /**
+     * Position of the sink after the last chunk written.
+     */
+    long sinkPosition;
+
+    private Checkpoint(Path directory) throws IOException {
+        this.directory = directory;
+        Files.createDirectories(directory);
+        Path state = directory.resolve(STATE_FILE);
+        if (Files.exists(state)) {
+            Map<String, Long> values = Utils.getObjectMapper().readValue(state.toFile(), new TypeReference<Map<String, Long>>() {
+            });
+            documents = values.get("documents");
+            documentChunks = values.get("documentChunks").intValue();
+            chunks = values.get("chunks");
+            hashCount = values.get("hashes");
+            sinkPosition = values.get("sinkPosition");
+        }
+        this.hashes = FileChannel.open(directory.resolve(HASHES_FILE), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        hashes.truncate(hashCount * Long.BYTES);
+    }
+
+    static Checkpoint open(Path directory) throws IOException {
+        return new Checkpoint(directory);
+    }
+
+    /**
+     * Adds the recorded hashes to the set.
+     */
+    void loadHashes(LongHashSet set) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+        long position = 0;
+        while (position < hashCount * Long.BYTES) {
+            buffer.clear();
+            buffer.limit((int) Math.min(buffer.capacity(), hashCount * Long.BYTES - position));
+            while (buffer.hasRemaining()) {
+                if (hashes.read(buffer, position + buffer.position()) < 0) {
+                    throw new IOException(HASHES_FILE + " is shorter than recorded");
+                }
+            }
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                set.add(buffer.getLong());
+            }
+            position += buffer.limit();
+        }
+    }
+
+    /**
+     * Records progress; the sink must have been committed first.
+     *
+     * @param newHashes the hashes of the chunks written since the last checkpoint
+     * @param count     number of those hashes
+     */
+    void save(long documents, int documentChunks, long chunks, long sinkPosition, long[] newHashes, int count) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(count * Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i < count; i++) {
+            buffer.putLong(newHashes[i]);
+        }
+        buffer.flip();
+        long position = hashCount * Long.BYTES;
+        while (buffer.hasRemaining()) {
+            position += hashes.write(buffer, position);
+        }
+        hashes.force(false);
+
+        Map<String, Long> values = new LinkedHashMap<>();
+        values.put("documents", documents);
+        values.put("documentChunks", (long) documentChunks);
+        values.put("chunks", chunks);
+        values.put("hashes", hashCount + count);
+        values.put("sinkPosition", sinkPosition);
+        Path temporary = directory.resolve(STATE_FILE + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE)) {
+            ByteBuffer state = ByteBuffer.wrap(Utils.getObjectMapper().writeValueAsBytes(values));
+            while (state.hasRemaining()) {
+                channel.write(state);
+            }
+            channel.force(true);
+        }
+        Files.move(temporary, directory.resolve(STATE_FILE), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        this.documents = documents;
+        this.documentChunks = documentChunks;
+        this.chunks = chunks;
+        this.hashCount += count;
+        this.sinkPosition = sinkPosition;
+    }
+
+    void close() throws IOException {
+        hashes.close();
+    }
+}
@@ -0,0 +1,41 @@
+package io.github.ollama4j.ingest;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * A piece of a {@link Document} that is embedded on its own, as it reaches an {@link EmbeddingSink}.
+ */
+@Data
+@AllArgsConstructor
+public class Chunk {
+
+    /**
+     * Number of the chunk among all chunks written to the sink, starting at 0 and continuing across resumed runs; the
+     * id an index assigns to the chunk's vector if it was empty when the ingestion started.
+     */
+    private long id;
+
+    /**
+     * Id of the document the chunk was cut from.
+     */
+    private String documentId;
+
+    /**
+     * Position of the document in its source, starting at 0.
+     */
+    private long documentNumber;
+
+    /**
+     * Position of the chunk within its document, starting at 0.
+     */
+    private int index;
+
+    private String text;
+
+    /**
+     * 64-bit hash of the chunk's text with case and runs of whitespace ignored, by which duplicates are detected; 0 if
+     * duplicates are not eliminated.
+     */
+    private long hash;
+}
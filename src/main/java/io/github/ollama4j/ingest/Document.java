@@ -0,0 +1,19 @@
+package io.github.ollama4j.ingest;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * A text read by a {@link DocumentSource}.
+ */
+@Data
+@AllArgsConstructor
+public class Document {
+
+    /**
+     * Identifies the document in its source, e.g. the path of the file it was read from.
+     */
+    private String id;
+
+    private String text;
+}
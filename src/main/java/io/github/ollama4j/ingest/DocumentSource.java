@@ -0,0 +1,85 @@
+package io.github.ollama4j.ingest;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * The documents an {@link IngestionPipeline} reads, one at a time.
+ * <p>
+ * To resume an ingestion from a checkpoint, a source must return the same documents in the same order every time it is
+ * created.
+ */
+public interface DocumentSource extends Closeable {
+
+    /**
+     * @return the next document, or null if there are no more
+     * @throws IOException if the document cannot be read
+     */
+    Document next() throws IOException;
+
+    /**
+     * Skips documents, e.g. those already ingested before a checkpoint. Sources override this to skip without reading
+     * the documents.
+     *
+     * @param count number of documents to skip
+     * @throws IOException if the documents cannot be skipped
+     */
+    default void skip(long count) throws IOException {
+        for (long i = 0; i < count && next() != null; i++) {
+            // skipped
+        }
+    }
+
+    @Override
+    default void close() throws IOException {
+    }
+
+    /**
+     * Reads the files below a directory whose names match a glob pattern, e.g. {@code *.{md,txt}}, in the order of their
+     * paths, as UTF-8. The id of a document is the path of its file relative to the directory.
+     *
+     * @param directory the directory
+     * @param glob      pattern the file names must match
+     * @return the source
+     * @throws IOException if the directory cannot be listed
+     */
+    static DocumentSource files(Path directory, String glob) throws IOException {
+        return new FileDocumentSource(directory, glob);
+    }
+
+    /**
+     * Reads every non-blank line of a UTF-8 file as a document, e.g. a corpus exported one record per line. The id of a
+     * document is the file name and the line number, such as {@code corpus.txt:42}.
+     *
+     * @param file the file
+     * @return the source
+     * @throws IOException if the file cannot be opened
+     */
+    static DocumentSource lines(Path file) throws IOException {
+        return new LineDocumentSource(file);
+    }
+
+    /**
+     * Returns texts held in memory as documents, with their positions in the list as ids.
+     *
+     * @param texts the texts
+     * @return the source
+     */
+    static DocumentSource texts(List<String> texts) {
+        return new DocumentSource() {
+            private int next;
+
+            @Override
+            public Document next() {
+                return next < texts.size() ? new Document(String.valueOf(next), texts.get(next++)) : null;
+            }
+
+            @Override
+            public void skip(long count) {
+                next = (int) Math.min(texts.size(), next + count);
+            }
+        };
+    }
+}
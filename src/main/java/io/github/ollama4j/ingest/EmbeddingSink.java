@@ -0,0 +1,69 @@
+package io.github.ollama4j.ingest;
+
+import io.github.ollama4j.models.embeddings.FloatEmbeddings;
+import io.github.ollama4j.search.HybridIndex;
+import io.github.ollama4j.search.VectorIndex;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Receives the embedded chunks of an {@link IngestionPipeline}, in order, in batches.
+ * <p>
+ * A sink that outlives the process, such as a file, implements {@link #commit()} and {@link #resume(long)} so that an
+ * ingestion can be resumed from a checkpoint: the pipeline commits the sink before it records a checkpoint, and before
+ * it resumes, rolls the sink back to the position committed with that checkpoint. The chunks written after it are then
+ * written again.
+ */
+@FunctionalInterface
+public interface EmbeddingSink extends Closeable {
+
+    /**
+     * @param chunks     the chunks
+     * @param embeddings their vectors, in the same order
+     * @throws IOException if the chunks cannot be written
+     */
+    void write(List<Chunk> chunks, FloatEmbeddings embeddings) throws IOException;
+
+    /**
+     * Makes everything written so far durable.
+     *
+     * @return the position to resume from, after the last chunk written
+     * @throws IOException if the sink cannot be committed
+     */
+    default long commit() throws IOException {
+        return 0;
+    }
+
+    /**
+     * Discards everything written after a position returned by {@link #commit()}, before an ingestion starts or resumes.
+     *
+     * @param position the position, 0 for an ingestion that starts from scratch
+     * @throws IOException if the sink cannot be rolled back
+     */
+    default void resume(long position) throws IOException {
+    }
+
+    @Override
+    default void close() throws IOException {
+    }
+
+    /**
+     * @param index the index
+     * @return a sink adding the vectors to the index; it is held in memory, so it is not restored by a checkpoint
+     */
+    static EmbeddingSink of(VectorIndex index) {
+        return (chunks, embeddings) -> index.addAll(embeddings);
+    }
+
+    /**
+     * @param index the index
+     * @return a sink adding the chunks and their vectors to the index; it is held in memory, so it is not restored by a
+     * checkpoint
+     */
+    static EmbeddingSink of(HybridIndex index) {
+        return (chunks, embeddings) -> index.addAll(chunks.stream().map(Chunk::getText).collect(Collectors.toList()), embeddings);
+    }
+}
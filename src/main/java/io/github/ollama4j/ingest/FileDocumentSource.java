@@ -0,0 +1,46 @@
+package io.github.ollama4j.ingest;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Reads the matching files below a directory, see {@link DocumentSource#files(Path, String)}. Only the paths are listed
+ * up front; every file is read when its document is requested.
+ */
+class FileDocumentSource implements DocumentSource {
+
+    private final Path directory;
+    private final List<Path> files;
+    private int next;
+
+    FileDocumentSource(Path directory, String glob) throws IOException {
+        PathMatcher matcher = directory.getFileSystem().getPathMatcher("glob:" + glob);
+        this.directory = directory;
+        try (Stream<Path> paths = Files.walk(directory)) {
+            this.files = paths.filter(Files::isRegularFile)
+                    .filter(path -> matcher.matches(path.getFileName()))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    @Override
+    public Document next() throws IOException {
+        if (next == files.size()) {
+            return null;
+        }
+        Path file = files.get(next++);
+        return new Document(directory.relativize(file).toString(), new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public void skip(long count) {
+        next = (int) Math.min(files.size(), next + count);
+    }
+}
@@ -0,0 +1,58 @@
+package io.github.ollama4j.ingest;
+
+import io.github.ollama4j.models.embeddings.BulkEmbedOptions;
+import lombok.Builder;
+import lombok.Data;
+
+import java.nio.file.Path;
+
+/**
+ * Settings of an {@link IngestionPipeline}.
+ */
+@Data
+@Builder
+public class IngestOptions {
+
+    /**
+     * Maximum number of documents read ahead of the chunker.
+     */
+    @Builder.Default
+    private int documentQueueCapacity = 64;
+
+    /**
+     * Maximum number of chunks waiting between the chunker and duplicate elimination, and between duplicate elimination
+     * and the embedding requests.
+     */
+    @Builder.Default
+    private int chunkQueueCapacity = 4096;
+
+    /**
+     * Whether chunks whose text was already ingested, ignoring case and whitespace, are dropped.
+     */
+    @Builder.Default
+    private boolean deduplicate = true;
+
+    /**
+     * Size and parallelism of the embedding requests, and their retries.
+     */
+    @Builder.Default
+    private BulkEmbedOptions embedOptions = BulkEmbedOptions.builder().build();
+
+    /**
+     * Maximum number of chunks passed to the sink at once.
+     */
+    @Builder.Default
+    private int sinkBatchSize = 256;
+
+    /**
+     * Directory of the checkpoint files; null to not record checkpoints. An ingestion with the same directory, source
+     * and sink resumes after the last checkpoint.
+     */
+    private Path checkpointDirectory;
+
+    /**
+     * Number of chunks written to the sink between checkpoints.
+     */
+    @Builder.Default
+    private int checkpointInterval = 10_000;
+}
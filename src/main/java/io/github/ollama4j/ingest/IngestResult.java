@@ -0,0 +1,41 @@
+package io.github.ollama4j.ingest;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.Duration;
+
+/**
+ * Summary of a completed run of an {@link IngestionPipeline}.
+ */
+@Data
+@AllArgsConstructor
+public class IngestResult {
+
+    /**
+     * Number of documents skipped because a previous run had ingested them.
+     */
+    private long skippedDocuments;
+
+    /**
+     * Number of documents read in this run.
+     */
+    private long documents;
+
+    /**
+     * Number of chunks cut from them.
+     */
+    private long chunks;
+
+    /**
+     * Number of chunks dropped as duplicates, including those already written by a previous run.
+     */
+    private long duplicates;
+
+    /**
+     * Number of chunks embedded and written to the sink in this run.
+     */
+    private long written;
+
+    private Duration elapsed;
+}
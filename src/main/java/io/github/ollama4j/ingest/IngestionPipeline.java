@@ -0,0 +1,470 @@
+package io.github.ollama4j.ingest;
+
+import io.github.ollama4j.OllamaAPI;
+import io.github.ollama4j.exceptions.OllamaBaseException;
+import io.github.ollama4j.models.embeddings.BulkEmbedding;
+import io.github.ollama4j.models.embeddings.FloatEmbeddings;
+import io.github.ollama4j.models.embeddings.OllamaEmbedRequestModel;
+import io.github.ollama4j.utils.Utils;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Ingests a corpus into an index or a file: reads the documents, cuts them into chunks, drops duplicate chunks, embeds
+ * the chunks in batches and writes them to a sink.
+ * <pre>{@code
+ * HnswIndex index = new HnswIndex(768, SimilarityMetric.COSINE);
+ * IngestionPipeline pipeline = new IngestionPipeline(ollamaAPI, "nomic-embed-text",
+ *         DocumentSource.files(Paths.get("docs"), "*.md"), new TokenChunker(512, 64), EmbeddingSink.of(index),
+ *         IngestOptions.builder().build());
+ * IngestResult result = pipeline.run();
+ * }</pre>
+ * Reading, chunking and duplicate elimination run on threads of their own, connected by bounded queues; the embedding
+ * requests are sent by a {@link BulkEmbedding}, which keeps at most {@link io.github.ollama4j.models.embeddings.BulkEmbedOptions#getParallelism()}
+ * requests in flight, and the chunks are written to the sink in order on the thread calling {@link #run()}. A slow stage
+ * therefore fills the queue in front of it and holds back the stages before it, and the memory the pipeline takes is
+ * bounded whatever the size of the corpus. {@link #getMetrics()} reports the progress and queue depth of every stage
+ * while it runs.
+ * <p>
+ * With {@link IngestOptions#getCheckpointDirectory()}, the pipeline records a checkpoint every
+ * {@link IngestOptions#getCheckpointInterval()} chunks, after committing the sink. Running a new pipeline with the same
+ * checkpoint directory, source, chunker and sink after a crash skips the documents already written, restores duplicate
+ * elimination, rolls the sink back to the checkpoint and continues the chunk ids from there.
+ */
+public class IngestionPipeline {
+
+    private static final Document END_OF_DOCUMENTS = new Document(null, null);
+    private static final Chunk END_OF_CHUNKS = new Chunk(-1, null, -1, -1, null, 0);
+    private static final long POLL_MILLIS = 100;
+
+    private final BulkEmbedding.ChunkEmbedder embedder;
+    private final Executor embedExecutor;
+    private final DocumentSource source;
+    private final TextChunker chunker;
+    private final EmbeddingSink sink;
+    private final IngestOptions options;
+
+    private final BlockingQueue<Document> documentQueue;
+    private final BlockingQueue<Chunk> chunkQueue;
+    private final BlockingQueue<Chunk> uniqueQueue;
+    private final Counter read = new Counter();
+    private final Counter chunked = new Counter();
+    private final Counter deduplicated = new Counter();
+    private final Counter embedded = new Counter();
+    private final Counter written = new Counter();
+    private final AtomicBoolean started = new AtomicBoolean();
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+    private volatile boolean stopped;
+    private volatile long startNanos;
+
+    /**
+     * Creates a pipeline that embeds the chunks with {@link OllamaAPI#embedFloats}.
+     *
+     * @param ollamaAPI client that embeds the chunks
+     * @param model     name of the embedding model
+     * @param source    the documents
+     * @param chunker   cuts the documents into chunks
+     * @param sink      receives the embedded chunks
+     * @param options   queue sizes, embedding requests and checkpoints
+     */
+    public IngestionPipeline(OllamaAPI ollamaAPI, String model, DocumentSource source, TextChunker chunker, EmbeddingSink sink,
+                             IngestOptions options) {
+        this(inputs -> {
+            OllamaEmbedRequestModel request = new OllamaEmbedRequestModel(model, inputs);
+            request.setOptions(options.getEmbedOptions().getRequestOptions());
+            return ollamaAPI.embedFloats(request).getEmbeddings();
+        }, ollamaAPI.getTaskExecutor(), source, chunker, sink, options);
+    }
+
+    /**
+     * Creates a pipeline.
+     *
+     * @param embedder embeds a batch of chunks
+     * @param source   the documents
+     * @param chunker  cuts the documents into chunks
+     * @param sink     receives the embedded chunks
+     * @param options  queue sizes, embedding requests and checkpoints
+     */
+    public IngestionPipeline(BulkEmbedding.ChunkEmbedder embedder, DocumentSource source, TextChunker chunker, EmbeddingSink sink,
+                             IngestOptions options) {
+        this(embedder, Utils.getSharedExecutor(), source, chunker, sink, options);
+    }
+
+    private IngestionPipeline(BulkEmbedding.ChunkEmbedder embedder, Executor embedExecutor, DocumentSource source, TextChunker chunker,
+                              EmbeddingSink sink, IngestOptions options) {
+        if (options.getDocumentQueueCapacity() < 1 || options.getChunkQueueCapacity() < 1 || options.getSinkBatchSize() < 1
+                || options.getCheckpointInterval() < 1) {
+            throw new IllegalArgumentException("Queue capacities, sinkBatchSize and checkpointInterval must be positive");
+        }
+        this.embedder = embedder;
+        this.embedExecutor = embedExecutor;
+        this.source = source;
+        this.chunker = chunker;
+        this.sink = sink;
+        this.options = options;
+        this.documentQueue = new ArrayBlockingQueue<>(options.getDocumentQueueCapacity());
+        this.chunkQueue = new ArrayBlockingQueue<>(options.getChunkQueueCapacity());
+        this.uniqueQueue = new ArrayBlockingQueue<>(options.getChunkQueueCapacity());
+    }
+
+    /**
+     * Runs the ingestion until all documents are written, or a stage fails. A pipeline runs once. Neither the source nor
+     * the sink are closed.
+     *
+     * @return the counts of this run
+     * @throws OllamaBaseException   if embedding a batch fails after all retries
+     * @throws IOException           if reading a document, writing to the sink or recording a checkpoint fails
+     * @throws InterruptedException  if the thread is interrupted
+     * @throws CancellationException if the ingestion is {@link #cancel() cancelled}
+     */
+    public IngestResult run() throws OllamaBaseException, IOException, InterruptedException {
+        if (!started.compareAndSet(false, true)) {
+            throw new IllegalStateException("The pipeline has already run");
+        }
+        startNanos = System.nanoTime();
+        Checkpoint checkpoint = options.getCheckpointDirectory() != null ? Checkpoint.open(options.getCheckpointDirectory()) : null;
+        try {
+            long skipped = checkpoint != null ? checkpoint.documents : 0;
+            int skippedChunks = checkpoint != null ? checkpoint.documentChunks : 0;
+            LongHashSet seen = new LongHashSet();
+            if (checkpoint != null && options.isDeduplicate()) {
+                checkpoint.loadHashes(seen);
+            }
+            sink.resume(checkpoint != null ? checkpoint.sinkPosition : 0);
+            source.skip(skipped);
+            List<Thread> threads = Arrays.asList(
+                    startStage("read", this::read),
+                    startStage("chunk", () -> chunk(skipped, skippedChunks)),
+                    startStage("deduplicate", () -> deduplicate(seen)));
+            try {
+                new Writer(checkpoint, skipped).run();
+            } catch (Throwable e) {
+                fail(e);
+            } finally {
+                stopped = true;
+                for (Thread thread : threads) {
+                    thread.join();
+                }
+            }
+            throwFailure();
+            return new IngestResult(skipped, read.processed.get(), chunked.emitted.get(),
+                    deduplicated.processed.get() - deduplicated.emitted.get(), written.processed.get(),
+                    Duration.ofNanos(System.nanoTime() - startNanos));
+        } finally {
+            if (checkpoint != null) {
+                checkpoint.close();
+            }
+        }
+    }
+
+    /**
+     * Stops a running ingestion; {@link #run()} throws a {@link CancellationException}. Chunks written since the last
+     * checkpoint are written again when the ingestion is resumed.
+     */
+    public void cancel() {
+        fail(new CancellationException("The ingestion was cancelled"));
+    }
+
+    /**
+     * @return the progress of the stages read, chunk, deduplicate, embed and sink, in that order
+     */
+    public List<StageMetrics> getMetrics() {
+        double seconds = started.get() ? (System.nanoTime() - startNanos) / 1e9 : 0;
+        return Arrays.asList(
+                read.metrics("read", null, seconds),
+                chunked.metrics("chunk", documentQueue, seconds),
+                deduplicated.metrics("deduplicate", chunkQueue, seconds),
+                embedded.metrics("embed", uniqueQueue, seconds),
+                written.metrics("sink", null, seconds));
+    }
+
+    /**
+     * 64-bit hash of a text with case and runs of whitespace ignored: FNV-1a over the normalized characters, with a final
+     * avalanche so that all bits are well mixed.
+     */
+    static long hash(String text) {
+        long hash = 0xcbf29ce484222325L;
+        boolean space = false;
+        boolean content = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isWhitespace(c)) {
+                space = content;
+                continue;
+            }
+            if (space) {
+                hash = (hash ^ ' ') * 0x100000001b3L;
+                space = false;
+            }
+            hash = (hash ^ Character.toLowerCase(c)) * 0x100000001b3L;
+            content = true;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        return hash ^ (hash >>> 33);
+    }
+
+    private void read() throws IOException, InterruptedException {
+        Document document;
+        while (!stopped && (document = source.next()) != null) {
+            read.processed.incrementAndGet();
+            put(documentQueue, document);
+            read.emitted.incrementAndGet();
+        }
+        put(documentQueue, END_OF_DOCUMENTS);
+    }
+
+    private void chunk(long firstDocument, int skippedChunks) throws InterruptedException {
+        long number = firstDocument;
+        for (Document document = take(documentQueue); document != END_OF_DOCUMENTS; document = take(documentQueue)) {
+            chunked.processed.incrementAndGet();
+            List<String> pieces = chunker.chunk(document.getText());
+            // the pieces of a partly written document that were written before the checkpoint
+            int first = number == firstDocument ? skippedChunks : 0;
+            for (int i = first; i < pieces.size(); i++) {
+                put(chunkQueue, new Chunk(-1, document.getId(), number, i, pieces.get(i), 0));
+                chunked.emitted.incrementAndGet();
+            }
+            number++;
+        }
+        put(chunkQueue, END_OF_CHUNKS);
+    }
+
+    private void deduplicate(LongHashSet seen) throws InterruptedException {
+        for (Chunk chunk = take(chunkQueue); chunk != END_OF_CHUNKS; chunk = take(chunkQueue)) {
+            deduplicated.processed.incrementAndGet();
+            if (options.isDeduplicate()) {
+                chunk.setHash(hash(chunk.getText()));
+                if (!seen.add(chunk.getHash())) {
+                    continue;
+                }
+            }
+            put(uniqueQueue, chunk);
+            deduplicated.emitted.incrementAndGet();
+        }
+        put(uniqueQueue, END_OF_CHUNKS);
+    }
+
+    private Thread startStage(String name, Stage stage) {
+        Thread thread = new Thread(() -> {
+            try {
+                stage.run();
+            } catch (Throwable e) {
+                fail(e);
+            }
+        }, "ollama4j-ingest-" + name);
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+
+    private void fail(Throwable e) {
+        if (!(e instanceof Stopped)) {
+            failure.compareAndSet(null, e);
+        }
+        stopped = true;
+    }
+
+    private void throwFailure() throws OllamaBaseException, IOException, InterruptedException {
+        Throwable error = failure.get();
+        if (error instanceof CompletionException && error.getCause() != null) {
+            error = error.getCause();
+        }
+        if (error == null) {
+            return;
+        } else if (error instanceof OllamaBaseException) {
+            throw (OllamaBaseException) error;
+        } else if (error instanceof IOException) {
+            throw (IOException) error;
+        } else if (error instanceof InterruptedException) {
+            throw (InterruptedException) error;
+        } else if (error instanceof RuntimeException) {
+            throw (RuntimeException) error;
+        } else if (error instanceof Error) {
+            throw (Error) error;
+        }
+        throw new IOException(error);
+    }
+
+    private <T> void put(BlockingQueue<T> queue, T item) throws InterruptedException {
+        while (!queue.offer(item, POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+            if (stopped) {
+                throw new Stopped();
+            }
+        }
+    }
+
+    private <T> T take(BlockingQueue<T> queue) throws InterruptedException {
+        while (true) {
+            T item = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+            if (item != null) {
+                return item;
+            }
+            if (stopped) {
+                throw new Stopped();
+            }
+        }
+    }
+
+    /**
+     * Embeds the unique chunks and writes them to the sink in batches, recording checkpoints, on the thread calling
+     * {@link #run()}.
+     */
+    private final class Writer {
+
+        private final Checkpoint checkpoint;
+        private final long firstDocument;
+        // chunks handed to the embedder whose vectors have not been taken yet, in order
+        private final Deque<Chunk> embedding = new ArrayDeque<>();
+        private final List<Chunk> batch = new ArrayList<>();
+        private long[] hashes = new long[64];
+        private int hashCount;
+        private float[] vectors;
+        private int dimension;
+        private long nextId;
+        private long sinceCheckpoint;
+
+        Writer(Checkpoint checkpoint, long firstDocument) {
+            this.checkpoint = checkpoint;
+            this.firstDocument = firstDocument;
+            this.nextId = checkpoint != null ? checkpoint.chunks : 0;
+        }
+
+        void run() throws IOException, InterruptedException {
+            Iterator<String> texts = new Iterator<String>() {
+                private Chunk next;
+
+                @Override
+                public boolean hasNext() {
+                    if (next == null) {
+                        try {
+                            next = take(uniqueQueue);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            fail(e);
+                            throw new Stopped();
+                        }
+                    }
+                    return next != END_OF_CHUNKS;
+                }
+
+                @Override
+                public String next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    Chunk chunk = next;
+                    next = null;
+                    embedding.add(chunk);
+                    embedded.processed.incrementAndGet();
+                    return chunk.getText();
+                }
+            };
+            try (BulkEmbedding vectors = new BulkEmbedding(texts, -1, embedder, options.getEmbedOptions(), embedExecutor)) {
+                while (vectors.hasNext()) {
+                    float[] vector = vectors.next();
+                    embedded.emitted.incrementAndGet();
+                    add(embedding.poll(), vector);
+                }
+            }
+            flush();
+            if (checkpoint != null) {
+                checkpoint(firstDocument + read.processed.get(), 0);
+            } else {
+                sink.commit();
+            }
+        }
+
+        private void add(Chunk chunk, float[] vector) throws IOException {
+            if (vectors == null) {
+                dimension = vector.length;
+                vectors = new float[options.getSinkBatchSize() * dimension];
+            } else if (vector.length != dimension) {
+                throw new IllegalStateException("Expected a vector of dimension " + dimension + ", got " + vector.length);
+            }
+            System.arraycopy(vector, 0, vectors, batch.size() * dimension, dimension);
+            batch.add(chunk);
+            if (batch.size() == options.getSinkBatchSize()) {
+                flush();
+            }
+        }
+
+        private void flush() throws IOException {
+            if (batch.isEmpty()) {
+                return;
+            }
+            for (Chunk chunk : batch) {
+                chunk.setId(nextId++);
+            }
+            // the sink may keep the batch, so it gets arrays of its own
+            sink.write(new ArrayList<>(batch), new FloatEmbeddings(Arrays.copyOf(vectors, batch.size() * dimension), batch.size(), dimension));
+            written.processed.addAndGet(batch.size());
+            written.emitted.addAndGet(batch.size());
+            if (options.isDeduplicate()) {
+                if (hashes.length < hashCount + batch.size()) {
+                    hashes = Arrays.copyOf(hashes, Math.max(hashes.length * 2, hashCount + batch.size()));
+                }
+                for (Chunk chunk : batch) {
+                    hashes[hashCount++] = chunk.getHash();
+                }
+            }
+            sinceCheckpoint += batch.size();
+            Chunk last = batch.get(batch.size() - 1);
+            batch.clear();
+            if (checkpoint != null && sinceCheckpoint >= options.getCheckpointInterval()) {
+                checkpoint(last.getDocumentNumber(), last.getIndex() + 1);
+            }
+        }
+
+        private void checkpoint(long documents, int documentChunks) throws IOException {
+            long position = sink.commit();
+            checkpoint.save(documents, documentChunks, nextId, position, hashes, hashCount);
+            hashCount = 0;
+            sinceCheckpoint = 0;
+        }
+    }
+
+    @FunctionalInterface
+    private interface Stage {
+        void run() throws Exception;
+    }
+
+    /**
+     * Thrown in a stage to stop it when another stage failed.
+     */
+    private static final class Stopped extends RuntimeException {
+        Stopped() {
+            super(null, null, false, false);
+        }
+    }
+
+    private static final class Counter {
+
+        final AtomicLong processed = new AtomicLong();
+        final AtomicLong emitted = new AtomicLong();
+
+        StageMetrics metrics(String stage, BlockingQueue<?> queue, double seconds) {
+            return new StageMetrics(stage, processed.get(), emitted.get(), queue != null ? queue.size() : 0,
+                    queue != null ? queue.size() + queue.remainingCapacity() : 0, seconds > 0 ? processed.get() / seconds : 0);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package io.github.ollama4j.ingest;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import io.github.ollama4j.models.embeddings.FloatEmbeddings;
+import io.github.ollama4j.utils.Utils;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Writes every chunk and its vector as one line of JSON, e.g.
+ * {@code {"id":0,"document":"guide.md","index":0,"text":"...","embedding":[0.12,-0.03,...]}}, for bulk loading into
+ * another store. Supports resuming from a checkpoint: {@link #commit()} forces the file to disk and returns its length,
+ * {@link #resume(long)} truncates it.
+ */
+public class JsonLinesSink implements EmbeddingSink {
+
+    private final FileChannel channel;
+    private JsonGenerator generator;
+
+    /**
+     * Opens the file, creating it if it does not exist. Its content is kept until the pipeline calls
+     * {@link #resume(long)}.
+     *
+     * @param file the file
+     * @throws IOException if the file cannot be opened
+     */
+    public JsonLinesSink(Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        open(channel.size());
+    }
+
+    @Override
+    public void write(List<Chunk> chunks, FloatEmbeddings embeddings) throws IOException {
+        for (int i = 0; i < chunks.size(); i++) {
+            Chunk chunk = chunks.get(i);
+            generator.writeStartObject();
+            generator.writeNumberField("id", chunk.getId());
+            generator.writeStringField("document", chunk.getDocumentId());
+            generator.writeNumberField("index", chunk.getIndex());
+            generator.writeStringField("text", chunk.getText());
+            generator.writeArrayFieldStart("embedding");
+            for (int j = 0; j < embeddings.getDimension(); j++) {
+                generator.writeNumber(embeddings.get(i, j));
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+    }
+
+    @Override
+    public long commit() throws IOException {
+        generator.flush();
+        channel.force(false);
+        return channel.position();
+    }
+
+    @Override
+    public void resume(long position) throws IOException {
+        generator.flush();
+        channel.truncate(position);
+        open(position);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            generator.close();
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void open(long position) throws IOException {
+        channel.position(position);
+        OutputStream output = new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16);
+        generator = Utils.getObjectMapper().getFactory().createGenerator(output);
+        // the stream of a previous position is dropped without closing the channel
+        generator.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+        // lines are separated explicitly, so that the file ends with a line break
+        generator.setRootValueSeparator(null);
+    }
+}
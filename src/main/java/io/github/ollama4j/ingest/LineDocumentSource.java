@@ -0,0 +1,39 @@
+package io.github.ollama4j.ingest;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Reads the non-blank lines of a file as documents, see {@link DocumentSource#lines(Path)}.
+ */
+class LineDocumentSource implements DocumentSource {
+
+    private final String name;
+    private final BufferedReader reader;
+    private long lineNumber;
+
+    LineDocumentSource(Path file) throws IOException {
+        this.name = file.getFileName().toString();
+        this.reader = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public Document next() throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (!line.trim().isEmpty()) {
+                return new Document(name + ":" + lineNumber, line);
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,54 @@
+package io.github.ollama4j.ingest;
+
+/**
+ * Open-addressing set of well-mixed 64-bit hashes in a {@code long[]}, taking 16 to 32 bytes per hash instead of the
+ * 60 or so of a {@code HashSet<Long>}.
+ */
+final class LongHashSet {
+
+    // 0 marks a free slot; a hash of 0 is stored as this value instead
+    private static final long ZERO = 0x9e3779b97f4a7c15L;
+
+    private long[] slots = new long[1 << 10];
+    private int size;
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return whether the hash was not in the set yet
+     */
+    boolean add(long hash) {
+        long key = hash == 0 ? ZERO : hash;
+        if (2 * (size + 1) > slots.length) {
+            grow();
+        }
+        int mask = slots.length - 1;
+        for (int i = (int) key & mask; ; i = (i + 1) & mask) {
+            if (slots[i] == 0) {
+                slots[i] = key;
+                size++;
+                return true;
+            }
+            if (slots[i] == key) {
+                return false;
+            }
+        }
+    }
+
+    private void grow() {
+        long[] old = slots;
+        slots = new long[old.length * 2];
+        int mask = slots.length - 1;
+        for (long key : old) {
+            if (key != 0) {
+                int i = (int) key & mask;
+                while (slots[i] != 0) {
+                    i = (i + 1) & mask;
+                }
+                slots[i] = key;
+            }
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package io.github.ollama4j.ingest;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * A snapshot of the progress of one stage of an {@link IngestionPipeline}.
+ */
+@Data
+@AllArgsConstructor
+public class StageMetrics {
+
+    /**
+     * One of {@code read}, {@code chunk}, {@code deduplicate}, {@code embed} and {@code sink}.
+     */
+    private String stage;
+
+    /**
+     * Number of items the stage has taken in: documents for {@code read} and {@code chunk}, chunks for the others.
+     */
+    private long processed;
+
+    /**
+     * Number of items the stage has passed on. Lower than {@link #processed} for {@code deduplicate}, which drops
+     * duplicates, and for {@code embed}, whose requests are in flight; higher for {@code chunk}.
+     */
+    private long emitted;
+
+    /**
+     * Number of items waiting in the queue in front of the stage.
+     */
+    private int queueDepth;
+
+    /**
+     * Capacity of the queue in front of the stage; 0 if it has none.
+     */
+    private int queueCapacity;
+
+    /**
+     * Items processed per second since the pipeline started.
+     */
+    private double throughput;
+}
@@ -0,0 +1,16 @@
+package io.github.ollama4j.ingest;
+
+import java.util.List;
+
+/**
+ * Cuts a document into the pieces that are embedded separately.
+ */
+@FunctionalInterface
+public interface TextChunker {
+
+    /**
+     * @param text the text of a document
+     * @return the pieces of the text, in order; none if it holds no content
+     */
+    List<String> chunk(String text);
+}
@@ -0,0 +1,170 @@
+package io.github.ollama4j.ingest;
+
+import io.github.ollama4j.utils.TokenCounter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Cuts texts into chunks of at most a given number of tokens, keeping paragraphs, then sentences, then words together
+ * where they fit.
+ * <p>
+ * The text is split into paragraphs at blank lines; a paragraph over the budget is split into sentences, a sentence over
+ * the budget into words, and a word over the budget into pieces of characters. The pieces are then packed greedily
+ * into chunks. Every chunk after the first of a text starts with the last pieces of the previous chunk, up to
+ * {@code overlapTokens}, so that a passage cut in two can be found from either chunk. A chunk is a substring of the text,
+ * with its original whitespace and line breaks.
+ */
+public class TokenChunker implements TextChunker {
+
+    private static final Pattern[] SEPARATORS = {
+            Pattern.compile("\\n\\s*\\n"),
+            Pattern.compile("(?<=[.!?])\\s+"),
+            Pattern.compile("\\s+"),
+    };
+
+    private final TokenCounter counter;
+    private final int maxTokens;
+    private final int overlapTokens;
+
+    /**
+     * Creates a chunker counting tokens with {@link TokenCounter#approximate()}.
+     *
+     * @param maxTokens     maximum number of tokens of a chunk
+     * @param overlapTokens maximum number of tokens a chunk repeats from the previous one
+     */
+    public TokenChunker(int maxTokens, int overlapTokens) {
+        this(TokenCounter.approximate(), maxTokens, overlapTokens);
+    }
+
+    /**
+     * @param counter       counts the tokens of the pieces of a text
+     * @param maxTokens     maximum number of tokens of a chunk, e.g. the context length of the embedding model
+     * @param overlapTokens maximum number of tokens a chunk repeats from the previous one
+     */
+    public TokenChunker(TokenCounter counter, int maxTokens, int overlapTokens) {
+        if (maxTokens < 1 || overlapTokens < 0 || overlapTokens >= maxTokens) {
+            throw new IllegalArgumentException("maxTokens must be positive and overlapTokens between 0 and maxTokens");
+        }
+        this.counter = counter;
+        this.maxTokens = maxTokens;
+        this.overlapTokens = overlapTokens;
+    }
+
+    @Override
+    public List<String> chunk(String text) {
+        Pieces pieces = new Pieces();
+        split(text, 0, text.length(), 0, pieces);
+        List<String> chunks = new ArrayList<>();
+        int first = 0;
+        int tokens = 0;
+        for (int i = 0; i < pieces.count; i++) {
+            int pieceTokens = pieces.tokens(i);
+            if (i > first && tokens + pieceTokens > maxTokens) {
+                chunks.add(text.substring(pieces.start(first), pieces.end(i - 1)));
+                int next = i;
+                int carried = 0;
+                while (next - 1 > first && carried + pieces.tokens(next - 1) <= overlapTokens
+                        && carried + pieces.tokens(next - 1) + pieceTokens <= maxTokens) {
+                    next--;
+                    carried += pieces.tokens(next);
+                }
+                first = next;
+                tokens = carried;
+            }
+            tokens += pieceTokens;
+        }
+        if (pieces.count > 0) {
+            chunks.add(text.substring(pieces.start(first), pieces.end(pieces.count - 1)));
+        }
+        return chunks;
+    }
+
+    private void split(String text, int start, int end, int level, Pieces pieces) {
+        if (level == SEPARATORS.length) {
+            splitCharacters(text, start, end, pieces);
+            return;
+        }
+        Matcher matcher = SEPARATORS[level].matcher(text).region(start, end);
+        int pieceStart = start;
+        while (true) {
+            boolean found = matcher.find();
+            int pieceEnd = found ? matcher.start() : end;
+            addPiece(text, pieceStart, pieceEnd, level, pieces);
+            if (!found) {
+                return;
+            }
+            pieceStart = matcher.end();
+        }
+    }
+
+    private void addPiece(String text, int start, int end, int level, Pieces pieces) {
+        while (start < end && Character.isWhitespace(text.charAt(start))) {
+            start++;
+        }
+        while (end > start && Character.isWhitespace(text.charAt(end - 1))) {
+            end--;
+        }
+        if (start == end) {
+            return;
+        }
+        int tokens = counter.countTokens(text.substring(start, end));
+        if (tokens <= maxTokens) {
+            pieces.add(start, end, tokens);
+        } else {
+            split(text, start, end, level + 1, pieces);
+        }
+    }
+
+    private void splitCharacters(String text, int start, int end, Pieces pieces) {
+        int tokens = counter.countTokens(text.substring(start, end));
+        int length = Math.max(1, (int) ((long) (end - start) * maxTokens / Math.max(tokens, 1)));
+        while (start < end) {
+            int pieceEnd = Math.min(end, start + length);
+            if (pieceEnd < end && Character.isHighSurrogate(text.charAt(pieceEnd - 1))) {
+                pieceEnd++;
+            }
+            int pieceTokens = counter.countTokens(text.substring(start, pieceEnd));
+            while (pieceTokens > maxTokens && pieceEnd - start > 1) {
+                pieceEnd = start + (pieceEnd - start) / 2;
+                pieceTokens = counter.countTokens(text.substring(start, pieceEnd));
+            }
+            pieces.add(start, pieceEnd, Math.min(pieceTokens, maxTokens));
+            start = pieceEnd;
+        }
+    }
+
+    /**
+     * The pieces of a text, as (start, end, tokens) triples in a single {@code int[]}.
+     */
+    private static final class Pieces {
+
+        int[] data = new int[3 * 64];
+        int count;
+
+        void add(int start, int end, int tokens) {
+            if (data.length < 3 * (count + 1)) {
+                data = Arrays.copyOf(data, data.length * 2);
+            }
+            data[3 * count] = start;
+            data[3 * count + 1] = end;
+            data[3 * count + 2] = tokens;
+            count++;
+        }
+
+        int start(int piece) {
+            return data[3 * piece];
+        }
+
+        int end(int piece) {
+            return data[3 * piece + 1];
+        }
+
+        int tokens(int piece) {
+            return data[3 * piece + 2];
+        }
+    }
+}
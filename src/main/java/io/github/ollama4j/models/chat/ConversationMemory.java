@@ -0,0 +1,342 @@
+package io.github.ollama4j.models.chat;
+
+import io.github.ollama4j.OllamaAPI;
+import io.github.ollama4j.exceptions.OllamaBaseException;
+import io.github.ollama4j.utils.Options;
+import io.github.ollama4j.utils.OptionsBuilder;
+import io.github.ollama4j.utils.TokenEstimator;
+import io.github.ollama4j.utils.Utils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * The memory of a conversation that stays within a token budget, so that the prompt of a long conversation does not
+ * grow with every turn.
+ * <pre>{@code
+ * ConversationMemory memory = new ConversationMemory(ollamaAPI, ConversationMemoryOptions.builder()
+ *         .maxTokens(3000)
+ *         .summaryModel("qwen2.5:0.5b")
+ *         .build());
+ * memory.addSystemMessage("You are a helpful assistant.");
+ * OllamaChatResult result = memory.chat("llama3.2", "What is the capital of Norway?");
+ * }</pre>
+ * The memory holds the system messages, a summary of the earlier conversation and the recent turns. When the
+ * estimated tokens of these exceed {@link ConversationMemoryOptions#getMaxTokens()}, the oldest turns are evicted, a
+ * turn being a user message with the answers and tool results that follow it; the last turn is always kept. The
+ * evicted turns are folded into the summary by {@link ConversationMemoryOptions#getSummaryModel()} in the background,
+ * and the summary is sent as a system message after the system messages. Chats never wait for the summary: until it
+ * is updated, they are sent with the previous one.
+ * <p>
+ * A memory holds one conversation. It is thread-safe, but turns of concurrent chats are interleaved.
+ */
+public class ConversationMemory {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ConversationMemory.class);
+
+    static final String SUMMARY_PREFIX = "Summary of the earlier conversation:\n";
+
+    private final OllamaAPI ollamaAPI;
+    private final ConversationMemoryOptions options;
+    private final TokenEstimator estimator;
+    private final Executor executor;
+
+    private final List<OllamaChatMessage> systemMessages = new ArrayList<>();
+    private final Deque<OllamaChatMessage> window = new ArrayDeque<>();
+    // evicted messages not yet folded into the summary, in order
+    private final List<OllamaChatMessage> evicted = new ArrayList<>();
+    private int systemTokens;
+    private int windowTokens;
+    private int summaryTokens;
+    private String summary;
+    private String lastModel;
+    private boolean summarizing;
+    // incremented by clear(), so that a summary of a forgotten conversation is dropped
+    private long generation;
+    private CompletableFuture<Void> pendingSummary = CompletableFuture.completedFuture(null);
+
+    public ConversationMemory(OllamaAPI ollamaAPI) {
+        this(ollamaAPI, ConversationMemoryOptions.builder().build());
+    }
+
+    public ConversationMemory(OllamaAPI ollamaAPI, ConversationMemoryOptions options) {
+        this.ollamaAPI = ollamaAPI;
+        this.options = options;
+        this.estimator = options.getTokenEstimator();
+        this.executor = options.getExecutor() != null ? options.getExecutor() : ollamaAPI.getTaskExecutor();
+    }
+
+    /**
+     * Adds a system message, which is never evicted.
+     *
+     * @param content the instruction
+     */
+    public synchronized void addSystemMessage(String content) {
+        OllamaChatMessage message = new OllamaChatMessage(OllamaChatMessageRole.SYSTEM, content);
+        systemMessages.add(message);
+        systemTokens += estimator.countTokens(message);
+        evict();
+        startSummary();
+    }
+
+    /**
+     * Adds a message of the conversation, evicting the oldest turns if the memory is over budget.
+     *
+     * @param message the message
+     */
+    public synchronized void add(OllamaChatMessage message) {
+        window.add(message);
+        windowTokens += estimator.countTokens(message);
+        evict();
+        startSummary();
+    }
+
+    /**
+     * Sends a user message with the memory and adds it, the answer and the messages of any tool calls in between to the
+     * memory.
+     *
+     * @param model   the chat model
+     * @param content the user message
+     * @return the result; its chat history holds the messages sent and the answer
+     * @throws OllamaBaseException  if the response indicates an error status
+     * @throws IOException          if an I/O error occurs during the HTTP request
+     * @throws InterruptedException if the operation is interrupted
+     */
+    public OllamaChatResult chat(String model, String content) throws OllamaBaseException, IOException, InterruptedException {
+        return chat(model, content, null);
+    }
+
+    /**
+     * Sends a user message with the memory and adds it, the answer and the messages of any tool calls in between to the
+     * memory. If the request fails, the user message is removed again.
+     *
+     * @param model   the chat model
+     * @param content the user message
+     * @param options options of the request, e.g. {@code num_ctx}; may be null
+     * @return the result; its chat history holds the messages sent and the answer
+     * @throws OllamaBaseException  if the response indicates an error status
+     * @throws IOException          if an I/O error occurs during the HTTP request
+     * @throws InterruptedException if the operation is interrupted
+     */
+    public OllamaChatResult chat(String model, String content, Options options) throws OllamaBaseException, IOException, InterruptedException {
+        OllamaChatMessage question = new OllamaChatMessage(OllamaChatMessageRole.USER, content);
+        List<OllamaChatMessage> messages;
+        synchronized (this) {
+            lastModel = model;
+            add(question);
+            messages = getMessages();
+        }
+        OllamaChatRequest request = new OllamaChatRequest(model, messages);
+        if (options != null) {
+            request.setOptions(options.getOptionsMap());
+        }
+        OllamaChatResult result;
+        try {
+            result = ollamaAPI.chat(request);
+        } catch (OllamaBaseException | IOException | InterruptedException | RuntimeException e) {
+            remove(question);
+            throw e;
+        }
+        List<OllamaChatMessage> history = result.getChatHistory();
+        int answers = history.size() - 1;
+        while (answers > 0 && history.get(answers - 1) != question) {
+            answers--;
+        }
+        synchronized (this) {
+            if (answers == 0) {
+                add(result.getResponseModel().getMessage());
+            } else {
+                for (OllamaChatMessage message : history.subList(answers, history.size())) {
+                    add(message);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return the messages to send: the system messages, the summary and the recent turns
+     */
+    public synchronized List<OllamaChatMessage> getMessages() {
+        List<OllamaChatMessage> messages = new ArrayList<>(systemMessages.size() + 1 + window.size());
+        messages.addAll(systemMessages);
+        if (summary != null) {
+            messages.add(new OllamaChatMessage(OllamaChatMessageRole.SYSTEM, SUMMARY_PREFIX + summary));
+        }
+        messages.addAll(window);
+        return messages;
+    }
+
+    /**
+     * @return the summary of the evicted turns, null if no turn was summarized yet
+     */
+    public synchronized String getSummary() {
+        return summary;
+    }
+
+    /**
+     * @return the estimated number of tokens of {@link #getMessages()}
+     */
+    public synchronized int getEstimatedTokens() {
+        return (int) Math.ceil((systemTokens + summaryTokens + windowTokens) * estimator.getRatio());
+    }
+
+    /**
+     * @return a future completed once the turns evicted so far are summarized, or the summary failed
+     */
+    public synchronized CompletableFuture<Void> getPendingSummary() {
+        return pendingSummary;
+    }
+
+    /**
+     * Forgets the conversation, keeping the system messages.
+     */
+    public synchronized void clear() {
+        window.clear();
+        evicted.clear();
+        windowTokens = 0;
+        summary = null;
+        summaryTokens = 0;
+        generation++;
+    }
+
+    /**
+     * Removes a message from the window, unless it was evicted meanwhile.
+     */
+    private synchronized void remove(OllamaChatMessage message) {
+        for (Iterator<OllamaChatMessage> messages = window.descendingIterator(); messages.hasNext(); ) {
+            if (messages.next() == message) {
+                messages.remove();
+                windowTokens -= estimator.countTokens(message);
+                return;
+            }
+        }
+    }
+
+    private void evict() {
+        int turns = 0;
+        for (OllamaChatMessage message : window) {
+            if (isUser(message)) {
+                turns++;
+            }
+        }
+        while (getEstimatedTokens() > options.getMaxTokens() && turns > 1) {
+            do {
+                OllamaChatMessage message = window.poll();
+                windowTokens -= estimator.countTokens(message);
+                evicted.add(message);
+                if (isUser(message)) {
+                    turns--;
+                }
+            } while (!window.isEmpty() && !isUser(window.peek()));
+        }
+    }
+
+    private void startSummary() {
+        if (summarizing || evicted.isEmpty() || summaryModel() == null) {
+            return;
+        }
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        try {
+            executor.execute(() -> summarize(done));
+        } catch (RejectedExecutionException e) {
+            LOG.warn("Summarizing {} evicted messages was rejected: {}", evicted.size(), e.getMessage());
+            return;
+        }
+        summarizing = true;
+        pendingSummary = done;
+    }
+
+    /**
+     * Folds the evicted messages into the summary, until none are left.
+     */
+    private void summarize(CompletableFuture<Void> done) {
+        try {
+            while (true) {
+                List<OllamaChatMessage> batch;
+                String previous;
+                String model;
+                long conversation;
+                synchronized (this) {
+                    if (evicted.isEmpty()) {
+                        summarizing = false;
+                        return;
+                    }
+                    batch = new ArrayList<>(evicted);
+                    evicted.clear();
+                    previous = summary;
+                    model = summaryModel();
+                    conversation = generation;
+                }
+                String updated;
+                try {
+                    updated = requestSummary(model, previous, batch);
+                } catch (OllamaBaseException | IOException | InterruptedException | RuntimeException e) {
+                    if (e instanceof InterruptedException) {
+                        Thread.currentThread().interrupt();
+                    }
+                    LOG.warn("Summarizing {} evicted messages failed, retrying with the next eviction: {}", batch.size(), e.getMessage());
+                    synchronized (this) {
+                        if (generation == conversation) {
+                            evicted.addAll(0, batch);
+                        }
+                        summarizing = false;
+                    }
+                    return;
+                }
+                synchronized (this) {
+                    if (generation != conversation) {
+                        // cleared while the summary was requested
+                        continue;
+                    }
+                    summary = updated;
+                    summaryTokens = estimator.countTokens(new OllamaChatMessage(OllamaChatMessageRole.SYSTEM, SUMMARY_PREFIX + updated));
+                    // a longer summary may push further turns out, which are summarized in the next round
+                    evict();
+                }
+            }
+        } finally {
+            done.complete(null);
+        }
+    }
+
+    private String requestSummary(String model, String previous, List<OllamaChatMessage> messages) throws OllamaBaseException, IOException, InterruptedException {
+        StringBuilder prompt = new StringBuilder();
+        if (previous != null) {
+            prompt.append("Current summary:\n").append(previous).append("\n\n");
+        }
+        prompt.append("New turns:\n");
+        for (OllamaChatMessage message : messages) {
+            prompt.append(message.getRole().getRoleName()).append(": ");
+            if (message.getToolCalls() != null && !message.getToolCalls().isEmpty()) {
+                prompt.append(Utils.getObjectMapper().writeValueAsString(message.getToolCalls()));
+            } else {
+                prompt.append(message.getContent());
+            }
+            prompt.append('\n');
+        }
+        List<OllamaChatMessage> request = new ArrayList<>();
+        request.add(new OllamaChatMessage(OllamaChatMessageRole.SYSTEM, options.getSummaryInstruction()));
+        request.add(new OllamaChatMessage(OllamaChatMessageRole.USER, prompt.toString()));
+        OllamaChatRequest summaryRequest = new OllamaChatRequest(model, request);
+        summaryRequest.setOptions(new OptionsBuilder().setNumPredict(options.getSummaryMaxTokens()).build().getOptionsMap());
+        return ollamaAPI.chat(summaryRequest).getResponseModel().getMessage().getContent().trim();
+    }
+
+    private String summaryModel() {
+        return options.getSummaryModel() != null ? options.getSummaryModel() : lastModel;
+    }
+
+    private static boolean isUser(OllamaChatMessage message) {
+        return message.getRole() != null && OllamaChatMessageRole.USER.getRoleName().equals(message.getRole().getRoleName());
+    }
+}
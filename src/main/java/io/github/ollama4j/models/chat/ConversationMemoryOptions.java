@@ -0,0 +1,53 @@
+package io.github.ollama4j.models.chat;
+
+import io.github.ollama4j.utils.TokenEstimator;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Settings of a {@link ConversationMemory}.
+ */
+@Data
+@Builder
+public class ConversationMemoryOptions {
+
+    /**
+     * Maximum estimated number of tokens of the messages sent: the system messages, the summary and the recent turns.
+     */
+    @Builder.Default
+    private int maxTokens = 1536;
+
+    /**
+     * Model summarizing the evicted turns, typically a small and fast one; if null, the model of the last chat.
+     */
+    private String summaryModel;
+
+    /**
+     * Maximum number of tokens of the summary, passed as {@code num_predict} to the summary model.
+     */
+    @Builder.Default
+    private int summaryMaxTokens = 256;
+
+    /**
+     * Instruction given to the summary model as system message.
+     */
+    @Builder.Default
+    private String summaryInstruction = "You maintain the summary of a conversation between a user and an assistant. "
+            + "Update the summary with the new turns. Keep the facts, names, numbers, decisions and open questions, "
+            + "drop pleasantries. Answer with the updated summary only.";
+
+    /**
+     * Estimates the tokens of the messages; pass {@link io.github.ollama4j.utils.ContextWindowGuard#getEstimator(String)}
+     * to share its calibration.
+     */
+    @Builder.Default
+    private TokenEstimator tokenEstimator = new TokenEstimator();
+
+    /**
+     * Executor the (blocking) summary requests are sent on. If not set, the
+     * {@link io.github.ollama4j.OllamaAPI#getTaskExecutor() task executor} of the API is used.
+     */
+    private Executor executor;
+}
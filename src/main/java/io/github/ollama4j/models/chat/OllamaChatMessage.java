@@ -2,12 +2,15 @@ package io.github.ollama4j.models.chat;
 
 import static io.github.ollama4j.utils.Utils.getObjectMapper;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 
+import io.github.ollama4j.models.request.ImageAttachment;
 import io.github.ollama4j.utils.FileToBase64Serializer;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import lombok.AllArgsConstructor;
@@ -35,9 +38,30 @@ public class OllamaChatMessage {
 
     private @JsonProperty("tool_calls") List<OllamaChatToolCalls> toolCalls;
 
-    @JsonSerialize(using = FileToBase64Serializer.class)
+    @JsonProperty(value = "images", access = JsonProperty.Access.WRITE_ONLY)
     private List<byte[]> images;
 
+    /**
+     * Images read only while the request is serialized, sent after {@link #images}.
+     */
+    @JsonIgnore
+    private List<ImageAttachment> imageAttachments;
+
+    public OllamaChatMessage(@NonNull OllamaChatMessageRole role, @NonNull String content, List<OllamaChatToolCalls> toolCalls, List<byte[]> images) {
+        this(role, content, toolCalls, images, null);
+    }
+
+    @JsonProperty("images")
+    @JsonSerialize(using = FileToBase64Serializer.class)
+    private List<Object> getSerializedImages() {
+        if (imageAttachments == null || imageAttachments.isEmpty()) {
+            return images == null ? null : new ArrayList<>(images);
+        }
+        List<Object> serializedImages = images == null ? new ArrayList<>() : new ArrayList<>(images);
+        serializedImages.addAll(imageAttachments);
+        return serializedImages;
+    }
+
     @Override
     public String toString() {
         try {
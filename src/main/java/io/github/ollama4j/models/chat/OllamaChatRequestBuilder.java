@@ -1,5 +1,6 @@
 package io.github.ollama4j.models.chat;
 
+import io.github.ollama4j.models.request.ImageAttachment;
 import io.github.ollama4j.utils.Options;
 import io.github.ollama4j.utils.Utils;
 import org.slf4j.Logger;
@@ -43,19 +44,32 @@ public class OllamaChatRequestBuilder {
         return withMessage(role,content, Collections.emptyList());
     }
 
+    /**
+     * Adds a message with image files. The files are not read here but only while the request is sent, see
+     * {@link ImageAttachment}.
+     * <p>
+     * <b>Since the files are read lazily</b>, the message holds them as {@link OllamaChatMessage#getImageAttachments()
+     * image attachments}, and {@link OllamaChatMessage#getImages()} returns null instead of the file contents. Files
+     * that are not readable when the message is added are left out with a warning; they used to be sent as empty
+     * images. Callers that need the raw bytes should read the files themselves and pass them with
+     * {@link #withMessage(OllamaChatMessage)}.
+     */
     public OllamaChatRequestBuilder withMessage(OllamaChatMessageRole role, String content, List<OllamaChatToolCalls> toolCalls,List<File> images) {
-        List<OllamaChatMessage> messages = this.request.getMessages();
-
-        List<byte[]> binaryImages = images.stream().map(file -> {
-            try {
-                return Files.readAllBytes(file.toPath());
-            } catch (IOException e) {
-                LOG.warn("File '{}' could not be accessed, will not add to message!", file.toPath(), e);
-                return new byte[0];
+        List<ImageAttachment> attachments = images.stream().filter(file -> {
+            if (!Files.isReadable(file.toPath())) {
+                LOG.warn("File '{}' could not be accessed, will not add to message!", file.toPath());
+                return false;
             }
-        }).collect(Collectors.toList());
+            return true;
+        }).map(file -> ImageAttachment.of(file.toPath())).collect(Collectors.toList());
+        return withMessage(new OllamaChatMessage(role, content, toolCalls, null, attachments));
+    }
 
-        messages.add(new OllamaChatMessage(role, content,toolCalls, binaryImages));
+    /**
+     * Adds the given message, e.g. one with {@link OllamaChatMessage#setImageAttachments(List) image attachments}.
+     */
+    public OllamaChatRequestBuilder withMessage(OllamaChatMessage message) {
+        this.request.getMessages().add(message);
         return this;
     }
 
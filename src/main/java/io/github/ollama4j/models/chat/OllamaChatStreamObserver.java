@@ -1,19 +1,38 @@
 package io.github.ollama4j.models.chat;
 
+import io.github.ollama4j.models.generate.OllamaStreamDeltaHandler;
 import io.github.ollama4j.models.generate.OllamaStreamHandler;
+import io.github.ollama4j.models.generate.OllamaStreamText;
 import io.github.ollama4j.models.generate.OllamaTokenHandler;
 import lombok.RequiredArgsConstructor;
 
+/**
+ * Adapts an {@link OllamaStreamHandler} to the streamed chat response parts. An {@link OllamaStreamDeltaHandler}
+ * receives only the content of each part, any other handler the whole message received so far.
+ */
 @RequiredArgsConstructor
 public class OllamaChatStreamObserver implements OllamaTokenHandler {
     private final OllamaStreamHandler streamHandler;
-    private String message = "";
+    private final StringBuilder buffer = new StringBuilder();
+    private final OllamaStreamText message = new OllamaStreamText(buffer);
 
     @Override
     public void accept(OllamaChatResponseModel token) {
-        if (streamHandler != null) {
-            message += token.getMessage().getContent();
-            streamHandler.accept(message);
+        String fragment = token.getMessage().getContent();
+        if (fragment != null) {
+            buffer.append(fragment);
         }
+        if (streamHandler instanceof OllamaStreamDeltaHandler) {
+            streamHandler.accept(fragment != null ? fragment : "");
+        } else if (streamHandler != null) {
+            streamHandler.accept(buffer.toString());
+        }
+    }
+
+    /**
+     * @return view of the message text received so far
+     */
+    public CharSequence getResponse() {
+        return message;
     }
 }
@@ -0,0 +1,62 @@
+package io.github.ollama4j.models.embeddings;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+/**
+ * Settings of a bulk embedding, see {@link io.github.ollama4j.OllamaAPI#embedBulk(String, java.util.List, BulkEmbedOptions)}.
+ */
+@Data
+@Builder
+public class BulkEmbedOptions {
+
+    /**
+     * Maximum number of texts sent in one request.
+     */
+    @Builder.Default
+    private int maxChunkInputs = 256;
+
+    /**
+     * Maximum number of characters of all texts sent in one request. A text longer than this is sent alone.
+     */
+    @Builder.Default
+    private int maxChunkChars = 256 * 1024;
+
+    /**
+     * Maximum number of requests in flight. Results of at most this many chunks are held in memory.
+     */
+    @Builder.Default
+    private int parallelism = 4;
+
+    /**
+     * How often a failed chunk is sent again before the bulk embedding fails.
+     */
+    @Builder.Default
+    private int maxRetries = 3;
+
+    /**
+     * Delay before the first retry of a chunk, doubled for every further retry.
+     */
+    @Builder.Default
+    private Duration retryBackoff = Duration.ofMillis(200);
+
+    /**
+     * Options of the embed requests, e.g. {@code num_ctx}; may be null.
+     */
+    private Map<String, Object> requestOptions;
+
+    /**
+     * Executor the (blocking) requests are sent on. If not set, the {@link io.github.ollama4j.OllamaAPI#getTaskExecutor()
+     * task executor} of the API is used.
+     */
+    private Executor executor;
+
+    /**
+     * Notified whenever a chunk has been embedded; may be null.
+     */
+    private EmbedProgressListener progressListener;
+}
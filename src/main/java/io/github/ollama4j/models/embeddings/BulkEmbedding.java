@@ -0,0 +1,198 @@
+package io.github.ollama4j.models.embeddings;
+
+import io.github.ollama4j.exceptions.OllamaBaseException;
+import io.github.ollama4j.utils.Utils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The vectors of a bulk embedding, in input order, see
+ * {@link io.github.ollama4j.OllamaAPI#embedBulk(String, List, BulkEmbedOptions)}.
+ * <p>
+ * The texts are read from the input lazily and split into chunks limited by {@link BulkEmbedOptions#getMaxChunkInputs()}
+ * and {@link BulkEmbedOptions#getMaxChunkChars()}. Up to {@link BulkEmbedOptions#getParallelism()} chunks are embedded
+ * concurrently ahead of the consumer; further chunks are only sent as the consumer takes vectors, so neither the
+ * requests nor the result are ever held in memory as a whole. A failed chunk is retried on its own.
+ * <p>
+ * {@link #next()} blocks until the vector is available. If a chunk fails after all retries, it throws a
+ * {@link CompletionException} with the cause of the last failure. The iteration cannot continue past a failed chunk,
+ * as the following vectors would no longer line up with the inputs: the chunks in flight are cancelled, and every later
+ * call of {@link #hasNext()} and {@link #next()} throws the same exception. Close the iterator to stop early.
+ */
+public class BulkEmbedding implements Iterator<float[]>, AutoCloseable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BulkEmbedding.class);
+
+    /**
+     * Embeds one chunk of texts.
+     */
+    @FunctionalInterface
+    public interface ChunkEmbedder {
+        FloatEmbeddings embed(List<String> inputs) throws OllamaBaseException, IOException, InterruptedException;
+    }
+
+    private final Iterator<String> inputs;
+    private final long totalInputs;
+    private final ChunkEmbedder embedder;
+    private final BulkEmbedOptions options;
+    private final Executor executor;
+    private final AtomicLong embedded = new AtomicLong();
+    private final Deque<CompletableFuture<FloatEmbeddings>> window = new ArrayDeque<>();
+
+    private String pendingInput;
+    private FloatEmbeddings current;
+    private int position;
+    private CompletionException failure;
+    private volatile boolean closed;
+
+    /**
+     * @param inputs      texts to embed
+     * @param totalInputs number of texts, -1 if unknown; only passed to the progress listener
+     * @param embedder    sends a chunk of texts to the server
+     * @param options     chunking, parallelism and retry settings; without an executor, the chunks are sent on
+     *                    {@link Utils#getSharedExecutor()}
+     */
+    public BulkEmbedding(Iterator<String> inputs, long totalInputs, ChunkEmbedder embedder, BulkEmbedOptions options) {
+        this(inputs, totalInputs, embedder, options, Utils.getSharedExecutor());
+    }
+
+    /**
+     * @param inputs          texts to embed
+     * @param totalInputs     number of texts, -1 if unknown; only passed to the progress listener
+     * @param embedder        sends a chunk of texts to the server
+     * @param options         chunking, parallelism and retry settings
+     * @param defaultExecutor executor the chunks are sent on if the options set none
+     */
+    public BulkEmbedding(Iterator<String> inputs, long totalInputs, ChunkEmbedder embedder, BulkEmbedOptions options,
+                         Executor defaultExecutor) {
+        if (options.getParallelism() < 1 || options.getMaxChunkInputs() < 1) {
+            throw new IllegalArgumentException("parallelism and maxChunkInputs must be positive");
+        }
+        this.inputs = inputs;
+        this.totalInputs = totalInputs;
+        this.embedder = embedder;
+        this.options = options;
+        this.executor = options.getExecutor() != null ? options.getExecutor() : defaultExecutor;
+        fill();
+    }
+
+    @Override
+    public synchronized boolean hasNext() {
+        if (failure != null) {
+            throw failure;
+        }
+        return !closed && ((current != null && position < current.size()) || !window.isEmpty());
+    }
+
+    @Override
+    public synchronized float[] next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        if (current == null || position == current.size()) {
+            try {
+                current = window.poll().join();
+            } catch (CompletionException e) {
+                failure = e;
+                cancelChunks();
+                throw e;
+            }
+            position = 0;
+            fill();
+        }
+        return current.getVector(position++);
+    }
+
+    /**
+     * @return number of texts embedded so far, including those not yet taken from this iterator
+     */
+    public long getEmbeddedCount() {
+        return embedded.get();
+    }
+
+    /**
+     * Stops sending further chunks. Requests in flight are completed, their results are dropped.
+     */
+    @Override
+    public synchronized void close() {
+        closed = true;
+        cancelChunks();
+    }
+
+    private void cancelChunks() {
+        for (CompletableFuture<FloatEmbeddings> chunk : window) {
+            chunk.cancel(false);
+        }
+        window.clear();
+        current = null;
+    }
+
+    private void fill() {
+        while (window.size() < options.getParallelism()) {
+            List<String> chunk = nextChunk();
+            if (chunk.isEmpty()) {
+                return;
+            }
+            window.add(CompletableFuture.supplyAsync(() -> embedWithRetries(chunk), executor));
+        }
+    }
+
+    private List<String> nextChunk() {
+        List<String> chunk = new ArrayList<>();
+        long chars = 0;
+        while (chunk.size() < options.getMaxChunkInputs() && (pendingInput != null || inputs.hasNext())) {
+            String input = pendingInput != null ? pendingInput : inputs.next();
+            pendingInput = null;
+            if (!chunk.isEmpty() && chars + input.length() > options.getMaxChunkChars()) {
+                pendingInput = input;
+                break;
+            }
+            chunk.add(input);
+            chars += input.length();
+        }
+        return chunk;
+    }
+
+    private FloatEmbeddings embedWithRetries(List<String> chunk) {
+        long backoff = options.getRetryBackoff().toMillis();
+        for (int attempt = 0; ; attempt++) {
+            try {
+                FloatEmbeddings embeddings = embedder.embed(chunk);
+                if (embeddings.size() != chunk.size()) {
+                    throw new OllamaBaseException("Expected " + chunk.size() + " embeddings, got " + embeddings.size());
+                }
+                long count = embedded.addAndGet(chunk.size());
+                if (options.getProgressListener() != null) {
+                    options.getProgressListener().onProgress(count, totalInputs);
+                }
+                return embeddings;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CompletionException(e);
+            } catch (OllamaBaseException | IOException | RuntimeException e) {
+                if (attempt >= options.getMaxRetries() || closed) {
+                    throw new CompletionException(e);
+                }
+                LOG.warn("Embedding a chunk of {} texts failed, retrying ({}/{}): {}", chunk.size(), attempt + 1, options.getMaxRetries(), e.getMessage());
+            }
+            try {
+                Thread.sleep(backoff << attempt);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CompletionException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package io.github.ollama4j.models.embeddings;
+
+/**
+ * Receives the progress of a bulk embedding, see {@link BulkEmbedOptions#getProgressListener()}.
+ */
+@FunctionalInterface
+public interface EmbedProgressListener {
+
+    /**
+     * Called whenever a chunk has been embedded, on the thread that sent its request. Chunks may complete out of order.
+     *
+     * @param embedded number of texts embedded so far
+     * @param total    number of texts to embed, -1 if unknown
+     */
+    void onProgress(long embedded, long total);
+}
@@ -0,0 +1,169 @@
+package io.github.ollama4j.models.embeddings;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import io.github.ollama4j.utils.FloatEmbeddingsDeserializer;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A batch of embedding vectors of equal dimension, stored row by row in a single {@code float[]}.
+ * <p>
+ * Compared to a {@code List<List<Double>>}, a batch of n vectors of dimension d takes one array of 4·n·d bytes instead
+ * of n·d boxed doubles. The accessors read the vectors without boxing; {@link #asFloatBuffer()} and
+ * {@link #vector(int)} are views that do not copy them.
+ */
+@JsonDeserialize(using = FloatEmbeddingsDeserializer.class)
+public class FloatEmbeddings {
+
+    private final float[] data;
+    private final int size;
+    private final int dimension;
+
+    /**
+     * @param data      the vectors, row by row; may be longer than {@code size * dimension}
+     * @param size      number of vectors
+     * @param dimension dimension of every vector
+     */
+    public FloatEmbeddings(float[] data, int size, int dimension) {
+        if ((long) size * dimension > data.length) {
+            throw new IllegalArgumentException(size + " vectors of dimension " + dimension + " do not fit into " + data.length + " floats");
+        }
+        this.data = data;
+        this.size = size;
+        this.dimension = dimension;
+    }
+
+    /**
+     * @return number of vectors
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return dimension of every vector, 0 if there are no vectors
+     */
+    public int getDimension() {
+        return dimension;
+    }
+
+    /**
+     * @param index     index of the vector
+     * @param component index of the component within the vector
+     * @return the component
+     */
+    public float get(int index, int component) {
+        checkIndex(index);
+        if (component < 0 || component >= dimension) {
+            throw new IndexOutOfBoundsException("component " + component + " of dimension " + dimension);
+        }
+        return data[index * dimension + component];
+    }
+
+    /**
+     * @param index index of the vector
+     * @return a copy of the vector
+     */
+    public float[] getVector(int index) {
+        float[] vector = new float[dimension];
+        copyVector(index, vector, 0);
+        return vector;
+    }
+
+    /**
+     * @param index  index of the vector
+     * @param target array to copy the vector to
+     * @param offset position in the target array of the first component
+     */
+    public void copyVector(int index, float[] target, int offset) {
+        checkIndex(index);
+        System.arraycopy(data, index * dimension, target, offset, dimension);
+    }
+
+    /**
+     * @param index index of the vector
+     * @return a read-only view of the vector
+     */
+    public FloatBuffer vector(int index) {
+        checkIndex(index);
+        return FloatBuffer.wrap(data, index * dimension, dimension).slice().asReadOnlyBuffer();
+    }
+
+    /**
+     * @return a read-only view of all vectors, row by row
+     */
+    public FloatBuffer asFloatBuffer() {
+        return FloatBuffer.wrap(data, 0, size * dimension).slice().asReadOnlyBuffer();
+    }
+
+    /**
+     * Copies all vectors, row by row, into a direct buffer in native byte order, e.g. to hand them to native code or to
+     * keep them off the Java heap.
+     *
+     * @return the direct buffer
+     */
+    public FloatBuffer toDirectBuffer() {
+        FloatBuffer buffer = ByteBuffer.allocateDirect(size * dimension * Float.BYTES).order(ByteOrder.nativeOrder()).asFloatBuffer();
+        buffer.put(data, 0, size * dimension).flip();
+        return buffer;
+    }
+
+    /**
+     * @return a copy of the vectors as one array per vector
+     */
+    public float[][] toArrays() {
+        float[][] arrays = new float[size][];
+        for (int i = 0; i < size; i++) {
+            arrays[i] = getVector(i);
+        }
+        return arrays;
+    }
+
+    /**
+     * Packs vectors of boxed doubles, the format of {@link OllamaEmbedResponseModel#getEmbeddings()}, into floats; the
+     * inverse of {@link #toLists()}.
+     *
+     * @param lists vectors of equal dimension
+     * @return the vectors, of the dimension of the first one, or 0 if there are none
+     * @throws IllegalArgumentException if the vectors differ in dimension
+     */
+    public static FloatEmbeddings fromLists(List<List<Double>> lists) {
+        int dimension = lists.isEmpty() ? 0 : lists.get(0).size();
+        float[] data = new float[lists.size() * dimension];
+        for (int i = 0; i < lists.size(); i++) {
+            List<Double> vector = lists.get(i);
+            if (vector.size() != dimension) {
+                throw new IllegalArgumentException("Expected a vector of dimension " + dimension + ", got " + vector.size());
+            }
+            for (int j = 0; j < dimension; j++) {
+                data[i * dimension + j] = vector.get(j).floatValue();
+            }
+        }
+        return new FloatEmbeddings(data, lists.size(), dimension);
+    }
+
+    /**
+     * @return a copy of the vectors as boxed doubles, the format of {@link OllamaEmbedResponseModel#getEmbeddings()}
+     */
+    public List<List<Double>> toLists() {
+        List<List<Double>> lists = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            List<Double> vector = new ArrayList<>(dimension);
+            for (int j = i * dimension; j < (i + 1) * dimension; j++) {
+                vector.add((double) data[j]);
+            }
+            lists.add(vector);
+        }
+        return lists;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("vector " + index + " of " + size);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package io.github.ollama4j.models.embeddings;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Data;
+
+/**
+ * Response of the '/api/embed' endpoint with the vectors decoded into {@link FloatEmbeddings}, see
+ * {@link io.github.ollama4j.OllamaAPI#embedFloats(OllamaEmbedRequestModel)}.
+ */
+@SuppressWarnings("unused")
+@Data
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class OllamaEmbedFloatResponseModel {
+    @JsonProperty("model")
+    private String model;
+
+    @JsonProperty("embeddings")
+    private FloatEmbeddings embeddings;
+
+    @JsonProperty("total_duration")
+    private long totalDuration;
+
+    @JsonProperty("load_duration")
+    private long loadDuration;
+
+    @JsonProperty("prompt_eval_count")
+    private int promptEvalCount;
+}
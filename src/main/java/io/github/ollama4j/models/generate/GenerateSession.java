@@ -0,0 +1,194 @@
+package io.github.ollama4j.models.generate;
+
+import io.github.ollama4j.OllamaAPI;
+import io.github.ollama4j.exceptions.OllamaBaseException;
+import io.github.ollama4j.utils.Options;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A conversation over the generate endpoint that continues every prompt from the context of the previous response.
+ * <pre>{@code
+ * GenerateSession session = ollamaAPI.generateSession("llama3.2", null);
+ * session.generate("Write a haiku about the sea.");
+ * GenerateSession.Snapshot draft = session.snapshot();
+ * session.generate("Make it about a storm.");
+ * session.restore(draft);
+ * session.generate("Make it about a calm morning.");
+ * }</pre>
+ * The server returns the token ids of the prompt and the response as context, and a follow-up request sending them
+ * back makes the server reuse its cache for them instead of templating and evaluating the whole conversation again, so
+ * that a turn costs about its new tokens. The context is converted once to an {@code int[]} that is never modified
+ * afterwards, so {@link #snapshot()}, {@link #restore(Snapshot)} and {@link #fork()} share it rather than copying it.
+ * <p>
+ * A session must not be used by several threads at once; {@link #fork()} it to continue a conversation in parallel.
+ */
+public class GenerateSession {
+
+    private final OllamaAPI ollamaAPI;
+    private final String model;
+    private final Map<String, Object> options;
+    private String system;
+    private String keepAlive;
+    private volatile int[] context;
+
+    /**
+     * @param ollamaAPI client that sends the requests
+     * @param model     the ollama model to generate with
+     * @param options   the options of every request of the session; may be null
+     */
+    public GenerateSession(OllamaAPI ollamaAPI, String model, Options options) {
+        this(ollamaAPI, model, options != null ? options.getOptionsMap() : null, null, null, null);
+    }
+
+    private GenerateSession(OllamaAPI ollamaAPI, String model, Map<String, Object> options, String system, String keepAlive, int[] context) {
+        this.ollamaAPI = ollamaAPI;
+        this.model = model;
+        this.options = options;
+        this.system = system;
+        this.keepAlive = keepAlive;
+        this.context = context;
+    }
+
+    /**
+     * Sets the system message, sent with the first prompt of the session only, as the context holds it afterwards.
+     *
+     * @param system the system message
+     * @return this session
+     */
+    public GenerateSession withSystem(String system) {
+        this.system = system;
+        return this;
+    }
+
+    /**
+     * Sets how long the server keeps the model loaded after a request, e.g. {@code "30m"}. The cache of the context is
+     * lost when the model is unloaded, and the next turn evaluates the whole context again.
+     *
+     * @param keepAlive the duration
+     * @return this session
+     */
+    public GenerateSession withKeepAlive(String keepAlive) {
+        this.keepAlive = keepAlive;
+        return this;
+    }
+
+    /**
+     * Sends a prompt, continuing from the context of the previous response, and keeps the context of the response.
+     *
+     * @param prompt the prompt
+     * @return the last response part, with the whole response text and the token counts
+     * @throws OllamaBaseException  if the response indicates an error status
+     * @throws IOException          if an I/O error occurs during the HTTP request
+     * @throws InterruptedException if the operation is interrupted
+     */
+    public OllamaGenerateResponseModel generate(String prompt) throws OllamaBaseException, IOException, InterruptedException {
+        return generate(prompt, null);
+    }
+
+    /**
+     * Sends a prompt, continuing from the context of the previous response, and keeps the context of the response.
+     *
+     * @param prompt        the prompt
+     * @param streamHandler optional callback consumer that will be applied every time a streamed response is received
+     * @return the last response part, with the whole response text and the token counts
+     * @throws OllamaBaseException  if the response indicates an error status
+     * @throws IOException          if an I/O error occurs during the HTTP request
+     * @throws InterruptedException if the operation is interrupted
+     */
+    public OllamaGenerateResponseModel generate(String prompt, OllamaStreamHandler streamHandler) throws OllamaBaseException, IOException, InterruptedException {
+        int[] previous = context;
+        OllamaGenerateRequest request = new OllamaGenerateRequest(model, prompt);
+        request.setOptions(options);
+        request.setKeepAlive(keepAlive);
+        if (previous != null) {
+            request.setContext(previous);
+        } else {
+            request.setSystem(system);
+        }
+        OllamaGenerateResponseModel response = ollamaAPI.generateResponse(request, streamHandler);
+        List<Integer> tokens = response.getContext();
+        if (tokens == null) {
+            throw new OllamaBaseException("The response of the model has no context to continue from");
+        }
+        int[] next = new int[tokens.size()];
+        for (int i = 0; i < next.length; i++) {
+            next[i] = tokens.get(i);
+        }
+        context = next;
+        return response;
+    }
+
+    /**
+     * @return the state of the conversation, to {@link #restore(Snapshot) restore} it later; the context is shared,
+     * not copied
+     */
+    public Snapshot snapshot() {
+        return new Snapshot(context);
+    }
+
+    /**
+     * Continues the conversation from a snapshot of this or another session of the same model.
+     *
+     * @param snapshot the snapshot
+     */
+    public void restore(Snapshot snapshot) {
+        context = snapshot.context;
+    }
+
+    /**
+     * @return a new session continuing the same conversation independently of this one; the context is shared, not
+     * copied
+     */
+    public GenerateSession fork() {
+        return new GenerateSession(ollamaAPI, model, options, system, keepAlive, context);
+    }
+
+    /**
+     * Starts the conversation over; the next prompt is sent with the system message and without context.
+     */
+    public void reset() {
+        context = null;
+    }
+
+    /**
+     * @return a copy of the context of the last response, null before the first response
+     */
+    public int[] getContext() {
+        int[] current = context;
+        return current != null ? current.clone() : null;
+    }
+
+    /**
+     * @return the number of tokens of the context, 0 before the first response
+     */
+    public int getContextLength() {
+        int[] current = context;
+        return current != null ? current.length : 0;
+    }
+
+    public String getModel() {
+        return model;
+    }
+
+    /**
+     * The state of a {@link GenerateSession} at some point of the conversation.
+     */
+    public static final class Snapshot {
+
+        private final int[] context;
+
+        private Snapshot(int[] context) {
+            this.context = context;
+        }
+
+        /**
+         * @return the number of tokens of the context, 0 for the start of a conversation
+         */
+        public int getContextLength() {
+            return context != null ? context.length : 0;
+        }
+    }
+}
@@ -1,9 +1,15 @@
 package io.github.ollama4j.models.generate;
 
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import io.github.ollama4j.models.request.ImageAttachment;
 import io.github.ollama4j.models.request.OllamaCommonRequest;
+import io.github.ollama4j.utils.FileToBase64Serializer;
 import io.github.ollama4j.utils.OllamaRequestBody;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import lombok.Getter;
@@ -14,10 +20,21 @@ import lombok.Setter;
 public class OllamaGenerateRequest extends OllamaCommonRequest implements OllamaRequestBody{
 
   private String prompt;
+  @JsonProperty(value = "images", access = JsonProperty.Access.WRITE_ONLY)
   private List<String> images;
 
+  /**
+   * Images read and base64 encoded only while the request is serialized, sent after {@link #images}.
+   */
+  @JsonIgnore
+  private List<ImageAttachment> imageAttachments;
+
   private String system;
-  private String context;
+
+  /**
+   * Token ids returned as {@link OllamaGenerateResponseModel#getContext()} by the previous request, to continue from it.
+   */
+  private int[] context;
   private boolean raw;
 
   public OllamaGenerateRequest() {
@@ -34,6 +51,17 @@ public class OllamaGenerateRequest extends OllamaCommonRequest implements Ollama
     this.images = images;
   }
 
+  @JsonProperty("images")
+  @JsonSerialize(using = FileToBase64Serializer.class)
+  private List<Object> getSerializedImages() {
+    if (imageAttachments == null || imageAttachments.isEmpty()) {
+      return images == null ? null : new ArrayList<>(images);
+    }
+    List<Object> serializedImages = images == null ? new ArrayList<>() : new ArrayList<>(images);
+    serializedImages.addAll(imageAttachments);
+    return serializedImages;
+  }
+
     @Override
   public boolean equals(Object o) {
     if (!(o instanceof OllamaGenerateRequest)) {
@@ -1,7 +1,10 @@
 package io.github.ollama4j.models.generate;
 
+import io.github.ollama4j.models.request.ImageAttachment;
 import io.github.ollama4j.utils.Options;
 
+import java.util.List;
+
 /**
  * Helper class for creating {@link OllamaGenerateRequest}
  * objects using the builder-pattern.
@@ -26,6 +29,11 @@ public class OllamaGenerateRequestBuilder {
         request.setPrompt(prompt);
         return this;
     }
+
+    public OllamaGenerateRequestBuilder withImages(List<ImageAttachment> images){
+        request.setImageAttachments(images);
+        return this;
+    }
     
     public OllamaGenerateRequestBuilder withGetJsonResponse(){
         this.request.setReturnFormatJson(true);
@@ -3,9 +3,10 @@ package io.github.ollama4j.models.generate;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
-import java.util.List;
 import lombok.Data;
 
+import java.util.List;
+
 @Data
 @JsonIgnoreProperties(ignoreUnknown = true)
 public class OllamaGenerateResponseModel {
@@ -13,6 +14,10 @@ public class OllamaGenerateResponseModel {
     private @JsonProperty("created_at") String createdAt;
     private String response;
     private boolean done;
+    /**
+     * Token ids of the prompt and the response, sent as {@link OllamaGenerateRequest#getContext()} to continue from them;
+     * only in the last response part.
+     */
     private List<Integer> context;
     private @JsonProperty("total_duration") Long totalDuration;
     private @JsonProperty("load_duration") Long loadDuration;
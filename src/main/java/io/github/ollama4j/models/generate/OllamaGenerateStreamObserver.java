@@ -1,29 +1,91 @@
 package io.github.ollama4j.models.generate;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.function.Consumer;
 
 public class OllamaGenerateStreamObserver {
 
-    private OllamaStreamHandler streamHandler;
+    private final OllamaStreamHandler streamHandler;
 
-    private List<OllamaGenerateResponseModel> responseParts = new ArrayList<>();
+    private final List<OllamaGenerateResponseModel> responseParts;
 
-    private String message = "";
+    private final Consumer<OllamaGenerateResponseModel> partListener;
+
+    private final StringBuilder buffer = new StringBuilder();
+
+    private final OllamaStreamText response = new OllamaStreamText(buffer);
 
     public OllamaGenerateStreamObserver(OllamaStreamHandler streamHandler) {
+        this(streamHandler, false);
+    }
+
+    /**
+     * @param streamHandler       handler notified for every response part. An {@link OllamaStreamDeltaHandler} receives
+     *                            only the new fragment, any other handler the whole response received so far.
+     * @param retainResponseParts keep every response part, see {@link #getResponseParts()}
+     */
+    public OllamaGenerateStreamObserver(OllamaStreamHandler streamHandler, boolean retainResponseParts) {
+        this(streamHandler, retainResponseParts, null);
+    }
+
+    /**
+     * @param streamHandler       handler notified for every response part, see
+     *                            {@link #OllamaGenerateStreamObserver(OllamaStreamHandler, boolean)}, may be null
+     * @param retainResponseParts keep every response part, see {@link #getResponseParts()}
+     * @param partListener        notified of every response part as received, before the stream handler, may be null
+     */
+    public OllamaGenerateStreamObserver(OllamaStreamHandler streamHandler, boolean retainResponseParts,
+                                        Consumer<OllamaGenerateResponseModel> partListener) {
         this.streamHandler = streamHandler;
+        this.responseParts = retainResponseParts ? new ArrayList<>() : null;
+        this.partListener = partListener;
+    }
+
+    /**
+     * Creates an observer only passing the response parts to the given listener.
+     *
+     * @param partListener notified of every response part as received
+     * @return the observer
+     */
+    public static OllamaGenerateStreamObserver ofParts(Consumer<OllamaGenerateResponseModel> partListener) {
+        return new OllamaGenerateStreamObserver(null, false, partListener);
     }
 
     public void notify(OllamaGenerateResponseModel currentResponsePart) {
-        responseParts.add(currentResponsePart);
+        if (responseParts != null) {
+            responseParts.add(currentResponsePart);
+        }
+        if (partListener != null) {
+            partListener.accept(currentResponsePart);
+        }
         handleCurrentResponsePart(currentResponsePart);
     }
 
     protected void handleCurrentResponsePart(OllamaGenerateResponseModel currentResponsePart) {
-        message = message + currentResponsePart.getResponse();
-        streamHandler.accept(message);
+        String fragment = currentResponsePart.getResponse();
+        if (fragment != null) {
+            buffer.append(fragment);
+        }
+        if (streamHandler instanceof OllamaStreamDeltaHandler) {
+            streamHandler.accept(fragment != null ? fragment : "");
+        } else if (streamHandler != null) {
+            streamHandler.accept(buffer.toString());
+        }
     }
 
+    /**
+     * @return view of the response text received so far
+     */
+    public CharSequence getResponse() {
+        return response;
+    }
 
+    /**
+     * @return the response parts received so far, empty unless the observer was created to retain them
+     */
+    public List<OllamaGenerateResponseModel> getResponseParts() {
+        return responseParts != null ? Collections.unmodifiableList(responseParts) : Collections.emptyList();
+    }
 }
@@ -0,0 +1,30 @@
+package io.github.ollama4j.models.generate;
+
+/**
+ * {@link OllamaStreamHandler} that receives only the newly streamed fragment of the response instead of the whole
+ * response accumulated so far.
+ * <p>
+ * Every API method that accepts an {@link OllamaStreamHandler} switches to delta mode when given an instance of this
+ * interface, e.g.
+ * <pre>{@code
+ * OllamaStreamDeltaHandler handler = System.out::print;
+ * ollamaAPI.generate(model, prompt, false, options, handler);
+ * }</pre>
+ * Callers that also need the running text wrap the handler in an observer they keep, pass it to
+ * {@link io.github.ollama4j.OllamaAPI#generateStreaming} or {@link io.github.ollama4j.OllamaAPI#chatStreaming}, and
+ * read the text from {@link OllamaGenerateStreamObserver#getResponse()} or
+ * {@link io.github.ollama4j.models.chat.OllamaChatStreamObserver#getResponse()}:
+ * <pre>{@code
+ * OllamaChatStreamObserver observer = new OllamaChatStreamObserver(handler);
+ * ollamaAPI.chatStreaming(request, observer);
+ * }</pre>
+ */
+@FunctionalInterface
+public interface OllamaStreamDeltaHandler extends OllamaStreamHandler {
+
+    /**
+     * @param delta the fragment of the response streamed since the previous call
+     */
+    @Override
+    void accept(String delta);
+}
@@ -0,0 +1,40 @@
+package io.github.ollama4j.models.generate;
+
+/**
+ * Read-only {@link CharSequence} view of the text of a streamed response, backed by a growable buffer that the stream
+ * observer owning it appends each fragment to. Appending is amortized O(1), so accumulating a response is linear in its
+ * length.
+ * <p>
+ * The view reflects fragments appended after it was obtained; use {@link #toString()} for a snapshot.
+ */
+public final class OllamaStreamText implements CharSequence {
+
+    private final StringBuilder buffer;
+
+    /**
+     * @param buffer the buffer to view, only written by the creator of the view
+     */
+    public OllamaStreamText(StringBuilder buffer) {
+        this.buffer = buffer;
+    }
+
+    @Override
+    public int length() {
+        return buffer.length();
+    }
+
+    @Override
+    public char charAt(int index) {
+        return buffer.charAt(index);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return buffer.subSequence(start, end);
+    }
+
+    @Override
+    public String toString() {
+        return buffer.toString();
+    }
+}
@@ -0,0 +1,116 @@
+package io.github.ollama4j.models.request;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * An image sent with a chat message or generate request that is only read while the request body is being written.
+ * <p>
+ * The content is base64 encoded on the fly by {@link io.github.ollama4j.utils.FileToBase64Serializer} into the
+ * request body (see {@link io.github.ollama4j.utils.JsonBodyPublisher}), so neither the raw bytes of a file nor their
+ * encoding are held by the request object. A file is read again every time the request is serialized.
+ */
+public abstract class ImageAttachment {
+
+    /**
+     * @param path image file, opened when the request body is written
+     * @return attachment reading the file on demand
+     */
+    public static ImageAttachment of(Path path) {
+        return new PathAttachment(path);
+    }
+
+    /**
+     * @param buffer image content, e.g. a memory-mapped file. The content between the buffer's position and limit at
+     *               the time of this call is sent; the buffer itself is not modified.
+     * @return attachment reading the buffer on demand
+     */
+    public static ImageAttachment of(ByteBuffer buffer) {
+        return new BufferAttachment(buffer.asReadOnlyBuffer());
+    }
+
+    /**
+     * Maps the given file into memory read-only, so its pages are loaded by the OS while the request body is written
+     * and can be dropped again afterwards.
+     *
+     * @param path image file
+     * @return attachment backed by the mapped file
+     * @throws IOException if the file cannot be opened or mapped
+     */
+    public static ImageAttachment map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return of(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * @return a new stream over the image content, closed by the caller
+     * @throws IOException if the content cannot be read
+     */
+    public abstract InputStream openStream() throws IOException;
+
+    private static final class PathAttachment extends ImageAttachment {
+        private final Path path;
+
+        private PathAttachment(Path path) {
+            this.path = path;
+        }
+
+        @Override
+        public InputStream openStream() throws IOException {
+            return Files.newInputStream(path);
+        }
+
+        @Override
+        public String toString() {
+            return "ImageAttachment(" + path + ")";
+        }
+    }
+
+    private static final class BufferAttachment extends ImageAttachment {
+        private final ByteBuffer buffer;
+
+        private BufferAttachment(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public InputStream openStream() {
+            ByteBuffer content = buffer.duplicate();
+            return new InputStream() {
+                @Override
+                public int read() {
+                    return content.hasRemaining() ? content.get() & 0xFF : -1;
+                }
+
+                @Override
+                public int read(byte[] bytes, int offset, int length) {
+                    if (length == 0) {
+                        return 0;
+                    }
+                    if (!content.hasRemaining()) {
+                        return -1;
+                    }
+                    int count = Math.min(length, content.remaining());
+                    content.get(bytes, offset, count);
+                    return count;
+                }
+
+                @Override
+                public int available() {
+                    return content.remaining();
+                }
+            };
+        }
+
+        @Override
+        public String toString() {
+            return "ImageAttachment(" + buffer.remaining() + " bytes)";
+        }
+    }
+}
@@ -1,25 +1,23 @@
 package io.github.ollama4j.models.request;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.MappingIterator;
 import io.github.ollama4j.exceptions.OllamaBaseException;
 import io.github.ollama4j.models.chat.*;
 import io.github.ollama4j.models.generate.OllamaTokenHandler;
-import io.github.ollama4j.models.response.OllamaErrorResponse;
+import io.github.ollama4j.models.response.OllamaStreamPublisher;
 import io.github.ollama4j.utils.Utils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
-import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * Specialization class for requests
@@ -34,40 +32,34 @@ public class OllamaChatEndpointCaller extends OllamaEndpointCaller {
         super(host, basicAuth, requestTimeoutSeconds, verbose);
     }
 
+    public OllamaChatEndpointCaller(String host, BasicAuth basicAuth, long requestTimeoutSeconds, boolean verbose, HttpClient httpClient) {
+        super(host, basicAuth, requestTimeoutSeconds, verbose, httpClient);
+    }
+
     @Override
     protected String getEndpointSuffix() {
         return "/api/chat";
     }
 
     /**
-     * Parses streamed Response line from ollama chat.
-     * Using {@link com.fasterxml.jackson.databind.ObjectMapper#readValue(String, TypeReference)} should throw
-     * {@link IllegalArgumentException} in case of null line or {@link com.fasterxml.jackson.core.JsonParseException}
-     * in case the JSON Object cannot be parsed to a {@link OllamaChatResponseModel}. Thus, the ResponseModel should
-     * never be null.
+     * Adds the message content of a parsed response part to the buffer and passes the part to the token handler.
      *
-     * @param line streamed line of ollama stream response
-     * @param responseBuffer Stringbuffer to add latest response message part to
+     * @param ollamaResponseModel parsed part of the ollama stream response
+     * @param responseBuffer      Stringbuffer to add latest response message part to
+     * @param tokenHandler        optional callback for streamed responses, may be null
      * @return TRUE, if ollama-Response has 'done' state
      */
-    @Override
-    protected boolean parseResponseAndAddToBuffer(String line, StringBuilder responseBuffer) {
-        try {
-            OllamaChatResponseModel ollamaResponseModel = Utils.getObjectMapper().readValue(line, OllamaChatResponseModel.class);
-            // it seems that under heavy load ollama responds with an empty chat message part in the streamed response
-            // thus, we null check the message and hope that the next streamed response has some message content again
-            OllamaChatMessage message = ollamaResponseModel.getMessage();
-            if(message != null) {
-                responseBuffer.append(message.getContent());
-                if (tokenHandler != null) {
-                    tokenHandler.accept(ollamaResponseModel);
-                }
+    private static boolean addToBuffer(OllamaChatResponseModel ollamaResponseModel, StringBuilder responseBuffer, OllamaTokenHandler tokenHandler) {
+        // it seems that under heavy load ollama responds with an empty chat message part in the streamed response
+        // thus, we null check the message and hope that the next streamed response has some message content again
+        OllamaChatMessage message = ollamaResponseModel.getMessage();
+        if (message != null) {
+            responseBuffer.append(message.getContent());
+            if (tokenHandler != null) {
+                tokenHandler.accept(ollamaResponseModel);
             }
-            return ollamaResponseModel.isDone();
-        } catch (JsonProcessingException e) {
-            LOG.error("Error parsing the Ollama chat response!", e);
-            return true;
         }
+        return ollamaResponseModel.isDone();
     }
 
     public OllamaChatResult call(OllamaChatRequest body, OllamaTokenHandler tokenHandler)
@@ -76,14 +68,52 @@ public class OllamaChatEndpointCaller extends OllamaEndpointCaller {
         return callSync(body);
     }
 
+    /**
+     * Creates a publisher of the streamed response parts. The request is sent once a subscriber subscribes and the
+     * response is read only as fast as the subscriber requests parts. The stream parameter of the body has to be set.
+     *
+     * @param body POST body payload
+     * @return publisher of the response parts
+     */
+    public OllamaStreamPublisher<OllamaChatResponseModel> callStreaming(OllamaChatRequest body) {
+        URI uri = URI.create(getHost() + getEndpointSuffix());
+        HttpRequest request = getRequestBuilderDefault(uri).POST(getBodyPublisher(body)).build();
+        if (isVerbose()) LOG.info("Asking model: " + body);
+        return new OllamaStreamPublisher<>(handler -> getHttpClient().sendAsync(request, handler), OllamaChatResponseModel.class);
+    }
+
+    /**
+     * Calls the api server without blocking the calling thread. Cancelling the returned future aborts the HTTP
+     * exchange.
+     *
+     * @param body         request to send
+     * @param tokenHandler optional callback for streamed responses, may be null
+     * @return future completed with the chat result, or failed with an {@link OllamaBaseException} if any response
+     * code than 200 has been returned
+     */
+    public CompletableFuture<OllamaChatResult> callAsync(OllamaChatRequest body, OllamaTokenHandler tokenHandler) {
+        StreamedChatResponse streamedResponse = new StreamedChatResponse(body.stream, tokenHandler);
+        CompletableFuture<Void> response = callStreaming(body).consume(streamedResponse::add);
+        return Utils.propagateCancellation(response.thenApply(ignored -> {
+            OllamaChatResult ollamaResult;
+            try {
+                ollamaResult = new OllamaChatResult(streamedResponse.complete(), body.getMessages());
+            } catch (OllamaBaseException e) {
+                throw new CompletionException(e);
+            }
+            if (isVerbose()) LOG.info("Model response: " + ollamaResult);
+            return ollamaResult;
+        }), response);
+    }
+
     public OllamaChatResult callSync(OllamaChatRequest body) throws OllamaBaseException, IOException, InterruptedException {
         // Create Request
-        HttpClient httpClient = HttpClient.newHttpClient();
+        HttpClient httpClient = getHttpClient();
         URI uri = URI.create(getHost() + getEndpointSuffix());
         HttpRequest.Builder requestBuilder =
                 getRequestBuilderDefault(uri)
                         .POST(
-                                body.getBodyPublisher());
+                                getBodyPublisher(body));
         HttpRequest request = requestBuilder.build();
         if (isVerbose()) LOG.info("Asking model: " + body);
         HttpResponse<InputStream> response =
@@ -91,54 +121,70 @@ public class OllamaChatEndpointCaller extends OllamaEndpointCaller {
 
         int statusCode = response.statusCode();
         InputStream responseBodyStream = response.body();
-        StringBuilder responseBuffer = new StringBuilder();
-        OllamaChatResponseModel ollamaChatResponseModel = null;
-        List<OllamaChatToolCalls> wantedToolsForStream = null;
-        try (BufferedReader reader =
-                     new BufferedReader(new InputStreamReader(responseBodyStream, StandardCharsets.UTF_8))) {
-
-            String line;
-            while ((line = reader.readLine()) != null) {
-                if (statusCode == 404) {
-                    LOG.warn("Status code: 404 (Not Found)");
-                    OllamaErrorResponse ollamaResponseModel =
-                            Utils.getObjectMapper().readValue(line, OllamaErrorResponse.class);
-                    responseBuffer.append(ollamaResponseModel.getError());
-                } else if (statusCode == 401) {
-                    LOG.warn("Status code: 401 (Unauthorized)");
-                    OllamaErrorResponse ollamaResponseModel =
-                            Utils.getObjectMapper()
-                                    .readValue("{\"error\":\"Unauthorized\"}", OllamaErrorResponse.class);
-                    responseBuffer.append(ollamaResponseModel.getError());
-                } else if (statusCode == 400) {
-                    LOG.warn("Status code: 400 (Bad Request)");
-                    OllamaErrorResponse ollamaResponseModel = Utils.getObjectMapper().readValue(line,
-                            OllamaErrorResponse.class);
-                    responseBuffer.append(ollamaResponseModel.getError());
-                } else {
-                    boolean finished = parseResponseAndAddToBuffer(line, responseBuffer);
-                        ollamaChatResponseModel = Utils.getObjectMapper().readValue(line, OllamaChatResponseModel.class);
-                    if(body.stream && ollamaChatResponseModel.getMessage().getToolCalls() != null){
-                        wantedToolsForStream = ollamaChatResponseModel.getMessage().getToolCalls();
-                    }
-                    if (finished && body.stream) {
-                        ollamaChatResponseModel.getMessage().setContent(responseBuffer.toString());
-                        break;
-                    }
-                }
-            }
-        }
         if (statusCode != 200) {
+            StringBuilder responseBuffer = new StringBuilder();
+            readErrorResponse(statusCode, responseBodyStream, responseBuffer);
             LOG.error("Status code " + statusCode);
             throw new OllamaBaseException(responseBuffer.toString());
-        } else {
-            if(wantedToolsForStream != null) {
-                ollamaChatResponseModel.getMessage().setToolCalls(wantedToolsForStream);
+        }
+        StreamedChatResponse streamedResponse = new StreamedChatResponse(body.stream, tokenHandler);
+        try (MappingIterator<OllamaChatResponseModel> responseParts = readResponseParts(responseBodyStream, OllamaChatResponseModel.class)) {
+            while (responseParts.hasNextValue()) {
+                if (streamedResponse.add(responseParts.nextValue())) {
+                    break;
+                }
             }
-            OllamaChatResult ollamaResult =
-                    new OllamaChatResult(ollamaChatResponseModel,body.getMessages());
-            if (isVerbose()) LOG.info("Model response: " + ollamaResult);
-            return ollamaResult;
+        }
+        OllamaChatResult ollamaResult = new OllamaChatResult(streamedResponse.complete(), body.getMessages());
+        if (isVerbose()) LOG.info("Model response: " + ollamaResult);
+        return ollamaResult;
+    }
+
+    /**
+     * Collects the parts of a (streamed) chat response into the final response model.
+     */
+    private static class StreamedChatResponse {
+
+        private final boolean stream;
+        private final OllamaTokenHandler tokenHandler;
+        private final StringBuilder responseBuffer = new StringBuilder();
+        private OllamaChatResponseModel lastResponseModel;
+        private List<OllamaChatToolCalls> wantedToolsForStream;
+
+        StreamedChatResponse(boolean stream, OllamaTokenHandler tokenHandler) {
+            this.stream = stream;
+            this.tokenHandler = tokenHandler;
+        }
+
+        /**
+         * @param ollamaChatResponseModel parsed part of the response
+         * @return TRUE, if ollama-Response has 'done' state
+         */
+        boolean add(OllamaChatResponseModel ollamaChatResponseModel) {
+            lastResponseModel = ollamaChatResponseModel;
+            boolean finished = addToBuffer(ollamaChatResponseModel, responseBuffer, tokenHandler);
+            OllamaChatMessage message = ollamaChatResponseModel.getMessage();
+            if (stream && message != null && message.getToolCalls() != null) {
+                wantedToolsForStream = message.getToolCalls();
+            }
+            return finished;
+        }
+
+        /**
+         * @return the last part, holding the whole content of a streamed response
+         * @throws OllamaBaseException if the response had no parts
+         */
+        OllamaChatResponseModel complete() throws OllamaBaseException {
+            if (lastResponseModel == null) {
+                throw new OllamaBaseException("empty response");
+            }
+            if (stream && lastResponseModel.getMessage() != null) {
+                lastResponseModel.getMessage().setContent(responseBuffer.toString());
+            }
+            if (wantedToolsForStream != null) {
+                lastResponseModel.getMessage().setToolCalls(wantedToolsForStream);
+            }
+            return lastResponseModel;
         }
     }
 }
@@ -0,0 +1,78 @@
+package io.github.ollama4j.models.request;
+
+import io.github.ollama4j.exceptions.OllamaBaseException;
+import io.github.ollama4j.models.embeddings.OllamaEmbedRequestModel;
+import io.github.ollama4j.models.embeddings.OllamaEmbedResponseModel;
+import io.github.ollama4j.utils.Utils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Specialization class for requests against the '/api/embed' endpoint.
+ */
+public class OllamaEmbedEndpointCaller extends OllamaEndpointCaller {
+
+    private static final Logger LOG = LoggerFactory.getLogger(OllamaEmbedEndpointCaller.class);
+
+    public OllamaEmbedEndpointCaller(String host, BasicAuth basicAuth, long requestTimeoutSeconds, boolean verbose, HttpClient httpClient) {
+        super(host, basicAuth, requestTimeoutSeconds, verbose, httpClient);
+    }
+
+    @Override
+    protected String getEndpointSuffix() {
+        return "/api/embed";
+    }
+
+    /**
+     * The embed endpoint does not stream, so all lines are collected and parsed once the response is complete.
+     *
+     * @param line           line of the response body
+     * @param responseBuffer buffer to add the line to
+     * @return always FALSE, the response is complete once the body has been read
+     */
+    private boolean parseResponseAndAddToBuffer(String line, StringBuilder responseBuffer) {
+        responseBuffer.append(line);
+        return false;
+    }
+
+    /**
+     * Calls the api server without blocking the calling thread. Cancelling the returned future aborts the HTTP
+     * exchange.
+     *
+     * @param body request to send
+     * @return future completed with the embeddings, or failed with an {@link OllamaBaseException} if any response
+     * code than 200 has been returned
+     */
+    public CompletableFuture<OllamaEmbedResponseModel> callAsync(OllamaEmbedRequestModel body) {
+        URI uri = URI.create(getHost() + getEndpointSuffix());
+        String jsonData;
+        try {
+            jsonData = Utils.getObjectMapper().writeValueAsString(body);
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        HttpRequest request = getRequestBuilderDefault(uri).header("Accept", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(jsonData)).build();
+        StringBuilder responseBuffer = new StringBuilder();
+        CompletableFuture<Integer> response = sendAsync(request, (statusCode, line) -> parseResponseAndAddToBuffer(line, responseBuffer));
+        return Utils.propagateCancellation(response.thenApply(statusCode -> {
+            String responseBody = responseBuffer.toString();
+            if (statusCode != 200) {
+                LOG.error("Status code " + statusCode);
+                throw new CompletionException(new OllamaBaseException(statusCode + " - " + responseBody));
+            }
+            try {
+                return Utils.getObjectMapper().readValue(responseBody, OllamaEmbedResponseModel.class);
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        }), response);
+    }
+}
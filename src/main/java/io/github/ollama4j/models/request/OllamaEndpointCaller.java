@@ -1,12 +1,15 @@
 package io.github.ollama4j.models.request;
 
+import com.fasterxml.jackson.databind.MappingIterator;
 import io.github.ollama4j.OllamaAPI;
 import io.github.ollama4j.exceptions.OllamaBaseException;
 import io.github.ollama4j.models.response.OllamaErrorResponse;
 import io.github.ollama4j.models.response.OllamaResult;
+import io.github.ollama4j.utils.Base64Cache;
 import io.github.ollama4j.utils.OllamaRequestBody;
 import io.github.ollama4j.utils.Utils;
 import lombok.Getter;
+import lombok.Setter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -21,6 +24,9 @@ import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.util.Base64;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Flow;
 
 /**
  * Abstract helperclass to call the ollama api server.
@@ -34,19 +40,140 @@ public abstract class OllamaEndpointCaller {
     private final BasicAuth basicAuth;
     private final long requestTimeoutSeconds;
     private final boolean verbose;
+    private final HttpClient httpClient;
+    /**
+     * -- SETTER --
+     * Set the cache of the encodings of large images sent with requests, null (the default) to encode every image.
+     */
+    @Setter
+    private Base64Cache base64Cache;
 
     public OllamaEndpointCaller(String host, BasicAuth basicAuth, long requestTimeoutSeconds, boolean verbose) {
+        this(host, basicAuth, requestTimeoutSeconds, verbose, HttpClient.newHttpClient());
+    }
+
+    public OllamaEndpointCaller(String host, BasicAuth basicAuth, long requestTimeoutSeconds, boolean verbose, HttpClient httpClient) {
         this.host = host;
         this.basicAuth = basicAuth;
         this.requestTimeoutSeconds = requestTimeoutSeconds;
         this.verbose = verbose;
+        this.httpClient = httpClient;
     }
 
     protected abstract String getEndpointSuffix();
 
-    protected abstract boolean parseResponseAndAddToBuffer(String line, StringBuilder responseBuffer);
+    /**
+     * Handles a single line of a (streamed) response body.
+     */
+    @FunctionalInterface
+    protected interface ResponseLineHandler {
+
+        /**
+         * @param statusCode HTTP status code of the response
+         * @param line       line of the response body
+         * @return TRUE, if the response is complete and further lines can be ignored
+         * @throws IOException in case the line can not be parsed
+         */
+        boolean handle(int statusCode, String line) throws IOException;
+    }
+
+    /**
+     * Sends the request without blocking a thread while waiting for the response. Every line of the response body
+     * is passed to the given handler as soon as it has been received.
+     * <p>
+     * Cancelling the returned future aborts the HTTP exchange.
+     *
+     * @param request     request to send
+     * @param lineHandler handler for the lines of the response body
+     * @return future completed with the HTTP status code once the response body has been consumed
+     */
+    protected CompletableFuture<Integer> sendAsync(HttpRequest request, ResponseLineHandler lineHandler) {
+        CompletableFuture<Integer> result = new CompletableFuture<>();
+        ResponseLineSubscriber lineSubscriber = new ResponseLineSubscriber(lineHandler, result);
+        CompletableFuture<HttpResponse<Void>> responseFuture = httpClient.sendAsync(request, responseInfo -> {
+            lineSubscriber.statusCode = responseInfo.statusCode();
+            return HttpResponse.BodySubscribers.fromLineSubscriber(lineSubscriber);
+        });
+        responseFuture.whenComplete((response, throwable) -> {
+            if (throwable != null) {
+                result.completeExceptionally(throwable instanceof CompletionException ? throwable.getCause() : throwable);
+            } else {
+                result.complete(response.statusCode());
+            }
+        });
+        result.whenComplete((statusCode, throwable) -> {
+            if (result.isCancelled()) {
+                lineSubscriber.cancel();
+                responseFuture.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Logs and appends the error message of a non-200 response line to the buffer.
+     *
+     * @param statusCode     HTTP status code of the response
+     * @param line           line of the response body
+     * @param responseBuffer buffer to add the error message to
+     * @throws IOException in case the error response can not be parsed
+     */
+    protected void appendErrorResponse(int statusCode, String line, StringBuilder responseBuffer) throws IOException {
+        OllamaErrorResponse ollamaErrorResponse;
+        if (statusCode == 401) {
+            LOG.warn("Status code: 401 (Unauthorized)");
+            ollamaErrorResponse = Utils.getObjectMapper().readValue("{\"error\":\"Unauthorized\"}", OllamaErrorResponse.class);
+        } else {
+            LOG.warn("Status code: " + statusCode);
+            ollamaErrorResponse = Utils.getObjectMapper().readValue(line, OllamaErrorResponse.class);
+        }
+        responseBuffer.append(ollamaErrorResponse.getError());
+    }
+
+    /**
+     * Reads the body of a non-200 response and appends its error message(s) to the buffer.
+     *
+     * @param statusCode     HTTP status code of the response
+     * @param responseBody   body of the response, closed after reading
+     * @param responseBuffer buffer to add the error message to
+     * @throws IOException in case the body can not be read or parsed
+     */
+    protected void readErrorResponse(int statusCode, InputStream responseBody, StringBuilder responseBuffer) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(responseBody, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isBlank()) {
+                    appendErrorResponse(statusCode, line, responseBuffer);
+                }
+            }
+        }
+    }
+
+    /**
+     * Creates an iterator parsing the newline delimited JSON objects of a response body one after the other. The
+     * objects are parsed directly from the stream as it is read, without materializing a String per line.
+     *
+     * @param responseBody body of a 200 response
+     * @param responseType type the JSON objects are parsed into
+     * @param <T>          type of the response parts
+     * @return iterator over the parsed response parts; closing it closes the body
+     * @throws IOException in case the body can not be read
+     */
+    protected <T> MappingIterator<T> readResponseParts(InputStream responseBody, Class<T> responseType) throws IOException {
+        return Utils.getObjectMapper().readerFor(responseType).readValues(responseBody);
+    }
 
 
+    /**
+     * Creates the publisher of the request body, which serializes the request while it is sent.
+     *
+     * @param body request to send
+     * @return publisher of the JSON representation of the request
+     */
+    protected HttpRequest.BodyPublisher getBodyPublisher(OllamaRequestBody body) {
+        return body.getBodyPublisher(base64Cache);
+    }
+
     /**
      * Get default request builder.
      *
@@ -83,4 +210,62 @@ public abstract class OllamaEndpointCaller {
         return this.basicAuth != null;
     }
 
+    /**
+     * Passes the lines of a response body to a {@link ResponseLineHandler}. Lines arriving after the handler
+     * reported the response as complete are ignored.
+     */
+    private static class ResponseLineSubscriber implements Flow.Subscriber<String> {
+
+        private final ResponseLineHandler lineHandler;
+        private final CompletableFuture<Integer> result;
+        private volatile Flow.Subscription subscription;
+        private volatile int statusCode;
+        private boolean finished;
+
+        ResponseLineSubscriber(ResponseLineHandler lineHandler, CompletableFuture<Integer> result) {
+            this.lineHandler = lineHandler;
+            this.result = result;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            if (result.isDone()) {
+                subscription.cancel();
+            } else {
+                subscription.request(Long.MAX_VALUE);
+            }
+        }
+
+        @Override
+        public void onNext(String line) {
+            if (finished || result.isDone()) {
+                return;
+            }
+            try {
+                finished = lineHandler.handle(statusCode, line);
+            } catch (IOException | RuntimeException e) {
+                cancel();
+                result.completeExceptionally(e);
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            result.completeExceptionally(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            // the status code is reported by the completion of the response future
+        }
+
+        void cancel() {
+            Flow.Subscription currentSubscription = this.subscription;
+            if (currentSubscription != null) {
+                currentSubscription.cancel();
+            }
+        }
+    }
+
 }
@@ -1,8 +1,8 @@
 package io.github.ollama4j.models.request;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
 import io.github.ollama4j.exceptions.OllamaBaseException;
-import io.github.ollama4j.models.response.OllamaErrorResponse;
+import io.github.ollama4j.models.response.OllamaStreamPublisher;
 import io.github.ollama4j.models.response.OllamaResult;
 import io.github.ollama4j.models.generate.OllamaGenerateResponseModel;
 import io.github.ollama4j.models.generate.OllamaGenerateStreamObserver;
@@ -12,15 +12,13 @@ import io.github.ollama4j.utils.Utils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
-import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
 
 public class OllamaGenerateEndpointCaller extends OllamaEndpointCaller {
 
@@ -32,32 +30,88 @@ public class OllamaGenerateEndpointCaller extends OllamaEndpointCaller {
         super(host, basicAuth, requestTimeoutSeconds, verbose);
     }
 
+    public OllamaGenerateEndpointCaller(String host, BasicAuth basicAuth, long requestTimeoutSeconds, boolean verbose, HttpClient httpClient) {
+        super(host, basicAuth, requestTimeoutSeconds, verbose, httpClient);
+    }
+
     @Override
     protected String getEndpointSuffix() {
         return "/api/generate";
     }
 
-    @Override
-    protected boolean parseResponseAndAddToBuffer(String line, StringBuilder responseBuffer) {
-        try {
-            OllamaGenerateResponseModel ollamaResponseModel = Utils.getObjectMapper().readValue(line, OllamaGenerateResponseModel.class);
-            responseBuffer.append(ollamaResponseModel.getResponse());
-            if (streamObserver != null) {
-                streamObserver.notify(ollamaResponseModel);
-            }
-            return ollamaResponseModel.isDone();
-        } catch (JsonProcessingException e) {
-            LOG.error("Error parsing the Ollama chat response!", e);
-            return true;
+    /**
+     * Adds the response text of a parsed response part to the buffer and notifies the stream observer.
+     *
+     * @param ollamaResponseModel parsed part of the ollama stream response
+     * @param responseBuffer      Stringbuffer to add latest response part to
+     * @param streamObserver      optional observer of streamed responses, may be null
+     * @return TRUE, if ollama-Response has 'done' state
+     */
+    private static boolean addToBuffer(OllamaGenerateResponseModel ollamaResponseModel, StringBuilder responseBuffer, OllamaGenerateStreamObserver streamObserver) {
+        responseBuffer.append(ollamaResponseModel.getResponse());
+        if (streamObserver != null) {
+            streamObserver.notify(ollamaResponseModel);
         }
+        return ollamaResponseModel.isDone();
     }
 
     public OllamaResult call(OllamaRequestBody body, OllamaStreamHandler streamHandler)
             throws OllamaBaseException, IOException, InterruptedException {
-        streamObserver = new OllamaGenerateStreamObserver(streamHandler);
+        return call(body, new OllamaGenerateStreamObserver(streamHandler));
+    }
+
+    /**
+     * Calls the api server and notifies the given observer of every streamed response part.
+     *
+     * @param body           POST body payload, with the stream parameter set
+     * @param streamObserver observer of the streamed response parts
+     * @return result answer given by the assistant
+     * @throws OllamaBaseException  any response code than 200 has been returned
+     * @throws IOException          in case the responseStream can not be read
+     * @throws InterruptedException in case the server is not reachable or network issues happen
+     */
+    public OllamaResult call(OllamaRequestBody body, OllamaGenerateStreamObserver streamObserver)
+            throws OllamaBaseException, IOException, InterruptedException {
+        this.streamObserver = streamObserver;
         return callSync(body);
     }
 
+    /**
+     * Creates a publisher of the streamed response parts. The request is sent once a subscriber subscribes and the
+     * response is read only as fast as the subscriber requests parts. The stream parameter of the body has to be set.
+     *
+     * @param body POST body payload
+     * @return publisher of the response parts
+     */
+    public OllamaStreamPublisher<OllamaGenerateResponseModel> callStreaming(OllamaRequestBody body) {
+        URI uri = URI.create(getHost() + getEndpointSuffix());
+        HttpRequest request = getRequestBuilderDefault(uri).POST(getBodyPublisher(body)).build();
+        if (isVerbose()) LOG.info("Asking model: " + body);
+        return new OllamaStreamPublisher<>(handler -> getHttpClient().sendAsync(request, handler), OllamaGenerateResponseModel.class);
+    }
+
+    /**
+     * Calls the api server on the given host and endpoint suffix without blocking the calling thread.
+     * Cancelling the returned future aborts the HTTP exchange.
+     *
+     * @param body          POST body payload
+     * @param streamHandler optional callback for streamed responses, may be null
+     * @return future completed with the answer given by the assistant, or failed with an
+     * {@link OllamaBaseException} if any response code than 200 has been returned
+     */
+    public CompletableFuture<OllamaResult> callAsync(OllamaRequestBody body, OllamaStreamHandler streamHandler) {
+        long startTime = System.currentTimeMillis();
+        OllamaGenerateStreamObserver observer = streamHandler != null ? new OllamaGenerateStreamObserver(streamHandler) : null;
+        StringBuilder responseBuffer = new StringBuilder();
+        CompletableFuture<Void> response = callStreaming(body).consume(part -> addToBuffer(part, responseBuffer, observer));
+        return Utils.propagateCancellation(response.thenApply(ignored -> {
+            long endTime = System.currentTimeMillis();
+            OllamaResult ollamaResult = new OllamaResult(responseBuffer.toString().trim(), endTime - startTime, 200);
+            if (isVerbose()) LOG.info("Model response: " + ollamaResult);
+            return ollamaResult;
+        }), response);
+    }
+
     /**
      * Calls the api server on the given host and endpoint suffix asynchronously, aka waiting for the response.
      *
@@ -70,12 +124,12 @@ public class OllamaGenerateEndpointCaller extends OllamaEndpointCaller {
     public OllamaResult callSync(OllamaRequestBody body) throws OllamaBaseException, IOException, InterruptedException {
         // Create Request
         long startTime = System.currentTimeMillis();
-        HttpClient httpClient = HttpClient.newHttpClient();
+        HttpClient httpClient = getHttpClient();
         URI uri = URI.create(getHost() + getEndpointSuffix());
         HttpRequest.Builder requestBuilder =
                 getRequestBuilderDefault(uri)
                         .POST(
-                                body.getBodyPublisher());
+                                getBodyPublisher(body));
         HttpRequest request = requestBuilder.build();
         if (isVerbose()) LOG.info("Asking model: " + body.toString());
         HttpResponse<InputStream> response =
@@ -84,29 +138,12 @@ public class OllamaGenerateEndpointCaller extends OllamaEndpointCaller {
         int statusCode = response.statusCode();
         InputStream responseBodyStream = response.body();
         StringBuilder responseBuffer = new StringBuilder();
-        try (BufferedReader reader =
-                     new BufferedReader(new InputStreamReader(responseBodyStream, StandardCharsets.UTF_8))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                if (statusCode == 404) {
-                    LOG.warn("Status code: 404 (Not Found)");
-                    OllamaErrorResponse ollamaResponseModel =
-                            Utils.getObjectMapper().readValue(line, OllamaErrorResponse.class);
-                    responseBuffer.append(ollamaResponseModel.getError());
-                } else if (statusCode == 401) {
-                    LOG.warn("Status code: 401 (Unauthorized)");
-                    OllamaErrorResponse ollamaResponseModel =
-                            Utils.getObjectMapper()
-                                    .readValue("{\"error\":\"Unauthorized\"}", OllamaErrorResponse.class);
-                    responseBuffer.append(ollamaResponseModel.getError());
-                } else if (statusCode == 400) {
-                    LOG.warn("Status code: 400 (Bad Request)");
-                    OllamaErrorResponse ollamaResponseModel = Utils.getObjectMapper().readValue(line,
-                            OllamaErrorResponse.class);
-                    responseBuffer.append(ollamaResponseModel.getError());
-                } else {
-                    boolean finished = parseResponseAndAddToBuffer(line, responseBuffer);
-                    if (finished) {
+        if (statusCode != 200) {
+            readErrorResponse(statusCode, responseBodyStream, responseBuffer);
+        } else {
+            try (MappingIterator<OllamaGenerateResponseModel> responseParts = readResponseParts(responseBodyStream, OllamaGenerateResponseModel.class)) {
+                while (responseParts.hasNextValue()) {
+                    if (addToBuffer(responseParts.nextValue(), responseBuffer, streamObserver)) {
                         break;
                     }
                 }
@@ -1,5 +1,6 @@
 package io.github.ollama4j.models.response;
 
+import com.fasterxml.jackson.databind.MappingIterator;
 import io.github.ollama4j.exceptions.OllamaBaseException;
 import io.github.ollama4j.models.generate.OllamaGenerateRequest;
 import io.github.ollama4j.models.generate.OllamaGenerateResponseModel;
@@ -9,20 +10,18 @@ import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.Setter;
 
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
-import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 
 @Data
 @EqualsAndHashCode(callSuper = true)
 @SuppressWarnings("unused")
 public class OllamaAsyncResultStreamer extends Thread {
+    private final HttpClient httpClient;
     private final HttpRequest.Builder requestBuilder;
     private final OllamaGenerateRequest ollamaRequestModel;
     private final OllamaResultStream stream = new OllamaResultStream();
@@ -40,6 +39,13 @@ public class OllamaAsyncResultStreamer extends Thread {
     @Setter
     private long requestTimeoutSeconds;
 
+    /**
+     * -- GETTER -- Returns true once the request has finished, successfully or not. Unlike {@link #isAlive()}, this
+     * also works when the streamer has been run by an executor instead of being started as its own thread.
+     */
+    @Getter
+    private volatile boolean completed;
+
     /**
      * -- GETTER -- Returns the HTTP response status code for the request that was made to Ollama
      * server.
@@ -57,6 +63,15 @@ public class OllamaAsyncResultStreamer extends Thread {
             HttpRequest.Builder requestBuilder,
             OllamaGenerateRequest ollamaRequestModel,
             long requestTimeoutSeconds) {
+        this(HttpClient.newHttpClient(), requestBuilder, ollamaRequestModel, requestTimeoutSeconds);
+    }
+
+    public OllamaAsyncResultStreamer(
+            HttpClient httpClient,
+            HttpRequest.Builder requestBuilder,
+            OllamaGenerateRequest ollamaRequestModel,
+            long requestTimeoutSeconds) {
+        this.httpClient = httpClient;
         this.requestBuilder = requestBuilder;
         this.ollamaRequestModel = ollamaRequestModel;
         this.completeResponse = "";
@@ -67,14 +82,11 @@ public class OllamaAsyncResultStreamer extends Thread {
     @Override
     public void run() {
         ollamaRequestModel.setStream(true);
-        HttpClient httpClient = HttpClient.newHttpClient();
         try {
             long startTime = System.currentTimeMillis();
             HttpRequest request =
                     requestBuilder
-                            .POST(
-                                    HttpRequest.BodyPublishers.ofString(
-                                            Utils.getObjectMapper().writeValueAsString(ollamaRequestModel)))
+                            .POST(ollamaRequestModel.getBodyPublisher())
                             .header("Content-Type", "application/json")
                             .timeout(Duration.ofSeconds(requestTimeoutSeconds))
                             .build();
@@ -84,19 +96,21 @@ public class OllamaAsyncResultStreamer extends Thread {
             this.httpStatusCode = statusCode;
 
             InputStream responseBodyStream = response.body();
-            try (BufferedReader reader =
-                         new BufferedReader(new InputStreamReader(responseBodyStream, StandardCharsets.UTF_8))) {
-                String line;
-                StringBuilder responseBuffer = new StringBuilder();
-                while ((line = reader.readLine()) != null) {
-                    if (statusCode == 404) {
-                        OllamaErrorResponse ollamaResponseModel =
-                                Utils.getObjectMapper().readValue(line, OllamaErrorResponse.class);
+            StringBuilder responseBuffer = new StringBuilder();
+            if (statusCode == 404) {
+                try (MappingIterator<OllamaErrorResponse> errorResponses =
+                             Utils.getObjectMapper().readerFor(OllamaErrorResponse.class).readValues(responseBodyStream)) {
+                    while (errorResponses.hasNextValue()) {
+                        OllamaErrorResponse ollamaResponseModel = errorResponses.nextValue();
                         stream.add(ollamaResponseModel.getError());
                         responseBuffer.append(ollamaResponseModel.getError());
-                    } else {
-                        OllamaGenerateResponseModel ollamaResponseModel =
-                                Utils.getObjectMapper().readValue(line, OllamaGenerateResponseModel.class);
+                    }
+                }
+            } else {
+                try (MappingIterator<OllamaGenerateResponseModel> responseParts =
+                             Utils.getObjectMapper().readerFor(OllamaGenerateResponseModel.class).readValues(responseBodyStream)) {
+                    while (responseParts.hasNextValue()) {
+                        OllamaGenerateResponseModel ollamaResponseModel = responseParts.nextValue();
                         String res = ollamaResponseModel.getResponse();
                         stream.add(res);
                         if (!ollamaResponseModel.isDone()) {
@@ -104,18 +118,20 @@ public class OllamaAsyncResultStreamer extends Thread {
                         }
                     }
                 }
-
-                this.succeeded = true;
-                this.completeResponse = responseBuffer.toString();
-                long endTime = System.currentTimeMillis();
-                responseTime = endTime - startTime;
             }
+
+            this.succeeded = true;
+            this.completeResponse = responseBuffer.toString();
+            long endTime = System.currentTimeMillis();
+            responseTime = endTime - startTime;
             if (statusCode != 200) {
                 throw new OllamaBaseException(this.completeResponse);
             }
         } catch (IOException | InterruptedException | OllamaBaseException e) {
             this.succeeded = false;
             this.completeResponse = "[FAILED] " + e.getMessage();
+        } finally {
+            this.completed = true;
         }
     }
 
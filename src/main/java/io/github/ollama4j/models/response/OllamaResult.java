@@ -2,6 +2,8 @@ package io.github.ollama4j.models.response;
 
 import static io.github.ollama4j.utils.Utils.getObjectMapper;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import lombok.Data;
 import lombok.Getter;
@@ -35,7 +37,9 @@ public class OllamaResult {
    */
   private long responseTime = 0;
 
-  public OllamaResult(String response, long responseTime, int httpStatusCode) {
+  @JsonCreator
+  public OllamaResult(@JsonProperty("response") String response, @JsonProperty("responseTime") long responseTime,
+      @JsonProperty("httpStatusCode") int httpStatusCode) {
     this.response = response;
     this.responseTime = responseTime;
     this.httpStatusCode = httpStatusCode;
@@ -0,0 +1,370 @@
+package io.github.ollama4j.models.response;
+
+import com.fasterxml.jackson.databind.ObjectReader;
+import io.github.ollama4j.exceptions.OllamaBaseException;
+import io.github.ollama4j.utils.Utils;
+
+import java.io.IOException;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * {@link Flow.Publisher} of the parts of a streamed (NDJSON) Ollama response.
+ * <p>
+ * The HTTP request is sent when a subscriber subscribes. The response body is split into lines as the bytes arrive
+ * and each line is parsed into a {@code T}. More of the body is only requested from the HTTP client when the
+ * subscriber has outstanding demand and all parsed parts have been delivered, so a slow subscriber throttles reading
+ * from the connection instead of having the response buffered in memory.
+ * <p>
+ * Only a single subscriber is supported. A response status other than 200 is signalled as an
+ * {@link OllamaBaseException} with the error message of the server, as thrown by the blocking calls, via
+ * {@link Flow.Subscriber#onError(Throwable)}. Cancelling the subscription aborts the
+ * HTTP exchange.
+ *
+ * @param <T> type of the streamed response parts
+ */
+public class OllamaStreamPublisher<T> implements Flow.Publisher<T> {
+
+    private final Function<HttpResponse.BodyHandler<Void>, CompletableFuture<HttpResponse<Void>>> sender;
+    private final ObjectReader reader;
+    private final AtomicBoolean subscribed = new AtomicBoolean();
+
+    /**
+     * @param sender       sends the HTTP request with the given body handler, e.g. {@code handler -> httpClient.sendAsync(request, handler)}
+     * @param responseType type the lines of the response are parsed into
+     */
+    public OllamaStreamPublisher(Function<HttpResponse.BodyHandler<Void>, CompletableFuture<HttpResponse<Void>>> sender, Class<T> responseType) {
+        this.sender = sender;
+        this.reader = Utils.getObjectMapper().readerFor(responseType);
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super T> subscriber) {
+        if (!subscribed.compareAndSet(false, true)) {
+            subscriber.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(long n) {
+                }
+
+                @Override
+                public void cancel() {
+                }
+            });
+            subscriber.onError(new IllegalStateException("OllamaStreamPublisher supports only a single subscriber"));
+            return;
+        }
+        StreamSubscription subscription = new StreamSubscription(subscriber);
+        subscriber.onSubscribe(subscription);
+        if (subscription.cancelled) {
+            return;
+        }
+        CompletableFuture<HttpResponse<Void>> responseFuture = sender.apply(responseInfo -> {
+            subscription.statusCode = responseInfo.statusCode();
+            return subscription;
+        });
+        subscription.responseFuture = responseFuture;
+        responseFuture.whenComplete((response, throwable) -> {
+            if (throwable != null) {
+                subscription.fail(throwable instanceof CompletionException ? throwable.getCause() : throwable);
+            }
+        });
+        if (subscription.cancelled) {
+            responseFuture.cancel(true);
+        }
+    }
+
+    /**
+     * Subscribes with unbounded demand and passes every part to the given consumer.
+     *
+     * @param consumer called for each part, in order
+     * @return future completed when the stream has been fully consumed, or failed with the error of the stream or
+     * the consumer. Cancelling the future cancels the subscription.
+     */
+    public CompletableFuture<Void> consume(Consumer<? super T> consumer) {
+        CompletableFuture<Void> completed = new CompletableFuture<>();
+        subscribe(new Flow.Subscriber<T>() {
+            private Flow.Subscription subscription;
+
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                this.subscription = subscription;
+                completed.whenComplete((ignored, throwable) -> {
+                    if (completed.isCancelled()) {
+                        subscription.cancel();
+                    }
+                });
+                subscription.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(T item) {
+                try {
+                    consumer.accept(item);
+                } catch (RuntimeException e) {
+                    subscription.cancel();
+                    completed.completeExceptionally(e);
+                }
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                completed.completeExceptionally(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+                completed.complete(null);
+            }
+        });
+        return completed;
+    }
+
+    /**
+     * Subscription handed to the downstream subscriber and, at the same time, the subscriber of the HTTP response
+     * body.
+     */
+    private class StreamSubscription implements Flow.Subscription, HttpResponse.BodySubscriber<Void> {
+
+        private final Flow.Subscriber<? super T> downstream;
+        private final Queue<T> parsedParts = new ConcurrentLinkedQueue<>();
+        private final AtomicLong requested = new AtomicLong();
+        private final AtomicInteger wip = new AtomicInteger();
+        private final CompletableFuture<Void> body = new CompletableFuture<>();
+
+        private volatile Flow.Subscription upstream;
+        private volatile CompletableFuture<HttpResponse<Void>> responseFuture;
+        private volatile int statusCode;
+        private volatile boolean awaitingUpstream;
+        private volatile boolean upstreamDone;
+        private volatile boolean cancelled;
+        private volatile Throwable error;
+        private boolean terminated;
+
+        private byte[] lineBuffer = new byte[256];
+        private int lineLength;
+
+        StreamSubscription(Flow.Subscriber<? super T> downstream) {
+            this.downstream = downstream;
+        }
+
+        // -- downstream subscription --
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                fail(new IllegalArgumentException("non-positive subscription request: " + n));
+                return;
+            }
+            requested.getAndUpdate(current -> current + n < 0 ? Long.MAX_VALUE : current + n);
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            Flow.Subscription currentUpstream = upstream;
+            if (currentUpstream != null) {
+                currentUpstream.cancel();
+            }
+            CompletableFuture<HttpResponse<Void>> currentResponseFuture = responseFuture;
+            if (currentResponseFuture != null) {
+                currentResponseFuture.cancel(true);
+            }
+            drain();
+        }
+
+        // -- HTTP body subscriber --
+
+        @Override
+        public CompletionStage<Void> getBody() {
+            return body;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.upstream = subscription;
+            if (cancelled) {
+                subscription.cancel();
+            } else if (statusCode != 200) {
+                // error responses are small, read them completely to build the exception message
+                subscription.request(Long.MAX_VALUE);
+            } else {
+                drain();
+            }
+        }
+
+        @Override
+        public void onNext(List<ByteBuffer> buffers) {
+            try {
+                for (ByteBuffer buffer : buffers) {
+                    if (statusCode == 200) {
+                        parseLines(buffer);
+                    } else {
+                        appendToLine(buffer, buffer.remaining());
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                upstream.cancel();
+                body.completeExceptionally(e);
+                fail(e);
+                return;
+            }
+            awaitingUpstream = false;
+            drain();
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            body.completeExceptionally(throwable);
+            fail(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            try {
+                if (statusCode != 200) {
+                    error = new OllamaBaseException(readErrorMessage());
+                } else if (lineLength > 0) {
+                    parseLine(lineBuffer, 0, lineLength);
+                    lineLength = 0;
+                }
+            } catch (IOException | RuntimeException e) {
+                error = e;
+            }
+            upstreamDone = true;
+            body.complete(null);
+            drain();
+        }
+
+        private void fail(Throwable throwable) {
+            if (error == null) {
+                error = throwable;
+            }
+            upstreamDone = true;
+            drain();
+        }
+
+        /**
+         * Delivers parsed parts while there is demand, requests more of the body when everything has been delivered
+         * and signals completion. Runs on whichever thread calls it, but never concurrently.
+         */
+        private void drain() {
+            if (wip.getAndIncrement() != 0) {
+                return;
+            }
+            do {
+                if (terminated) {
+                    parsedParts.clear();
+                    continue;
+                }
+                if (cancelled) {
+                    terminated = true;
+                    parsedParts.clear();
+                    continue;
+                }
+                if (error != null) {
+                    // errors are reported immediately, pending parts are dropped
+                    terminated = true;
+                    parsedParts.clear();
+                    downstream.onError(error);
+                    continue;
+                }
+                while (requested.get() > 0 && !parsedParts.isEmpty() && !cancelled) {
+                    T part = parsedParts.poll();
+                    requested.decrementAndGet();
+                    downstream.onNext(part);
+                }
+                if (parsedParts.isEmpty()) {
+                    if (upstreamDone) {
+                        terminated = true;
+                        downstream.onComplete();
+                    } else if (requested.get() > 0 && !awaitingUpstream && statusCode == 200) {
+                        Flow.Subscription currentUpstream = upstream;
+                        if (currentUpstream != null) {
+                            awaitingUpstream = true;
+                            currentUpstream.request(1);
+                        }
+                    }
+                }
+            } while (wip.decrementAndGet() != 0);
+        }
+
+        private void parseLines(ByteBuffer buffer) throws IOException {
+            while (buffer.hasRemaining()) {
+                int start = buffer.position();
+                int newline = -1;
+                for (int i = start; i < buffer.limit(); i++) {
+                    if (buffer.get(i) == '\n') {
+                        newline = i;
+                        break;
+                    }
+                }
+                if (newline < 0) {
+                    appendToLine(buffer, buffer.remaining());
+                    return;
+                }
+                int length = newline - start;
+                if (lineLength == 0 && buffer.hasArray()) {
+                    parseLine(buffer.array(), buffer.arrayOffset() + start, length);
+                    buffer.position(newline + 1);
+                } else {
+                    appendToLine(buffer, length);
+                    buffer.get();
+                    parseLine(lineBuffer, 0, lineLength);
+                    lineLength = 0;
+                }
+            }
+        }
+
+        private void appendToLine(ByteBuffer buffer, int length) {
+            if (lineLength + length > lineBuffer.length) {
+                lineBuffer = Arrays.copyOf(lineBuffer, Math.max(lineBuffer.length * 2, lineLength + length));
+            }
+            buffer.get(lineBuffer, lineLength, length);
+            lineLength += length;
+        }
+
+        private void parseLine(byte[] bytes, int offset, int length) throws IOException {
+            if (isBlank(bytes, offset, length)) {
+                return;
+            }
+            parsedParts.add(reader.readValue(bytes, offset, length));
+        }
+
+        private boolean isBlank(byte[] bytes, int offset, int length) {
+            for (int i = offset; i < offset + length; i++) {
+                if (!Character.isWhitespace(bytes[i])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private String readErrorMessage() {
+            if (statusCode == 401) {
+                return "Unauthorized";
+            }
+            String responseBody = new String(lineBuffer, 0, lineLength, StandardCharsets.UTF_8).trim();
+            try {
+                OllamaErrorResponse errorResponse = Utils.getObjectMapper().readValue(responseBody, OllamaErrorResponse.class);
+                return errorResponse.getError() != null ? errorResponse.getError() : responseBody;
+            } catch (IOException e) {
+                return responseBody;
+            }
+        }
+    }
+}
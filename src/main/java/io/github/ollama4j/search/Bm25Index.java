@@ -0,0 +1,322 @@
+package io.github.ollama4j.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory full-text index ranking texts by BM25, for the exact terms that vector search misses, such as product
+ * codes, error codes or names. Index the same chunks that are embedded, and combine both rankings with a
+ * {@link HybridIndex}.
+ * <p>
+ * Texts are lower-cased and split into runs of letters and digits. Runs joined by one of {@code - _ . / :} also form a
+ * compound term, so that {@code ERR_CONN-42} is indexed as {@code err_conn-42}, {@code err}, {@code conn} and
+ * {@code 42}, and a query for the whole code ranks the texts holding it first.
+ * <p>
+ * Every term has a posting list of the texts holding it: the gaps between their ids and the number of occurrences, as
+ * variable-length integers in a single {@code byte[]}, usually one or two bytes per posting. The lengths of the texts
+ * are kept in an {@code int[]}. A search adds up the scores of the query terms in a per-thread {@code float[]} with one
+ * entry per text, then keeps the best in a bounded heap.
+ * <p>
+ * Texts get consecutive int ids in the order they are added, starting at 0. Texts may be added from several threads
+ * while searches run: they are tokenized without locking, then their postings are appended under a write lock that
+ * briefly holds back searches. Searches run concurrently with each other.
+ */
+public class Bm25Index {
+
+    private static final String CONNECTORS = "-_./:";
+
+    private final Bm25Options options;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Postings> postings = new HashMap<>();
+    private final ThreadLocal<Accumulator> accumulators = ThreadLocal.withInitial(Accumulator::new);
+    private int[] lengths = new int[1024];
+    private int size;
+    private long totalLength;
+    private long postingsBytes;
+
+    /**
+     * Creates an empty index with the default {@link Bm25Options}.
+     */
+    public Bm25Index() {
+        this(Bm25Options.builder().build());
+    }
+
+    /**
+     * Creates an empty index.
+     *
+     * @param options scoring parameters
+     */
+    public Bm25Index(Bm25Options options) {
+        if (options.getK1() < 0 || options.getB() < 0 || options.getB() > 1) {
+            throw new IllegalArgumentException("k1 must not be negative and b must be between 0 and 1");
+        }
+        this.options = options;
+    }
+
+    /**
+     * @return number of texts in the index
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return number of distinct terms in the index
+     */
+    public int getTermCount() {
+        lock.readLock().lock();
+        try {
+            return postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return encoded size of all posting lists, in bytes
+     */
+    public long getPostingsBytes() {
+        lock.readLock().lock();
+        try {
+            return postingsBytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Adds a text.
+     *
+     * @param text the text
+     * @return the id of the text
+     */
+    public int add(String text) {
+        return addAll(Collections.singletonList(text));
+    }
+
+    /**
+     * Adds a batch of texts, e.g. the chunks passed to {@link io.github.ollama4j.OllamaAPI#embed}.
+     *
+     * @param texts the texts
+     * @return the id of the first text; the others follow consecutively
+     */
+    public int addAll(List<String> texts) {
+        List<Map<String, int[]>> frequencies = new ArrayList<>(texts.size());
+        int[] textLengths = new int[texts.size()];
+        for (int i = 0; i < texts.size(); i++) {
+            List<String> tokens = tokenize(texts.get(i));
+            Map<String, int[]> counts = new HashMap<>();
+            for (String token : tokens) {
+                counts.computeIfAbsent(token, term -> new int[1])[0]++;
+            }
+            frequencies.add(counts);
+            textLengths[i] = tokens.size();
+        }
+        lock.writeLock().lock();
+        try {
+            int first = size;
+            if (lengths.length < first + texts.size()) {
+                lengths = Arrays.copyOf(lengths, Math.max(first + texts.size(), lengths.length * 2));
+            }
+            for (int i = 0; i < texts.size(); i++) {
+                int id = first + i;
+                for (Map.Entry<String, int[]> entry : frequencies.get(i).entrySet()) {
+                    postingsBytes += postings.computeIfAbsent(entry.getKey(), term -> new Postings()).add(id, entry.getValue()[0]);
+                }
+                lengths[id] = textLengths[i];
+                totalLength += textLengths[i];
+            }
+            size = first + texts.size();
+            return first;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Searches the texts that best match the terms of the query.
+     *
+     * @param query the query text
+     * @param k     maximum number of hits
+     * @return the hits ordered by descending BM25 score; texts holding none of the query terms are not returned
+     */
+    public List<SearchHit> search(String query, int k) {
+        Set<String> terms = new LinkedHashSet<>(tokenize(query));
+        if (terms.isEmpty() || k < 1) {
+            return new ArrayList<>();
+        }
+        float k1 = options.getK1();
+        float b = options.getB();
+        Accumulator accumulator = accumulators.get();
+        lock.readLock().lock();
+        try {
+            accumulator.reset(size);
+            float averageLength = (float) ((double) totalLength / Math.max(size, 1));
+            for (String term : terms) {
+                Postings list = postings.get(term);
+                if (list == null) {
+                    continue;
+                }
+                float idf = (float) Math.log(1 + (size - list.documents + 0.5) / (list.documents + 0.5));
+                byte[] data = list.data;
+                int length = list.length;
+                int position = 0;
+                int id = -1;
+                while (position < length) {
+                    int gap = 0;
+                    int frequency = 0;
+                    byte next;
+                    int shift = 0;
+                    do {
+                        next = data[position++];
+                        gap |= (next & 0x7f) << shift;
+                        shift += 7;
+                    } while (next < 0);
+                    shift = 0;
+                    do {
+                        next = data[position++];
+                        frequency |= (next & 0x7f) << shift;
+                        shift += 7;
+                    } while (next < 0);
+                    id += gap;
+                    float norm = k1 * (1 - b + b * lengths[id] / averageLength);
+                    accumulator.add(id, idf * frequency * (k1 + 1) / (frequency + norm));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return accumulator.top(k);
+    }
+
+    /**
+     * Splits a text into the terms it is indexed or searched by.
+     */
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        String lower = text.toLowerCase(Locale.ROOT);
+        int length = lower.length();
+        int position = 0;
+        while (position < length) {
+            while (position < length && !Character.isLetterOrDigit(lower.charAt(position))) {
+                position++;
+            }
+            if (position == length) {
+                break;
+            }
+            int start = position;
+            boolean compound = false;
+            while (true) {
+                while (position < length && Character.isLetterOrDigit(lower.charAt(position))) {
+                    position++;
+                }
+                if (position + 1 < length && CONNECTORS.indexOf(lower.charAt(position)) >= 0
+                        && Character.isLetterOrDigit(lower.charAt(position + 1))) {
+                    position++;
+                    compound = true;
+                } else {
+                    break;
+                }
+            }
+            tokens.add(lower.substring(start, position));
+            if (compound) {
+                int part = start;
+                for (int i = start; i <= position; i++) {
+                    if (i == position || !Character.isLetterOrDigit(lower.charAt(i))) {
+                        tokens.add(lower.substring(part, i));
+                        part = i + 1;
+                    }
+                }
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Posting list of a term, appended to in ascending id order.
+     */
+    private static final class Postings {
+
+        byte[] data = new byte[8];
+        int length;
+        int documents;
+        int lastId = -1;
+
+        /**
+         * @return number of bytes the posting takes
+         */
+        int add(int id, int frequency) {
+            if (data.length - length < 2 * 5) {
+                data = Arrays.copyOf(data, data.length + (data.length >> 1) + 2 * 5);
+            }
+            int start = length;
+            writeVarInt(id - lastId);
+            writeVarInt(frequency);
+            lastId = id;
+            documents++;
+            return length - start;
+        }
+
+        private void writeVarInt(int value) {
+            while ((value & ~0x7f) != 0) {
+                data[length++] = (byte) ((value & 0x7f) | 0x80);
+                value >>>= 7;
+            }
+            data[length++] = (byte) value;
+        }
+    }
+
+    /**
+     * Per-thread scores of the texts matched by a search, and the ids of those texts.
+     */
+    private static final class Accumulator {
+
+        float[] scores = new float[0];
+        int[] matched = new int[0];
+        int count;
+
+        void reset(int size) {
+            // a search that failed may have left scores behind
+            for (int i = 0; i < count; i++) {
+                scores[matched[i]] = 0;
+            }
+            count = 0;
+            if (scores.length < size) {
+                scores = new float[size + (size >> 3)];
+                matched = new int[scores.length];
+            }
+        }
+
+        void add(int id, float score) {
+            if (scores[id] == 0) {
+                matched[count++] = id;
+            }
+            scores[id] += score;
+        }
+
+        List<SearchHit> top(int k) {
+            ScoreHeap heap = new ScoreHeap(Math.min(k, count));
+            for (int i = 0; i < count; i++) {
+                int id = matched[i];
+                heap.offer(scores[id], id, k);
+                scores[id] = 0;
+            }
+            count = 0;
+            return heap.drainDescending();
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package io.github.ollama4j.search;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Parameters of the BM25 scoring of a {@link Bm25Index}.
+ */
+@Data
+@Builder
+public class Bm25Options {
+
+    /**
+     * Saturation of term frequency: how much a term occurring more often in a text raises its score.
+     */
+    @Builder.Default
+    private float k1 = 1.2f;
+
+    /**
+     * Length normalization, from 0 (none) to 1 (full): how much a text longer than average lowers its score.
+     */
+    @Builder.Default
+    private float b = 0.75f;
+}
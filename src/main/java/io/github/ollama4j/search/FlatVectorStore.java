@@ -0,0 +1,249 @@
+package io.github.ollama4j.search;
+
+import io.github.ollama4j.models.embeddings.FloatEmbeddings;
+
+import java.nio.FloatBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Exact nearest neighbour search by comparing the query with every vector.
+ * <p>
+ * For up to a few hundred thousand vectors this is fast enough and needs no tuning. The vectors are stored row by row in
+ * blocks of {@value #BLOCK_VECTORS} vectors, each a single {@code float[]}; {@link #addAll(FloatEmbeddings)} copies the
+ * output of {@link io.github.ollama4j.OllamaAPI#embedFloats} into them without unpacking it. A search scans the blocks
+ * in parallel on a fork-join pool and keeps the best hits of each block in a bounded heap. On Java 17 or later, run
+ * with {@code --add-modules jdk.incubator.vector} to compute the similarities with SIMD instructions.
+ * <p>
+ * Vectors get consecutive int ids in the order they are added, starting at 0. Adds are serialized; searches do not lock
+ * and see all vectors added before they started.
+ */
+public class FlatVectorStore implements VectorIndex {
+
+    static final int BLOCK_VECTORS = 4096;
+
+    private final int dimension;
+    private final SimilarityMetric metric;
+    private final ForkJoinPool pool;
+
+    // blocks are filled before size is raised, so a search reading size first sees the vectors it counts
+    private volatile float[][] blocks = new float[0][];
+    private volatile int size;
+
+    /**
+     * Creates an empty store that searches on the common fork-join pool.
+     *
+     * @param dimension dimension of the vectors
+     * @param metric    similarity metric of searches
+     */
+    public FlatVectorStore(int dimension, SimilarityMetric metric) {
+        this(dimension, metric, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates an empty store.
+     *
+     * @param dimension dimension of the vectors
+     * @param metric    similarity metric of searches
+     * @param pool      pool the blocks are scanned on
+     */
+    public FlatVectorStore(int dimension, SimilarityMetric metric, ForkJoinPool pool) {
+        if (dimension < 1) {
+            throw new IllegalArgumentException("dimension must be positive");
+        }
+        this.dimension = dimension;
+        this.metric = metric;
+        this.pool = pool;
+    }
+
+    @Override
+    public int getDimension() {
+        return dimension;
+    }
+
+    public SimilarityMetric getMetric() {
+        return metric;
+    }
+
+    /**
+     * @return number of vectors in the store
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Adds a vector.
+     *
+     * @param vector the vector; it is copied
+     * @return the id of the vector
+     */
+    public synchronized int add(float[] vector) {
+        checkDimension(vector.length);
+        return append(FloatBuffer.wrap(vector), 1);
+    }
+
+    /**
+     * Adds a batch of vectors, e.g. the result of {@link io.github.ollama4j.OllamaAPI#embedFloats}.
+     *
+     * @param embeddings the vectors
+     * @return the id of the first vector; the others follow consecutively
+     */
+    @Override
+    public synchronized int addAll(FloatEmbeddings embeddings) {
+        if (embeddings.size() == 0) {
+            return size;
+        }
+        checkDimension(embeddings.getDimension());
+        return append(embeddings.asFloatBuffer(), embeddings.size());
+    }
+
+    /**
+     * Adds a batch of vectors as returned by {@link io.github.ollama4j.OllamaAPI#embed}.
+     *
+     * @param embeddings the vectors
+     * @return the id of the first vector; the others follow consecutively
+     */
+    public int addAll(List<List<Double>> embeddings) {
+        return addAll(FloatEmbeddings.fromLists(embeddings));
+    }
+
+    /**
+     * @param id id of a vector
+     * @return a copy of the vector as stored, i.e. normalized for {@link SimilarityMetric#COSINE}
+     */
+    public float[] getVector(int id) {
+        if (id < 0 || id >= size) {
+            throw new IndexOutOfBoundsException("No vector with id " + id);
+        }
+        float[] block = blocks[id / BLOCK_VECTORS];
+        int offset = (id % BLOCK_VECTORS) * dimension;
+        return Arrays.copyOfRange(block, offset, offset + dimension);
+    }
+
+    /**
+     * Searches the vectors most similar to the query.
+     *
+     * @param query the query vector
+     * @param k     maximum number of hits
+     * @return the hits ordered by descending similarity
+     */
+    @Override
+    public List<SearchHit> search(float[] query, int k) {
+        checkDimension(query.length);
+        int count = size;
+        float[][] snapshot = blocks;
+        if (count == 0 || k < 1) {
+            return new ArrayList<>();
+        }
+        float[] prepared = metric.prepare(query);
+        int blockCount = (count + BLOCK_VECTORS - 1) / BLOCK_VECTORS;
+        ScanTask task = new ScanTask(snapshot, count, prepared, k, 0, blockCount, true);
+        ScoreHeap hits = blockCount == 1 ? task.compute() : pool.invoke(task);
+        return hits.drainDescending();
+    }
+
+    /**
+     * Searches several queries, each scanning the vectors on one thread of the pool.
+     *
+     * @param queries the query vectors
+     * @param k       maximum number of hits per query
+     * @return the hits of every query, in the order of the queries
+     */
+    public List<List<SearchHit>> search(FloatEmbeddings queries, int k) {
+        checkDimension(queries.getDimension());
+        int count = size;
+        float[][] snapshot = blocks;
+        int blockCount = (count + BLOCK_VECTORS - 1) / BLOCK_VECTORS;
+        return pool.submit(() -> IntStream.range(0, queries.size()).parallel()
+                .mapToObj(i -> new ScanTask(snapshot, count, metric.prepare(queries.getVector(i)), k, 0, blockCount, false).compute().drainDescending())
+                .collect(Collectors.toList())).join();
+    }
+
+    private int append(FloatBuffer vectors, int count) {
+        int first = size;
+        float[][] grown = blocks;
+        int id = first;
+        while (id < first + count) {
+            int block = id / BLOCK_VECTORS;
+            if (block == grown.length) {
+                grown = Arrays.copyOf(grown, block + 1);
+                grown[block] = new float[BLOCK_VECTORS * dimension];
+            }
+            int offset = id % BLOCK_VECTORS;
+            int length = Math.min(BLOCK_VECTORS - offset, first + count - id);
+            vectors.get(grown[block], offset * dimension, length * dimension);
+            if (metric == SimilarityMetric.COSINE) {
+                for (int i = offset; i < offset + length; i++) {
+                    VectorMath.normalize(grown[block], i * dimension, dimension);
+                }
+            }
+            id += length;
+        }
+        blocks = grown;
+        size = first + count;
+        return first;
+    }
+
+    private void checkDimension(int actual) {
+        if (actual != dimension) {
+            throw new IllegalArgumentException("Expected a vector of dimension " + dimension + ", got " + actual);
+        }
+    }
+
+    /**
+     * Scans a range of blocks. A parallel task splits the range in halves until a task scans a single block.
+     */
+    private final class ScanTask extends RecursiveTask<ScoreHeap> {
+
+        private final float[][] blocks;
+        private final int count;
+        private final float[] query;
+        private final int k;
+        private final int fromBlock;
+        private final int toBlock;
+        private final boolean parallel;
+
+        ScanTask(float[][] blocks, int count, float[] query, int k, int fromBlock, int toBlock, boolean parallel) {
+            this.blocks = blocks;
+            this.count = count;
+            this.query = query;
+            this.k = k;
+            this.fromBlock = fromBlock;
+            this.toBlock = toBlock;
+            this.parallel = parallel;
+        }
+
+        @Override
+        protected ScoreHeap compute() {
+            if (parallel && toBlock - fromBlock > 1) {
+                int middle = (fromBlock + toBlock) >>> 1;
+                ScanTask upper = new ScanTask(blocks, count, query, k, middle, toBlock, true);
+                upper.fork();
+                ScoreHeap hits = new ScanTask(blocks, count, query, k, fromBlock, middle, true).compute();
+                ScoreHeap upperHits = upper.join();
+                while (!upperHits.isEmpty()) {
+                    float score = upperHits.peekScore();
+                    hits.offer(score, upperHits.pop(), k);
+                }
+                return hits;
+            }
+            ScoreHeap hits = new ScoreHeap(k);
+            for (int block = fromBlock; block < toBlock; block++) {
+                float[] vectors = blocks[block];
+                int first = block * BLOCK_VECTORS;
+                int vectorCount = Math.min(BLOCK_VECTORS, count - first);
+                for (int i = 0; i < vectorCount; i++) {
+                    hits.offer(metric.scorePrepared(query, 0, vectors, i * dimension, dimension), first + i, k);
+                }
+            }
+            return hits;
+        }
+    }
+}
@@ -0,0 +1,551 @@
+package io.github.ollama4j.search;
+
+import io.github.ollama4j.models.embeddings.FloatEmbeddings;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Approximate nearest neighbour index over float vectors, using a hierarchical navigable small world (HNSW) graph.
+ * <p>
+ * Vectors get consecutive int ids in the order they are added, starting at 0; keep a list or an array to map them to
+ * the chunks they were embedded from. Vectors are fed directly from the embed results:
+ * <pre>{@code
+ * HnswIndex index = new HnswIndex(768, SimilarityMetric.COSINE);
+ * int first = index.addAll(ollamaAPI.embedFloats(new OllamaEmbedRequestModel(model, chunks)).getEmbeddings());
+ * List<SearchHit> hits = index.search(queryVector, 10);
+ * }</pre>
+ * Every vector is kept in its own {@code float[]} and every neighbour list in an {@code int[]}; there are no boxed
+ * values. Vectors may be added from several threads at once, and searches run concurrently with each other and with
+ * inserts without locking: neighbour lists are replaced, never modified in place, so a search always sees a complete
+ * list. {@link #addAll(FloatEmbeddings)} and {@link #search(FloatEmbeddings, int)} spread their work over the common
+ * fork-join pool.
+ * <p>
+ * {@link #save(Path)} writes the index to a file through memory-mapped windows, {@link #load(Path)} reads it back the
+ * same way.
+ */
+public class HnswIndex implements VectorIndex {
+
+    private static final int MAGIC = 0x4f344a48;
+    private static final int VERSION = 1;
+    private static final int HEADER_INTS = 16;
+    private static final int PAGE_BITS = 14;
+    private static final int PAGE_SIZE = 1 << PAGE_BITS;
+    private static final int MAX_PAGES = 1 << 16;
+    private static final int MAX_LEVEL = 16;
+    private static final int[] NO_LINKS = new int[0];
+
+    private final int dimension;
+    private final SimilarityMetric metric;
+    private final HnswOptions options;
+    private final int maxLinks0;
+    private final double levelMultiplier;
+
+    // pages of nodes by id; a node is stored before any neighbour list refers to it, and reading that list is a
+    // volatile read, so a thread that finds an id in a list also sees its node
+    private final Node[][] pages = new Node[MAX_PAGES][];
+    private final AtomicInteger nextId = new AtomicInteger();
+    private final AtomicInteger size = new AtomicInteger();
+    private final ReadWriteLock saveLock = new ReentrantReadWriteLock();
+    private final Object entryLock = new Object();
+    private final ThreadLocal<SearchContext> contexts = ThreadLocal.withInitial(SearchContext::new);
+    private volatile Node entry;
+
+    /**
+     * Creates an empty index with the default {@link HnswOptions}.
+     *
+     * @param dimension dimension of the vectors
+     * @param metric    similarity metric of searches
+     */
+    public HnswIndex(int dimension, SimilarityMetric metric) {
+        this(dimension, metric, HnswOptions.builder().build());
+    }
+
+    /**
+     * Creates an empty index.
+     *
+     * @param dimension dimension of the vectors
+     * @param metric    similarity metric of searches
+     * @param options   graph parameters
+     */
+    public HnswIndex(int dimension, SimilarityMetric metric, HnswOptions options) {
+        if (dimension < 1 || options.getM() < 2 || options.getEfConstruction() < 1 || options.getEfSearch() < 1) {
+            throw new IllegalArgumentException("dimension, efConstruction and efSearch must be positive and m at least 2");
+        }
+        this.dimension = dimension;
+        this.metric = metric;
+        this.options = options;
+        this.maxLinks0 = options.getM() * 2;
+        this.levelMultiplier = 1 / Math.log(options.getM());
+    }
+
+    @Override
+    public int getDimension() {
+        return dimension;
+    }
+
+    public SimilarityMetric getMetric() {
+        return metric;
+    }
+
+    /**
+     * @return number of vectors in the index, not counting those still being added
+     */
+    @Override
+    public int size() {
+        return size.get();
+    }
+
+    /**
+     * Adds a vector.
+     *
+     * @param vector the vector; it is copied
+     * @return the id of the vector
+     */
+    public int add(float[] vector) {
+        checkDimension(vector.length);
+        float[] prepared = metric.prepare(vector);
+        saveLock.readLock().lock();
+        try {
+            int id = reserveIds(1);
+            insert(id, prepared);
+            return id;
+        } finally {
+            saveLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Adds a batch of vectors, e.g. the result of {@link io.github.ollama4j.OllamaAPI#embedFloats}, in parallel.
+     *
+     * @param embeddings the vectors
+     * @return the id of the first vector; the others follow consecutively
+     */
+    @Override
+    public int addAll(FloatEmbeddings embeddings) {
+        if (embeddings.size() == 0) {
+            return nextId.get();
+        }
+        checkDimension(embeddings.getDimension());
+        saveLock.readLock().lock();
+        try {
+            int first = reserveIds(embeddings.size());
+            IntStream.range(0, embeddings.size()).parallel()
+                    .forEach(i -> insert(first + i, metric.prepare(embeddings.getVector(i))));
+            return first;
+        } finally {
+            saveLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Adds a batch of vectors as returned by {@link io.github.ollama4j.OllamaAPI#embed}, in parallel.
+     *
+     * @param embeddings the vectors
+     * @return the id of the first vector; the others follow consecutively
+     */
+    public int addAll(List<List<Double>> embeddings) {
+        return addAll(FloatEmbeddings.fromLists(embeddings));
+    }
+
+    /**
+     * @param id id of a vector
+     * @return a copy of the vector as stored, i.e. normalized for {@link SimilarityMetric#COSINE}
+     */
+    public float[] getVector(int id) {
+        Node node = id >= 0 && id < nextId.get() ? node(id) : null;
+        if (node == null) {
+            throw new IndexOutOfBoundsException("No vector with id " + id);
+        }
+        return node.vector.clone();
+    }
+
+    /**
+     * Searches the vectors most similar to the query, considering {@link HnswOptions#getEfSearch()} candidates.
+     *
+     * @param query the query vector
+     * @param k     maximum number of hits
+     * @return the hits ordered by descending similarity
+     */
+    @Override
+    public List<SearchHit> search(float[] query, int k) {
+        return search(query, k, options.getEfSearch());
+    }
+
+    /**
+     * Searches the vectors most similar to the query.
+     *
+     * @param query the query vector
+     * @param k     maximum number of hits
+     * @param ef    number of candidates to consider; higher values give better recall but take longer
+     * @return the hits ordered by descending similarity
+     */
+    public List<SearchHit> search(float[] query, int k, int ef) {
+        checkDimension(query.length);
+        Node start = entry;
+        if (start == null || k < 1) {
+            return new ArrayList<>();
+        }
+        float[] prepared = metric.prepare(query);
+        SearchContext context = contexts.get();
+        int current = start.id;
+        float currentScore = score(prepared, start);
+        for (int level = start.level(); level > 0; level--) {
+            current = greedyClosest(prepared, current, currentScore, level, context);
+            currentScore = context.closestScore;
+        }
+        ScoreHeap results = searchLayer(prepared, current, currentScore, Math.max(ef, k), 0, context);
+        while (results.size() > k) {
+            results.pop();
+        }
+        return results.drainDescending();
+    }
+
+    /**
+     * Searches several queries in parallel.
+     *
+     * @param queries the query vectors
+     * @param k       maximum number of hits per query
+     * @return the hits of every query, in the order of the queries
+     */
+    public List<List<SearchHit>> search(FloatEmbeddings queries, int k) {
+        return IntStream.range(0, queries.size()).parallel()
+                .mapToObj(i -> search(queries.getVector(i), k))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Writes the index to a file, replacing it atomically. Inserts wait until the index is written.
+     *
+     * @param file the file
+     * @throws IOException if the file cannot be written
+     */
+    public void save(Path file) throws IOException {
+        saveLock.writeLock().lock();
+        try (MappedFileOutput out = new MappedFileOutput(file)) {
+            Node start = entry;
+            int count = nextId.get();
+            int[] header = {MAGIC, VERSION, dimension, metric.ordinal(), options.getM(), options.getEfConstruction(),
+                    options.getEfSearch(), (int) (options.getSeed() >>> 32), (int) options.getSeed(), count,
+                    start == null ? -1 : start.id};
+            out.putInts(Arrays.copyOf(header, HEADER_INTS), 0, HEADER_INTS);
+            for (int id = 0; id < count; id++) {
+                Node node = node(id);
+                out.putInt(node.level());
+                out.putFloats(node.vector, 0, dimension);
+                for (int level = 0; level <= node.level(); level++) {
+                    int[] links = node.links.get(level);
+                    out.putInt(links.length);
+                    out.putInts(links, 0, links.length);
+                }
+            }
+            out.commit();
+        } finally {
+            saveLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Reads an index written by {@link #save(Path)}.
+     *
+     * @param file the file
+     * @return the index
+     * @throws IOException if the file cannot be read or is not an index
+     */
+    public static HnswIndex load(Path file) throws IOException {
+        try (MappedFileInput in = new MappedFileInput(file)) {
+            int[] header = new int[HEADER_INTS];
+            in.getInts(header, 0, HEADER_INTS);
+            if (header[0] != MAGIC || header[1] != VERSION) {
+                throw new IOException(file + " is not an HNSW index of version " + VERSION);
+            }
+            HnswOptions options = HnswOptions.builder().m(header[4]).efConstruction(header[5]).efSearch(header[6])
+                    .seed(((long) header[7] << 32) | (header[8] & 0xffffffffL)).build();
+            HnswIndex index = new HnswIndex(header[2], SimilarityMetric.values()[header[3]], options);
+            int count = header[9];
+            for (int id = 0; id < count; id++) {
+                int level = in.getInt();
+                float[] vector = new float[index.dimension];
+                in.getFloats(vector, 0, vector.length);
+                Node node = new Node(id, vector, level);
+                for (int l = 0; l <= level; l++) {
+                    int[] links = new int[in.getInt()];
+                    in.getInts(links, 0, links.length);
+                    node.links.set(l, links);
+                }
+                index.store(node);
+            }
+            index.nextId.set(count);
+            index.size.set(count);
+            index.entry = header[10] < 0 ? null : index.node(header[10]);
+            return index;
+        }
+    }
+
+    /**
+     * Inserts a vector under a reserved id. The caller holds the read lock of {@link #saveLock}, so that a save only
+     * sees completely inserted vectors.
+     */
+    private void insert(int id, float[] vector) {
+        Node node = new Node(id, vector, randomLevel(id));
+        store(node);
+        Node start = entry;
+        if (start == null) {
+            synchronized (entryLock) {
+                if (entry == null) {
+                    entry = node;
+                    size.incrementAndGet();
+                    return;
+                }
+                start = entry;
+            }
+        }
+        link(node, start);
+        synchronized (entryLock) {
+            if (node.level() > entry.level()) {
+                entry = node;
+            }
+        }
+        size.incrementAndGet();
+    }
+
+    private void link(Node node, Node start) {
+        SearchContext context = contexts.get();
+        int current = start.id;
+        float currentScore = score(node.vector, start);
+        for (int level = start.level(); level > node.level(); level--) {
+            current = greedyClosest(node.vector, current, currentScore, level, context);
+            currentScore = context.closestScore;
+        }
+        for (int level = Math.min(node.level(), start.level()); level >= 0; level--) {
+            ScoreHeap results = searchLayer(node.vector, current, currentScore, options.getEfConstruction(), level, context);
+            int count = results.size();
+            int[] candidates = new int[count];
+            float[] scores = new float[count];
+            for (int i = count - 1; i >= 0; i--) {
+                scores[i] = results.peekScore();
+                candidates[i] = results.pop();
+            }
+            current = candidates[0];
+            currentScore = scores[0];
+            node.links.set(level, selectNeighbours(node.id, candidates, scores, count, level == 0 ? maxLinks0 : options.getM()));
+        }
+        // only link back once all layers of the node are linked, so that no search enters the node through a layer
+        // and finds no way on below it
+        for (int level = Math.min(node.level(), start.level()); level >= 0; level--) {
+            for (int neighbour : node.links.get(level)) {
+                addLink(node(neighbour), node.id, level);
+            }
+        }
+    }
+
+    private void addLink(Node node, int id, int level) {
+        int maxLinks = level == 0 ? maxLinks0 : options.getM();
+        synchronized (node) {
+            int[] links = node.links.get(level);
+            if (links.length < maxLinks) {
+                int[] grown = Arrays.copyOf(links, links.length + 1);
+                grown[links.length] = id;
+                node.links.set(level, grown);
+                return;
+            }
+            // shrink the list back to the most diverse neighbours, as when linking a new vector
+            int[] candidates = Arrays.copyOf(links, links.length + 1);
+            candidates[links.length] = id;
+            float[] scores = new float[candidates.length];
+            ScoreHeap heap = new ScoreHeap(candidates.length);
+            for (int candidate : candidates) {
+                heap.push(score(node.vector, node(candidate)), candidate);
+            }
+            for (int i = candidates.length - 1; i >= 0; i--) {
+                scores[i] = heap.peekScore();
+                candidates[i] = heap.pop();
+            }
+            node.links.set(level, selectNeighbours(node.id, candidates, scores, candidates.length, maxLinks));
+        }
+    }
+
+    /**
+     * Selects neighbours with the heuristic of the HNSW paper: going through the candidates by descending similarity, a
+     * candidate is kept unless it is more similar to an already kept one than to the vector itself. This keeps links
+     * in all directions instead of only to the nearest cluster.
+     */
+    private int[] selectNeighbours(int self, int[] candidates, float[] scores, int count, int maxLinks) {
+        int[] selected = new int[Math.min(count, maxLinks)];
+        int selectedCount = 0;
+        for (int i = 0; i < count && selectedCount < selected.length; i++) {
+            if (candidates[i] == self) {
+                continue;
+            }
+            float[] candidate = node(candidates[i]).vector;
+            boolean diverse = true;
+            for (int j = 0; j < selectedCount && diverse; j++) {
+                diverse = metric.scorePrepared(candidate, 0, node(selected[j]).vector, 0, dimension) <= scores[i];
+            }
+            if (diverse) {
+                selected[selectedCount++] = candidates[i];
+            }
+        }
+        return selectedCount == selected.length ? selected : Arrays.copyOf(selected, selectedCount);
+    }
+
+    private int greedyClosest(float[] query, int start, float startScore, int level, SearchContext context) {
+        int closest = start;
+        float closestScore = startScore;
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int neighbour : node(closest).links.get(level)) {
+                float score = score(query, node(neighbour));
+                if (score > closestScore) {
+                    closest = neighbour;
+                    closestScore = score;
+                    changed = true;
+                }
+            }
+        }
+        context.closestScore = closestScore;
+        return closest;
+    }
+
+    private ScoreHeap searchLayer(float[] query, int start, float startScore, int ef, int level, SearchContext context) {
+        ScoreHeap candidates = context.candidates;
+        ScoreHeap results = context.results;
+        candidates.clear();
+        results.clear();
+        context.startVisit(nextId.get());
+        context.visit(start);
+        candidates.push(-startScore, start);
+        results.push(startScore, start);
+        while (!candidates.isEmpty()) {
+            float candidateScore = -candidates.peekScore();
+            int candidate = candidates.pop();
+            if (results.size() >= ef && candidateScore < results.peekScore()) {
+                break;
+            }
+            for (int neighbour : node(candidate).links.get(level)) {
+                if (!context.visit(neighbour)) {
+                    continue;
+                }
+                float score = score(query, node(neighbour));
+                if (results.offer(score, neighbour, ef)) {
+                    candidates.push(-score, neighbour);
+                }
+            }
+        }
+        return results;
+    }
+
+    private float score(float[] query, Node node) {
+        return metric.scorePrepared(query, 0, node.vector, 0, dimension);
+    }
+
+    private int randomLevel(int id) {
+        long hash = options.getSeed() + id * 0x9e3779b97f4a7c15L;
+        hash = (hash ^ (hash >>> 30)) * 0xbf58476d1ce4e5b9L;
+        hash = (hash ^ (hash >>> 27)) * 0x94d049bb133111ebL;
+        hash ^= hash >>> 31;
+        double uniform = ((hash >>> 11) + 1) * 0x1.0p-53;
+        return Math.min((int) (-Math.log(uniform) * levelMultiplier), MAX_LEVEL);
+    }
+
+    private int reserveIds(int count) {
+        while (true) {
+            int first = nextId.get();
+            if ((long) first + count > (long) MAX_PAGES * PAGE_SIZE) {
+                throw new IllegalStateException("The index is full");
+            }
+            if (nextId.compareAndSet(first, first + count)) {
+                return first;
+            }
+        }
+    }
+
+    private void store(Node node) {
+        int page = node.id >>> PAGE_BITS;
+        if (pages[page] == null) {
+            synchronized (pages) {
+                if (pages[page] == null) {
+                    pages[page] = new Node[PAGE_SIZE];
+                }
+            }
+        }
+        pages[page][node.id & (PAGE_SIZE - 1)] = node;
+    }
+
+    private Node node(int id) {
+        Node[] page = pages[id >>> PAGE_BITS];
+        return page == null ? null : page[id & (PAGE_SIZE - 1)];
+    }
+
+    private void checkDimension(int actual) {
+        if (actual != dimension) {
+            throw new IllegalArgumentException("Expected a vector of dimension " + dimension + ", got " + actual);
+        }
+    }
+
+    private static final class Node {
+
+        final int id;
+        final float[] vector;
+        final AtomicReferenceArray<int[]> links;
+
+        Node(int id, float[] vector, int level) {
+            this.id = id;
+            this.vector = vector;
+            this.links = new AtomicReferenceArray<>(level + 1);
+            for (int l = 0; l <= level; l++) {
+                links.set(l, NO_LINKS);
+            }
+        }
+
+        int level() {
+            return links.length() - 1;
+        }
+    }
+
+    /**
+     * Per-thread scratch space of a search, so that searches do not allocate.
+     */
+    private static final class SearchContext {
+
+        final ScoreHeap candidates = new ScoreHeap(64);
+        final ScoreHeap results = new ScoreHeap(64);
+        int[] visited = new int[PAGE_SIZE];
+        int visitMark;
+        float closestScore;
+
+        void startVisit(int capacity) {
+            if (visited.length < capacity) {
+                visited = Arrays.copyOf(visited, Math.max(capacity, visited.length * 2));
+            }
+            if (++visitMark == Integer.MAX_VALUE) {
+                Arrays.fill(visited, 0);
+                visitMark = 1;
+            }
+        }
+
+        /**
+         * @return whether the id was not visited yet
+         */
+        boolean visit(int id) {
+            if (id >= visited.length) {
+                visited = Arrays.copyOf(visited, Math.max(id + 1, visited.length * 2));
+            }
+            if (visited[id] == visitMark) {
+                return false;
+            }
+            visited[id] = visitMark;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package io.github.ollama4j.search;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Parameters of a {@link HnswIndex}. Higher values give better recall at the cost of memory and build or query time.
+ */
+@Data
+@Builder
+public class HnswOptions {
+
+    /**
+     * Maximum number of neighbours of a vector on the upper layers of the graph; twice as many on the bottom layer.
+     */
+    @Builder.Default
+    private int m = 16;
+
+    /**
+     * Number of candidates considered when linking a new vector into the graph.
+     */
+    @Builder.Default
+    private int efConstruction = 200;
+
+    /**
+     * Default number of candidates considered by a search; a search always considers at least as many as it returns.
+     */
+    @Builder.Default
+    private int efSearch = 64;
+
+    /**
+     * Seed of the level assignment, which makes the graph depend only on the vectors and the order they are added in.
+     */
+    @Builder.Default
+    private long seed = 42;
+}
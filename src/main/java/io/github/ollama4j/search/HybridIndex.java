@@ -0,0 +1,162 @@
+package io.github.ollama4j.search;
+
+import io.github.ollama4j.OllamaAPI;
+import io.github.ollama4j.exceptions.OllamaBaseException;
+import io.github.ollama4j.models.embeddings.FloatEmbeddings;
+import io.github.ollama4j.models.embeddings.OllamaEmbedRequestModel;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Hybrid retrieval over text chunks: every chunk is indexed both by its terms in a {@link Bm25Index} and by its
+ * embedding in a {@link VectorIndex}, and a search fuses both rankings with {@link ReciprocalRankFusion}. Exact
+ * identifiers are found by the lexical index, paraphrases by the vector index.
+ * <pre>{@code
+ * HybridIndex index = new HybridIndex(ollamaAPI, "nomic-embed-text", new HnswIndex(768, SimilarityMetric.COSINE));
+ * int first = index.addAll(chunks);
+ * List<SearchHit> hits = index.search("error E1042 when syncing", 10);
+ * }</pre>
+ * Chunks get consecutive int ids in the order they are added, starting at 0, which are the same in both indexes. Chunks
+ * may be added while searches run, and searches run concurrently with each other; adds are serialized so that both
+ * indexes assign the same ids, but the chunks are embedded before the lock is taken.
+ */
+public class HybridIndex {
+
+    private final OllamaAPI ollamaAPI;
+    private final String model;
+    private final VectorIndex vectors;
+    private final Bm25Index lexical;
+    private final HybridOptions options;
+    private final Object addLock = new Object();
+
+    /**
+     * Creates a hybrid index with an empty {@link Bm25Index} and the default {@link HybridOptions}.
+     *
+     * @param ollamaAPI client that embeds the chunks and the queries
+     * @param model     name of the embedding model
+     * @param vectors   an empty vector index of the dimension of the model
+     */
+    public HybridIndex(OllamaAPI ollamaAPI, String model, VectorIndex vectors) {
+        this(ollamaAPI, model, vectors, new Bm25Index(), HybridOptions.builder().build());
+    }
+
+    /**
+     * Creates a hybrid index.
+     *
+     * @param ollamaAPI client that embeds the chunks and the queries
+     * @param model     name of the embedding model
+     * @param vectors   a vector index of the dimension of the model
+     * @param lexical   a lexical index holding as many texts as the vector index holds vectors, in the same order
+     * @param options   fusion parameters
+     */
+    public HybridIndex(OllamaAPI ollamaAPI, String model, VectorIndex vectors, Bm25Index lexical, HybridOptions options) {
+        if (vectors.size() != lexical.size()) {
+            throw new IllegalArgumentException("The vector index holds " + vectors.size() + " vectors and the lexical index "
+                    + lexical.size() + " texts");
+        }
+        if (options.getCandidates() < 1) {
+            throw new IllegalArgumentException("candidates must be positive");
+        }
+        this.ollamaAPI = ollamaAPI;
+        this.model = model;
+        this.vectors = vectors;
+        this.lexical = lexical;
+        this.options = options;
+    }
+
+    public VectorIndex getVectorIndex() {
+        return vectors;
+    }
+
+    public Bm25Index getLexicalIndex() {
+        return lexical;
+    }
+
+    /**
+     * @return number of chunks in the index
+     */
+    public int size() {
+        return vectors.size();
+    }
+
+    /**
+     * Embeds a batch of chunks and adds them to both indexes.
+     *
+     * @param chunks the texts
+     * @return the id of the first chunk; the others follow consecutively
+     * @throws OllamaBaseException  if the embedding request fails
+     * @throws IOException          if an I/O error occurs during the HTTP request
+     * @throws InterruptedException if the operation is interrupted
+     */
+    public int addAll(List<String> chunks) throws OllamaBaseException, IOException, InterruptedException {
+        if (chunks.isEmpty()) {
+            return size();
+        }
+        return addAll(chunks, ollamaAPI.embedFloats(new OllamaEmbedRequestModel(model, chunks)).getEmbeddings());
+    }
+
+    /**
+     * Adds a batch of chunks that are already embedded, e.g. by {@link OllamaAPI#embedBulk}.
+     *
+     * @param chunks     the texts
+     * @param embeddings the vectors of the texts, in the same order
+     * @return the id of the first chunk; the others follow consecutively
+     */
+    public int addAll(List<String> chunks, FloatEmbeddings embeddings) {
+        if (chunks.size() != embeddings.size()) {
+            throw new IllegalArgumentException(chunks.size() + " chunks but " + embeddings.size() + " vectors");
+        }
+        if (chunks.isEmpty()) {
+            // an empty batch has no dimension to check
+            return size();
+        }
+        // checked before either index is touched, so that a rejected batch does not leave one index ahead
+        if (embeddings.getDimension() != vectors.getDimension()) {
+            throw new IllegalArgumentException("Expected vectors of dimension " + vectors.getDimension() + ", got "
+                    + embeddings.getDimension());
+        }
+        synchronized (addLock) {
+            int firstVector = vectors.addAll(embeddings);
+            int first = lexical.addAll(chunks);
+            if (first != firstVector) {
+                throw new IllegalStateException("The lexical index assigned id " + first + " and the vector index id "
+                        + firstVector + "; add chunks only through the hybrid index");
+            }
+            return first;
+        }
+    }
+
+    /**
+     * Embeds the query and searches the chunks that best match it, lexically and semantically.
+     *
+     * @param query the query text
+     * @param k     maximum number of hits
+     * @return the hits ordered by descending fused score
+     * @throws OllamaBaseException  if the embedding request fails
+     * @throws IOException          if an I/O error occurs during the HTTP request
+     * @throws InterruptedException if the operation is interrupted
+     */
+    public List<SearchHit> search(String query, int k) throws OllamaBaseException, IOException, InterruptedException {
+        float[] vector = ollamaAPI.embedFloats(new OllamaEmbedRequestModel(model, Collections.singletonList(query)))
+                .getEmbeddings().getVector(0);
+        return search(query, vector, k);
+    }
+
+    /**
+     * Searches the chunks that best match a query that is already embedded.
+     *
+     * @param query       the query text
+     * @param queryVector the embedding of the query
+     * @param k           maximum number of hits
+     * @return the hits ordered by descending fused score
+     */
+    public List<SearchHit> search(String query, float[] queryVector, int k) {
+        int candidates = Math.max(k, options.getCandidates());
+        List<SearchHit> lexicalHits = lexical.search(query, candidates);
+        List<SearchHit> vectorHits = vectors.search(queryVector, candidates);
+        return ReciprocalRankFusion.fuse(k, options.getRankConstant(), Arrays.asList(lexicalHits, vectorHits));
+    }
+}
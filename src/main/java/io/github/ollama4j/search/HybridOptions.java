@@ -0,0 +1,25 @@
+package io.github.ollama4j.search;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Parameters of a {@link HybridIndex} search.
+ */
+@Data
+@Builder
+public class HybridOptions {
+
+    /**
+     * Number of hits taken from each index before they are fused; a search always takes at least as many as it returns.
+     */
+    @Builder.Default
+    private int candidates = 50;
+
+    /**
+     * Constant added to the rank of a hit in reciprocal-rank fusion; higher values flatten the difference between the
+     * first ranks and the following ones.
+     */
+    @Builder.Default
+    private int rankConstant = ReciprocalRankFusion.DEFAULT_RANK_CONSTANT;
+}
@@ -0,0 +1,274 @@
+package io.github.ollama4j.search;
+
+import io.github.ollama4j.models.embeddings.FloatEmbeddings;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Builds an {@link IvfPqIndex} from a stream of vectors, without holding them in memory.
+ * <p>
+ * {@link #train} trains the quantizers on a sample of the vectors, e.g. a few tens of thousands of embeddings returned
+ * by {@link io.github.ollama4j.OllamaAPI#embedFloats}. The vectors are then added in batches of any size: every vector
+ * is assigned to a list and encoded right away, and only its list and code are appended to a spill file. Only the
+ * number of vectors per list is kept in memory. {@link #build()} sorts the spill file into the posting lists with one
+ * sequential pass and writes the index.
+ * <pre>{@code
+ * try (IvfPqBuilder builder = IvfPqBuilder.train(directory, sample, SimilarityMetric.COSINE, IvfPqOptions.builder().build())) {
+ *     for (List<String> batch : batches) {
+ *         builder.addAll(ollamaAPI.embedFloats(new OllamaEmbedRequestModel(model, batch)).getEmbeddings());
+ *     }
+ *     IvfPqIndex index = builder.build();
+ * }
+ * }</pre>
+ * Vectors get consecutive int ids in the order they are added, starting at 0.
+ */
+public class IvfPqBuilder implements Closeable {
+
+    static final int SEGMENT_BYTES = 1 << 30;
+
+    private static final int SPILL_BUFFER_BYTES = 1 << 16;
+
+    private final Path directory;
+    private final IvfPqCodebook codebook;
+    private final int probes;
+    private final Path spillFile;
+    private final FileChannel spill;
+    private final ByteBuffer buffer;
+    private final int[] counts;
+    private int size;
+    private boolean built;
+
+    private IvfPqBuilder(Path directory, IvfPqCodebook codebook, int probes) throws IOException {
+        this.directory = directory;
+        this.codebook = codebook;
+        this.probes = probes;
+        Files.createDirectories(directory);
+        this.spillFile = directory.resolve(IvfPqIndex.SPILL_FILE);
+        this.spill = FileChannel.open(spillFile, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        this.buffer = ByteBuffer.allocate(SPILL_BUFFER_BYTES - SPILL_BUFFER_BYTES % recordBytes()).order(ByteOrder.LITTLE_ENDIAN);
+        this.counts = new int[codebook.lists];
+    }
+
+    /**
+     * Trains the quantizers of an index with parallel k-means and starts building it.
+     *
+     * @param directory directory of the index files; it is created if it does not exist. An index it holds stays
+     *                  usable until it is replaced by {@link #build()}
+     * @param sample    a sample of the vectors to index; at least as many as {@link IvfPqOptions#getLists()}
+     * @param metric    similarity metric of searches
+     * @param options   index parameters
+     * @return the builder
+     * @throws IOException if the spill file cannot be created
+     */
+    public static IvfPqBuilder train(Path directory, FloatEmbeddings sample, SimilarityMetric metric, IvfPqOptions options) throws IOException {
+        return new IvfPqBuilder(directory, IvfPqCodebook.train(sample, metric, options), options.getProbes());
+    }
+
+    /**
+     * @return number of vectors added so far
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Adds a vector.
+     *
+     * @param vector the vector
+     * @return the id of the vector
+     * @throws IOException if the spill file cannot be written
+     */
+    public synchronized int add(float[] vector) throws IOException {
+        checkDimension(vector.length);
+        float[] prepared = codebook.metric.prepare(vector);
+        int list = codebook.assign(prepared);
+        byte[] code = new byte[codebook.subspaces];
+        codebook.encode(prepared, list, code, 0);
+        append(list, code, 0);
+        return size++;
+    }
+
+    /**
+     * Adds a batch of vectors, encoding them in parallel.
+     *
+     * @param embeddings the vectors
+     * @return the id of the first vector; the others follow consecutively
+     * @throws IOException if the spill file cannot be written
+     */
+    public synchronized int addAll(FloatEmbeddings embeddings) throws IOException {
+        int first = size;
+        if (embeddings.size() == 0) {
+            return first;
+        }
+        checkDimension(embeddings.getDimension());
+        int[] lists = new int[embeddings.size()];
+        byte[] codes = new byte[embeddings.size() * codebook.subspaces];
+        IntStream.range(0, embeddings.size()).parallel().forEach(i -> {
+            float[] prepared = codebook.metric.prepare(embeddings.getVector(i));
+            lists[i] = codebook.assign(prepared);
+            codebook.encode(prepared, lists[i], codes, i * codebook.subspaces);
+        });
+        for (int i = 0; i < lists.length; i++) {
+            append(lists[i], codes, i * codebook.subspaces);
+        }
+        size += lists.length;
+        return first;
+    }
+
+    /**
+     * Adds a batch of vectors as returned by {@link io.github.ollama4j.OllamaAPI#embed}.
+     *
+     * @param embeddings the vectors
+     * @return the id of the first vector; the others follow consecutively
+     * @throws IOException if the spill file cannot be written
+     */
+    public int addAll(List<List<Double>> embeddings) throws IOException {
+        return addAll(FloatEmbeddings.fromLists(embeddings));
+    }
+
+    /**
+     * Writes the posting lists and the quantizers, deletes the spill file and opens the index. Posting lists are
+     * packed into segments of up to {@value #SEGMENT_BYTES} bytes that are mapped separately; a list never spans two
+     * segments.
+     * <p>
+     * Both files are written under temporary names and only then moved over those of an index the directory held, so
+     * that index, and instances of it that are open, stay intact while the new one is written.
+     *
+     * @return the index
+     * @throws IOException if the index cannot be written
+     */
+    public synchronized IvfPqIndex build() throws IOException {
+        if (built) {
+            throw new IllegalStateException("The index is already built");
+        }
+        flush();
+        spill.force(true);
+        int subspaces = codebook.subspaces;
+        int[] segmentOf = new int[codebook.lists];
+        int[] offsetOf = new int[codebook.lists];
+        int[] segmentLengths = new int[codebook.lists + 1];
+        int segmentCount = 1;
+        for (int list = 0; list < codebook.lists; list++) {
+            long bytes = (long) counts[list] * (Integer.BYTES + subspaces);
+            if (bytes > Integer.MAX_VALUE) {
+                throw new IllegalStateException("List " + list + " takes " + bytes + " bytes; train more lists");
+            }
+            if (segmentLengths[segmentCount - 1] > 0 && segmentLengths[segmentCount - 1] + bytes > SEGMENT_BYTES) {
+                segmentCount++;
+            }
+            segmentOf[list] = segmentCount - 1;
+            offsetOf[list] = segmentLengths[segmentCount - 1];
+            segmentLengths[segmentCount - 1] += (int) bytes;
+        }
+
+        Path postingsFile = temporary(IvfPqIndex.POSTINGS_FILE);
+        try (FileChannel postings = FileChannel.open(postingsFile, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+             MappedFileInput records = new MappedFileInput(spillFile)) {
+            MappedByteBuffer[] segments = new MappedByteBuffer[segmentCount];
+            long position = 0;
+            for (int s = 0; s < segmentCount; s++) {
+                segments[s] = postings.map(FileChannel.MapMode.READ_WRITE, position, segmentLengths[s]);
+                segments[s].order(ByteOrder.LITTLE_ENDIAN);
+                position += segmentLengths[s];
+            }
+            // every list holds the ids of its vectors, then their codes
+            int[] filled = new int[codebook.lists];
+            byte[] code = new byte[subspaces];
+            for (int id = 0; id < size; id++) {
+                int list = records.getInt();
+                records.getBytes(code, 0, subspaces);
+                MappedByteBuffer segment = segments[segmentOf[list]];
+                int index = filled[list]++;
+                segment.putInt(offsetOf[list] + index * Integer.BYTES, id);
+                int codeOffset = offsetOf[list] + counts[list] * Integer.BYTES + index * subspaces;
+                for (int s = 0; s < subspaces; s++) {
+                    segment.put(codeOffset + s, code[s]);
+                }
+            }
+            for (MappedByteBuffer segment : segments) {
+                segment.force();
+            }
+        }
+
+        Path metaFile = temporary(IvfPqIndex.META_FILE);
+        try (MappedFileOutput out = new MappedFileOutput(metaFile)) {
+            out.putInt(IvfPqIndex.MAGIC);
+            out.putInt(IvfPqIndex.VERSION);
+            out.putInt(size);
+            out.putInt(probes);
+            codebook.write(out);
+            out.putInt(segmentCount);
+            out.putInts(segmentLengths, 0, segmentCount);
+            out.putInts(segmentOf, 0, codebook.lists);
+            out.putInts(offsetOf, 0, codebook.lists);
+            out.putInts(counts, 0, codebook.lists);
+            out.commit();
+        }
+        // the metadata is moved in last and removed first, so that an index without it is recognized as incomplete and
+        // no metadata ever describes the postings of another build
+        Files.deleteIfExists(directory.resolve(IvfPqIndex.META_FILE));
+        Files.move(postingsFile, directory.resolve(IvfPqIndex.POSTINGS_FILE), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        Files.move(metaFile, directory.resolve(IvfPqIndex.META_FILE), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        built = true;
+        close();
+        return IvfPqIndex.open(directory);
+    }
+
+    /**
+     * Deletes the spill file; an index that was not built is discarded.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (spill.isOpen()) {
+            spill.close();
+        }
+        Files.deleteIfExists(spillFile);
+        Files.deleteIfExists(temporary(IvfPqIndex.POSTINGS_FILE));
+        Files.deleteIfExists(temporary(IvfPqIndex.META_FILE));
+    }
+
+    private Path temporary(String file) {
+        return directory.resolve(file + ".tmp");
+    }
+
+    private int recordBytes() {
+        return Integer.BYTES + codebook.subspaces;
+    }
+
+    private void append(int list, byte[] codes, int offset) throws IOException {
+        if (built || !spill.isOpen()) {
+            throw new IllegalStateException("The builder is closed");
+        }
+        if (buffer.remaining() < recordBytes()) {
+            flush();
+        }
+        buffer.putInt(list).put(codes, offset, codebook.subspaces);
+        counts[list]++;
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            spill.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private void checkDimension(int actual) {
+        if (actual != codebook.dimension) {
+            throw new IllegalArgumentException("Expected a vector of dimension " + codebook.dimension + ", got " + actual);
+        }
+    }
+}
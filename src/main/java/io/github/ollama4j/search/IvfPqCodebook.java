@@ -0,0 +1,159 @@
+package io.github.ollama4j.search;
+
+import io.github.ollama4j.models.embeddings.FloatEmbeddings;
+
+import java.io.IOException;
+import java.util.stream.IntStream;
+
+/**
+ * The trained quantizers of an {@link IvfPqIndex}: the centroids of the inverted lists, and for every subspace a
+ * codebook of up to {@value #MAX_CODEWORDS} codewords that encode the residual of a vector to its list centroid.
+ */
+final class IvfPqCodebook {
+
+    static final int MAX_CODEWORDS = 256;
+
+    final int dimension;
+    final SimilarityMetric metric;
+    final int lists;
+    final int subspaces;
+    final int subDimension;
+    final int codewords;
+    final float[] centroids;
+    final float[] codebooks;
+
+    IvfPqCodebook(int dimension, SimilarityMetric metric, int lists, int subspaces, int codewords, float[] centroids, float[] codebooks) {
+        this.dimension = dimension;
+        this.metric = metric;
+        this.lists = lists;
+        this.subspaces = subspaces;
+        this.subDimension = dimension / subspaces;
+        this.codewords = codewords;
+        this.centroids = centroids;
+        this.codebooks = codebooks;
+    }
+
+    /**
+     * Trains the list centroids on the sample, then the codebooks of every subspace, in parallel, on the residuals of
+     * the sample to their centroids.
+     */
+    static IvfPqCodebook train(FloatEmbeddings sample, SimilarityMetric metric, IvfPqOptions options) {
+        int dimension = sample.getDimension();
+        int count = sample.size();
+        if (options.getSubspaces() < 1 || dimension % options.getSubspaces() != 0) {
+            throw new IllegalArgumentException("The dimension " + dimension + " is not a multiple of " + options.getSubspaces() + " subspaces");
+        }
+        if (options.getLists() < 1 || count < options.getLists()) {
+            throw new IllegalArgumentException("A sample of " + count + " vectors cannot train " + options.getLists() + " lists");
+        }
+        float[] data = new float[count * dimension];
+        for (int i = 0; i < count; i++) {
+            sample.copyVector(i, data, i * dimension);
+            if (metric == SimilarityMetric.COSINE) {
+                VectorMath.normalize(data, i * dimension, dimension);
+            }
+        }
+        int lists = options.getLists();
+        float[] centroids = KMeans.train(data, 0, dimension, count, dimension, lists, options.getIterations(), options.getSeed());
+        IntStream.range(0, count).parallel().forEach(i -> {
+            int list = KMeans.nearest(centroids, lists, dimension, data, i * dimension);
+            for (int j = 0; j < dimension; j++) {
+                data[i * dimension + j] -= centroids[list * dimension + j];
+            }
+        });
+        int subspaces = options.getSubspaces();
+        int subDimension = dimension / subspaces;
+        int codewords = Math.min(MAX_CODEWORDS, count);
+        float[] codebooks = new float[subspaces * codewords * subDimension];
+        IntStream.range(0, subspaces).parallel().forEach(s -> {
+            float[] codebook = KMeans.train(data, s * subDimension, dimension, count, subDimension, codewords,
+                    options.getIterations(), options.getSeed() + s + 1);
+            System.arraycopy(codebook, 0, codebooks, s * codewords * subDimension, codebook.length);
+        });
+        return new IvfPqCodebook(dimension, metric, lists, subspaces, codewords, centroids, codebooks);
+    }
+
+    /**
+     * @param vector a vector prepared by {@link SimilarityMetric#prepare(float[])}
+     * @return the list the vector belongs to
+     */
+    int assign(float[] vector) {
+        return KMeans.nearest(centroids, lists, dimension, vector, 0);
+    }
+
+    /**
+     * Encodes the residual of the vector to the centroid of its list, one byte per subspace.
+     */
+    void encode(float[] vector, int list, byte[] codes, int offset) {
+        float[] residual = new float[dimension];
+        for (int i = 0; i < dimension; i++) {
+            residual[i] = vector[i] - centroids[list * dimension + i];
+        }
+        for (int s = 0; s < subspaces; s++) {
+            int codeword = KMeans.nearest(codebooks, s * codewords * subDimension, codewords, subDimension, residual, s * subDimension);
+            codes[offset + s] = (byte) codeword;
+        }
+    }
+
+    /**
+     * @return the score of the query against a list centroid, ranking the lists to probe
+     */
+    float listScore(float[] query, int list) {
+        if (metric == SimilarityMetric.EUCLIDEAN) {
+            return -VectorMath.squareDistance(query, 0, centroids, list * dimension, dimension);
+        }
+        return VectorMath.dot(query, 0, centroids, list * dimension, dimension);
+    }
+
+    /**
+     * Builds the table of the query's score against every codeword of every subspace, so that the score of an encoded
+     * vector is the sum of one table entry per subspace, plus the score of its list.
+     *
+     * @param list the list for {@link SimilarityMetric#EUCLIDEAN}, whose table depends on it; ignored otherwise, as
+     *             the dot product of the query with the list centroid is added separately
+     */
+    float[] scoreTable(float[] query, int list) {
+        float[] table = new float[subspaces * codewords];
+        if (metric == SimilarityMetric.EUCLIDEAN) {
+            float[] residual = new float[dimension];
+            for (int i = 0; i < dimension; i++) {
+                residual[i] = query[i] - centroids[list * dimension + i];
+            }
+            for (int s = 0; s < subspaces; s++) {
+                for (int c = 0; c < codewords; c++) {
+                    table[s * codewords + c] = -VectorMath.squareDistance(residual, s * subDimension, codebooks, (s * codewords + c) * subDimension, subDimension);
+                }
+            }
+        } else {
+            for (int s = 0; s < subspaces; s++) {
+                for (int c = 0; c < codewords; c++) {
+                    table[s * codewords + c] = VectorMath.dot(query, s * subDimension, codebooks, (s * codewords + c) * subDimension, subDimension);
+                }
+            }
+        }
+        return table;
+    }
+
+    void write(MappedFileOutput out) throws IOException {
+        out.putInt(dimension);
+        out.putInt(metric.ordinal());
+        out.putInt(lists);
+        out.putInt(subspaces);
+        out.putInt(codewords);
+        out.putFloats(centroids, 0, centroids.length);
+        out.putFloats(codebooks, 0, codebooks.length);
+    }
+
+    static IvfPqCodebook read(MappedFileInput in) throws IOException {
+        int dimension = in.getInt();
+        SimilarityMetric metric = SimilarityMetric.values()[in.getInt()];
+        int lists = in.getInt();
+        int subspaces = in.getInt();
+        int codewords = in.getInt();
+        float[] centroids = new float[lists * dimension];
+        in.getFloats(centroids, 0, centroids.length);
+        float[] codebooks = new float[codewords * dimension];
+        in.getFloats(codebooks, 0, codebooks.length);
+        return new IvfPqCodebook(dimension, metric, lists, subspaces, codewords, centroids, codebooks);
+    }
+}
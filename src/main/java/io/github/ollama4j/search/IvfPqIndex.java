@@ -0,0 +1,205 @@
+package io.github.ollama4j.search;
+
+import io.github.ollama4j.models.embeddings.FloatEmbeddings;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Approximate nearest neighbour index for corpora larger than the memory, combining an inverted file (IVF) with
+ * product quantization (PQ). Built with an {@link IvfPqBuilder}.
+ * <p>
+ * The vectors are clustered into lists around trained centroids. Within a list, every vector is stored as its id and
+ * one byte per subspace, encoding the residual of the vector to the centroid; a 768 dimensional vector with 16
+ * subspaces takes 20 bytes instead of 3 KB. A search ranks the centroids, reads only the posting lists of the best
+ * {@code probes} of them, and scores their vectors by table lookups, without decoding them.
+ * <p>
+ * The directory holds {@value #META_FILE}, with the centroids, codebooks and the location of every list, and
+ * {@value #POSTINGS_FILE}, with the posting lists. Only the metadata is read into memory; the posting lists are
+ * memory-mapped, so the pages of the lists that are never probed are never read from disk. Searches may run
+ * concurrently.
+ */
+public class IvfPqIndex implements Closeable {
+
+    static final String META_FILE = "ivfpq.meta";
+    static final String POSTINGS_FILE = "ivfpq.postings";
+    static final String SPILL_FILE = "ivfpq.spill";
+    static final int MAGIC = 0x4f344a50;
+    static final int VERSION = 1;
+
+    private final IvfPqCodebook codebook;
+    private final int size;
+    private final int defaultProbes;
+    private final int[] segmentOf;
+    private final int[] offsetOf;
+    private final int[] counts;
+    private final MappedByteBuffer[] segments;
+    private final FileChannel channel;
+
+    private IvfPqIndex(IvfPqCodebook codebook, int size, int defaultProbes, int[] segmentLengths, int[] segmentOf,
+                       int[] offsetOf, int[] counts, FileChannel channel) throws IOException {
+        this.codebook = codebook;
+        this.size = size;
+        this.defaultProbes = defaultProbes;
+        this.segmentOf = segmentOf;
+        this.offsetOf = offsetOf;
+        this.counts = counts;
+        this.channel = channel;
+        this.segments = new MappedByteBuffer[segmentLengths.length];
+        long position = 0;
+        for (int s = 0; s < segments.length; s++) {
+            segments[s] = channel.map(FileChannel.MapMode.READ_ONLY, position, segmentLengths[s]);
+            position += segmentLengths[s];
+        }
+    }
+
+    /**
+     * Opens an index built by {@link IvfPqBuilder#build()}.
+     *
+     * @param directory directory of the index files
+     * @return the index
+     * @throws IOException if the files cannot be read or do not hold a complete index
+     */
+    public static IvfPqIndex open(Path directory) throws IOException {
+        Path meta = directory.resolve(META_FILE);
+        if (!Files.exists(meta)) {
+            throw new IOException(directory + " does not hold a complete IVF-PQ index");
+        }
+        try (MappedFileInput in = new MappedFileInput(meta)) {
+            if (in.getInt() != MAGIC || in.getInt() != VERSION) {
+                throw new IOException(meta + " is not an IVF-PQ index of version " + VERSION);
+            }
+            int size = in.getInt();
+            int probes = in.getInt();
+            IvfPqCodebook codebook = IvfPqCodebook.read(in);
+            int[] segmentLengths = new int[in.getInt()];
+            in.getInts(segmentLengths, 0, segmentLengths.length);
+            int[] segmentOf = new int[codebook.lists];
+            int[] offsetOf = new int[codebook.lists];
+            int[] counts = new int[codebook.lists];
+            in.getInts(segmentOf, 0, codebook.lists);
+            in.getInts(offsetOf, 0, codebook.lists);
+            in.getInts(counts, 0, codebook.lists);
+            FileChannel channel = FileChannel.open(directory.resolve(POSTINGS_FILE), StandardOpenOption.READ);
+            try {
+                return new IvfPqIndex(codebook, size, probes, segmentLengths, segmentOf, offsetOf, counts, channel);
+            } catch (IOException e) {
+                channel.close();
+                throw e;
+            }
+        }
+    }
+
+    public int getDimension() {
+        return codebook.dimension;
+    }
+
+    public SimilarityMetric getMetric() {
+        return codebook.metric;
+    }
+
+    /**
+     * @return number of vectors in the index
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return number of inverted lists
+     */
+    public int getListCount() {
+        return codebook.lists;
+    }
+
+    /**
+     * Searches the vectors most similar to the query in the default number of lists.
+     *
+     * @param query the query vector
+     * @param k     maximum number of hits
+     * @return the hits ordered by descending approximate similarity
+     */
+    public List<SearchHit> search(float[] query, int k) {
+        return search(query, k, defaultProbes);
+    }
+
+    /**
+     * Searches the vectors most similar to the query.
+     *
+     * @param query  the query vector
+     * @param k      maximum number of hits
+     * @param probes number of lists to read, those whose centroids are most similar to the query
+     * @return the hits ordered by descending approximate similarity
+     */
+    public List<SearchHit> search(float[] query, int k, int probes) {
+        if (query.length != codebook.dimension) {
+            throw new IllegalArgumentException("Expected a vector of dimension " + codebook.dimension + ", got " + query.length);
+        }
+        float[] prepared = codebook.metric.prepare(query);
+        ScoreHeap lists = new ScoreHeap(probes);
+        for (int list = 0; list < codebook.lists; list++) {
+            lists.offer(codebook.listScore(prepared, list), list, probes);
+        }
+        boolean euclidean = codebook.metric == SimilarityMetric.EUCLIDEAN;
+        float[] table = euclidean ? null : codebook.scoreTable(prepared, -1);
+        ScoreHeap hits = new ScoreHeap(k);
+        while (!lists.isEmpty()) {
+            float listScore = lists.peekScore();
+            int list = lists.pop();
+            if (counts[list] == 0 || k < 1) {
+                continue;
+            }
+            // the residual distances already account for the centroid
+            scanList(list, euclidean ? 0 : listScore, euclidean ? codebook.scoreTable(prepared, list) : table, hits, k);
+        }
+        return hits.drainDescending();
+    }
+
+    /**
+     * Searches several queries in parallel.
+     *
+     * @param queries the query vectors
+     * @param k       maximum number of hits per query
+     * @return the hits of every query, in the order of the queries
+     */
+    public List<List<SearchHit>> search(FloatEmbeddings queries, int k) {
+        return IntStream.range(0, queries.size()).parallel()
+                .mapToObj(i -> search(queries.getVector(i), k))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private void scanList(int list, float base, float[] table, ScoreHeap hits, int k) {
+        int count = counts[list];
+        int subspaces = codebook.subspaces;
+        int codewords = codebook.codewords;
+        ByteBuffer segment = segments[segmentOf[list]].duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        segment.position(offsetOf[list]);
+        int[] ids = new int[count];
+        segment.asIntBuffer().get(ids);
+        byte[] codes = new byte[count * subspaces];
+        segment.position(offsetOf[list] + count * Integer.BYTES);
+        segment.get(codes);
+        for (int i = 0; i < count; i++) {
+            float score = base;
+            for (int s = 0; s < subspaces; s++) {
+                score += table[s * codewords + (codes[i * subspaces + s] & 0xff)];
+            }
+            hits.offer(score, ids[i], k);
+        }
+    }
+}
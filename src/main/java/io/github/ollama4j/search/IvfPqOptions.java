@@ -0,0 +1,44 @@
+package io.github.ollama4j.search;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Parameters of an {@link IvfPqIndex}, see {@link IvfPqBuilder#train}.
+ */
+@Data
+@Builder
+public class IvfPqOptions {
+
+    /**
+     * Number of inverted lists, i.e. of clusters of the coarse quantizer. About the square root of the number of
+     * vectors is a good start.
+     */
+    @Builder.Default
+    private int lists = 1024;
+
+    /**
+     * Number of subvectors every vector is split into; it must divide the dimension. Every subvector is encoded in one
+     * byte, so more subspaces give more precise scores at the cost of larger posting lists.
+     */
+    @Builder.Default
+    private int subspaces = 16;
+
+    /**
+     * Number of k-means iterations when training the coarse quantizer and the codebooks.
+     */
+    @Builder.Default
+    private int iterations = 20;
+
+    /**
+     * Default number of lists a search reads; higher values give better recall but read more of the index.
+     */
+    @Builder.Default
+    private int probes = 16;
+
+    /**
+     * Seed of the k-means initialization.
+     */
+    @Builder.Default
+    private long seed = 42;
+}
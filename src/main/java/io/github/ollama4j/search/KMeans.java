@@ -0,0 +1,129 @@
+package io.github.ollama4j.search;
+
+import java.util.Random;
+import java.util.stream.IntStream;
+
+/**
+ * Lloyd's k-means clustering of vectors stored row by row in a {@code float[]}, by squared Euclidean distance.
+ * <p>
+ * The assignment step, which dominates the cost, runs in parallel on the common fork-join pool: the points are split
+ * into slices, and every slice accumulates the sums and counts of its clusters before they are merged.
+ */
+final class KMeans {
+
+    private static final int SLICE = 1024;
+
+    private KMeans() {
+    }
+
+    /**
+     * @param points     the points, row by row
+     * @param offset     index of the first component of the first point
+     * @param stride     distance between the first components of consecutive points
+     * @param count      number of points
+     * @param dimension  number of components of every point, starting at its first component
+     * @param clusters   number of clusters; at most {@code count}
+     * @param iterations number of refinement iterations
+     * @param seed       seed of the initial centroids
+     * @return the centroids, row by row
+     */
+    static float[] train(float[] points, int offset, int stride, int count, int dimension, int clusters, int iterations, long seed) {
+        if (clusters > count) {
+            throw new IllegalArgumentException(count + " points cannot form " + clusters + " clusters");
+        }
+        Random random = new Random(seed);
+        float[] centroids = new float[clusters * dimension];
+        // start from distinct random points
+        int[] order = IntStream.range(0, count).toArray();
+        for (int c = 0; c < clusters; c++) {
+            int swap = c + random.nextInt(count - c);
+            int point = order[swap];
+            order[swap] = order[c];
+            order[c] = point;
+            System.arraycopy(points, offset + point * stride, centroids, c * dimension, dimension);
+        }
+        int slices = (count + SLICE - 1) / SLICE;
+        for (int iteration = 0; iteration < iterations; iteration++) {
+            float[] current = centroids;
+            Accumulator sum = IntStream.range(0, slices).parallel()
+                    .mapToObj(slice -> {
+                        Accumulator accumulator = new Accumulator(clusters, dimension);
+                        for (int p = slice * SLICE; p < Math.min(count, (slice + 1) * SLICE); p++) {
+                            int pointOffset = offset + p * stride;
+                            int cluster = nearest(current, clusters, dimension, points, pointOffset);
+                            accumulator.add(cluster, points, pointOffset);
+                        }
+                        return accumulator;
+                    })
+                    .reduce(Accumulator::merge)
+                    .orElseThrow();
+            float[] next = new float[clusters * dimension];
+            for (int c = 0; c < clusters; c++) {
+                if (sum.counts[c] == 0) {
+                    // an empty cluster restarts from a random point
+                    System.arraycopy(points, offset + random.nextInt(count) * stride, next, c * dimension, dimension);
+                    continue;
+                }
+                for (int i = 0; i < dimension; i++) {
+                    next[c * dimension + i] = (float) (sum.sums[c * dimension + i] / sum.counts[c]);
+                }
+            }
+            centroids = next;
+        }
+        return centroids;
+    }
+
+    /**
+     * @return index of the centroid nearest to the point
+     */
+    static int nearest(float[] centroids, int clusters, int dimension, float[] point, int pointOffset) {
+        return nearest(centroids, 0, clusters, dimension, point, pointOffset);
+    }
+
+    /**
+     * @param centroidsOffset index of the first component of the first centroid
+     * @return index of the centroid nearest to the point
+     */
+    static int nearest(float[] centroids, int centroidsOffset, int clusters, int dimension, float[] point, int pointOffset) {
+        int nearest = 0;
+        float nearestDistance = Float.POSITIVE_INFINITY;
+        for (int c = 0; c < clusters; c++) {
+            float distance = VectorMath.squareDistance(centroids, centroidsOffset + c * dimension, point, pointOffset, dimension);
+            if (distance < nearestDistance) {
+                nearest = c;
+                nearestDistance = distance;
+            }
+        }
+        return nearest;
+    }
+
+    private static final class Accumulator {
+
+        final double[] sums;
+        final int[] counts;
+        final int dimension;
+
+        Accumulator(int clusters, int dimension) {
+            this.sums = new double[clusters * dimension];
+            this.counts = new int[clusters];
+            this.dimension = dimension;
+        }
+
+        void add(int cluster, float[] points, int pointOffset) {
+            counts[cluster]++;
+            for (int i = 0; i < dimension; i++) {
+                sums[cluster * dimension + i] += points[pointOffset + i];
+            }
+        }
+
+        Accumulator merge(Accumulator other) {
+            for (int i = 0; i < sums.length; i++) {
+                sums[i] += other.sums[i];
+            }
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] += other.counts[i];
+            }
+            return this;
+        }
+    }
+}
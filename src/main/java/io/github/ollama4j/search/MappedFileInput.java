@@ -0,0 +1,109 @@
+package io.github.ollama4j.search;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads little-endian ints and floats written by {@link MappedFileOutput} through read-only memory-mapped windows.
+ */
+final class MappedFileInput implements Closeable {
+
+    private final FileChannel channel;
+    private final long size;
+    private MappedByteBuffer window;
+    private long windowStart;
+
+    MappedFileInput(Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        this.size = channel.size();
+        this.window = map(0);
+    }
+
+    long position() {
+        return windowStart + window.position();
+    }
+
+    void seek(long position) throws IOException {
+        if (position < windowStart || position > windowStart + window.limit()) {
+            window = map(position);
+        } else {
+            window.position((int) (position - windowStart));
+        }
+    }
+
+    int getInt() throws IOException {
+        ensureRemaining();
+        return window.getInt();
+    }
+
+    float getFloat() throws IOException {
+        ensureRemaining();
+        return window.getFloat();
+    }
+
+    void getInts(int[] values, int offset, int length) throws IOException {
+        while (length > 0) {
+            ensureRemaining();
+            int count = Math.min(length, window.remaining() / Integer.BYTES);
+            window.asIntBuffer().get(values, offset, count);
+            window.position(window.position() + count * Integer.BYTES);
+            offset += count;
+            length -= count;
+        }
+    }
+
+    void getFloats(float[] values, int offset, int length) throws IOException {
+        while (length > 0) {
+            ensureRemaining();
+            int count = Math.min(length, window.remaining() / Float.BYTES);
+            window.asFloatBuffer().get(values, offset, count);
+            window.position(window.position() + count * Float.BYTES);
+            offset += count;
+            length -= count;
+        }
+    }
+
+    void getBytes(byte[] values, int offset, int length) throws IOException {
+        while (length > 0) {
+            if (!window.hasRemaining()) {
+                next(1);
+            }
+            int count = Math.min(length, window.remaining());
+            window.get(values, offset, count);
+            offset += count;
+            length -= count;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private void ensureRemaining() throws IOException {
+        if (window.remaining() < Integer.BYTES) {
+            next(Integer.BYTES);
+        }
+    }
+
+    private void next(int bytes) throws IOException {
+        long position = position();
+        if (position + bytes > size) {
+            throw new EOFException("Unexpected end of file at " + position);
+        }
+        window = map(position);
+    }
+
+    private MappedByteBuffer map(long start) throws IOException {
+        windowStart = start;
+        MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(MappedFileOutput.WINDOW_BYTES, size - start));
+        mapped.order(ByteOrder.LITTLE_ENDIAN);
+        return mapped;
+    }
+}
@@ -0,0 +1,121 @@
+package io.github.ollama4j.search;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes little-endian ints and floats to a file through memory-mapped windows of {@value #WINDOW_BYTES} bytes, so
+ * that files beyond the 2 GB limit of a single mapping can be written.
+ * <p>
+ * The data is written to a temporary file next to the target, which replaces the target on {@link #commit()}. A file
+ * that is not committed is deleted on {@link #close()}.
+ */
+final class MappedFileOutput implements Closeable {
+
+    static final int WINDOW_BYTES = 1 << 28;
+
+    private final Path target;
+    private final Path temporary;
+    private final FileChannel channel;
+    private MappedByteBuffer window;
+    private long windowStart;
+    private boolean committed;
+
+    MappedFileOutput(Path target) throws IOException {
+        this.target = target;
+        this.temporary = target.resolveSibling(target.getFileName() + ".tmp");
+        this.channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.window = map(0);
+    }
+
+    long position() {
+        return windowStart + window.position();
+    }
+
+    void putInt(int value) throws IOException {
+        ensureRemaining();
+        window.putInt(value);
+    }
+
+    void putFloat(float value) throws IOException {
+        ensureRemaining();
+        window.putFloat(value);
+    }
+
+    void putInts(int[] values, int offset, int length) throws IOException {
+        while (length > 0) {
+            ensureRemaining();
+            int count = Math.min(length, window.remaining() / Integer.BYTES);
+            window.asIntBuffer().put(values, offset, count);
+            window.position(window.position() + count * Integer.BYTES);
+            offset += count;
+            length -= count;
+        }
+    }
+
+    void putFloats(float[] values, int offset, int length) throws IOException {
+        while (length > 0) {
+            ensureRemaining();
+            int count = Math.min(length, window.remaining() / Float.BYTES);
+            window.asFloatBuffer().put(values, offset, count);
+            window.position(window.position() + count * Float.BYTES);
+            offset += count;
+            length -= count;
+        }
+    }
+
+    void putBytes(byte[] values, int offset, int length) throws IOException {
+        while (length > 0) {
+            if (!window.hasRemaining()) {
+                window = map(windowStart + WINDOW_BYTES);
+            }
+            int count = Math.min(length, window.remaining());
+            window.put(values, offset, count);
+            offset += count;
+            length -= count;
+        }
+    }
+
+    /**
+     * Flushes the file to disk and moves it to the target.
+     */
+    void commit() throws IOException {
+        long end = position();
+        window.force();
+        window = null;
+        channel.truncate(end);
+        channel.force(true);
+        channel.close();
+        Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        committed = true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!committed) {
+            channel.close();
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    private void ensureRemaining() throws IOException {
+        if (window.remaining() < Integer.BYTES) {
+            window = map(windowStart + window.position());
+        }
+    }
+
+    private MappedByteBuffer map(long start) throws IOException {
+        windowStart = start;
+        MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_WRITE, start, WINDOW_BYTES);
+        mapped.order(ByteOrder.LITTLE_ENDIAN);
+        return mapped;
+    }
+}
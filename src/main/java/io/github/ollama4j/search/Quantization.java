@@ -0,0 +1,32 @@
+package io.github.ollama4j.search;
+
+/**
+ * How a {@link QuantizedVectorStore} compresses the vectors it keeps in memory.
+ */
+public enum Quantization {
+
+    /**
+     * One signed byte per component, scaled per vector so that its largest component maps to 127. Takes a quarter of
+     * the memory of float vectors; the approximate scores are close to the exact ones.
+     */
+    INT8(3),
+
+    /**
+     * One bit per component, its sign, and the mean magnitude of the components as the scale of the vector. Takes a
+     * 32nd of the memory of float vectors; the approximate ranking is coarse, so more candidates are rescored.
+     */
+    BINARY(10);
+
+    private final int defaultOversampling;
+
+    Quantization(int defaultOversampling) {
+        this.defaultOversampling = defaultOversampling;
+    }
+
+    /**
+     * @return how many times as many candidates as requested hits a search rescores by default
+     */
+    public int getDefaultOversampling() {
+        return defaultOversampling;
+    }
+}
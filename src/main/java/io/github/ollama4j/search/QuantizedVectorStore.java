@@ -0,0 +1,393 @@
+package io.github.ollama4j.search;
+
+import io.github.ollama4j.models.embeddings.FloatEmbeddings;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Nearest neighbour search over vectors that are kept in memory in compressed form and on disk in full precision.
+ * <p>
+ * Every vector is quantized to {@link Quantization#INT8} or {@link Quantization#BINARY} codes with a scale factor per
+ * vector, which takes 4 or 32 times less memory than float vectors (and 8 or 64 times less than the
+ * {@code List<Double>} of {@link io.github.ollama4j.OllamaAPI#embed}). A search scans the codes of all vectors with
+ * int8 dot product or Hamming distance kernels, then reads the float vectors of the best candidates from the
+ * memory-mapped file and ranks them by their exact score. The number of candidates trades recall for speed; it defaults
+ * to {@link Quantization#getDefaultOversampling()} times the number of hits.
+ * <p>
+ * The file holds a header and the float vectors, row by row; {@link #open(Path)} rebuilds the codes from it. Vectors get
+ * consecutive int ids in the order they are added, starting at 0. Adds are serialized; searches do not lock and see all
+ * vectors added before they started.
+ */
+public class QuantizedVectorStore implements Closeable {
+
+    static final int BLOCK_VECTORS = 4096;
+    static final int SEGMENT_BYTES = 1 << 28;
+
+    private static final int MAGIC = 0x4f344a51;
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 64;
+    private static final int COUNT_OFFSET = 20;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer header;
+    private final int dimension;
+    private final SimilarityMetric metric;
+    private final Quantization quantization;
+    private final int words;
+    private final int vectorsPerSegment;
+    private final List<MappedByteBuffer> mappedSegments = new ArrayList<>();
+
+    // codes and vectors are written before size is raised, so a search reading size first sees the vectors it counts
+    private volatile Block[] blocks = new Block[0];
+    private volatile FloatBuffer[] segments = new FloatBuffer[0];
+    private volatile int size;
+
+    private QuantizedVectorStore(FileChannel channel, int dimension, SimilarityMetric metric, Quantization quantization) throws IOException {
+        if (dimension < 1) {
+            throw new IllegalArgumentException("dimension must be positive");
+        }
+        this.channel = channel;
+        this.dimension = dimension;
+        this.metric = metric;
+        this.quantization = quantization;
+        this.words = (dimension + Long.SIZE - 1) / Long.SIZE;
+        this.vectorsPerSegment = Math.max(1, SEGMENT_BYTES / (dimension * Float.BYTES));
+        this.header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES);
+        header.order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Creates an empty store in a new file.
+     *
+     * @param file         the file; it must not exist
+     * @param dimension    dimension of the vectors
+     * @param metric       similarity metric of searches
+     * @param quantization how the vectors are compressed in memory
+     * @return the store
+     * @throws IOException if the file exists or cannot be created
+     */
+    public static QuantizedVectorStore create(Path file, int dimension, SimilarityMetric metric, Quantization quantization) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        QuantizedVectorStore store = new QuantizedVectorStore(channel, dimension, metric, quantization);
+        store.header.putInt(0, MAGIC).putInt(4, VERSION).putInt(8, dimension).putInt(12, metric.ordinal())
+                .putInt(16, quantization.ordinal()).putInt(COUNT_OFFSET, 0);
+        return store;
+    }
+
+    /**
+     * Opens a store created by {@link #create(Path, int, SimilarityMetric, Quantization)}, quantizing its vectors again.
+     *
+     * @param file the file
+     * @return the store
+     * @throws IOException if the file cannot be read or is not a store
+     */
+    public static QuantizedVectorStore open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+        header.order(ByteOrder.LITTLE_ENDIAN);
+        if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+            channel.close();
+            throw new IOException(file + " is not a quantized vector store of version " + VERSION);
+        }
+        QuantizedVectorStore store = new QuantizedVectorStore(channel, header.getInt(8),
+                SimilarityMetric.values()[header.getInt(12)], Quantization.values()[header.getInt(16)]);
+        int count = header.getInt(COUNT_OFFSET);
+        float[] vector = new float[store.dimension];
+        for (int id = 0; id < count; id++) {
+            store.ensureCapacity(id);
+            store.readVector(store.segments, id, vector);
+            store.quantize(vector, store.blocks[id / BLOCK_VECTORS], id % BLOCK_VECTORS);
+        }
+        store.size = count;
+        return store;
+    }
+
+    public int getDimension() {
+        return dimension;
+    }
+
+    public SimilarityMetric getMetric() {
+        return metric;
+    }
+
+    public Quantization getQuantization() {
+        return quantization;
+    }
+
+    /**
+     * @return number of vectors in the store
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return bytes taken in memory by the codes, scale factors and norms of the vectors
+     */
+    public long getMemoryBytes() {
+        long perVector = (quantization == Quantization.INT8 ? dimension : (long) words * Long.BYTES) + 2 * Float.BYTES;
+        return size * perVector;
+    }
+
+    /**
+     * Adds a vector.
+     *
+     * @param vector the vector; it is copied
+     * @return the id of the vector
+     * @throws IOException if the file cannot be extended
+     */
+    public synchronized int add(float[] vector) throws IOException {
+        checkDimension(vector.length);
+        int id = size;
+        append(id, metric.prepare(vector));
+        publish(id + 1);
+        return id;
+    }
+
+    /**
+     * Adds a batch of vectors, e.g. the result of {@link io.github.ollama4j.OllamaAPI#embedFloats}.
+     *
+     * @param embeddings the vectors
+     * @return the id of the first vector; the others follow consecutively
+     * @throws IOException if the file cannot be extended
+     */
+    public synchronized int addAll(FloatEmbeddings embeddings) throws IOException {
+        int first = size;
+        if (embeddings.size() == 0) {
+            return first;
+        }
+        checkDimension(embeddings.getDimension());
+        float[] vector = new float[dimension];
+        for (int i = 0; i < embeddings.size(); i++) {
+            embeddings.copyVector(i, vector, 0);
+            if (metric == SimilarityMetric.COSINE) {
+                VectorMath.normalize(vector, 0, dimension);
+            }
+            append(first + i, vector);
+        }
+        publish(first + embeddings.size());
+        return first;
+    }
+
+    /**
+     * Adds a batch of vectors as returned by {@link io.github.ollama4j.OllamaAPI#embed}.
+     *
+     * @param embeddings the vectors
+     * @return the id of the first vector; the others follow consecutively
+     * @throws IOException if the file cannot be extended
+     */
+    public int addAll(List<List<Double>> embeddings) throws IOException {
+        return addAll(FloatEmbeddings.fromLists(embeddings));
+    }
+
+    /**
+     * @param id id of a vector
+     * @return the full precision vector as stored, i.e. normalized for {@link SimilarityMetric#COSINE}
+     */
+    public float[] getVector(int id) {
+        if (id < 0 || id >= size) {
+            throw new IndexOutOfBoundsException("No vector with id " + id);
+        }
+        float[] vector = new float[dimension];
+        readVector(segments, id, vector);
+        return vector;
+    }
+
+    /**
+     * Searches the vectors most similar to the query, rescoring the default number of candidates.
+     *
+     * @param query the query vector
+     * @param k     maximum number of hits
+     * @return the hits ordered by descending exact similarity
+     */
+    public List<SearchHit> search(float[] query, int k) {
+        return search(query, k, k * quantization.getDefaultOversampling());
+    }
+
+    /**
+     * Searches the vectors most similar to the query.
+     *
+     * @param query      the query vector
+     * @param k          maximum number of hits
+     * @param candidates number of vectors with the best approximate scores that are rescored with their full precision
+     *                   vectors; at least {@code k}
+     * @return the hits ordered by descending exact similarity
+     */
+    public List<SearchHit> search(float[] query, int k, int candidates) {
+        checkDimension(query.length);
+        int count = size;
+        Block[] snapshot = blocks;
+        FloatBuffer[] vectors = segments;
+        if (count == 0 || k < 1) {
+            return new ArrayList<>();
+        }
+        float[] prepared = metric.prepare(query);
+        Block code = new Block(1);
+        quantize(prepared, code, 0);
+        int limit = Math.max(k, candidates);
+        int blockCount = (count + BLOCK_VECTORS - 1) / BLOCK_VECTORS;
+        ScoreHeap approximate = IntStream.range(0, blockCount).parallel()
+                .mapToObj(block -> scan(snapshot[block], block, count, code, limit))
+                .reduce((a, b) -> merge(a, b, limit))
+                .orElseThrow();
+
+        // read the candidates in file order
+        int[] ids = new int[approximate.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = approximate.pop();
+        }
+        Arrays.sort(ids);
+        ScoreHeap exact = new ScoreHeap(k);
+        float[] vector = new float[dimension];
+        for (int id : ids) {
+            readVector(vectors, id, vector);
+            exact.offer(metric.scorePrepared(prepared, 0, vector, 0, dimension), id, k);
+        }
+        return exact.drainDescending();
+    }
+
+    /**
+     * Flushes the vectors and the header to disk.
+     *
+     * @throws IOException if the file cannot be written
+     */
+    public synchronized void force() throws IOException {
+        for (MappedByteBuffer segment : mappedSegments) {
+            segment.force();
+        }
+        header.force();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        force();
+        channel.close();
+    }
+
+    private ScoreHeap scan(Block block, int blockIndex, int count, Block query, int limit) {
+        ScoreHeap heap = new ScoreHeap(limit);
+        int first = blockIndex * BLOCK_VECTORS;
+        int vectorCount = Math.min(BLOCK_VECTORS, count - first);
+        float queryScale = query.scales[0];
+        float queryNorm = query.squareNorms[0];
+        for (int i = 0; i < vectorCount; i++) {
+            float dot;
+            if (quantization == Quantization.INT8) {
+                dot = queryScale * block.scales[i] * VectorMath.dot(query.bytes, 0, block.bytes, i * dimension, dimension);
+            } else {
+                int distance = VectorMath.hammingDistance(query.bits, 0, block.bits, i * words, words);
+                dot = queryScale * block.scales[i] * (dimension - 2 * distance);
+            }
+            float score = metric == SimilarityMetric.EUCLIDEAN ? 2 * dot - queryNorm - block.squareNorms[i] : dot;
+            heap.offer(score, first + i, limit);
+        }
+        return heap;
+    }
+
+    private static ScoreHeap merge(ScoreHeap a, ScoreHeap b, int limit) {
+        while (!b.isEmpty()) {
+            float score = b.peekScore();
+            a.offer(score, b.pop(), limit);
+        }
+        return a;
+    }
+
+    private void append(int id, float[] vector) throws IOException {
+        ensureCapacity(id);
+        FloatBuffer segment = segments[id / vectorsPerSegment].duplicate();
+        segment.position((id % vectorsPerSegment) * dimension);
+        segment.put(vector);
+        quantize(vector, blocks[id / BLOCK_VECTORS], id % BLOCK_VECTORS);
+    }
+
+    private void publish(int count) {
+        header.putInt(COUNT_OFFSET, count);
+        size = count;
+    }
+
+    private void ensureCapacity(int id) throws IOException {
+        if (id / BLOCK_VECTORS == blocks.length) {
+            Block[] grown = Arrays.copyOf(blocks, blocks.length + 1);
+            grown[blocks.length] = new Block(BLOCK_VECTORS);
+            blocks = grown;
+        }
+        if (id / vectorsPerSegment == segments.length) {
+            long segmentBytes = (long) vectorsPerSegment * dimension * Float.BYTES;
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_WRITE, HEADER_BYTES + segments.length * segmentBytes, segmentBytes);
+            mapped.order(ByteOrder.LITTLE_ENDIAN);
+            mappedSegments.add(mapped);
+            FloatBuffer[] grown = Arrays.copyOf(segments, segments.length + 1);
+            grown[segments.length] = mapped.asFloatBuffer();
+            segments = grown;
+        }
+    }
+
+    private void readVector(FloatBuffer[] vectors, int id, float[] target) {
+        FloatBuffer segment = vectors[id / vectorsPerSegment].duplicate();
+        segment.position((id % vectorsPerSegment) * dimension);
+        segment.get(target);
+    }
+
+    private void quantize(float[] vector, Block block, int slot) {
+        float squareNorm = VectorMath.dot(vector, 0, vector, 0, dimension);
+        block.squareNorms[slot] = squareNorm;
+        if (quantization == Quantization.INT8) {
+            float max = 0;
+            for (float component : vector) {
+                max = Math.max(max, Math.abs(component));
+            }
+            float scale = max / 127;
+            block.scales[slot] = scale;
+            int offset = slot * dimension;
+            for (int i = 0; i < dimension; i++) {
+                block.bytes[offset + i] = scale == 0 ? 0 : (byte) Math.round(vector[i] / scale);
+            }
+        } else {
+            float magnitude = 0;
+            int offset = slot * words;
+            Arrays.fill(block.bits, offset, offset + words, 0L);
+            for (int i = 0; i < dimension; i++) {
+                magnitude += Math.abs(vector[i]);
+                if (vector[i] > 0) {
+                    block.bits[offset + i / Long.SIZE] |= 1L << (i % Long.SIZE);
+                }
+            }
+            block.scales[slot] = magnitude / dimension;
+        }
+    }
+
+    private void checkDimension(int actual) {
+        if (actual != dimension) {
+            throw new IllegalArgumentException("Expected a vector of dimension " + dimension + ", got " + actual);
+        }
+    }
+
+    /**
+     * Codes of a block of vectors, or of a query.
+     */
+    private final class Block {
+
+        final byte[] bytes;
+        final long[] bits;
+        final float[] scales;
+        final float[] squareNorms;
+
+        Block(int capacity) {
+            bytes = quantization == Quantization.INT8 ? new byte[capacity * dimension] : null;
+            bits = quantization == Quantization.BINARY ? new long[capacity * words] : null;
+            scales = new float[capacity];
+            squareNorms = new float[capacity];
+        }
+    }
+}
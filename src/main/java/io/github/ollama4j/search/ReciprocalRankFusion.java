@@ -0,0 +1,59 @@
+package io.github.ollama4j.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Combines rankings whose scores are not comparable, such as BM25 scores and cosine similarities, by the ranks of the
+ * hits alone: a hit scores {@code 1 / (rankConstant + rank)} in every ranking it appears in, with ranks starting at 1,
+ * and the fused score is the sum. A hit ranked fairly well by several rankings beats one ranked first by a single one.
+ */
+public final class ReciprocalRankFusion {
+
+    /**
+     * The rank constant of the original paper, which works well across collections.
+     */
+    public static final int DEFAULT_RANK_CONSTANT = 60;
+
+    private ReciprocalRankFusion() {
+    }
+
+    /**
+     * Fuses rankings with the {@link #DEFAULT_RANK_CONSTANT}.
+     *
+     * @param rankings the rankings, each ordered by descending score, of ids that refer to the same items
+     * @param k        maximum number of hits
+     * @return the hits ordered by descending fused score; ties are ordered by ascending id
+     */
+    @SafeVarargs
+    public static List<SearchHit> fuse(int k, List<SearchHit>... rankings) {
+        return fuse(k, DEFAULT_RANK_CONSTANT, Arrays.asList(rankings));
+    }
+
+    /**
+     * Fuses rankings.
+     *
+     * @param k            maximum number of hits
+     * @param rankConstant constant added to every rank
+     * @param rankings     the rankings, each ordered by descending score, of ids that refer to the same items
+     * @return the hits ordered by descending fused score; ties are ordered by ascending id
+     */
+    public static List<SearchHit> fuse(int k, int rankConstant, List<List<SearchHit>> rankings) {
+        if (rankConstant < 0) {
+            throw new IllegalArgumentException("rankConstant must not be negative");
+        }
+        Map<Integer, float[]> scores = new HashMap<>();
+        for (List<SearchHit> ranking : rankings) {
+            for (int rank = 0; rank < ranking.size(); rank++) {
+                scores.computeIfAbsent(ranking.get(rank).getId(), id -> new float[1])[0] += 1f / (rankConstant + rank + 1);
+            }
+        }
+        List<SearchHit> hits = new ArrayList<>(scores.size());
+        scores.forEach((id, score) -> hits.add(new SearchHit(id, score[0])));
+        hits.sort((a, b) -> a.getScore() != b.getScore() ? Float.compare(b.getScore(), a.getScore()) : Integer.compare(a.getId(), b.getId()));
+        return new ArrayList<>(hits.subList(0, Math.min(Math.max(k, 0), hits.size())));
+    }
+}
@@ -0,0 +1,132 @@
+package io.github.ollama4j.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Binary min-heap of (score, id) pairs in primitive arrays, so that searches do not box their candidates. Used as a
+ * max-heap by pushing negated scores.
+ */
+final class ScoreHeap {
+
+    private float[] scores;
+    private int[] ids;
+    private int size;
+
+    ScoreHeap(int initialCapacity) {
+        scores = new float[Math.max(initialCapacity, 4)];
+        ids = new int[scores.length];
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    void clear() {
+        size = 0;
+    }
+
+    float peekScore() {
+        return scores[0];
+    }
+
+    int peekId() {
+        return ids[0];
+    }
+
+    void push(float score, int id) {
+        if (size == scores.length) {
+            scores = Arrays.copyOf(scores, size * 2);
+            ids = Arrays.copyOf(ids, size * 2);
+        }
+        int i = size++;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (scores[parent] <= score) {
+                break;
+            }
+            scores[i] = scores[parent];
+            ids[i] = ids[parent];
+            i = parent;
+        }
+        scores[i] = score;
+        ids[i] = id;
+    }
+
+    /**
+     * Pushes the pair if the heap holds fewer than {@code limit} pairs, or replaces the lowest score if it is lower.
+     *
+     * @return whether the pair was added
+     */
+    boolean offer(float score, int id, int limit) {
+        if (size < limit) {
+            push(score, id);
+            return true;
+        }
+        if (score <= scores[0]) {
+            return false;
+        }
+        scores[0] = score;
+        ids[0] = id;
+        siftDown();
+        return true;
+    }
+
+    /**
+     * Removes the pair with the lowest score.
+     *
+     * @return its id
+     */
+    int pop() {
+        int id = ids[0];
+        size--;
+        if (size > 0) {
+            scores[0] = scores[size];
+            ids[0] = ids[size];
+            siftDown();
+        }
+        return id;
+    }
+
+    /**
+     * Empties the heap.
+     *
+     * @return the hits ordered by descending score
+     */
+    List<SearchHit> drainDescending() {
+        SearchHit[] hits = new SearchHit[size];
+        for (int i = size - 1; i >= 0; i--) {
+            float score = peekScore();
+            hits[i] = new SearchHit(pop(), score);
+        }
+        return new ArrayList<>(Arrays.asList(hits));
+    }
+
+    private void siftDown() {
+        float score = scores[0];
+        int id = ids[0];
+        int i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && scores[child + 1] < scores[child]) {
+                child++;
+            }
+            if (scores[child] >= score) {
+                break;
+            }
+            scores[i] = scores[child];
+            ids[i] = ids[child];
+            i = child;
+        }
+        scores[i] = score;
+        ids[i] = id;
+    }
+}
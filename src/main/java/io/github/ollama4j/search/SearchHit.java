@@ -0,0 +1,13 @@
+package io.github.ollama4j.search;
+
+import lombok.Data;
+
+/**
+ * A vector found by a search: its id in the index and its similarity to the query.
+ */
+@Data
+public class SearchHit {
+
+    private final int id;
+    private final float score;
+}
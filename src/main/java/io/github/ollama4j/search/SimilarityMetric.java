@@ -0,0 +1,63 @@
+package io.github.ollama4j.search;
+
+/**
+ * How the similarity of two vectors is measured. Higher scores mean more similar vectors.
+ */
+public enum SimilarityMetric {
+
+    /**
+     * Cosine of the angle between the vectors, in [-1, 1]. Indexes normalize the vectors once when they are added, so
+     * that a search only computes dot products.
+     */
+    COSINE,
+
+    /**
+     * Dot product of the vectors. Equivalent to {@link #COSINE} for vectors of unit length, such as those of most
+     * embedding models, but without normalizing them.
+     */
+    DOT_PRODUCT,
+
+    /**
+     * Negated squared Euclidean (L2) distance of the vectors, so that closer vectors score higher. The score is 0 for
+     * equal vectors and negative otherwise.
+     */
+    EUCLIDEAN;
+
+    /**
+     * @param a first vector
+     * @param b second vector of the same dimension
+     * @return the similarity of the vectors
+     */
+    public float score(float[] a, float[] b) {
+        if (a.length != b.length) {
+            throw new IllegalArgumentException("Dimensions differ: " + a.length + " and " + b.length);
+        }
+        if (this == COSINE) {
+            float norms = (float) Math.sqrt((double) VectorMath.dot(a, 0, a, 0, a.length) * VectorMath.dot(b, 0, b, 0, b.length));
+            return norms == 0 ? 0 : VectorMath.dot(a, 0, b, 0, a.length) / norms;
+        }
+        return scorePrepared(a, 0, b, 0, a.length);
+    }
+
+    /**
+     * @param vector a vector to index or to search for
+     * @return the vector as it is stored by an index: a normalized copy for {@link #COSINE}, otherwise a copy
+     */
+    float[] prepare(float[] vector) {
+        float[] copy = vector.clone();
+        if (this == COSINE) {
+            VectorMath.normalize(copy, 0, copy.length);
+        }
+        return copy;
+    }
+
+    /**
+     * Scores two vectors as prepared by {@link #prepare(float[])}.
+     */
+    float scorePrepared(float[] a, int aOffset, float[] b, int bOffset, int dimension) {
+        if (this == EUCLIDEAN) {
+            return -VectorMath.squareDistance(a, aOffset, b, bOffset, dimension);
+        }
+        return VectorMath.dot(a, aOffset, b, bOffset, dimension);
+    }
+}
@@ -0,0 +1,37 @@
+package io.github.ollama4j.search;
+
+import io.github.ollama4j.models.embeddings.FloatEmbeddings;
+
+import java.util.List;
+
+/**
+ * An in-memory vector index that grows as vectors are added and may be searched while it grows, such as
+ * {@link HnswIndex} and {@link FlatVectorStore}. Vectors get consecutive int ids in the order they are added, starting
+ * at 0.
+ */
+public interface VectorIndex {
+
+    int getDimension();
+
+    /**
+     * @return number of vectors in the index
+     */
+    int size();
+
+    /**
+     * Adds a batch of vectors, e.g. the result of {@link io.github.ollama4j.OllamaAPI#embedFloats}.
+     *
+     * @param embeddings the vectors
+     * @return the id of the first vector; the others follow consecutively
+     */
+    int addAll(FloatEmbeddings embeddings);
+
+    /**
+     * Searches the vectors most similar to the query.
+     *
+     * @param query the query vector
+     * @param k     maximum number of hits
+     * @return the hits ordered by descending similarity
+     */
+    List<SearchHit> search(float[] query, int k);
+}
@@ -0,0 +1,13 @@
+package io.github.ollama4j.search;
+
+/**
+ * Similarity kernels over float vectors stored in primitive arrays, see {@link VectorMath}.
+ */
+interface VectorKernels {
+
+    float dot(float[] a, int aOffset, float[] b, int bOffset, int length);
+
+    float squareDistance(float[] a, int aOffset, float[] b, int bOffset, int length);
+
+    int dot(byte[] a, int aOffset, byte[] b, int bOffset, int length);
+}
@@ -0,0 +1,81 @@
+package io.github.ollama4j.search;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Kernels over float vectors stored in primitive arrays.
+ * <p>
+ * On Java 17 and later, when the incubating Vector API is enabled with {@code --add-modules jdk.incubator.vector},
+ * the kernels use SIMD instructions through it. Otherwise, or if the system property
+ * {@code ollama4j.search.vectorApi} is {@code false}, they fall back to {@link ScalarKernels}.
+ */
+final class VectorMath {
+
+    private static final Logger LOG = LoggerFactory.getLogger(VectorMath.class);
+
+    private static final VectorKernels KERNELS = loadKernels();
+
+    private VectorMath() {
+    }
+
+    static float dot(float[] a, int aOffset, float[] b, int bOffset, int length) {
+        return KERNELS.dot(a, aOffset, b, bOffset, length);
+    }
+
+    static float squareDistance(float[] a, int aOffset, float[] b, int bOffset, int length) {
+        return KERNELS.squareDistance(a, aOffset, b, bOffset, length);
+    }
+
+    static int dot(byte[] a, int aOffset, byte[] b, int bOffset, int length) {
+        return KERNELS.dot(a, aOffset, b, bOffset, length);
+    }
+
+    /**
+     * @return number of differing bits of two bit vectors
+     */
+    static int hammingDistance(long[] a, int aOffset, long[] b, int bOffset, int words) {
+        int distance = 0;
+        for (int i = 0; i < words; i++) {
+            distance += Long.bitCount(a[aOffset + i] ^ b[bOffset + i]);
+        }
+        return distance;
+    }
+
+    /**
+     * Scales the vector to unit length; leaves a zero vector unchanged.
+     */
+    static void normalize(float[] vector, int offset, int length) {
+        double norm = Math.sqrt(dot(vector, offset, vector, offset, length));
+        if (norm == 0) {
+            return;
+        }
+        float scale = (float) (1 / norm);
+        for (int i = offset; i < offset + length; i++) {
+            vector[i] *= scale;
+        }
+    }
+
+    /**
+     * @return whether the kernels use the Vector API
+     */
+    static boolean usesVectorApi() {
+        return !(KERNELS instanceof ScalarKernels);
+    }
+
+    private static VectorKernels loadKernels() {
+        if (Boolean.parseBoolean(System.getProperty("ollama4j.search.vectorApi", "true"))
+                && ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            try {
+                // compiled from src/main/java17, only present in builds on Java 17 or later
+                VectorKernels kernels = (VectorKernels) Class.forName("io.github.ollama4j.search.VectorApiKernels")
+                        .getDeclaredConstructor().newInstance();
+                LOG.debug("Using Vector API kernels");
+                return kernels;
+            } catch (ReflectiveOperationException | LinkageError e) {
+                LOG.debug("Vector API kernels not available, using scalar kernels: {}", e.toString());
+            }
+        }
+        return new ScalarKernels();
+    }
+}
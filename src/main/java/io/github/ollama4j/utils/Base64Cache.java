@@ -0,0 +1,183 @@
+package io.github.ollama4j.utils;
+
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * Size-bounded LRU cache of base64 encoded images.
+ * <p>
+ * In multi-turn chats the same image is part of the history sent with every turn. {@link FileToBase64Serializer} looks
+ * up images of at least {@link #getMinImageBytes()} bytes here, so each image is encoded only once. Entries are keyed by
+ * the length and a hash of {@value #SAMPLES} bytes sampled across the image, which costs the same whatever the size of
+ * the image. A hit is verified by comparing the image with a copy of the one that was encoded, so an array that is reused or
+ * refilled by the caller is never mistaken for the image it held before. The least recently used entries are evicted
+ * once the cached images and their encodings exceed {@link #getMaxBytes()} bytes.
+ * <p>
+ * Caching is opt-in and per {@link io.github.ollama4j.OllamaAPI} instance, see
+ * {@link HttpClientOptions#getBase64Cache()}:
+ * <pre>{@code
+ * OllamaAPI ollamaAPI = new OllamaAPI(host, HttpClientOptions.builder()
+ *         .base64Cache(new Base64Cache(Base64Cache.DEFAULT_MAX_BYTES, Base64Cache.DEFAULT_MIN_IMAGE_BYTES))
+ *         .build());
+ * }</pre>
+ */
+public class Base64Cache {
+
+    public static final long DEFAULT_MAX_BYTES = 64L * 1024 * 1024;
+    public static final int DEFAULT_MIN_IMAGE_BYTES = 64 * 1024;
+
+    static final int SAMPLES = 256;
+
+    private final long maxBytes;
+    private final int minImageBytes;
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long size;
+    private long hits;
+    private long misses;
+
+    /**
+     * @param maxBytes      upper bound of the summed length of all cached images and their encodings
+     * @param minImageBytes smaller images are encoded directly without being cached
+     */
+    public Base64Cache(long maxBytes, int minImageBytes) {
+        this.maxBytes = maxBytes;
+        this.minImageBytes = minImageBytes;
+    }
+
+    /**
+     * @param data raw image bytes
+     * @return true if encodings of the given image are cached
+     */
+    public boolean accepts(byte[] data) {
+        return data.length >= minImageBytes && weight(data.length) <= maxBytes;
+    }
+
+    /**
+     * Returns the base64 encoding of the given bytes, from the cache if the same content has been encoded before.
+     *
+     * @param data raw image bytes
+     * @return the base64 encoded image as a JSON string, i.e. enclosed in double quotes, must not be modified
+     */
+    public char[] encode(byte[] data) {
+        if (!accepts(data)) {
+            return quotedBase64(data);
+        }
+        Key key = new Key(data);
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            // the comparison runs at memory speed, unlike hashing or encoding the whole image
+            if (entry != null && Arrays.equals(entry.image, data)) {
+                hits++;
+                return entry.encoded;
+            }
+            misses++;
+        }
+        char[] encoded = quotedBase64(data);
+        synchronized (this) {
+            // a copy, as the caller may refill its array
+            Entry previous = entries.put(key, new Entry(data.clone(), encoded));
+            if (previous != null) {
+                size -= weight(previous.image.length);
+            }
+            size += weight(data.length);
+            evict();
+        }
+        return encoded;
+    }
+
+    private void evict() {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (size > maxBytes && iterator.hasNext()) {
+            size -= weight(iterator.next().image.length);
+            iterator.remove();
+        }
+    }
+
+    private static char[] quotedBase64(byte[] data) {
+        byte[] base64 = Base64.getEncoder().encode(data);
+        char[] quoted = new char[base64.length + 2];
+        quoted[0] = '"';
+        for (int i = 0; i < base64.length; i++) {
+            quoted[i + 1] = (char) base64[i];
+        }
+        quoted[quoted.length - 1] = '"';
+        return quoted;
+    }
+
+    /**
+     * Memory held for an image of the given length: a copy of the image, kept to verify hits, and its encoding.
+     */
+    private static long weight(int length) {
+        return length + 2L * ((length + 2L) / 3 * 4 + 2);
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public int getMinImageBytes() {
+        return minImageBytes;
+    }
+
+    /**
+     * @return summed length of all cached images and their encodings
+     */
+    public synchronized long size() {
+        return size;
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Removes all cached encodings.
+     */
+    public synchronized void clear() {
+        entries.clear();
+        size = 0;
+    }
+
+    private static final class Key {
+
+        private final int length;
+        private final int hash;
+
+        Key(byte[] data) {
+            length = data.length;
+            int h = length;
+            long step = Math.max(1, data.length / SAMPLES);
+            for (long i = 0; i < data.length; i += step) {
+                h = 31 * h + data[(int) i];
+            }
+            hash = data.length == 0 ? h : 31 * h + data[data.length - 1];
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key && ((Key) o).length == length && ((Key) o).hash == hash;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    private static final class Entry {
+
+        private final byte[] image;
+        private final char[] encoded;
+
+        Entry(byte[] image, char[] encoded) {
+            this.image = image;
+            this.encoded = encoded;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package io.github.ollama4j.utils;
+
+/**
+ * What {@link ContextWindowGuard} does with a chat request estimated not to fit the context window of the model.
+ */
+public enum ContextOverflowPolicy {
+
+    /**
+     * Throw a {@link io.github.ollama4j.exceptions.ContextWindowExceededException} without sending the request.
+     */
+    REJECT,
+
+    /**
+     * Drop the oldest messages, except the system messages and the last message, until the request fits.
+     */
+    TRIM,
+
+    /**
+     * Shorten the longest messages, except the system messages and the last message, to
+     * {@link ContextWindowOptions#getCompactedMessageTokens()} by cutting out their middle, then drop the oldest
+     * messages if the request still does not fit.
+     */
+    COMPACT
+}
@@ -0,0 +1,195 @@
+package io.github.ollama4j.utils;
+
+import io.github.ollama4j.exceptions.ContextWindowExceededException;
+import io.github.ollama4j.models.chat.OllamaChatMessage;
+import io.github.ollama4j.models.chat.OllamaChatMessageRole;
+import io.github.ollama4j.models.chat.OllamaChatRequest;
+import io.github.ollama4j.models.chat.OllamaChatResponseModel;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps chat requests within the context window of the model. Ollama truncates a prompt longer than {@code num_ctx}
+ * silently, after spending the time to evaluate it; the guard estimates the prompt tokens of a request before it is
+ * sent, see {@link TokenEstimator}, and rejects, trims or compacts it according to its {@link ContextOverflowPolicy}.
+ * <pre>{@code
+ * ollamaAPI.setContextWindowGuard(new ContextWindowGuard(ContextWindowOptions.builder()
+ *         .policy(ContextOverflowPolicy.TRIM)
+ *         .build()));
+ * }</pre>
+ * The prompt may take the context length of the request, {@code num_ctx} or else
+ * {@link ContextWindowOptions#getDefaultContextLength()}, less the tokens kept for the answer, {@code num_predict} or
+ * else {@link ContextWindowOptions#getResponseTokens()}. There is one estimator per model, calibrated with the
+ * {@code prompt_eval_count} of the responses to the requests the guard let through.
+ */
+public class ContextWindowGuard {
+
+    private static final String ELISION = "\n[...]\n";
+
+    private final ContextWindowOptions options;
+    private final Map<String, TokenEstimator> estimators = new ConcurrentHashMap<>();
+
+    public ContextWindowGuard() {
+        this(ContextWindowOptions.builder().build());
+    }
+
+    public ContextWindowGuard(ContextWindowOptions options) {
+        this.options = options;
+    }
+
+    /**
+     * @param model name of the model
+     * @return the estimator of the model, calibrated by the responses seen so far
+     */
+    public TokenEstimator getEstimator(String model) {
+        return estimators.computeIfAbsent(model == null ? "" : model,
+                name -> new TokenEstimator(options.getTokenCounter(), options.getImageTokens()));
+    }
+
+    /**
+     * @param requestOptions the options of a request, may be null
+     * @return the number of tokens the prompt of the request may take
+     */
+    public int getAvailableTokens(Map<String, Object> requestOptions) {
+        int contextLength = options.getDefaultContextLength();
+        int responseTokens = options.getResponseTokens();
+        if (requestOptions != null) {
+            if (requestOptions.get("num_ctx") instanceof Number) {
+                contextLength = ((Number) requestOptions.get("num_ctx")).intValue();
+            }
+            // -1 (unlimited) and -2 (fill the context) leave the default reserve
+            if (requestOptions.get("num_predict") instanceof Number && ((Number) requestOptions.get("num_predict")).intValue() > 0) {
+                responseTokens = ((Number) requestOptions.get("num_predict")).intValue();
+            }
+        }
+        return Math.max(0, contextLength - responseTokens);
+    }
+
+    /**
+     * Makes the request fit the context window, replacing its messages if they must be trimmed or compacted. The list
+     * passed to the request is not modified.
+     *
+     * @param request the request about to be sent
+     * @return the uncalibrated token count of the request, to be passed to {@link #calibrate}
+     * @throws ContextWindowExceededException if the request does not fit, and the policy is
+     *                                        {@link ContextOverflowPolicy#REJECT} or the system messages and the last
+     *                                        message alone do not fit
+     */
+    public int fit(OllamaChatRequest request) throws ContextWindowExceededException {
+        TokenEstimator estimator = getEstimator(request.getModel());
+        double ratio = estimator.getRatio();
+        int available = getAvailableTokens(request.getOptions());
+        int counted = estimator.countTokens(request);
+        if (fits(counted, ratio, available)) {
+            return counted;
+        }
+        List<OllamaChatMessage> messages = request.getMessages();
+        if (options.getPolicy() == ContextOverflowPolicy.REJECT || messages == null || messages.size() < 2) {
+            throw new ContextWindowExceededException(estimate(counted, ratio), available);
+        }
+        List<OllamaChatMessage> kept = new ArrayList<>(messages);
+        if (options.getPolicy() == ContextOverflowPolicy.COMPACT) {
+            counted = compact(kept, estimator, counted, ratio, available);
+        }
+        int first = 0;
+        while (!fits(counted, ratio, available)) {
+            while (first < kept.size() - 1 && isSystem(kept.get(first))) {
+                first++;
+            }
+            if (first == kept.size() - 1) {
+                throw new ContextWindowExceededException(estimate(counted, ratio), available);
+            }
+            OllamaChatMessage removed = kept.remove(first);
+            counted -= estimator.countTokens(removed);
+            // tool results are dropped with the tool calls they answer
+            while (first < kept.size() - 1 && isTool(kept.get(first))) {
+                counted -= estimator.countTokens(kept.remove(first));
+            }
+        }
+        request.setMessages(kept);
+        return counted;
+    }
+
+    /**
+     * Calibrates the estimator of the model with a response.
+     *
+     * @param model         name of the model
+     * @param countedTokens the count returned by {@link #fit} for the request
+     * @param response      the response, or its last part if it was streamed
+     */
+    public void calibrate(String model, int countedTokens, OllamaChatResponseModel response) {
+        if (response != null && response.getPromptEvalCount() != null) {
+            getEstimator(model).calibrate(countedTokens, response.getPromptEvalCount());
+        }
+    }
+
+    /**
+     * Shortens the longest messages, other than the system messages and the last message, until the request fits.
+     *
+     * @return the new count of the request
+     */
+    private int compact(List<OllamaChatMessage> messages, TokenEstimator estimator, int counted, double ratio, int available) {
+        List<Integer> candidates = new ArrayList<>();
+        int[] tokens = new int[messages.size()];
+        for (int i = 0; i < messages.size() - 1; i++) {
+            tokens[i] = estimator.countTokens(messages.get(i).getContent());
+            if (!isSystem(messages.get(i)) && tokens[i] > options.getCompactedMessageTokens()) {
+                candidates.add(i);
+            }
+        }
+        candidates.sort((a, b) -> Integer.compare(tokens[b], tokens[a]));
+        for (int i : candidates) {
+            if (fits(counted, ratio, available)) {
+                break;
+            }
+            OllamaChatMessage message = messages.get(i);
+            String content = shorten(message.getContent(), tokens[i], estimator);
+            counted += estimator.countTokens(content) - tokens[i];
+            messages.set(i, new OllamaChatMessage(message.getRole(), content, message.getToolCalls(), message.getImages(),
+                    message.getImageAttachments()));
+        }
+        return counted;
+    }
+
+    /**
+     * Cuts out the middle of a text so that it takes at most {@link ContextWindowOptions#getCompactedMessageTokens()}.
+     */
+    private String shorten(String text, int tokens, TokenEstimator estimator) {
+        int maxTokens = options.getCompactedMessageTokens();
+        int keep = (int) ((long) text.length() * maxTokens / tokens);
+        while (true) {
+            int head = keep / 2;
+            int tail = keep - head;
+            if (head > 0 && Character.isHighSurrogate(text.charAt(head - 1))) {
+                head--;
+            }
+            if (tail > 0 && Character.isLowSurrogate(text.charAt(text.length() - tail))) {
+                tail--;
+            }
+            String shortened = text.substring(0, head) + ELISION + text.substring(text.length() - tail);
+            if (keep == 0 || estimator.countTokens(shortened) <= maxTokens) {
+                return shortened;
+            }
+            keep = keep * 9 / 10;
+        }
+    }
+
+    private static boolean fits(int counted, double ratio, int available) {
+        return estimate(counted, ratio) <= available;
+    }
+
+    private static int estimate(int counted, double ratio) {
+        return (int) Math.ceil(counted * ratio);
+    }
+
+    private static boolean isSystem(OllamaChatMessage message) {
+        return message.getRole() != null && OllamaChatMessageRole.SYSTEM.getRoleName().equals(message.getRole().getRoleName());
+    }
+
+    private static boolean isTool(OllamaChatMessage message) {
+        return message.getRole() != null && OllamaChatMessageRole.TOOL.getRoleName().equals(message.getRole().getRoleName());
+    }
+}
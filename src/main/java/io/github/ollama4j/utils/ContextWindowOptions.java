@@ -0,0 +1,48 @@
+package io.github.ollama4j.utils;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Settings of a {@link ContextWindowGuard}.
+ */
+@Data
+@Builder
+public class ContextWindowOptions {
+
+    /**
+     * What to do with a request that does not fit.
+     */
+    @Builder.Default
+    private ContextOverflowPolicy policy = ContextOverflowPolicy.TRIM;
+
+    /**
+     * Context length of requests that do not set {@code num_ctx}, i.e. the default of the server.
+     */
+    @Builder.Default
+    private int defaultContextLength = 2048;
+
+    /**
+     * Tokens kept free for the answer of requests that do not set {@code num_predict}.
+     */
+    @Builder.Default
+    private int responseTokens = 256;
+
+    /**
+     * Length messages are shortened to by {@link ContextOverflowPolicy#COMPACT}.
+     */
+    @Builder.Default
+    private int compactedMessageTokens = 256;
+
+    /**
+     * Counts the tokens of texts, before calibration.
+     */
+    @Builder.Default
+    private TokenCounter tokenCounter = TokenCounter.approximate();
+
+    /**
+     * Number of tokens an image takes in the prompt.
+     */
+    @Builder.Default
+    private int imageTokens = 768;
+}
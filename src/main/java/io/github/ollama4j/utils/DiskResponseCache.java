@@ -0,0 +1,145 @@
+package io.github.ollama4j.utils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * {@link ResponseCache} persisting responses in an append-only file, so they survive restarts.
+ * <p>
+ * Every response is appended as one JSON line ({@code {"key":...,"value":...}}); invalidations are appended as
+ * {@code {"invalidate":...}} lines. Only the offsets of the responses are held in memory, a response is read from the
+ * file when it is looked up. When the file is opened, it is scanned once to rebuild the offsets; a trailing incomplete
+ * line left by a crash is cut off. The file is not compacted, superseded and invalidated responses remain in it.
+ */
+public class DiskResponseCache implements ResponseCache, Closeable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(DiskResponseCache.class);
+
+    private final Path file;
+    private final FileChannel channel;
+    private final Map<String, long[]> offsets = new HashMap<>();
+    private long end;
+
+    /**
+     * @param file file the responses are appended to; created if it does not exist
+     * @throws IOException if the file cannot be opened or read
+     */
+    public DiskResponseCache(Path file) throws IOException {
+        this.file = file;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        load();
+    }
+
+    private void load() throws IOException {
+        ObjectMapper mapper = Utils.getObjectMapper();
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        long lineStart = 0;
+        long position = 0;
+        InputStream in = new BufferedInputStream(Channels.newInputStream(channel.position(0)));
+        int b;
+        while ((b = in.read()) != -1) {
+            position++;
+            if (b != '\n') {
+                line.write(b);
+                continue;
+            }
+            try {
+                apply(mapper.readTree(line.toByteArray()), lineStart, position - lineStart);
+            } catch (IOException e) {
+                LOG.warn("Skipping unreadable line at offset {} of response cache {}", lineStart, file);
+            }
+            line.reset();
+            lineStart = position;
+        }
+        if (lineStart < position) {
+            LOG.warn("Cutting off incomplete line at offset {} of response cache {}", lineStart, file);
+            channel.truncate(lineStart);
+        }
+        end = lineStart;
+    }
+
+    private void apply(JsonNode record, long offset, long length) {
+        if (record.has("invalidate")) {
+            String keyPrefix = record.get("invalidate").asText();
+            offsets.keySet().removeIf(key -> key.startsWith(keyPrefix));
+        } else if (record.has("key")) {
+            offsets.put(record.get("key").asText(), new long[]{offset, length});
+        }
+    }
+
+    @Override
+    public String get(String key) throws IOException {
+        long[] location;
+        ByteBuffer buffer;
+        synchronized (this) {
+            location = offsets.get(key);
+            if (location == null) {
+                return null;
+            }
+            buffer = ByteBuffer.allocate((int) location[1]);
+        }
+        // positional reads do not interfere with appends
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, location[0] + buffer.position()) < 0) {
+                throw new IOException("Response cache " + file + " was truncated");
+            }
+        }
+        return Utils.getObjectMapper().readTree(buffer.array()).get("value").asText();
+    }
+
+    @Override
+    public synchronized void put(String key, String value) throws IOException {
+        Map<String, String> record = new HashMap<>();
+        record.put("key", key);
+        record.put("value", value);
+        long offset = append(record);
+        offsets.put(key, new long[]{offset, end - offset});
+    }
+
+    @Override
+    public synchronized void invalidate(String keyPrefix) throws IOException {
+        if (offsets.keySet().stream().noneMatch(key -> key.startsWith(keyPrefix))) {
+            return;
+        }
+        append(Map.of("invalidate", keyPrefix));
+        offsets.keySet().removeIf(key -> key.startsWith(keyPrefix));
+    }
+
+    private synchronized long append(Map<String, String> record) throws IOException {
+        byte[] json = Utils.getObjectMapper().writeValueAsBytes(record);
+        ByteBuffer buffer = ByteBuffer.allocate(json.length + 1).put(json).put((byte) '\n').flip();
+        long offset = end;
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, end + buffer.position());
+        }
+        end += buffer.limit();
+        return offset;
+    }
+
+    /**
+     * @return number of responses that can be looked up
+     */
+    public synchronized int size() {
+        return offsets.size();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,207 @@
+package io.github.ollama4j.utils;
+
+import io.github.ollama4j.OllamaAPI;
+import io.github.ollama4j.models.embeddings.FloatEmbeddings;
+import io.github.ollama4j.models.embeddings.OllamaEmbedRequestModel;
+
+import java.io.Closeable;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collects concurrent single-text embed calls into batches, so many callers embedding one text at a time share one
+ * '/api/embed' round trip.
+ * <p>
+ * Texts for the same model and options are collected until either the batch holds {@code maxBatchSize} distinct texts
+ * or {@code maxWait} has passed since its first text was added; the batch is then sent with
+ * {@link OllamaAPI#embedFloats(OllamaEmbedRequestModel)} and the vectors are handed to the callers' futures. Identical
+ * texts within a batch are embedded once. If the request fails, all futures of the batch fail.
+ */
+public class EmbeddingBatcher implements Closeable {
+
+    private final OllamaAPI ollamaAPI;
+    private final int maxBatchSize;
+    private final long maxWaitNanos;
+    private final Executor executor;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "ollama4j-embedding-batcher");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Map<BatchKey, Batch> pending = new HashMap<>();
+    private boolean closed;
+
+    /**
+     * Creates a batcher that sends the batches on the {@link OllamaAPI#getTaskExecutor() task executor} of the API.
+     *
+     * @param ollamaAPI    API to send the batches with
+     * @param maxBatchSize maximum number of distinct texts sent in one request
+     * @param maxWait      maximum time a text waits for further texts before its batch is sent
+     */
+    public EmbeddingBatcher(OllamaAPI ollamaAPI, int maxBatchSize, Duration maxWait) {
+        this(ollamaAPI, maxBatchSize, maxWait, ollamaAPI.getTaskExecutor());
+    }
+
+    /**
+     * @param ollamaAPI    API to send the batches with
+     * @param maxBatchSize maximum number of distinct texts sent in one request
+     * @param maxWait      maximum time a text waits for further texts before its batch is sent
+     * @param executor     executor the (blocking) requests are sent on
+     */
+    public EmbeddingBatcher(OllamaAPI ollamaAPI, int maxBatchSize, Duration maxWait, Executor executor) {
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("maxBatchSize must be positive: " + maxBatchSize);
+        }
+        this.ollamaAPI = ollamaAPI;
+        this.maxBatchSize = maxBatchSize;
+        this.maxWaitNanos = maxWait.toNanos();
+        this.executor = executor;
+    }
+
+    /**
+     * @param model name of the embedding model
+     * @param text  text to embed
+     * @return future completed with the embedding of the text
+     */
+    public CompletableFuture<float[]> embed(String model, String text) {
+        return embed(model, null, text);
+    }
+
+    /**
+     * @param model   name of the embedding model
+     * @param options options of the request, texts are only batched with texts of equal options; may be null
+     * @param text    text to embed
+     * @return future completed with the embedding of the text
+     */
+    public CompletableFuture<float[]> embed(String model, Map<String, Object> options, String text) {
+        CompletableFuture<float[]> future = new CompletableFuture<>();
+        BatchKey key = new BatchKey(model, options);
+        Batch full = null;
+        synchronized (this) {
+            if (closed) {
+                throw new RejectedExecutionException("EmbeddingBatcher is closed");
+            }
+            Batch batch = pending.get(key);
+            if (batch == null) {
+                batch = new Batch(key);
+                pending.put(key, batch);
+                Batch scheduled = batch;
+                scheduler.schedule(() -> flush(scheduled), maxWaitNanos, TimeUnit.NANOSECONDS);
+            }
+            batch.futures.computeIfAbsent(text, t -> new ArrayList<>()).add(future);
+            if (batch.futures.size() >= maxBatchSize) {
+                pending.remove(key);
+                full = batch;
+            }
+        }
+        if (full != null) {
+            send(full);
+        }
+        return future;
+    }
+
+    private void flush(Batch batch) {
+        synchronized (this) {
+            // the batch may have been sent already because it became full
+            if (!pending.remove(batch.key, batch)) {
+                return;
+            }
+        }
+        send(batch);
+    }
+
+    private void send(Batch batch) {
+        try {
+            executor.execute(() -> {
+                try {
+                    OllamaEmbedRequestModel request = new OllamaEmbedRequestModel(batch.key.model, new ArrayList<>(batch.futures.keySet()));
+                    request.setOptions(batch.key.options);
+                    FloatEmbeddings embeddings = ollamaAPI.embedFloats(request).getEmbeddings();
+                    int index = 0;
+                    for (List<CompletableFuture<float[]>> futures : batch.futures.values()) {
+                        float[] vector = embeddings.getVector(index++);
+                        for (CompletableFuture<float[]> future : futures) {
+                            future.complete(vector);
+                        }
+                    }
+                } catch (Exception e) {
+                    if (e instanceof InterruptedException) {
+                        Thread.currentThread().interrupt();
+                    }
+                    batch.fail(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            batch.fail(e);
+        }
+    }
+
+    /**
+     * Sends all pending batches and stops accepting texts. The executor the batches are sent on is not shut down.
+     */
+    @Override
+    public void close() {
+        List<Batch> batches;
+        synchronized (this) {
+            closed = true;
+            batches = new ArrayList<>(pending.values());
+            pending.clear();
+        }
+        scheduler.shutdownNow();
+        for (Batch batch : batches) {
+            send(batch);
+        }
+    }
+
+    private static final class BatchKey {
+        private final String model;
+        private final Map<String, Object> options;
+
+        private BatchKey(String model, Map<String, Object> options) {
+            this.model = model;
+            this.options = options;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof BatchKey)) {
+                return false;
+            }
+            BatchKey other = (BatchKey) o;
+            return model.equals(other.model) && Objects.equals(options, other.options);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(model, options);
+        }
+    }
+
+    private static final class Batch {
+        private final BatchKey key;
+        private final Map<String, List<CompletableFuture<float[]>>> futures = new LinkedHashMap<>();
+
+        private Batch(BatchKey key) {
+            this.key = key;
+        }
+
+        private void fail(Throwable throwable) {
+            for (List<CompletableFuture<float[]>> list : futures.values()) {
+                for (CompletableFuture<float[]> future : list) {
+                    future.completeExceptionally(throwable);
+                }
+            }
+        }
+    }
+}
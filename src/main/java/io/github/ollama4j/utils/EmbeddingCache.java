@@ -0,0 +1,304 @@
+package io.github.ollama4j.utils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Persistent cache of embedding vectors, keyed by the digest of the model and the embedded text, see
+ * {@link io.github.ollama4j.OllamaAPI#setEmbeddingCache(EmbeddingCache)}.
+ * <p>
+ * Both the vectors and the hash index live in memory-mapped files in the cache directory, so neither occupies the Java
+ * heap:
+ * <ul>
+ *     <li>{@code embeddings.data} holds the vectors as packed little-endian floats, each prefixed by its dimension.
+ *     It is append-only and mapped in segments of {@value #SEGMENT_BYTES} bytes by default.</li>
+ *     <li>{@code embeddings.index} is an open-addressing hash table of 128-bit keys (a truncated SHA-256 digest of the
+ *     model digest and the text) and the offsets of their vectors. It is rebuilt with twice the capacity when it is
+ *     half full.</li>
+ * </ul>
+ * Vectors are stored with float precision, which is the precision the models compute them with. Vectors of a model
+ * whose digest has changed are not looked up anymore, but remain in the files.
+ */
+public class EmbeddingCache implements Closeable {
+
+    public static final int SEGMENT_BYTES = 1 << 28;
+
+    private static final int MAGIC = 0x4f344a45;
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 64;
+    private static final int SLOT_BYTES = 24;
+    private static final int INITIAL_CAPACITY = 1 << 12;
+    private static final int MAX_CAPACITY = 1 << 26;
+    private static final long DATA_START = 8;
+
+    private final Path indexFile;
+    private final FileChannel dataChannel;
+    private final int segmentBytes;
+    private final List<MappedByteBuffer> dataSegments = new ArrayList<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private MappedByteBuffer index;
+    private int capacity;
+    private int size;
+    private long dataEnd;
+
+    /**
+     * Opens the cache in the given directory, creating its files if they do not exist.
+     *
+     * @param directory directory of the cache files
+     * @throws IOException if the files cannot be created, opened or mapped, or are not cache files
+     */
+    public EmbeddingCache(Path directory) throws IOException {
+        this(directory, SEGMENT_BYTES);
+    }
+
+    /**
+     * Opens the cache in the given directory, creating its files if they do not exist.
+     *
+     * @param directory    directory of the cache files
+     * @param segmentBytes size of the segments the data file is mapped in, which bounds the size of a vector; an
+     *                     existing cache has to be opened with the size it was created with
+     * @throws IOException if the files cannot be created, opened or mapped, or are not cache files
+     */
+    public EmbeddingCache(Path directory, int segmentBytes) throws IOException {
+        if (segmentBytes <= DATA_START) {
+            throw new IllegalArgumentException("Segments of " + segmentBytes + " bytes are too small");
+        }
+        this.segmentBytes = segmentBytes;
+        Files.createDirectories(directory);
+        this.indexFile = directory.resolve("embeddings.index");
+        this.dataChannel = FileChannel.open(directory.resolve("embeddings.data"),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        if (Files.exists(indexFile) && Files.size(indexFile) > 0) {
+            index = map(indexFile, Files.size(indexFile));
+            if (index.getInt(0) != MAGIC || index.getInt(4) != VERSION) {
+                throw new IOException(indexFile + " is not an embedding cache index");
+            }
+            capacity = index.getInt(8);
+            size = index.getInt(12);
+            dataEnd = index.getLong(16);
+            // caches of earlier versions did not record their segment size, which was the default
+            int createdSegmentBytes = index.getInt(24) != 0 ? index.getInt(24) : SEGMENT_BYTES;
+            if (createdSegmentBytes != segmentBytes) {
+                throw new IOException(indexFile + " was created with segments of " + createdSegmentBytes + " bytes");
+            }
+            // map all segments holding vectors up front, lookups only read mapped segments
+            segment(dataEnd - 1);
+            if (segment(0).getInt(0) != MAGIC) {
+                throw new IOException(directory.resolve("embeddings.data") + " is not an embedding cache data file");
+            }
+        } else {
+            capacity = INITIAL_CAPACITY;
+            index = createIndex(indexFile, capacity);
+            dataEnd = DATA_START;
+            segment(0).putInt(0, MAGIC);
+            writeHeader();
+        }
+    }
+
+    private static MappedByteBuffer map(Path file, long bytes) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, bytes);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            return buffer;
+        }
+    }
+
+    private static MappedByteBuffer createIndex(Path file, int capacity) throws IOException {
+        Files.deleteIfExists(file);
+        MappedByteBuffer buffer = map(file, HEADER_BYTES + (long) capacity * SLOT_BYTES);
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, VERSION);
+        buffer.putInt(8, capacity);
+        return buffer;
+    }
+
+    private void writeHeader() {
+        index.putInt(12, size);
+        index.putLong(16, dataEnd);
+        index.putInt(24, segmentBytes);
+    }
+
+    /**
+     * @param modelDigest digest of the model, as returned by {@link io.github.ollama4j.OllamaAPI#listModels()}
+     * @param text        the embedded text
+     * @return the cached vector, or null if there is none
+     */
+    public float[] get(String modelDigest, String text) {
+        long[] key = key(modelDigest, text);
+        lock.readLock().lock();
+        try {
+            int slot = find(key[0], key[1]);
+            long offset = index.getLong(slotPosition(slot) + 16);
+            if (offset == 0) {
+                return null;
+            }
+            ByteBuffer segment = dataSegments.get((int) (offset / segmentBytes));
+            int position = (int) (offset % segmentBytes);
+            float[] vector = new float[segment.getInt(position)];
+            segment.duplicate().order(ByteOrder.LITTLE_ENDIAN).position(position + 4).asFloatBuffer().get(vector);
+            return vector;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Caches a vector, replacing the vector cached for the same model and text.
+     *
+     * @param modelDigest digest of the model
+     * @param text        the embedded text
+     * @param vector      the embedding of the text
+     * @throws IOException if the files cannot be grown
+     */
+    public void put(String modelDigest, String text, float[] vector) throws IOException {
+        long recordBytes = 4 + 4L * vector.length;
+        if (recordBytes > segmentBytes) {
+            throw new IllegalArgumentException("Vector of dimension " + vector.length + " is too large to be cached");
+        }
+        long[] key = key(modelDigest, text);
+        lock.writeLock().lock();
+        try {
+            if (size + 1 > capacity / 2) {
+                grow();
+            }
+            long offset = dataEnd;
+            if (offset % segmentBytes + recordBytes > segmentBytes) {
+                // records do not span segments
+                offset = (offset / segmentBytes + 1) * segmentBytes;
+            }
+            ByteBuffer segment = segment(offset);
+            int position = (int) (offset % segmentBytes);
+            segment.putInt(position, vector.length);
+            segment.duplicate().order(ByteOrder.LITTLE_ENDIAN).position(position + 4).asFloatBuffer().put(vector);
+            dataEnd = offset + recordBytes;
+
+            int slotPosition = slotPosition(find(key[0], key[1]));
+            if (index.getLong(slotPosition + 16) == 0) {
+                size++;
+            }
+            index.putLong(slotPosition, key[0]);
+            index.putLong(slotPosition + 8, key[1]);
+            index.putLong(slotPosition + 16, offset);
+            writeHeader();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return number of cached vectors
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Writes the mapped files to the storage device.
+     */
+    public void force() {
+        lock.writeLock().lock();
+        try {
+            for (MappedByteBuffer segment : dataSegments) {
+                segment.force();
+            }
+            index.force();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        force();
+        dataChannel.close();
+    }
+
+    /**
+     * @return the slot holding the given key, or the empty slot it would be inserted into
+     */
+    private int find(long high, long low) {
+        int mask = capacity - 1;
+        int slot = (int) (low ^ (low >>> 32)) & mask;
+        while (true) {
+            int position = slotPosition(slot);
+            if (index.getLong(position + 16) == 0
+                    || (index.getLong(position) == high && index.getLong(position + 8) == low)) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private static int slotPosition(int slot) {
+        return HEADER_BYTES + slot * SLOT_BYTES;
+    }
+
+    private void grow() throws IOException {
+        if (capacity >= MAX_CAPACITY) {
+            throw new IOException("Embedding cache index is full");
+        }
+        Path tempFile = indexFile.resolveSibling(indexFile.getFileName() + ".tmp");
+        MappedByteBuffer old = index;
+        int oldCapacity = capacity;
+        capacity = oldCapacity * 2;
+        index = createIndex(tempFile, capacity);
+        for (int slot = 0; slot < oldCapacity; slot++) {
+            int position = slotPosition(slot);
+            long offset = old.getLong(position + 16);
+            if (offset != 0) {
+                int newPosition = slotPosition(find(old.getLong(position), old.getLong(position + 8)));
+                index.putLong(newPosition, old.getLong(position));
+                index.putLong(newPosition + 8, old.getLong(position + 8));
+                index.putLong(newPosition + 16, offset);
+            }
+        }
+        writeHeader();
+        index.force();
+        Files.move(tempFile, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private ByteBuffer segment(long offset) throws IOException {
+        int segmentIndex = (int) (offset / segmentBytes);
+        while (dataSegments.size() <= segmentIndex) {
+            // segments are only added while opening the cache or with the write lock held
+            MappedByteBuffer segment = dataChannel.map(FileChannel.MapMode.READ_WRITE, (long) dataSegments.size() * segmentBytes, segmentBytes);
+            segment.order(ByteOrder.LITTLE_ENDIAN);
+            dataSegments.add(segment);
+        }
+        return dataSegments.get(segmentIndex);
+    }
+
+    private static long[] key(String modelDigest, String text) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+        digest.update(modelDigest.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+        ByteBuffer hash = ByteBuffer.wrap(digest.digest(text.getBytes(StandardCharsets.UTF_8)));
+        return new long[]{hash.getLong(), hash.getLong()};
+    }
+}
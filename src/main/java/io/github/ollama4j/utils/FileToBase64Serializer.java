@@ -1,21 +1,46 @@
 package io.github.ollama4j.utils;
 
 import java.io.IOException;
-import java.util.Base64;
+import java.io.InputStream;
 import java.util.Collection;
 
 import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.JsonSerializer;
 import com.fasterxml.jackson.databind.SerializerProvider;
 
-public class FileToBase64Serializer extends JsonSerializer<Collection<byte[]>> {
+import io.github.ollama4j.models.request.ImageAttachment;
+
+/**
+ * Serializes images as an array of base64 strings. Elements may be raw {@code byte[]}, {@link ImageAttachment}s, which
+ * are read and encoded while being written, or {@code String}s that are already base64 encoded. Encodings of large
+ * {@code byte[]} images are reused across requests via the {@link Base64Cache} set as the {@code Base64Cache.class}
+ * attribute of the writer, if any (see {@link JsonBodyPublisher}).
+ */
+public class FileToBase64Serializer extends JsonSerializer<Collection<?>> {
 
     @Override
-    public void serialize(Collection<byte[]> value, JsonGenerator jsonGenerator, SerializerProvider serializers) throws IOException {
+    public void serialize(Collection<?> value, JsonGenerator jsonGenerator, SerializerProvider serializers) throws IOException {
         jsonGenerator.writeStartArray();
-        for (byte[] file : value) {
-            jsonGenerator.writeString(Base64.getEncoder().encodeToString(file));
+        for (Object image : value) {
+            if (image instanceof byte[]) {
+                byte[] bytes = (byte[]) image;
+                Base64Cache cache = (Base64Cache) serializers.getAttribute(Base64Cache.class);
+                if (cache != null && cache.accepts(bytes)) {
+                    // base64 needs no escaping, so the cached, quoted encoding is copied into the output as is
+                    char[] encoded = cache.encode(bytes);
+                    jsonGenerator.writeRawValue(encoded, 0, encoded.length);
+                } else {
+                    // base64 encodes straight into the generator's output buffer, no encoded String is created
+                    jsonGenerator.writeBinary(bytes);
+                }
+            } else if (image instanceof ImageAttachment) {
+                try (InputStream in = ((ImageAttachment) image).openStream()) {
+                    jsonGenerator.writeBinary(in, -1);
+                }
+            } else {
+                jsonGenerator.writeString(String.valueOf(image));
+            }
         }
         jsonGenerator.writeEndArray();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,56 @@
+package io.github.ollama4j.utils;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import io.github.ollama4j.models.embeddings.FloatEmbeddings;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Reads an array of number arrays (the {@code embeddings} of an embed response) straight into the single
+ * {@code float[]} of a {@link FloatEmbeddings}, without creating a token tree, lists or boxed numbers. The numbers are
+ * parsed as floats directly, never widened to doubles.
+ */
+public class FloatEmbeddingsDeserializer extends JsonDeserializer<FloatEmbeddings> {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    @Override
+    public FloatEmbeddings deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+        if (!parser.isExpectedStartArrayToken()) {
+            return (FloatEmbeddings) context.handleUnexpectedToken(FloatEmbeddings.class, parser);
+        }
+        float[] data = new float[INITIAL_CAPACITY];
+        int length = 0;
+        int size = 0;
+        int dimension = -1;
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            if (token != JsonToken.START_ARRAY) {
+                return (FloatEmbeddings) context.handleUnexpectedToken(FloatEmbeddings.class, parser);
+            }
+            int vectorStart = length;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (token != JsonToken.VALUE_NUMBER_FLOAT && token != JsonToken.VALUE_NUMBER_INT) {
+                    return (FloatEmbeddings) context.handleUnexpectedToken(FloatEmbeddings.class, parser);
+                }
+                if (length == data.length) {
+                    data = Arrays.copyOf(data, data.length * 2);
+                }
+                data[length++] = parser.getFloatValue();
+            }
+            int vectorDimension = length - vectorStart;
+            if (dimension == -1) {
+                dimension = vectorDimension;
+            } else if (vectorDimension != dimension) {
+                return (FloatEmbeddings) context.reportInputMismatch(FloatEmbeddings.class,
+                        "Embedding %d has dimension %d, expected %d", size, vectorDimension, dimension);
+            }
+            size++;
+        }
+        return new FloatEmbeddings(data, size, Math.max(dimension, 0));
+    }
+}
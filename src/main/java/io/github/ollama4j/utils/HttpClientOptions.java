@@ -0,0 +1,83 @@
+package io.github.ollama4j.utils;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.Executor;
+
+/**
+ * Settings for the {@link HttpClient} shared by all calls of an {@link io.github.ollama4j.OllamaAPI} instance.
+ * <p>
+ * The JDK client keeps idle HTTP/1.1 connections in a pool and reuses them for subsequent requests to the same
+ * host, so a single client per API instance avoids a TCP handshake and a selector thread per request.
+ */
+@Data
+@Builder
+public class HttpClientOptions {
+
+    /**
+     * System property read by the JDK client to decide how long idle pooled connections are kept open.
+     */
+    public static final String KEEP_ALIVE_TIMEOUT_PROPERTY = "jdk.httpclient.keepalive.timeout";
+
+    /**
+     * Timeout for establishing a new connection to the Ollama server.
+     */
+    @Builder.Default
+    private Duration connectTimeout = Duration.ofSeconds(10);
+
+    /**
+     * How long an idle connection stays in the pool. The JDK reads this value once per JVM when the first client
+     * is created, so it only takes effect if set before any {@link HttpClient} has been used.
+     */
+    private Duration keepAliveTimeout;
+
+    /**
+     * Executor used by the client for asynchronous tasks and dependent actions. If not set, the JDK default
+     * (a cached thread pool) is used.
+     */
+    private Executor executor;
+
+    /**
+     * Run the tasks of the client, the {@link io.github.ollama4j.models.response.OllamaAsyncResultStreamer} and tool
+     * invocations on virtual threads instead of platform threads. Requires Java 21 or newer. Ignored for the client
+     * if an {@link #executor} is set.
+     */
+    private boolean virtualThreads;
+
+    /**
+     * Protocol version. Ollama speaks HTTP/1.1, so the default avoids the h2c upgrade round trip.
+     */
+    @Builder.Default
+    private HttpClient.Version version = HttpClient.Version.HTTP_1_1;
+
+    /**
+     * Cache of the base64 encodings of large images, so an image resent with every turn of a chat history is encoded
+     * only once. Used by the {@link io.github.ollama4j.OllamaAPI} created with these options; null (the default)
+     * encodes every image.
+     */
+    private Base64Cache base64Cache;
+
+    /**
+     * Creates a new {@link HttpClient} from these options.
+     *
+     * @return the configured client
+     */
+    public HttpClient createHttpClient() {
+        if (keepAliveTimeout != null && System.getProperty(KEEP_ALIVE_TIMEOUT_PROPERTY) == null) {
+            System.setProperty(KEEP_ALIVE_TIMEOUT_PROPERTY, String.valueOf(keepAliveTimeout.toSeconds()));
+        }
+        HttpClient.Builder builder = HttpClient.newBuilder().version(version);
+        if (connectTimeout != null) {
+            builder.connectTimeout(connectTimeout);
+        }
+        if (executor != null) {
+            builder.executor(executor);
+        } else if (virtualThreads) {
+            builder.executor(Utils.newVirtualThreadPerTaskExecutor());
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,274 @@
+package io.github.ollama4j.utils;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.http.HttpRequest;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * {@link HttpRequest.BodyPublisher} that serializes a value to JSON while the request body is being sent, instead of
+ * materializing the whole body up front.
+ * <p>
+ * On the client's first request for data, a Jackson generator starts writing the value on an executor into chunks of
+ * {@value #CHUNK_SIZE} bytes. The chunks are handed to the client as it asks for them. At most
+ * {@value #MAX_BUFFERED_CHUNKS} chunks are kept ahead of the client's demand; the writer waits once they are full, so
+ * the memory a body takes is bounded whatever the size of the value. Binary fields (e.g. images, see
+ * {@link FileToBase64Serializer}) are base64 encoded by the generator straight into those chunks, so neither a copy of
+ * the body nor an encoded String of the binary data exists at any time. The body is sent with chunked transfer
+ * encoding.
+ * <p>
+ * The value is serialized again for every subscription, so the publisher can be reused for retries.
+ */
+public class JsonBodyPublisher implements HttpRequest.BodyPublisher {
+
+    static final int CHUNK_SIZE = 16 * 1024;
+
+    static final int MAX_BUFFERED_CHUNKS = 4;
+
+    private final Object value;
+    private final ObjectWriter writer;
+    private final Executor executor;
+
+    /**
+     * @param value the request to serialize with {@link Utils#getObjectMapper()}, written on
+     *              {@link Utils#getSharedExecutor()}
+     */
+    public JsonBodyPublisher(Object value) {
+        this(value, Utils.getSharedExecutor());
+    }
+
+    /**
+     * @param value    the request to serialize with {@link Utils#getObjectMapper()}
+     * @param executor executor the value is written on; the writer waits on it while the client has no demand
+     */
+    public JsonBodyPublisher(Object value, Executor executor) {
+        this(value, executor, null);
+    }
+
+    /**
+     * @param value       the request to serialize with {@link Utils#getObjectMapper()}
+     * @param executor    executor the value is written on; the writer waits on it while the client has no demand
+     * @param base64Cache cache of the encodings of large images, null to encode every image
+     */
+    public JsonBodyPublisher(Object value, Executor executor, Base64Cache base64Cache) {
+        this.value = value;
+        ObjectWriter objectWriter = Utils.getObjectMapper().writer();
+        this.writer = base64Cache != null ? objectWriter.withAttribute(Base64Cache.class, base64Cache) : objectWriter;
+        this.executor = executor;
+    }
+
+    @Override
+    public long contentLength() {
+        return -1;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super ByteBuffer> subscriber) {
+        subscriber.onSubscribe(new ChunkSubscription(subscriber));
+    }
+
+    /**
+     * Subscription of the HTTP client. Signals to the subscriber are sent by whichever thread, the writer or a thread of
+     * a {@link #request(long)}, finds no other thread sending; state changes made meanwhile, including requests from
+     * within {@code onNext}, are served by the sending thread before it returns.
+     */
+    private class ChunkSubscription implements Flow.Subscription {
+
+        private final Flow.Subscriber<? super ByteBuffer> subscriber;
+        // chunks written but not yet sent, at most MAX_BUFFERED_CHUNKS
+        private final Deque<ByteBuffer> chunks = new ArrayDeque<>();
+        private long demand;
+        private boolean started;
+        private boolean sending;
+        private boolean written;
+        private Throwable error;
+        // set on cancellation and once a terminal signal has been sent
+        private boolean done;
+
+        ChunkSubscription(Flow.Subscriber<? super ByteBuffer> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n) {
+            boolean start;
+            synchronized (this) {
+                if (done) {
+                    return;
+                }
+                if (n <= 0) {
+                    fail(new IllegalArgumentException("non-positive subscription request: " + n));
+                } else {
+                    demand = demand + n < 0 ? Long.MAX_VALUE : demand + n;
+                }
+                start = !started;
+                started = true;
+            }
+            if (start) {
+                try {
+                    executor.execute(this::write);
+                } catch (RejectedExecutionException e) {
+                    synchronized (this) {
+                        fail(e);
+                    }
+                }
+            }
+            drain();
+        }
+
+        @Override
+        public synchronized void cancel() {
+            done = true;
+            chunks.clear();
+            notifyAll();
+        }
+
+        private void write() {
+            try (ChunkOutputStream out = new ChunkOutputStream(this)) {
+                writer.writeValue(out, value);
+            } catch (IOException | RuntimeException e) {
+                synchronized (this) {
+                    fail(e);
+                }
+            }
+            synchronized (this) {
+                written = true;
+            }
+            drain();
+        }
+
+        /**
+         * Queues a chunk written by the generator, waiting while {@value #MAX_BUFFERED_CHUNKS} chunks are queued.
+         */
+        void offer(ByteBuffer chunk) throws InterruptedIOException {
+            synchronized (this) {
+                try {
+                    while (!done && error == null && chunks.size() >= MAX_BUFFERED_CHUNKS) {
+                        wait();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while writing the request body");
+                }
+                if (done || error != null) {
+                    // stops the generator; the failure, if any, is already recorded
+                    throw new InterruptedIOException("The request body is no longer sent");
+                }
+                chunks.add(chunk);
+            }
+            drain();
+        }
+
+        private void fail(Throwable throwable) {
+            if (error == null) {
+                error = throwable;
+            }
+            notifyAll();
+        }
+
+        private void drain() {
+            synchronized (this) {
+                if (sending) {
+                    return;
+                }
+                sending = true;
+            }
+            while (true) {
+                ByteBuffer chunk = null;
+                Throwable failure = null;
+                synchronized (this) {
+                    if (done) {
+                        sending = false;
+                        return;
+                    }
+                    if (error != null) {
+                        failure = error;
+                        done = true;
+                        chunks.clear();
+                    } else if (!chunks.isEmpty() && demand > 0) {
+                        chunk = chunks.poll();
+                        demand--;
+                        notifyAll();
+                    } else if (chunks.isEmpty() && written) {
+                        done = true;
+                    } else {
+                        sending = false;
+                        return;
+                    }
+                }
+                if (chunk != null) {
+                    subscriber.onNext(chunk);
+                } else if (failure != null) {
+                    subscriber.onError(failure);
+                    return;
+                } else {
+                    subscriber.onComplete();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Cuts the bytes written by the generator into chunks of {@link #CHUNK_SIZE} bytes and queues each one as soon as it
+     * is full.
+     */
+    private static class ChunkOutputStream extends OutputStream {
+
+        private final ChunkSubscription subscription;
+        private byte[] chunk = new byte[CHUNK_SIZE];
+        private int position;
+        private boolean closed;
+
+        ChunkOutputStream(ChunkSubscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (position == chunk.length) {
+                nextChunk();
+            }
+            chunk[position++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            while (length > 0) {
+                if (position == chunk.length) {
+                    nextChunk();
+                }
+                int count = Math.min(length, chunk.length - position);
+                System.arraycopy(bytes, offset, chunk, position, count);
+                position += count;
+                offset += count;
+                length -= count;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            // closed by the generator once the value is written, and again by the writer
+            if (!closed) {
+                closed = true;
+                if (position > 0) {
+                    subscription.offer(ByteBuffer.wrap(chunk, 0, position));
+                }
+            }
+        }
+
+        private void nextChunk() throws IOException {
+            subscription.offer(ByteBuffer.wrap(chunk, 0, position));
+            chunk = new byte[CHUNK_SIZE];
+            position = 0;
+        }
+    }
+}
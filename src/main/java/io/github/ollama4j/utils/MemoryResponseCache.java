@@ -0,0 +1,46 @@
+package io.github.ollama4j.utils;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * {@link ResponseCache} keeping the most recently used responses in memory.
+ */
+public class MemoryResponseCache implements ResponseCache {
+
+    private final LinkedHashMap<String, String> entries;
+
+    /**
+     * @param maxEntries maximum number of responses kept, the least recently used ones are evicted first
+     */
+    public MemoryResponseCache(int maxEntries) {
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    @Override
+    public synchronized String get(String key) {
+        return entries.get(key);
+    }
+
+    @Override
+    public synchronized void put(String key, String value) {
+        entries.put(key, value);
+    }
+
+    @Override
+    public synchronized void invalidate(String keyPrefix) {
+        entries.keySet().removeIf(key -> key.startsWith(keyPrefix));
+    }
+
+    /**
+     * @return number of cached responses
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+}
@@ -4,7 +4,6 @@ import java.net.http.HttpRequest.BodyPublisher;
 import java.net.http.HttpRequest.BodyPublishers;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
-import com.fasterxml.jackson.core.JsonProcessingException;
 
 /**
  * Interface to represent a OllamaRequest as HTTP-Request Body via {@link BodyPublishers}.
@@ -12,17 +11,23 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 public interface OllamaRequestBody {
     
     /**
-     * Transforms the OllamaRequest Object to a JSON Object via Jackson.
+     * Transforms the OllamaRequest Object to a JSON Object via Jackson. The JSON is streamed into the request body
+     * while it is sent, see {@link JsonBodyPublisher}.
      * 
      * @return JSON representation of a OllamaRequest
      */
     @JsonIgnore
     default BodyPublisher getBodyPublisher(){
-                try {
-          return BodyPublishers.ofString(
-                      Utils.getObjectMapper().writeValueAsString(this));
-        } catch (JsonProcessingException e) {
-          throw new IllegalArgumentException("Request not Body convertible.",e);
-        }
+        return getBodyPublisher(null);
+    }
+
+    /**
+     * Transforms the OllamaRequest Object to a JSON Object via Jackson, reusing the encodings of large images.
+     *
+     * @param base64Cache cache of the encodings of large images, null to encode every image
+     * @return JSON representation of a OllamaRequest
+     */
+    default BodyPublisher getBodyPublisher(Base64Cache base64Cache) {
+        return new JsonBodyPublisher(this, Utils.getSharedExecutor(), base64Cache);
     }
 }
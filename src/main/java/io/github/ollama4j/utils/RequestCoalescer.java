@@ -0,0 +1,233 @@
+package io.github.ollama4j.utils;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.github.ollama4j.exceptions.OllamaBaseException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Consumer;
+
+/**
+ * Single-flight coalescing of identical requests: while a request is in flight, callers sending an identical request
+ * attach to it instead of sending their own, and receive the same result and the same streamed response parts.
+ * <p>
+ * Requests are identified by {@link #fingerprint(String, Object)}, a digest of their canonical JSON. A caller that
+ * attaches late first receives all parts streamed so far, then the remaining ones as they arrive; the parts are passed
+ * to its consumer on its own thread. Only the first {@link #MAX_REPLAYED_PARTS} parts are retained for replay, later
+ * callers streaming parts send their own request. A failure of the in-flight request is reported to every attached
+ * caller. Once the request has completed, the next identical request is sent again.
+ */
+public class RequestCoalescer {
+
+    /**
+     * Number of streamed parts retained for callers attaching to a request in flight. Once more parts have been
+     * streamed, they are released and callers streaming parts send an identical request themselves.
+     */
+    public static final int MAX_REPLAYED_PARTS = 256;
+
+    private static final ObjectWriter CANONICAL_WRITER = Utils.getObjectMapper().writer()
+            .with(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS);
+
+    private final ConcurrentHashMap<String, InFlight<?, ?>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * A request sent to the server, streaming response parts to the given sink.
+     *
+     * @param <R> type of the result
+     * @param <P> type of the streamed response parts
+     */
+    @FunctionalInterface
+    public interface Call<R, P> {
+        R call(Consumer<P> partSink) throws OllamaBaseException, IOException, InterruptedException;
+    }
+
+    /**
+     * Computes the key identifying a request: a SHA-256 digest of the canonical JSON (map entries ordered by key) of
+     * the request body. The JSON is hashed while it is written, it is never materialized.
+     *
+     * @param endpoint endpoint the request is sent to, e.g. {@code /api/generate}
+     * @param request  the request body
+     * @return key of the request
+     * @throws IOException if the request cannot be serialized
+     */
+    public static String fingerprint(String endpoint, Object request) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+        try (DigestOutputStream out = new DigestOutputStream(OutputStream.nullOutputStream(), digest)) {
+            CANONICAL_WRITER.writeValue(out, request);
+        }
+        return endpoint + ":" + Base64.getEncoder().encodeToString(digest.digest());
+    }
+
+    /**
+     * Sends the request unless an identical one is in flight, in which case the caller attaches to that one. A caller
+     * streaming parts only attaches while the parts streamed so far can still be replayed to it, see
+     * {@link #MAX_REPLAYED_PARTS}; otherwise it sends the request itself.
+     *
+     * @param key          key of the request, see {@link #fingerprint(String, Object)}
+     * @param partConsumer receives the streamed response parts on the calling thread, may be null
+     * @param call         sends the request; only invoked if the caller does not attach to an identical request
+     * @return result of the request, shared by all attached callers
+     * @throws OllamaBaseException  if the request failed with an error response
+     * @throws IOException          if the request failed with an I/O error
+     * @throws InterruptedException if the calling thread is interrupted while waiting; the in-flight request is not
+     *                              affected
+     */
+    @SuppressWarnings("unchecked")
+    public <R, P> R execute(String key, Consumer<? super P> partConsumer, Call<R, P> call)
+            throws OllamaBaseException, IOException, InterruptedException {
+        InFlight<R, P> created = new InFlight<>(partConsumer);
+        InFlight<R, P> existing = (InFlight<R, P>) inFlight.putIfAbsent(key, created);
+        if (existing != null) {
+            if (partConsumer == null) {
+                return existing.await();
+            }
+            Follower<P> follower = existing.attach(partConsumer);
+            if (follower != null) {
+                try {
+                    follower.deliverParts();
+                } finally {
+                    existing.detach(follower);
+                }
+                return existing.await();
+            }
+            return call.call(partConsumer::accept);
+        }
+        try {
+            R result = call.call(created::emit);
+            created.result.complete(result);
+            return result;
+        } catch (OllamaBaseException | IOException | InterruptedException | RuntimeException e) {
+            created.result.completeExceptionally(e);
+            throw e;
+        } finally {
+            created.finish();
+            inFlight.remove(key, created);
+        }
+    }
+
+    /**
+     * @return number of distinct requests currently in flight
+     */
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+
+    private static class InFlight<R, P> {
+        private final CompletableFuture<R> result = new CompletableFuture<>();
+        private final Consumer<? super P> senderConsumer;
+        // parts streamed so far, null once there are more than can be replayed
+        private List<P> parts = new ArrayList<>();
+        private final List<Follower<P>> followers = new ArrayList<>();
+        private boolean finished;
+
+        InFlight(Consumer<? super P> senderConsumer) {
+            this.senderConsumer = senderConsumer;
+        }
+
+        /**
+         * @return the follower receiving the parts streamed so far and the remaining ones, null if the parts streamed
+         * so far are no longer retained
+         */
+        synchronized Follower<P> attach(Consumer<? super P> consumer) {
+            if (parts == null) {
+                return null;
+            }
+            Follower<P> follower = new Follower<>(consumer);
+            follower.queue.addAll(parts);
+            if (finished) {
+                follower.queue.add(Follower.END);
+            } else {
+                followers.add(follower);
+            }
+            return follower;
+        }
+
+        synchronized void detach(Follower<P> follower) {
+            followers.remove(follower);
+        }
+
+        void emit(P part) {
+            synchronized (this) {
+                if (parts != null) {
+                    parts.add(part);
+                    if (parts.size() > MAX_REPLAYED_PARTS) {
+                        parts = null;
+                    }
+                }
+                // followers consume the parts on their own threads
+                for (Follower<P> follower : followers) {
+                    follower.queue.add(part);
+                }
+            }
+            if (senderConsumer != null) {
+                // the caller that sent the request sees failures of its own consumer
+                senderConsumer.accept(part);
+            }
+        }
+
+        synchronized void finish() {
+            finished = true;
+            for (Follower<P> follower : followers) {
+                follower.queue.add(Follower.END);
+            }
+            followers.clear();
+        }
+
+        R await() throws OllamaBaseException, IOException, InterruptedException {
+            try {
+                return result.get();
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof OllamaBaseException) {
+                    throw (OllamaBaseException) cause;
+                } else if (cause instanceof IOException) {
+                    throw (IOException) cause;
+                } else if (cause instanceof InterruptedException) {
+                    throw new OllamaBaseException("Coalesced request was interrupted");
+                } else if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                throw new OllamaBaseException(String.valueOf(cause));
+            }
+        }
+    }
+
+    /**
+     * Caller attached to an in-flight request. Parts are queued by the sending thread and consumed by the follower on
+     * its own thread, so a slow consumer neither delays the sender nor the other followers.
+     */
+    private static class Follower<P> {
+        private static final Object END = new Object();
+
+        private final Consumer<? super P> consumer;
+        private final BlockingQueue<Object> queue = new LinkedBlockingQueue<>();
+
+        Follower(Consumer<? super P> consumer) {
+            this.consumer = consumer;
+        }
+
+        @SuppressWarnings("unchecked")
+        void deliverParts() throws InterruptedException {
+            for (Object part = queue.take(); part != END; part = queue.take()) {
+                consumer.accept((P) part);
+            }
+        }
+    }
+}
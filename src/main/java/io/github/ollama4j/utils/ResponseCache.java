@@ -0,0 +1,66 @@
+package io.github.ollama4j.utils;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Cache of the responses of deterministic generate and chat requests, see
+ * {@link io.github.ollama4j.OllamaAPI#setResponseCache(ResponseCache)}.
+ * <p>
+ * Keys start with {@code <model>@<digest>/}, followed by a fingerprint of the request; values are the JSON serialized
+ * responses. Implementations must be safe for use by multiple threads.
+ */
+public interface ResponseCache {
+
+    /**
+     * @param key key of the request
+     * @return the cached response, or null if there is none
+     * @throws IOException if a persistent cache cannot be read
+     */
+    String get(String key) throws IOException;
+
+    /**
+     * @param key   key of the request
+     * @param value the response to cache
+     * @throws IOException if a persistent cache cannot be written
+     */
+    void put(String key, String value) throws IOException;
+
+    /**
+     * Removes all responses whose key starts with the given prefix, e.g. those of a model whose digest has changed.
+     *
+     * @param keyPrefix prefix of the keys to remove
+     * @throws IOException if a persistent cache cannot be written
+     */
+    void invalidate(String keyPrefix) throws IOException;
+
+    /**
+     * @param maxEntries maximum number of responses kept, the least recently used ones are evicted first
+     * @return a cache holding the responses in memory
+     */
+    static ResponseCache inMemory(int maxEntries) {
+        return new MemoryResponseCache(maxEntries);
+    }
+
+    /**
+     * @param file file the responses are appended to; created if it does not exist
+     * @return a cache persisting the responses across restarts, to be closed once no longer used
+     * @throws IOException if the file cannot be opened or read
+     */
+    static DiskResponseCache onDisk(Path file) throws IOException {
+        return new DiskResponseCache(file);
+    }
+
+    /**
+     * A bounded in-memory tier in front of an on-disk tier: responses are looked up in memory first, responses read
+     * from disk are kept in memory, and new responses are written to both.
+     *
+     * @param maxEntries maximum number of responses kept in memory
+     * @param file       file the responses are appended to
+     * @return the tiered cache, to be closed once no longer used, which closes the file
+     * @throws IOException if the file cannot be opened or read
+     */
+    static TieredResponseCache tiered(int maxEntries, Path file) throws IOException {
+        return new TieredResponseCache(inMemory(maxEntries), onDisk(file));
+    }
+}
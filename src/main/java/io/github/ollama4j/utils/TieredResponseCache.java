@@ -0,0 +1,60 @@
+package io.github.ollama4j.utils;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * {@link ResponseCache} looking up responses in a fast tier first and in a slower tier second. Responses found in the
+ * slower tier are copied to the fast one. Closing the cache closes the tiers that are {@link Closeable}.
+ */
+public class TieredResponseCache implements ResponseCache, Closeable {
+
+    private final ResponseCache fast;
+    private final ResponseCache slow;
+
+    /**
+     * @param fast tier looked up first, e.g. {@link MemoryResponseCache}
+     * @param slow tier looked up on a miss of the fast tier, e.g. {@link DiskResponseCache}
+     */
+    public TieredResponseCache(ResponseCache fast, ResponseCache slow) {
+        this.fast = fast;
+        this.slow = slow;
+    }
+
+    @Override
+    public String get(String key) throws IOException {
+        String value = fast.get(key);
+        if (value == null) {
+            value = slow.get(key);
+            if (value != null) {
+                fast.put(key, value);
+            }
+        }
+        return value;
+    }
+
+    @Override
+    public void put(String key, String value) throws IOException {
+        fast.put(key, value);
+        slow.put(key, value);
+    }
+
+    @Override
+    public void invalidate(String keyPrefix) throws IOException {
+        fast.invalidate(keyPrefix);
+        slow.invalidate(keyPrefix);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            if (fast instanceof Closeable) {
+                ((Closeable) fast).close();
+            }
+        } finally {
+            if (slow instanceof Closeable) {
+                ((Closeable) slow).close();
+            }
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package io.github.ollama4j.utils;
+
+/**
+ * Counts, or estimates, the number of tokens a model's tokenizer splits a text into, without a server round trip.
+ */
+@FunctionalInterface
+public interface TokenCounter {
+
+    /**
+     * @param text the text
+     * @return its number of tokens
+     */
+    int countTokens(String text);
+
+    /**
+     * A tokenizer-independent estimate that tends to slightly overcount, so that texts sized by it fit a budget: one
+     * token per four letters or digits of a word, at least one per word, and one per punctuation mark or character
+     * outside ASCII.
+     *
+     * @return the estimating counter
+     */
+    static TokenCounter approximate() {
+        return text -> {
+            int tokens = 0;
+            int word = 0;
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if (c < 128 && Character.isLetterOrDigit(c)) {
+                    word++;
+                    continue;
+                }
+                if (word > 0) {
+                    tokens += Math.max(1, (word + 2) / 4);
+                    word = 0;
+                }
+                if (!Character.isWhitespace(c) && !Character.isLowSurrogate(c)) {
+                    tokens++;
+                }
+            }
+            return word > 0 ? tokens + Math.max(1, (word + 2) / 4) : tokens;
+        };
+    }
+}
@@ -0,0 +1,171 @@
+package io.github.ollama4j.utils;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import io.github.ollama4j.models.chat.OllamaChatMessage;
+import io.github.ollama4j.models.chat.OllamaChatRequest;
+
+import java.util.List;
+
+/**
+ * Estimates the number of prompt tokens of a chat request or a prompt for one model, locally and without a server
+ * round trip.
+ * <p>
+ * The texts are counted by a {@link TokenCounter}, adding a few tokens per message for the chat template and a fixed
+ * number per image. The count is then multiplied by a ratio learnt from the {@code prompt_eval_count} the server reports
+ * for the requests sent, see {@link #calibrate(int, int)}, so the estimate follows the tokenizer and chat template of
+ * the model. Instances are thread-safe.
+ */
+public class TokenEstimator {
+
+    /**
+     * Tokens the chat template adds around every message, such as the role header and the end-of-turn marker.
+     */
+    static final int MESSAGE_OVERHEAD = 4;
+
+    /**
+     * Tokens the chat template adds to every request, such as the begin-of-text marker and the header of the answer.
+     */
+    static final int REQUEST_OVERHEAD = 3;
+
+    private static final double SMOOTHING = 0.2;
+    private static final double MIN_RATIO = 0.25;
+    private static final double MAX_RATIO = 4;
+
+    private final TokenCounter counter;
+    private final int imageTokens;
+    private double ratio = 1;
+    private int samples;
+
+    /**
+     * Creates an estimator counting with {@link TokenCounter#approximate()}, and 768 tokens per image.
+     */
+    public TokenEstimator() {
+        this(TokenCounter.approximate(), 768);
+    }
+
+    /**
+     * @param counter     counts the tokens of a text
+     * @param imageTokens number of tokens an image takes in the prompt, which depends on the vision model
+     */
+    public TokenEstimator(TokenCounter counter, int imageTokens) {
+        this.counter = counter;
+        this.imageTokens = imageTokens;
+    }
+
+    /**
+     * @param text a prompt or a message
+     * @return the estimated number of tokens of the text
+     */
+    public int estimateTokens(String text) {
+        return calibrated(countTokens(text));
+    }
+
+    /**
+     * @param request a chat request
+     * @return the estimated number of prompt tokens of the request, including its tool definitions
+     */
+    public int estimateTokens(OllamaChatRequest request) {
+        return calibrated(countTokens(request));
+    }
+
+    /**
+     * @param message a chat message
+     * @return the estimated number of prompt tokens of the message, including its template and images
+     */
+    public int estimateTokens(OllamaChatMessage message) {
+        return calibrated(countTokens(message));
+    }
+
+    /**
+     * @return the uncalibrated number of tokens of the text, as passed to {@link #calibrate(int, int)}
+     */
+    public int countTokens(String text) {
+        return text == null || text.isEmpty() ? 0 : counter.countTokens(text);
+    }
+
+    /**
+     * @return the uncalibrated number of prompt tokens of the request, as passed to {@link #calibrate(int, int)}
+     */
+    public int countTokens(OllamaChatRequest request) {
+        int tokens = REQUEST_OVERHEAD + countTokens(request.getMessages());
+        if (request.getTools() != null && !request.getTools().isEmpty()) {
+            try {
+                tokens += countTokens(Utils.getObjectMapper().writeValueAsString(request.getTools()));
+            } catch (JsonProcessingException e) {
+                throw new IllegalArgumentException("The tools of the request cannot be serialized", e);
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * @return the uncalibrated number of tokens of the messages, without the overhead of the request
+     */
+    public int countTokens(List<OllamaChatMessage> messages) {
+        int tokens = 0;
+        if (messages != null) {
+            for (OllamaChatMessage message : messages) {
+                tokens += countTokens(message);
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * @return the uncalibrated number of prompt tokens of the message
+     */
+    public int countTokens(OllamaChatMessage message) {
+        int tokens = MESSAGE_OVERHEAD + countTokens(message.getContent());
+        if (message.getToolCalls() != null && !message.getToolCalls().isEmpty()) {
+            try {
+                tokens += countTokens(Utils.getObjectMapper().writeValueAsString(message.getToolCalls()));
+            } catch (JsonProcessingException e) {
+                throw new IllegalArgumentException("The tool calls of the message cannot be serialized", e);
+            }
+        }
+        int images = (message.getImages() != null ? message.getImages().size() : 0)
+                + (message.getImageAttachments() != null ? message.getImageAttachments().size() : 0);
+        return tokens + images * imageTokens;
+    }
+
+    /**
+     * Learns from the number of prompt tokens the server evaluated for a request. The ratio between evaluated and
+     * counted tokens is smoothed over the samples. A sample less than half the current ratio is ignored after the first:
+     * the server does not count the tokens of a prompt prefix it reuses from its cache, as in follow-up turns of a chat.
+     *
+     * @param countedTokens   the uncalibrated count of the request, see {@link #countTokens(OllamaChatRequest)}
+     * @param promptEvalCount the {@code prompt_eval_count} of the response
+     */
+    public synchronized void calibrate(int countedTokens, int promptEvalCount) {
+        if (countedTokens <= 0 || promptEvalCount <= 0) {
+            return;
+        }
+        double sample = Math.min(MAX_RATIO, Math.max(MIN_RATIO, (double) promptEvalCount / countedTokens));
+        if (samples == 0) {
+            ratio = sample;
+        } else if (sample >= ratio / 2) {
+            ratio += SMOOTHING * (sample - ratio);
+        } else {
+            return;
+        }
+        samples++;
+    }
+
+    /**
+     * @return the factor applied to the counted tokens, 1 until the estimator is calibrated
+     */
+    public synchronized double getRatio() {
+        return ratio;
+    }
+
+    /**
+     * @return number of samples the estimator was calibrated with
+     */
+    public synchronized int getSamples() {
+        return samples;
+    }
+
+    private int calibrated(int tokens) {
+        return (int) Math.ceil(tokens * getRatio());
+    }
+}
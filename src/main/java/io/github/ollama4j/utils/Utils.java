@@ -5,7 +5,12 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.lang.reflect.InvocationTargetException;
 import java.net.URL;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
@@ -14,6 +19,12 @@ public class Utils {
 
   private static ObjectMapper objectMapper;
 
+  private static final Executor SHARED_EXECUTOR = Executors.newCachedThreadPool(runnable -> {
+    Thread thread = new Thread(runnable, "ollama4j-worker");
+    thread.setDaemon(true);
+    return thread;
+  });
+
   public static ObjectMapper getObjectMapper() {
     if(objectMapper == null) {
       objectMapper = new ObjectMapper();
@@ -35,4 +46,47 @@ public class Utils {
       return out.toByteArray();
     }
   }
+
+  /**
+   * Cancels the source future when the dependent future gets cancelled. Futures derived via
+   * {@code thenApply}/{@code thenCompose} do not propagate cancellation to the future they were created from.
+   *
+   * @param dependent future handed out to the caller
+   * @param source    future the dependent one was derived from
+   * @param <T>       result type of the dependent future
+   * @return the dependent future
+   */
+  public static <T> CompletableFuture<T> propagateCancellation(CompletableFuture<T> dependent, CompletableFuture<?> source) {
+    dependent.whenComplete((result, throwable) -> {
+      if (dependent.isCancelled()) {
+        source.cancel(true);
+      }
+    });
+    return dependent;
+  }
+
+  /**
+   * @return the pool of daemon threads shared by the whole library, on which blocking background work runs when no
+   * executor is configured, see {@link io.github.ollama4j.OllamaAPI#getTaskExecutor()}
+   */
+  public static Executor getSharedExecutor() {
+    return SHARED_EXECUTOR;
+  }
+
+  /**
+   * Creates an executor that starts a new virtual thread for each task. The library is compiled for Java 11, so the
+   * factory method is looked up at runtime.
+   *
+   * @return a virtual-thread-per-task executor
+   * @throws UnsupportedOperationException if the running JVM does not support virtual threads (Java 21+)
+   */
+  public static ExecutorService newVirtualThreadPerTaskExecutor() {
+    try {
+      return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+    } catch (NoSuchMethodException | IllegalAccessException e) {
+      throw new UnsupportedOperationException("Virtual threads require Java 21 or newer", e);
+    } catch (InvocationTargetException e) {
+      throw new UnsupportedOperationException("Virtual threads are not available: " + e.getCause().getMessage(), e.getCause());
+    }
+  }
 }
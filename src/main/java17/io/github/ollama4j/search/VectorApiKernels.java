@@ -0,0 +1,87 @@
+package io.github.ollama4j.search;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.ShortVector;
+import jdk.incubator.vector.Vector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Kernels using the SIMD instructions of the CPU through the incubating Vector API. Loaded by {@link VectorMath} only
+ * if the {@code jdk.incubator.vector} module is enabled.
+ */
+final class VectorApiKernels implements VectorKernels {
+
+    private static final VectorSpecies<Float> SPECIES = FloatVector.SPECIES_PREFERRED;
+
+    @Override
+    public float dot(float[] a, int aOffset, float[] b, int bOffset, int length) {
+        int step = SPECIES.length();
+        FloatVector s0 = FloatVector.zero(SPECIES);
+        FloatVector s1 = FloatVector.zero(SPECIES);
+        FloatVector s2 = FloatVector.zero(SPECIES);
+        FloatVector s3 = FloatVector.zero(SPECIES);
+        int i = 0;
+        for (int bound = length - 4 * step; i <= bound; i += 4 * step) {
+            s0 = FloatVector.fromArray(SPECIES, a, aOffset + i).fma(FloatVector.fromArray(SPECIES, b, bOffset + i), s0);
+            s1 = FloatVector.fromArray(SPECIES, a, aOffset + i + step).fma(FloatVector.fromArray(SPECIES, b, bOffset + i + step), s1);
+            s2 = FloatVector.fromArray(SPECIES, a, aOffset + i + 2 * step).fma(FloatVector.fromArray(SPECIES, b, bOffset + i + 2 * step), s2);
+            s3 = FloatVector.fromArray(SPECIES, a, aOffset + i + 3 * step).fma(FloatVector.fromArray(SPECIES, b, bOffset + i + 3 * step), s3);
+        }
+        for (int bound = length - step; i <= bound; i += step) {
+            s0 = FloatVector.fromArray(SPECIES, a, aOffset + i).fma(FloatVector.fromArray(SPECIES, b, bOffset + i), s0);
+        }
+        float sum = s0.add(s1).add(s2.add(s3)).reduceLanes(VectorOperators.ADD);
+        for (; i < length; i++) {
+            sum += a[aOffset + i] * b[bOffset + i];
+        }
+        return sum;
+    }
+
+    @Override
+    public float squareDistance(float[] a, int aOffset, float[] b, int bOffset, int length) {
+        int step = SPECIES.length();
+        FloatVector s0 = FloatVector.zero(SPECIES);
+        FloatVector s1 = FloatVector.zero(SPECIES);
+        int i = 0;
+        for (int bound = length - 2 * step; i <= bound; i += 2 * step) {
+            FloatVector d0 = FloatVector.fromArray(SPECIES, a, aOffset + i).sub(FloatVector.fromArray(SPECIES, b, bOffset + i));
+            FloatVector d1 = FloatVector.fromArray(SPECIES, a, aOffset + i + step).sub(FloatVector.fromArray(SPECIES, b, bOffset + i + step));
+            s0 = d0.fma(d0, s0);
+            s1 = d1.fma(d1, s1);
+        }
+        for (int bound = length - step; i <= bound; i += step) {
+            FloatVector d = FloatVector.fromArray(SPECIES, a, aOffset + i).sub(FloatVector.fromArray(SPECIES, b, bOffset + i));
+            s0 = d.fma(d, s0);
+        }
+        float sum = s0.add(s1).reduceLanes(VectorOperators.ADD);
+        for (; i < length; i++) {
+            float d = a[aOffset + i] - b[bOffset + i];
+            sum += d * d;
+        }
+        return sum;
+    }
+
+    /**
+     * Widens 8 bytes at a time to shorts, multiplies them, and accumulates the products as ints, so that neither the
+     * products nor the sums overflow.
+     */
+    @Override
+    public int dot(byte[] a, int aOffset, byte[] b, int bOffset, int length) {
+        IntVector sum = IntVector.zero(IntVector.SPECIES_256);
+        int step = ByteVector.SPECIES_64.length();
+        int i = 0;
+        for (int bound = length - step; i <= bound; i += step) {
+            Vector<Short> va = ByteVector.fromArray(ByteVector.SPECIES_64, a, aOffset + i).convertShape(VectorOperators.B2S, ShortVector.SPECIES_128, 0);
+            Vector<Short> vb = ByteVector.fromArray(ByteVector.SPECIES_64, b, bOffset + i).convertShape(VectorOperators.B2S, ShortVector.SPECIES_128, 0);
+            sum = sum.add(va.mul(vb).convertShape(VectorOperators.S2I, IntVector.SPECIES_256, 0));
+        }
+        int result = sum.reduceLanes(VectorOperators.ADD);
+        for (; i < length; i++) {
+            result += a[aOffset + i] * b[bOffset + i];
+        }
+        return result;
+    }
+}
@@ -0,0 +1,103 @@
+package io.github.ollama4j.unittests;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import io.github.ollama4j.OllamaAPI;
+import io.github.ollama4j.utils.Utils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * In-process HTTP server standing in for the Ollama API in unit tests. Requests are handled concurrently, each on its
+ * own thread, so handlers may block until a test releases them.
+ */
+class FakeOllamaServer implements AutoCloseable {
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    FakeOllamaServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    /**
+     * Handles the requests to the given path, replacing the handler set before.
+     *
+     * @param path    API path, e.g. {@code /api/chat}
+     * @param handler handler of the requests
+     * @return this server
+     */
+    FakeOllamaServer handle(String path, HttpHandler handler) {
+        try {
+            server.removeContext(path);
+        } catch (IllegalArgumentException e) {
+            // no handler set yet
+        }
+        server.createContext(path, handler);
+        return this;
+    }
+
+    /**
+     * Answers every request to the given path with the given status and body.
+     */
+    FakeOllamaServer respond(String path, int statusCode, String body) {
+        return handle(path, exchange -> respond(exchange, statusCode, body));
+    }
+
+    /**
+     * @return a client of this server that does not log requests and responses
+     */
+    OllamaAPI client() {
+        OllamaAPI ollamaAPI = new OllamaAPI(getHost());
+        ollamaAPI.setVerbose(false);
+        return ollamaAPI;
+    }
+
+    String getHost() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    /**
+     * @return the JSON body of the request
+     */
+    static JsonNode readJson(HttpExchange exchange) throws IOException {
+        return Utils.getObjectMapper().readTree(exchange.getRequestBody().readAllBytes());
+    }
+
+    /**
+     * Sends a response with the given status and body, after reading whatever is left of the request body.
+     */
+    static void respond(HttpExchange exchange, int statusCode, String body) throws IOException {
+        respond(exchange, statusCode, body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Sends a response with the given status and the given value serialized to JSON.
+     */
+    static void respondJson(HttpExchange exchange, int statusCode, Object body) throws IOException {
+        respond(exchange, statusCode, Utils.getObjectMapper().writeValueAsBytes(body));
+    }
+
+    private static void respond(HttpExchange exchange, int statusCode, byte[] bytes) throws IOException {
+        exchange.getRequestBody().readAllBytes();
+        exchange.sendResponseHeaders(statusCode, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,184 @@
+package io.github.ollama4j.unittests;
+
+import io.github.ollama4j.OllamaAPI;
+import io.github.ollama4j.exceptions.OllamaBaseException;
+import io.github.ollama4j.models.chat.OllamaChatMessageRole;
+import io.github.ollama4j.models.chat.OllamaChatRequest;
+import io.github.ollama4j.models.chat.OllamaChatRequestBuilder;
+import io.github.ollama4j.models.chat.OllamaChatResponseModel;
+import io.github.ollama4j.models.chat.OllamaChatResult;
+import io.github.ollama4j.models.embeddings.OllamaEmbedResponseModel;
+import io.github.ollama4j.models.generate.OllamaGenerateRequest;
+import io.github.ollama4j.models.generate.OllamaGenerateRequestBuilder;
+import io.github.ollama4j.models.generate.OllamaGenerateResponseModel;
+import io.github.ollama4j.models.response.OllamaResult;
+import io.github.ollama4j.utils.OptionsBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestAsyncAPIs {
+
+    private FakeOllamaServer server;
+    private OllamaAPI ollamaAPI;
+    private final CountDownLatch slowRequestAborted = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new FakeOllamaServer()
+                .respond("/api/chat", 200,
+                        "{\"model\":\"m\",\"message\":{\"role\":\"assistant\",\"content\":\"Hi\"},\"done\":false}\n"
+                                + "{\"model\":\"m\",\"message\":{\"role\":\"assistant\",\"content\":\" there\"},\"done\":true}\n")
+                .respond("/api/embed", 404, "{\"error\":\"model not found\"}")
+                .handle("/api/generate", exchange -> {
+                    String requestBody = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+                    if (!requestBody.contains("slow prompt")) {
+                        FakeOllamaServer.respond(exchange, 200,
+                                "{\"model\":\"m\",\"response\":\"Hello\",\"done\":false}\n"
+                                        + "{\"model\":\"m\",\"response\":\" World\",\"done\":false}\n"
+                                        + "{\"model\":\"m\",\"response\":\"\",\"done\":true}\n");
+                        return;
+                    }
+                    exchange.sendResponseHeaders(200, 0);
+                    try (OutputStream out = exchange.getResponseBody()) {
+                        for (int i = 0; i < 100; i++) {
+                            out.write("{\"model\":\"m\",\"response\":\"x\",\"done\":false}\n".getBytes(StandardCharsets.UTF_8));
+                            out.flush();
+                            Thread.sleep(100);
+                        }
+                    } catch (IOException | InterruptedException e) {
+                        slowRequestAborted.countDown();
+                    }
+                });
+        ollamaAPI = server.client();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+
+    @Test
+    void testGenerateAsyncStreamsTokens() throws Exception {
+        List<String> streamed = new ArrayList<>();
+        CompletableFuture<OllamaResult> future = ollamaAPI.generateAsync("m", "prompt", false, new OptionsBuilder().build(), streamed::add);
+        OllamaResult result = future.get(5, TimeUnit.SECONDS);
+        assertEquals("Hello World", result.getResponse());
+        assertEquals(200, result.getHttpStatusCode());
+        assertEquals(List.of("Hello", "Hello World", "Hello World"), streamed);
+    }
+
+    @Test
+    void testChatAsync() throws Exception {
+        OllamaChatResult result = ollamaAPI.chatAsync(OllamaChatRequestBuilder.getInstance("m")
+                .withMessage(OllamaChatMessageRole.USER, "Hello").withStreaming().build()).get(5, TimeUnit.SECONDS);
+        assertEquals("Hi there", result.getResponseModel().getMessage().getContent());
+        assertEquals(2, result.getChatHistory().size());
+    }
+
+    @Test
+    void testEmbedAsyncFailsWithOllamaBaseException() {
+        CompletableFuture<OllamaEmbedResponseModel> future = ollamaAPI.embedAsync("m", List.of("text"));
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(OllamaBaseException.class, exception.getCause());
+        assertTrue(exception.getCause().getMessage().startsWith("404"));
+    }
+
+    @Test
+    void testCancelAbortsExchange() throws Exception {
+        CompletableFuture<OllamaResult> future = ollamaAPI.generateAsync("m", "slow prompt", false, new OptionsBuilder().build(), null);
+        Thread.sleep(300);
+        assertTrue(future.cancel(true));
+        assertTrue(slowRequestAborted.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testGenerateStreamDeliversPartsOnDemand() throws Exception {
+        OllamaGenerateRequest request = OllamaGenerateRequestBuilder.getInstance("m").withPrompt("prompt").build();
+        List<String> parts = new ArrayList<>();
+        CompletableFuture<Void> completed = new CompletableFuture<>();
+        ollamaAPI.generateStream(request).subscribe(new Flow.Subscriber<>() {
+            private Flow.Subscription subscription;
+
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                this.subscription = subscription;
+                subscription.request(1);
+            }
+
+            @Override
+            public void onNext(OllamaGenerateResponseModel item) {
+                parts.add(item.getResponse());
+                subscription.request(1);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                completed.completeExceptionally(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+                completed.complete(null);
+            }
+        });
+        completed.get(5, TimeUnit.SECONDS);
+        assertEquals(List.of("Hello", " World", ""), parts);
+    }
+
+    @Test
+    void testChatStreamSignalsErrorStatus() {
+        server.respond("/api/chat", 400, "{\"error\":\"bad request\"}");
+        CompletableFuture<Void> completed = new CompletableFuture<>();
+        ollamaAPI.chatStream(OllamaChatRequestBuilder.getInstance("m").withMessage(OllamaChatMessageRole.USER, "Hello").build())
+                .subscribe(new Flow.Subscriber<>() {
+                    @Override
+                    public void onSubscribe(Flow.Subscription subscription) {
+                        subscription.request(Long.MAX_VALUE);
+                    }
+
+                    @Override
+                    public void onNext(OllamaChatResponseModel item) {
+                        completed.completeExceptionally(new AssertionError("unexpected item " + item));
+                    }
+
+                    @Override
+                    public void onError(Throwable throwable) {
+                        completed.completeExceptionally(throwable);
+                    }
+
+                    @Override
+                    public void onComplete() {
+                        completed.complete(null);
+                    }
+                });
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> completed.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(OllamaBaseException.class, exception.getCause());
+        // the message of the server, as thrown by the blocking chat call
+        assertEquals("bad request", exception.getCause().getMessage());
+    }
+
+    @Test
+    void testChatWithoutResponsePartsFails() {
+        server.respond("/api/chat", 200, "");
+        OllamaChatRequest request = OllamaChatRequestBuilder.getInstance("m").withMessage(OllamaChatMessageRole.USER, "Hello").build();
+        OllamaBaseException exception = assertThrows(OllamaBaseException.class, () -> ollamaAPI.chat(request));
+        assertEquals("empty response", exception.getMessage());
+        ExecutionException async = assertThrows(ExecutionException.class, () -> ollamaAPI.chatAsync(request).get(5, TimeUnit.SECONDS));
+        assertInstanceOf(OllamaBaseException.class, async.getCause());
+        assertEquals("empty response", async.getCause().getMessage());
+    }
+}
@@ -0,0 +1,141 @@
+package io.github.ollama4j.unittests;
+
+import io.github.ollama4j.OllamaAPI;
+import io.github.ollama4j.models.chat.OllamaChatMessageRole;
+import io.github.ollama4j.models.chat.OllamaChatRequest;
+import io.github.ollama4j.models.chat.OllamaChatRequestBuilder;
+import io.github.ollama4j.models.chat.OllamaChatMessage;
+import io.github.ollama4j.utils.Base64Cache;
+import io.github.ollama4j.utils.HttpClientOptions;
+import io.github.ollama4j.utils.Utils;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestBase64Cache {
+
+    private static byte[] image(int size, long seed) {
+        byte[] image = new byte[size];
+        new Random(seed).nextBytes(image);
+        return image;
+    }
+
+    private static String quotedBase64(byte[] image) {
+        return '"' + Base64.getEncoder().encodeToString(image) + '"';
+    }
+
+    @Test
+    void testEncodesEqualContentOnce() {
+        Base64Cache cache = new Base64Cache(1024 * 1024, 16);
+        byte[] image = image(1000, 1);
+        char[] encoded = cache.encode(image);
+        assertEquals(quotedBase64(image), new String(encoded));
+        assertSame(encoded, cache.encode(image));
+        assertSame(encoded, cache.encode(image.clone()));
+        assertEquals(1, cache.getMisses());
+        assertEquals(2, cache.getHits());
+    }
+
+    @Test
+    void testRefilledArrayIsEncodedAgain() {
+        Base64Cache cache = new Base64Cache(1024 * 1024, 16);
+        byte[] buffer = image(1000, 1);
+        cache.encode(buffer);
+        new Random(2).nextBytes(buffer);
+        assertEquals(quotedBase64(buffer), new String(cache.encode(buffer)));
+        assertEquals(2, cache.getMisses());
+    }
+
+    @Test
+    void testChangeBetweenSampledBytesIsEncodedAgain() {
+        Base64Cache cache = new Base64Cache(1024 * 1024, 16);
+        byte[] buffer = image(100_000, 1);
+        cache.encode(buffer);
+        // only a few hundred bytes are hashed, so this change keeps the key and is caught by verifying the hit
+        buffer[1] ^= 1;
+        assertEquals(quotedBase64(buffer), new String(cache.encode(buffer)));
+        assertEquals(2, cache.getMisses());
+        assertEquals(0, cache.getHits());
+    }
+
+    @Test
+    void testCachingIsOptIn() {
+        assertNull(HttpClientOptions.builder().build().getBase64Cache());
+    }
+
+    @Test
+    void testEvictsLeastRecentlyUsed() {
+        // an image of 1000 bytes takes 1000 bytes for its copy and 1338 chars for its quoted encoding
+        Base64Cache cache = new Base64Cache(3 * 3676, 16);
+        byte[] first = image(1000, 1);
+        byte[] second = image(1000, 2);
+        byte[] third = image(1000, 3);
+        byte[] fourth = image(1000, 4);
+        cache.encode(first);
+        cache.encode(second);
+        cache.encode(third);
+        cache.encode(first);
+        cache.encode(fourth);
+        assertTrue(cache.size() <= 3 * 3676);
+        cache.encode(first);
+        assertEquals(4, cache.getMisses());
+        cache.encode(second);
+        assertEquals(5, cache.getMisses());
+    }
+
+    @Test
+    void testSmallImagesAreNotCached() {
+        Base64Cache cache = new Base64Cache(1024 * 1024, 16);
+        cache.encode(image(8, 1));
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getMisses());
+    }
+
+    @Test
+    void testImageOfResentHistoryIsEncodedOnce() throws Exception {
+        Base64Cache cache = new Base64Cache(1024 * 1024, 16);
+        byte[] image = image(100_000, 1);
+        OllamaChatMessage message = new OllamaChatMessage(OllamaChatMessageRole.USER, "What is in this picture?");
+        message.setImages(List.of(image));
+        OllamaChatRequestBuilder builder = OllamaChatRequestBuilder.getInstance("llava").withMessage(message);
+        for (int turn = 0; turn < 10; turn++) {
+            OllamaChatRequest request = builder.withMessage(OllamaChatMessageRole.USER, "Follow-up " + turn).build();
+            byte[] json = Utils.getObjectMapper().writer().withAttribute(Base64Cache.class, cache).writeValueAsBytes(request);
+            assertArrayEquals(Utils.getObjectMapper().writeValueAsBytes(request), json);
+        }
+        assertEquals(1, cache.getMisses());
+        assertEquals(9, cache.getHits());
+    }
+
+    @Test
+    void testCacheOfTheApiIsUsedForItsRequests() throws Exception {
+        Base64Cache cache = new Base64Cache(1024 * 1024, 16);
+        byte[] image = image(100_000, 1);
+        List<String> sentImages = new ArrayList<>();
+        try (FakeOllamaServer server = new FakeOllamaServer()) {
+            server.handle("/api/chat", exchange -> {
+                sentImages.add(FakeOllamaServer.readJson(exchange).get("messages").get(0).get("images").get(0).asText());
+                FakeOllamaServer.respondJson(exchange, 200, Map.of("model", "llava", "done", true,
+                        "message", Map.of("role", "assistant", "content", "A dog.")));
+            });
+            OllamaAPI ollamaAPI = new OllamaAPI(server.getHost(), HttpClientOptions.builder().base64Cache(cache).build());
+            ollamaAPI.setVerbose(false);
+            OllamaAPI uncachedAPI = server.client();
+            for (OllamaAPI api : List.of(ollamaAPI, ollamaAPI, uncachedAPI)) {
+                OllamaChatMessage message = new OllamaChatMessage(OllamaChatMessageRole.USER, "What is in this picture?");
+                message.setImages(List.of(image));
+                api.chat(OllamaChatRequestBuilder.getInstance("llava").withMessage(message).build());
+            }
+        }
+        assertEquals(List.of(Base64.getEncoder().encodeToString(image), Base64.getEncoder().encodeToString(image),
+                Base64.getEncoder().encodeToString(image)), sentImages);
+        assertEquals(1, cache.getMisses());
+        assertEquals(1, cache.getHits());
+    }
+}
@@ -0,0 +1,92 @@
+package io.github.ollama4j.unittests;
+
+import io.github.ollama4j.search.Bm25Index;
+import io.github.ollama4j.search.SearchHit;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestBm25Index {
+
+    private static List<Integer> ids(List<SearchHit> hits) {
+        return hits.stream().map(SearchHit::getId).collect(Collectors.toList());
+    }
+
+    @Test
+    void testRanksByTermsAndIdentifiers() {
+        Bm25Index index = new Bm25Index();
+        assertEquals(0, index.addAll(Arrays.asList(
+                "The sync client retries when the connection drops.",
+                "Error ERR_CONN-42 means the sync server refused the connection.",
+                "Order SKU 8841-B shipped; replace the sync cable.",
+                "A long note about the sync client and the sync server and the sync protocol and nothing else.")));
+        assertEquals(4, index.add("Unrelated text about cooking pasta."));
+        assertEquals(5, index.size());
+
+        // the whole identifier, with or without its case, ranks the text holding it first
+        assertEquals(1, index.search("err_conn-42", 3).get(0).getId());
+        assertEquals(2, index.search("What is sku 8841-B?", 3).get(0).getId());
+        // a rare term outweighs a common one, and repeated terms saturate
+        assertEquals(0, index.search("sync retries", 5).get(0).getId());
+        // texts without any query term are not returned
+        assertEquals(Arrays.asList(4), ids(index.search("pasta", 5)));
+        assertTrue(index.search("xyzzy-0000", 5).isEmpty());
+        assertTrue(index.search("", 5).isEmpty());
+
+        List<SearchHit> hits = index.search("sync connection", 10);
+        for (int i = 1; i < hits.size(); i++) {
+            assertTrue(hits.get(i - 1).getScore() >= hits.get(i).getScore());
+        }
+        assertTrue(index.getTermCount() > 20);
+        assertTrue(index.getPostingsBytes() > 0);
+    }
+
+    @Test
+    void testConcurrentAddsAndSearches() throws Exception {
+        Bm25Index index = new Bm25Index();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int writer = 0; writer < 2; writer++) {
+                int w = writer;
+                futures.add(executor.submit(() -> {
+                    for (int batch = 0; batch < 50; batch++) {
+                        List<String> texts = new ArrayList<>();
+                        for (int i = 0; i < 20; i++) {
+                            texts.add("writer" + w + " item-" + (batch * 20 + i) + " common words");
+                        }
+                        index.addAll(texts);
+                    }
+                }));
+            }
+            for (int reader = 0; reader < 2; reader++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 200; i++) {
+                        for (SearchHit hit : index.search("common item-7", 5)) {
+                            assertTrue(hit.getScore() > 0);
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(2000, index.size());
+        // item-7 was added once by each writer, and ranks above item-70 to item-79
+        List<SearchHit> hits = index.search("item-7", 3);
+        assertEquals(hits.get(0).getScore(), hits.get(1).getScore(), 1e-6);
+        assertTrue(hits.get(1).getScore() > hits.get(2).getScore());
+    }
+}
@@ -0,0 +1,153 @@
+package io.github.ollama4j.unittests;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.github.ollama4j.OllamaAPI;
+import io.github.ollama4j.exceptions.OllamaBaseException;
+import io.github.ollama4j.models.embeddings.BulkEmbedOptions;
+import io.github.ollama4j.models.embeddings.BulkEmbedding;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestBulkEmbedding {
+
+    private FakeOllamaServer server;
+    private OllamaAPI ollamaAPI;
+    private final List<Integer> chunkSizes = Collections.synchronizedList(new ArrayList<>());
+    private final Set<String> failedOnce = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new FakeOllamaServer().handle("/api/embed", exchange -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                JsonNode request = FakeOllamaServer.readJson(exchange);
+                String first = request.get("input").get(0).asText();
+                if ((first.equals("text 300") && failedOnce.add(first)) || first.equals("always fails")) {
+                    FakeOllamaServer.respond(exchange, 503, "{\"error\":\"busy\"}");
+                    return;
+                }
+                List<float[]> embeddings = new ArrayList<>();
+                for (JsonNode input : request.get("input")) {
+                    embeddings.add(new float[]{Float.parseFloat(input.asText().substring(5)), input.asText().length()});
+                }
+                chunkSizes.add(embeddings.size());
+                Thread.sleep(5);
+                FakeOllamaServer.respondJson(exchange, 200, Map.of("model", "m", "embeddings", embeddings));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        });
+        ollamaAPI = server.client();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+
+    private static List<String> texts(int count) {
+        return IntStream.range(0, count).mapToObj(i -> "text " + i).collect(Collectors.toList());
+    }
+
+    @Test
+    void testVectorsAreReturnedInInputOrderWithBoundedParallelism() {
+        AtomicLong lastProgress = new AtomicLong();
+        BulkEmbedOptions options = BulkEmbedOptions.builder().maxChunkInputs(50).parallelism(3)
+                .retryBackoff(Duration.ofMillis(1))
+                .progressListener((embedded, total) -> {
+                    assertEquals(1000, total);
+                    lastProgress.accumulateAndGet(embedded, Math::max);
+                })
+                .build();
+        try (BulkEmbedding vectors = ollamaAPI.embedBulk("m", texts(1000), options)) {
+            int count = 0;
+            while (vectors.hasNext()) {
+                assertEquals(count++, (int) vectors.next()[0]);
+            }
+            assertEquals(1000, count);
+        }
+        assertEquals(1000, lastProgress.get());
+        assertEquals(20, chunkSizes.size());
+        assertTrue(maxInFlight.get() <= 3);
+        // the chunk starting with "text 300" failed once and was retried on its own
+        assertTrue(failedOnce.contains("text 300"));
+    }
+
+    @Test
+    void testChunksAreLimitedByCharactersAndReadLazily() {
+        AtomicInteger read = new AtomicInteger();
+        Iterator<String> inputs = new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return read.get() < 100;
+            }
+
+            @Override
+            public String next() {
+                return "text " + read.getAndIncrement();
+            }
+        };
+        BulkEmbedOptions options = BulkEmbedOptions.builder().maxChunkInputs(100).maxChunkChars(70).parallelism(2).build();
+        try (BulkEmbedding vectors = ollamaAPI.embedBulk("m", inputs, options)) {
+            assertEquals(0f, vectors.next()[0]);
+            // the chunk being consumed and 2 chunks in flight, each of at most 70 characters, and one text read ahead
+            assertTrue(read.get() <= 3 * 11 + 1, "read " + read.get());
+            int count = 1;
+            while (vectors.hasNext()) {
+                assertEquals(count++, (int) vectors.next()[0]);
+            }
+            assertEquals(100, count);
+        }
+        for (int size : chunkSizes) {
+            assertTrue(size <= 11);
+        }
+    }
+
+    @Test
+    void testChunkFailingAfterRetriesFailsIteration() {
+        List<String> inputs = new ArrayList<>(texts(10));
+        inputs.add("always fails");
+        BulkEmbedOptions options = BulkEmbedOptions.builder().maxChunkInputs(10).maxRetries(2).retryBackoff(Duration.ofMillis(1)).build();
+        try (BulkEmbedding vectors = ollamaAPI.embedBulk("m", inputs, options)) {
+            for (int i = 0; i < 10; i++) {
+                vectors.next();
+            }
+            CompletionException exception = assertThrows(CompletionException.class, vectors::next);
+            assertInstanceOf(OllamaBaseException.class, exception.getCause());
+        }
+    }
+
+    @Test
+    void testIterationDoesNotContinuePastFailedChunk() {
+        BulkEmbedOptions options = BulkEmbedOptions.builder().maxChunkInputs(1).parallelism(3).maxRetries(0).build();
+        try (BulkEmbedding vectors = ollamaAPI.embedBulk("m", List.of("text 0", "always fails", "text 2", "text 3"), options)) {
+            assertEquals(0f, vectors.next()[0]);
+            CompletionException failure = assertThrows(CompletionException.class, vectors::next);
+            // the vectors of later chunks would be taken for those of the failed inputs
+            assertSame(failure, assertThrows(CompletionException.class, vectors::hasNext));
+            assertSame(failure, assertThrows(CompletionException.class, vectors::next));
+        }
+    }
+}
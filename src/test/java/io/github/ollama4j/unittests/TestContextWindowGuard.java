@@ -0,0 +1,162 @@
+package io.github.ollama4j.unittests;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.github.ollama4j.OllamaAPI;
+import io.github.ollama4j.exceptions.ContextWindowExceededException;
+import io.github.ollama4j.models.chat.OllamaChatMessage;
+import io.github.ollama4j.models.chat.OllamaChatMessageRole;
+import io.github.ollama4j.models.chat.OllamaChatRequest;
+import io.github.ollama4j.models.chat.OllamaChatRequestBuilder;
+import io.github.ollama4j.models.chat.OllamaChatResult;
+import io.github.ollama4j.models.chat.OllamaChatToolCalls;
+import io.github.ollama4j.tools.OllamaToolCallsFunction;
+import io.github.ollama4j.utils.ContextOverflowPolicy;
+import io.github.ollama4j.utils.ContextWindowGuard;
+import io.github.ollama4j.utils.ContextWindowOptions;
+import io.github.ollama4j.utils.OptionsBuilder;
+import io.github.ollama4j.utils.TokenCounter;
+import io.github.ollama4j.utils.TokenEstimator;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestContextWindowGuard {
+
+    // one token per word, so that the budgets are easy to check
+    private static final TokenCounter WORDS = text -> text.trim().isEmpty() ? 0 : text.trim().split("\\s+").length;
+
+    private static String words(int count) {
+        return Collections.nCopies(count, "word").stream().collect(Collectors.joining(" "));
+    }
+
+    private static OllamaChatMessage message(OllamaChatMessageRole role, int words) {
+        return new OllamaChatMessage(role, words(words));
+    }
+
+    private static ContextWindowGuard guard(ContextOverflowPolicy policy) {
+        return new ContextWindowGuard(ContextWindowOptions.builder().policy(policy).tokenCounter(WORDS)
+                .defaultContextLength(200).responseTokens(50).compactedMessageTokens(20).build());
+    }
+
+    private static OllamaChatRequest request(List<OllamaChatMessage> messages) {
+        return new OllamaChatRequest("model", messages);
+    }
+
+    @Test
+    void testTrimDropsTheOldestTurns() throws Exception {
+        OllamaChatToolCalls toolCall = new OllamaChatToolCalls(new OllamaToolCallsFunction("weather", Map.of("city", "Oslo")));
+        List<OllamaChatMessage> messages = new ArrayList<>(List.of(
+                message(OllamaChatMessageRole.SYSTEM, 20),
+                message(OllamaChatMessageRole.USER, 40),
+                new OllamaChatMessage(OllamaChatMessageRole.ASSISTANT, "", List.of(toolCall), null),
+                message(OllamaChatMessageRole.TOOL, 30),
+                message(OllamaChatMessageRole.ASSISTANT, 30),
+                message(OllamaChatMessageRole.USER, 60)));
+        OllamaChatRequest request = request(messages);
+        ContextWindowGuard guard = guard(ContextOverflowPolicy.TRIM);
+        int counted = guard.fit(request);
+
+        // the tool result is dropped with its call, the system message is kept
+        List<OllamaChatMessage> kept = request.getMessages();
+        assertEquals(List.of(messages.get(0), messages.get(4), messages.get(5)), kept);
+        assertEquals(6, messages.size());
+        assertEquals(guard.getEstimator("model").countTokens(request), counted);
+        assertTrue(counted <= 150);
+
+        OllamaChatRequest small = request(new ArrayList<>(List.of(message(OllamaChatMessageRole.USER, 10))));
+        List<OllamaChatMessage> unchanged = small.getMessages();
+        guard.fit(small);
+        assertSame(unchanged, small.getMessages());
+    }
+
+    @Test
+    void testRejectAndCompact() throws Exception {
+        List<OllamaChatMessage> messages = List.of(
+                message(OllamaChatMessageRole.SYSTEM, 20),
+                message(OllamaChatMessageRole.USER, 100),
+                message(OllamaChatMessageRole.ASSISTANT, 10),
+                message(OllamaChatMessageRole.USER, 30));
+        ContextWindowExceededException e = assertThrows(ContextWindowExceededException.class,
+                () -> guard(ContextOverflowPolicy.REJECT).fit(request(messages)));
+        assertEquals(150, e.getAvailableTokens());
+        assertTrue(e.getEstimatedTokens() > 150);
+
+        OllamaChatRequest request = request(messages);
+        guard(ContextOverflowPolicy.COMPACT).fit(request);
+        assertEquals(4, request.getMessages().size());
+        String compacted = request.getMessages().get(1).getContent();
+        assertTrue(compacted.contains("[...]"));
+        assertTrue(WORDS.countTokens(compacted) <= 20);
+        assertEquals(messages.get(3), request.getMessages().get(3));
+
+        // num_ctx and num_predict of the request take precedence
+        OllamaChatRequest larger = request(messages);
+        larger.setOptions(new OptionsBuilder().setNumCtx(4096).setNumPredict(100).build().getOptionsMap());
+        assertEquals(3996, guard(ContextOverflowPolicy.REJECT).getAvailableTokens(larger.getOptions()));
+        guard(ContextOverflowPolicy.REJECT).fit(larger);
+
+        // the last message alone does not fit
+        assertThrows(ContextWindowExceededException.class, () -> guard(ContextOverflowPolicy.TRIM)
+                .fit(request(List.of(message(OllamaChatMessageRole.USER, 10), message(OllamaChatMessageRole.USER, 160)))));
+    }
+
+    @Test
+    void testCalibration() {
+        TokenEstimator estimator = new TokenEstimator(WORDS, 0);
+        assertEquals(100 + 4, estimator.estimateTokens(message(OllamaChatMessageRole.USER, 100)));
+        estimator.calibrate(100, 150);
+        assertEquals(1.5, estimator.getRatio(), 1e-9);
+        assertEquals(156, estimator.estimateTokens(message(OllamaChatMessageRole.USER, 100)));
+        // a follow-up turn whose prefix was cached by the server
+        estimator.calibrate(1000, 200);
+        assertEquals(1.5, estimator.getRatio(), 1e-9);
+        estimator.calibrate(100, 100);
+        assertEquals(1.4, estimator.getRatio(), 1e-9);
+        assertEquals(2, estimator.getSamples());
+
+        assertTrue(TokenCounter.approximate().countTokens("The quick brown fox jumps over the lazy dog.") >= 10);
+        assertEquals(0, new TokenEstimator().estimateTokens(""));
+    }
+
+    @Test
+    void testChatIsTrimmedAndCalibratesTheGuard() throws Exception {
+        AtomicInteger sentMessages = new AtomicInteger();
+        try (FakeOllamaServer server = new FakeOllamaServer()) {
+            server.handle("/api/chat", exchange -> {
+                JsonNode request = FakeOllamaServer.readJson(exchange);
+                sentMessages.set(request.get("messages").size());
+                FakeOllamaServer.respondJson(exchange, 200, Map.of("model", "model", "done", true,
+                        "message", Map.of("role", "assistant", "content", "fine"), "prompt_eval_count", 120));
+            });
+            OllamaAPI ollamaAPI = server.client();
+            ContextWindowGuard guard = guard(ContextOverflowPolicy.TRIM);
+            ollamaAPI.setContextWindowGuard(guard);
+
+            OllamaChatRequest request = OllamaChatRequestBuilder.getInstance("model")
+                    .withMessage(OllamaChatMessageRole.USER, words(100))
+                    .withMessage(OllamaChatMessageRole.ASSISTANT, words(100))
+                    .withMessage(OllamaChatMessageRole.USER, words(40))
+                    .build();
+            OllamaChatResult result = ollamaAPI.chat(request);
+            assertEquals(1, sentMessages.get());
+            assertEquals(2, result.getChatHistory().size());
+            assertEquals(1, guard.getEstimator("model").getSamples());
+            assertEquals(120.0 / (40 + 4 + 3), guard.getEstimator("model").getRatio(), 1e-9);
+
+            ollamaAPI.setContextWindowGuard(guard(ContextOverflowPolicy.REJECT));
+            OllamaChatRequest tooLong = OllamaChatRequestBuilder.getInstance("model")
+                    .withMessage(OllamaChatMessageRole.USER, words(500)).build();
+            assertThrows(ContextWindowExceededException.class, () -> ollamaAPI.chat(tooLong));
+            CompletionException e = assertThrows(CompletionException.class, () -> ollamaAPI.chatAsync(tooLong).join());
+            assertInstanceOf(ContextWindowExceededException.class, e.getCause());
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package io.github.ollama4j.unittests;
+
+import io.github.ollama4j.OllamaAPI;
+import io.github.ollama4j.exceptions.OllamaBaseException;
+import io.github.ollama4j.models.chat.ConversationMemory;
+import io.github.ollama4j.models.chat.ConversationMemoryOptions;
+import io.github.ollama4j.models.chat.OllamaChatMessage;
+import io.github.ollama4j.models.chat.OllamaChatMessageRole;
+import io.github.ollama4j.models.chat.OllamaChatRequest;
+import io.github.ollama4j.models.chat.OllamaChatResponseModel;
+import io.github.ollama4j.models.chat.OllamaChatResult;
+import io.github.ollama4j.utils.TokenCounter;
+import io.github.ollama4j.utils.TokenEstimator;
+import io.github.ollama4j.utils.Utils;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+class TestConversationMemory {
+
+    // one token per word, so that the budgets are easy to check
+    private static final TokenCounter WORDS = text -> text.trim().isEmpty() ? 0 : text.trim().split("\\s+").length;
+
+    private final List<OllamaChatRequest> chatRequests = Collections.synchronizedList(new ArrayList<>());
+    private final List<OllamaChatRequest> summaryRequests = Collections.synchronizedList(new ArrayList<>());
+    private final CountDownLatch summaryRequested = new CountDownLatch(1);
+
+    private static String words(String word, int count) {
+        return Collections.nCopies(count, word).stream().collect(Collectors.joining(" "));
+    }
+
+    private static OllamaChatResult answer(OllamaChatRequest request, String content) {
+        OllamaChatResponseModel response = new OllamaChatResponseModel();
+        response.setMessage(new OllamaChatMessage(OllamaChatMessageRole.ASSISTANT, content));
+        response.setDone(true);
+        return new OllamaChatResult(response, request.getMessages());
+    }
+
+    /**
+     * A chat model answering with ten words, and a summary model that waits for the latch, or fails while the flag is set.
+     */
+    private OllamaAPI ollamaAPI(CountDownLatch summaryLatch, AtomicBoolean summaryFails) throws Exception {
+        OllamaAPI ollamaAPI = Mockito.mock(OllamaAPI.class);
+        when(ollamaAPI.getTaskExecutor()).thenReturn(Utils.getSharedExecutor());
+        when(ollamaAPI.chat(any(OllamaChatRequest.class))).thenAnswer(invocation -> {
+            OllamaChatRequest request = invocation.getArgument(0);
+            if (request.getModel().equals("summarizer")) {
+                summaryRequests.add(request);
+                summaryRequested.countDown();
+                assertTrue(summaryLatch.await(10, TimeUnit.SECONDS));
+                if (summaryFails.get()) {
+                    throw new OllamaBaseException("summary model unavailable");
+                }
+                return answer(request, "summary " + summaryRequests.size());
+            }
+            chatRequests.add(request);
+            return answer(request, words("answer", 10));
+        });
+        return ollamaAPI;
+    }
+
+    private static ConversationMemoryOptions options() {
+        return ConversationMemoryOptions.builder()
+                .maxTokens(100)
+                .summaryModel("summarizer")
+                .tokenEstimator(new TokenEstimator(WORDS, 0))
+                .build();
+    }
+
+    @Test
+    void testKeepsTheBudgetAndSummarizesInTheBackground() throws Exception {
+        CountDownLatch summaryLatch = new CountDownLatch(1);
+        ConversationMemory memory = new ConversationMemory(ollamaAPI(summaryLatch, new AtomicBoolean()), options());
+        memory.addSystemMessage("Be brief.");
+
+        for (int turn = 0; turn < 6; turn++) {
+            OllamaChatResult result = memory.chat("chat-model", words("question" + turn, 10));
+            assertEquals(words("answer", 10), result.getResponseModel().getMessage().getContent());
+            assertTrue(memory.getEstimatedTokens() <= 100, "estimated " + memory.getEstimatedTokens());
+        }
+        // the chats did not wait for the summary model, which is still blocked
+        assertFalse(memory.getPendingSummary().isDone());
+        assertNull(memory.getSummary());
+        assertTrue(summaryRequested.await(10, TimeUnit.SECONDS));
+        assertEquals(1, summaryRequests.size());
+        String prompt = summaryRequests.get(0).getMessages().get(1).getContent();
+        assertTrue(prompt.contains("user: " + words("question0", 10)));
+        assertTrue(prompt.contains("assistant: " + words("answer", 10)));
+
+        summaryLatch.countDown();
+        memory.getPendingSummary().get(10, TimeUnit.SECONDS);
+        assertNotNull(memory.getSummary());
+
+        memory.chat("chat-model", "last question");
+        List<OllamaChatMessage> sent = chatRequests.get(chatRequests.size() - 1).getMessages();
+        assertEquals("Be brief.", sent.get(0).getContent());
+        assertEquals(OllamaChatMessageRole.SYSTEM.getRoleName(), sent.get(1).getRole().getRoleName());
+        assertTrue(sent.get(1).getContent().endsWith(memory.getSummary()));
+        assertEquals(words("answer", 10), sent.get(sent.size() - 1).getContent());
+        assertEquals("last question", sent.get(sent.size() - 2).getContent());
+        // every evicted turn was summarized, including the one pushed out by the summary itself
+        String prompts = summaryRequests.stream().map(request -> request.getMessages().get(1).getContent())
+                .collect(Collectors.joining());
+        for (int turn = 0; turn < 4; turn++) {
+            assertTrue(prompts.contains("question" + turn), "turn " + turn);
+        }
+    }
+
+    @Test
+    void testKeepsEvictedTurnsWhenTheSummaryFails() throws Exception {
+        CountDownLatch summaryLatch = new CountDownLatch(0);
+        AtomicBoolean summaryFails = new AtomicBoolean(true);
+        ConversationMemory memory = new ConversationMemory(ollamaAPI(summaryLatch, summaryFails), options());
+
+        for (int turn = 0; turn < 5; turn++) {
+            memory.chat("chat-model", words("question" + turn, 10));
+            memory.getPendingSummary().get(10, TimeUnit.SECONDS);
+        }
+        assertNull(memory.getSummary());
+        int failed = summaryRequests.size();
+        summaryFails.set(false);
+        memory.chat("chat-model", words("question5", 10));
+        memory.getPendingSummary().get(10, TimeUnit.SECONDS);
+
+        // the first request after the failures holds the turns evicted while the summary model failed
+        List<OllamaChatMessage> retried = summaryRequests.get(failed).getMessages();
+        assertTrue(retried.get(1).getContent().contains("question0"));
+        assertNotNull(memory.getSummary());
+
+        memory.clear();
+        assertEquals(0, memory.getMessages().size());
+        assertNull(memory.getSummary());
+    }
+
+    @Test
+    void testFailedChatForgetsTheQuestion() throws Exception {
+        OllamaAPI ollamaAPI = ollamaAPI(new CountDownLatch(0), new AtomicBoolean());
+        ConversationMemory memory = new ConversationMemory(ollamaAPI, options());
+        memory.chat("chat-model", "first question");
+        int tokens = memory.getEstimatedTokens();
+
+        when(ollamaAPI.chat(any(OllamaChatRequest.class))).thenThrow(new OllamaBaseException("model unavailable"));
+        assertThrows(OllamaBaseException.class, () -> memory.chat("chat-model", "unanswered question"));
+        assertEquals(tokens, memory.getEstimatedTokens());
+        assertTrue(memory.getMessages().stream().noneMatch(message -> message.getContent().equals("unanswered question")));
+    }
+}
@@ -0,0 +1,120 @@
+package io.github.ollama4j.unittests;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.github.ollama4j.OllamaAPI;
+import io.github.ollama4j.exceptions.OllamaBaseException;
+import io.github.ollama4j.utils.EmbeddingBatcher;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestEmbeddingBatcher {
+
+    private FakeOllamaServer server;
+    private OllamaAPI ollamaAPI;
+    private final List<List<String>> batches = Collections.synchronizedList(new ArrayList<>());
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new FakeOllamaServer().handle("/api/embed", exchange -> {
+            JsonNode request = FakeOllamaServer.readJson(exchange);
+            if (request.get("model").asText().equals("broken")) {
+                FakeOllamaServer.respond(exchange, 500, "{\"error\":\"model crashed\"}");
+                return;
+            }
+            List<String> inputs = new ArrayList<>();
+            List<float[]> embeddings = new ArrayList<>();
+            for (JsonNode input : request.get("input")) {
+                inputs.add(input.asText());
+                embeddings.add(new float[]{input.asText().length(), input.asText().charAt(0)});
+            }
+            batches.add(inputs);
+            FakeOllamaServer.respondJson(exchange, 200, Map.of("model", "m", "embeddings", embeddings));
+        });
+        ollamaAPI = server.client();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+
+    @Test
+    void testFullBatchIsSentInOneRequest() throws Exception {
+        try (EmbeddingBatcher batcher = new EmbeddingBatcher(ollamaAPI, 8, Duration.ofSeconds(10))) {
+            List<CompletableFuture<float[]>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                String text = "text number " + i;
+                futures.add(CompletableFuture.supplyAsync(() -> batcher.embed("m", text)).thenCompose(future -> future));
+            }
+            for (int i = 0; i < 8; i++) {
+                assertArrayEquals(new float[]{("text number " + i).length(), 't'}, futures.get(i).get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, batches.size());
+            assertEquals(8, batches.get(0).size());
+        }
+    }
+
+    @Test
+    void testPartialBatchIsSentAfterMaxWaitAndDeduplicated() throws Exception {
+        try (EmbeddingBatcher batcher = new EmbeddingBatcher(ollamaAPI, 100, Duration.ofMillis(50))) {
+            CompletableFuture<float[]> first = batcher.embed("m", "alpha");
+            CompletableFuture<float[]> second = batcher.embed("m", "alpha");
+            CompletableFuture<float[]> third = batcher.embed("m", "beta");
+            CompletableFuture<float[]> otherOptions = batcher.embed("m", Map.of("num_ctx", 512), "gamma");
+            assertArrayEquals(new float[]{5, 'a'}, first.get(5, TimeUnit.SECONDS));
+            assertArrayEquals(new float[]{5, 'a'}, second.get(5, TimeUnit.SECONDS));
+            assertArrayEquals(new float[]{4, 'b'}, third.get(5, TimeUnit.SECONDS));
+            assertArrayEquals(new float[]{5, 'g'}, otherOptions.get(5, TimeUnit.SECONDS));
+            assertEquals(2, batches.size());
+            assertTrue(batches.contains(List.of("alpha", "beta")));
+            assertTrue(batches.contains(List.of("gamma")));
+        }
+    }
+
+    @Test
+    void testFailedBatchFailsEveryCaller() {
+        try (EmbeddingBatcher batcher = new EmbeddingBatcher(ollamaAPI, 2, Duration.ofSeconds(10))) {
+            CompletableFuture<float[]> first = batcher.embed("broken", "alpha");
+            CompletableFuture<float[]> second = batcher.embed("broken", "beta");
+            for (CompletableFuture<float[]> future : List.of(first, second)) {
+                ExecutionException exception = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+                assertInstanceOf(OllamaBaseException.class, exception.getCause());
+            }
+        }
+    }
+
+    @Test
+    void testCloseSendsPendingBatchesOnTheTaskExecutor() throws Exception {
+        AtomicInteger tasks = new AtomicInteger();
+        ExecutorService taskExecutor = Executors.newCachedThreadPool();
+        ollamaAPI.setTaskExecutor(runnable -> {
+            tasks.incrementAndGet();
+            taskExecutor.execute(runnable);
+        });
+        CompletableFuture<float[]> future;
+        try (EmbeddingBatcher batcher = new EmbeddingBatcher(ollamaAPI, 100, Duration.ofSeconds(10))) {
+            future = batcher.embed("m", "alpha");
+        }
+        assertArrayEquals(new float[]{5, 'a'}, future.get(5, TimeUnit.SECONDS));
+        assertEquals(1, tasks.get());
+        // the executor of the API is not shut down by the batcher
+        assertFalse(taskExecutor.isShutdown());
+        taskExecutor.shutdown();
+    }
+}
@@ -0,0 +1,142 @@
+package io.github.ollama4j.unittests;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.github.ollama4j.OllamaAPI;
+import io.github.ollama4j.models.embeddings.FloatEmbeddings;
+import io.github.ollama4j.models.embeddings.OllamaEmbedRequestModel;
+import io.github.ollama4j.models.embeddings.OllamaEmbedResponseModel;
+import io.github.ollama4j.utils.EmbeddingCache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestEmbeddingCache {
+
+    @TempDir
+    Path tempDir;
+
+    private FakeOllamaServer server;
+    private OllamaAPI ollamaAPI;
+    private final List<List<String>> embeddedInputs = Collections.synchronizedList(new ArrayList<>());
+    private final AtomicInteger tagRequests = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new FakeOllamaServer()
+                .handle("/api/tags", exchange -> {
+                    tagRequests.incrementAndGet();
+                    FakeOllamaServer.respond(exchange, 200,
+                            "{\"models\":[{\"name\":\"m:latest\",\"model\":\"m:latest\",\"digest\":\"sha256:aaaa\",\"size\":1}]}");
+                })
+                .handle("/api/embed", exchange -> {
+                    JsonNode request = FakeOllamaServer.readJson(exchange);
+                    List<String> inputs = new ArrayList<>();
+                    List<float[]> embeddings = new ArrayList<>();
+                    for (JsonNode input : request.get("input")) {
+                        inputs.add(input.asText());
+                        embeddings.add(vectorOf(input.asText()));
+                    }
+                    embeddedInputs.add(inputs);
+                    FakeOllamaServer.respondJson(exchange, 200, Map.of("model", "m", "embeddings", embeddings));
+                });
+        ollamaAPI = server.client();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+
+    private static float[] vectorOf(String text) {
+        return new float[]{text.length(), text.charAt(0), 0.1f * text.hashCode()};
+    }
+
+    @Test
+    void testVectorsSurviveReopenAndIndexGrowth() throws IOException {
+        int count = 10_000;
+        try (EmbeddingCache cache = new EmbeddingCache(tempDir)) {
+            for (int i = 0; i < count; i++) {
+                cache.put("sha256:aaaa", "text " + i, vectorOf("text " + i));
+            }
+            cache.put("sha256:aaaa", "text 0", new float[]{1, 2});
+            assertEquals(count, cache.size());
+        }
+        try (EmbeddingCache cache = new EmbeddingCache(tempDir)) {
+            assertEquals(count, cache.size());
+            assertArrayEquals(new float[]{1, 2}, cache.get("sha256:aaaa", "text 0"));
+            for (int i = 1; i < count; i++) {
+                assertArrayEquals(vectorOf("text " + i), cache.get("sha256:aaaa", "text " + i));
+            }
+            assertNull(cache.get("sha256:bbbb", "text 1"));
+            assertNull(cache.get("sha256:aaaa", "unknown"));
+        }
+    }
+
+    @Test
+    void testVectorsSpanningSegmentsSurviveReopen() throws IOException {
+        // records of 404 bytes, ten per segment, so the vectors fill 30 segments
+        int segmentBytes = 4096;
+        int count = 300;
+        float[][] vectors = new float[count][100];
+        for (int i = 0; i < count; i++) {
+            Arrays.fill(vectors[i], i);
+        }
+        try (EmbeddingCache cache = new EmbeddingCache(tempDir, segmentBytes)) {
+            for (int i = 0; i < count; i++) {
+                cache.put("sha256:aaaa", "text " + i, vectors[i]);
+            }
+        }
+        for (int reopen = 0; reopen < 2; reopen++) {
+            try (EmbeddingCache cache = new EmbeddingCache(tempDir, segmentBytes)) {
+                assertEquals(count, cache.size());
+                for (int i = 0; i < count; i++) {
+                    assertArrayEquals(vectors[i], cache.get("sha256:aaaa", "text " + i));
+                }
+            }
+        }
+        assertThrows(IOException.class, () -> new EmbeddingCache(tempDir));
+    }
+
+    @Test
+    void testOnlyMissesAreSentAndMergedInInputOrder() throws Exception {
+        try (EmbeddingCache cache = new EmbeddingCache(tempDir)) {
+            ollamaAPI.setEmbeddingCache(cache);
+            ollamaAPI.embedFloats(new OllamaEmbedRequestModel("m", List.of("alpha", "beta")));
+
+            FloatEmbeddings embeddings = ollamaAPI.embedFloats(
+                    new OllamaEmbedRequestModel("m", List.of("gamma", "alpha", "delta", "gamma", "beta"))).getEmbeddings();
+            assertEquals(List.of(List.of("alpha", "beta"), List.of("gamma", "delta")), embeddedInputs);
+            List<String> expectedOrder = List.of("gamma", "alpha", "delta", "gamma", "beta");
+            for (int i = 0; i < expectedOrder.size(); i++) {
+                assertArrayEquals(vectorOf(expectedOrder.get(i)), embeddings.getVector(i));
+            }
+
+            ollamaAPI.embedFloats(new OllamaEmbedRequestModel("m", List.of("delta", "beta")));
+            assertEquals(2, embeddedInputs.size());
+            assertEquals(4, cache.size());
+            // the digest of the model was listed once
+            assertEquals(1, tagRequests.get());
+
+            // embed() is cached as well and returns the vectors with float precision
+            OllamaEmbedResponseModel response = ollamaAPI.embed(new OllamaEmbedRequestModel("m", List.of("alpha", "epsilon")));
+            assertEquals(List.of("epsilon"), embeddedInputs.get(2));
+            assertEquals(5, cache.size());
+            assertEquals(List.of((double) vectorOf("alpha")[0], (double) vectorOf("alpha")[1], (double) vectorOf("alpha")[2]),
+                    response.getEmbeddings().get(0));
+            assertEquals(List.of((double) vectorOf("epsilon")[0], (double) vectorOf("epsilon")[1], (double) vectorOf("epsilon")[2]),
+                    response.getEmbeddings().get(1));
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package io.github.ollama4j.unittests;
+
+import io.github.ollama4j.models.embeddings.FloatEmbeddings;
+import io.github.ollama4j.search.FlatVectorStore;
+import io.github.ollama4j.search.SearchHit;
+import io.github.ollama4j.search.SimilarityMetric;
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestFlatVectorStore {
+
+    private static final int DIMENSION = 37;
+
+    private static FloatEmbeddings randomEmbeddings(int count, long seed) {
+        Random random = new Random(seed);
+        float[] data = new float[count * DIMENSION];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (float) random.nextGaussian();
+        }
+        return new FloatEmbeddings(data, count, DIMENSION);
+    }
+
+    private static double naiveScore(List<Double> a, List<Double> b, SimilarityMetric metric) {
+        double dot = 0, normA = 0, normB = 0, distance = 0;
+        for (int i = 0; i < a.size(); i++) {
+            dot += a.get(i) * b.get(i);
+            normA += a.get(i) * a.get(i);
+            normB += b.get(i) * b.get(i);
+            distance += (a.get(i) - b.get(i)) * (a.get(i) - b.get(i));
+        }
+        switch (metric) {
+            case COSINE:
+                return dot / Math.sqrt(normA * normB);
+            case DOT_PRODUCT:
+                return dot;
+            default:
+                return -distance;
+        }
+    }
+
+    @Test
+    void testSearchMatchesNaiveScan() {
+        for (SimilarityMetric metric : SimilarityMetric.values()) {
+            assertSearchMatchesNaiveScan(metric);
+        }
+    }
+
+    private void assertSearchMatchesNaiveScan(SimilarityMetric metric) {
+        // more than two blocks, so that the scan is split across tasks
+        FloatEmbeddings embeddings = randomEmbeddings(10000, 1);
+        List<List<Double>> vectors = embeddings.toLists();
+        FlatVectorStore store = new FlatVectorStore(DIMENSION, metric);
+        assertEquals(0, store.addAll(vectors.subList(0, 3000)));
+        float[] data = new float[4000 * DIMENSION];
+        for (int i = 0; i < 4000; i++) {
+            embeddings.copyVector(3000 + i, data, i * DIMENSION);
+        }
+        assertEquals(3000, store.addAll(new FloatEmbeddings(data, 4000, DIMENSION)));
+        for (int i = 7000; i < 10000; i++) {
+            assertEquals(i, store.add(embeddings.getVector(i)));
+        }
+        assertEquals(10000, store.size());
+
+        FloatEmbeddings queries = randomEmbeddings(5, 2);
+        List<List<SearchHit>> batch = store.search(queries, 10);
+        for (int q = 0; q < queries.size(); q++) {
+            List<Double> query = queries.toLists().get(q);
+            List<Integer> expected = IntStream.range(0, vectors.size()).boxed()
+                    .sorted(Comparator.comparingDouble(i -> -naiveScore(vectors.get(i), query, metric)))
+                    .limit(10)
+                    .collect(Collectors.toList());
+            List<SearchHit> hits = store.search(queries.getVector(q), 10);
+            assertEquals(expected, hits.stream().map(SearchHit::getId).collect(Collectors.toList()), metric.name());
+            assertEquals(naiveScore(vectors.get(expected.get(0)), query, metric), hits.get(0).getScore(), 1e-3);
+            assertEquals(hits, batch.get(q));
+        }
+    }
+
+    @Test
+    void testSearchOfFewVectors() {
+        FlatVectorStore store = new FlatVectorStore(DIMENSION, SimilarityMetric.COSINE);
+        assertTrue(store.search(new float[DIMENSION], 3).isEmpty());
+        store.addAll(randomEmbeddings(2, 3));
+        assertEquals(2, store.search(store.getVector(1), 3).size());
+        assertEquals(1, store.search(store.getVector(1), 3).get(0).getId());
+        assertThrows(IllegalArgumentException.class, () -> store.search(new float[DIMENSION - 1], 3));
+    }
+}
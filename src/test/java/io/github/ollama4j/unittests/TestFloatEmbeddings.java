@@ -0,0 +1,91 @@
+package io.github.ollama4j.unittests;
+
+import com.fasterxml.jackson.databind.JsonMappingException;
+import io.github.ollama4j.models.embeddings.FloatEmbeddings;
+import io.github.ollama4j.models.embeddings.OllamaEmbedFloatResponseModel;
+import io.github.ollama4j.models.embeddings.OllamaEmbedResponseModel;
+import io.github.ollama4j.utils.Utils;
+import org.junit.jupiter.api.Test;
+
+import java.nio.FloatBuffer;
+import java.nio.ReadOnlyBufferException;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestFloatEmbeddings {
+
+    private static String embedResponse(int vectors, int dimension) {
+        Random random = new Random(7);
+        StringBuilder json = new StringBuilder("{\"model\":\"m\",\"embeddings\":[");
+        for (int i = 0; i < vectors; i++) {
+            json.append(i > 0 ? ",[" : "[");
+            for (int j = 0; j < dimension; j++) {
+                json.append(j > 0 ? "," : "").append(random.nextGaussian() / 10);
+            }
+            json.append(']');
+        }
+        return json.append("],\"total_duration\":12,\"load_duration\":3,\"prompt_eval_count\":5,\"extra\":true}").toString();
+    }
+
+    @Test
+    void testDecodesSameValuesAsBoxedResponse() throws Exception {
+        String json = embedResponse(300, 17);
+        OllamaEmbedFloatResponseModel floats = Utils.getObjectMapper().readValue(json, OllamaEmbedFloatResponseModel.class);
+        OllamaEmbedResponseModel boxed = Utils.getObjectMapper().readValue(json.replace(",\"extra\":true", ""), OllamaEmbedResponseModel.class);
+
+        FloatEmbeddings embeddings = floats.getEmbeddings();
+        assertEquals(300, embeddings.size());
+        assertEquals(17, embeddings.getDimension());
+        assertEquals(12, floats.getTotalDuration());
+        assertEquals(5, floats.getPromptEvalCount());
+        for (int i = 0; i < 300; i++) {
+            for (int j = 0; j < 17; j++) {
+                assertEquals(boxed.getEmbeddings().get(i).get(j).floatValue(), embeddings.get(i, j));
+            }
+        }
+        assertArrayEquals(embeddings.getVector(299), embeddings.toArrays()[299]);
+        assertEquals(embeddings.get(42, 3), embeddings.vector(42).get(3));
+        assertEquals(embeddings.get(42, 3), embeddings.asFloatBuffer().get(42 * 17 + 3));
+        assertEquals(embeddings.get(42, 3), embeddings.toDirectBuffer().get(42 * 17 + 3));
+        assertEquals((double) embeddings.get(1, 2), embeddings.toLists().get(1).get(2));
+    }
+
+    @Test
+    void testViewsAreReadOnlyAndBounded() throws Exception {
+        FloatEmbeddings embeddings = Utils.getObjectMapper().readValue("[[1,2],[3,4.5]]", FloatEmbeddings.class);
+        FloatBuffer vector = embeddings.vector(1);
+        assertEquals(2, vector.remaining());
+        assertEquals(4.5f, vector.get(1));
+        assertThrows(ReadOnlyBufferException.class, () -> vector.put(0, 0f));
+        assertEquals(4, embeddings.asFloatBuffer().remaining());
+        assertThrows(IndexOutOfBoundsException.class, () -> embeddings.get(2, 0));
+        assertThrows(IndexOutOfBoundsException.class, () -> embeddings.get(0, 2));
+    }
+
+    @Test
+    void testEmptyAndInvalidEmbeddings() throws Exception {
+        FloatEmbeddings empty = Utils.getObjectMapper().readValue("[]", FloatEmbeddings.class);
+        assertEquals(0, empty.size());
+        assertEquals(0, empty.getDimension());
+        assertEquals(List.of(), empty.toLists());
+
+        assertThrows(JsonMappingException.class, () -> Utils.getObjectMapper().readValue("[[1,2],[3]]", FloatEmbeddings.class));
+        assertThrows(JsonMappingException.class, () -> Utils.getObjectMapper().readValue("[[1,\"a\"]]", FloatEmbeddings.class));
+        assertThrows(JsonMappingException.class, () -> Utils.getObjectMapper().readValue("[1,2]", FloatEmbeddings.class));
+    }
+
+    @Test
+    void testFromListsIsInverseOfToLists() {
+        List<List<Double>> lists = List.of(List.of(1.0, 2.5, -3.0), List.of(0.25, 0.0, 7.0));
+        FloatEmbeddings embeddings = FloatEmbeddings.fromLists(lists);
+        assertEquals(2, embeddings.size());
+        assertEquals(3, embeddings.getDimension());
+        assertArrayEquals(new float[]{0.25f, 0f, 7f}, embeddings.getVector(1));
+        assertEquals(lists, embeddings.toLists());
+
+        assertEquals(0, FloatEmbeddings.fromLists(List.of()).getDimension());
+        assertThrows(IllegalArgumentException.class, () -> FloatEmbeddings.fromLists(List.of(List.of(1.0, 2.0), List.of(3.0))));
+    }
+}
@@ -0,0 +1,143 @@
+package io.github.ollama4j.unittests;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.github.ollama4j.OllamaAPI;
+import io.github.ollama4j.exceptions.OllamaBaseException;
+import io.github.ollama4j.models.generate.GenerateSession;
+import io.github.ollama4j.models.generate.OllamaGenerateResponseModel;
+import io.github.ollama4j.utils.OptionsBuilder;
+import io.github.ollama4j.utils.Utils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestGenerateSession {
+
+    private FakeOllamaServer server;
+    private OllamaAPI ollamaAPI;
+    private final List<JsonNode> requests = Collections.synchronizedList(new ArrayList<>());
+
+    /**
+     * Stands in for the generate endpoint: every word of the prompt and of the system message is a token, and the
+     * response is the single token "ok". The context returned is the context sent followed by the new tokens, whose
+     * number is reported as prompt_eval_count.
+     */
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new FakeOllamaServer().handle("/api/generate", exchange -> {
+            JsonNode request = FakeOllamaServer.readJson(exchange);
+            requests.add(request);
+            List<Integer> context = new ArrayList<>();
+            if (request.hasNonNull("context")) {
+                request.get("context").forEach(token -> context.add(token.asInt()));
+            }
+            int sent = context.size();
+            String text = (request.hasNonNull("system") ? request.get("system").asText() + " " : "") + request.get("prompt").asText();
+            for (String word : text.split("\\s+")) {
+                context.add(word.hashCode() & 0xffff);
+            }
+            int promptTokens = context.size() - sent;
+            context.add(1);
+            StringBuilder body = new StringBuilder();
+            if (request.get("stream").asBoolean()) {
+                body.append(Utils.getObjectMapper().writeValueAsString(Map.of("model", "m", "response", "o", "done", false))).append('\n');
+            }
+            Map<String, Object> last = new LinkedHashMap<>();
+            last.put("model", "m");
+            last.put("response", request.get("stream").asBoolean() ? "k" : "ok");
+            last.put("done", true);
+            last.put("context", context);
+            last.put("prompt_eval_count", promptTokens);
+            last.put("eval_count", 1);
+            body.append(Utils.getObjectMapper().writeValueAsString(last)).append('\n');
+            FakeOllamaServer.respond(exchange, 200, body.toString());
+        });
+        ollamaAPI = server.client();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+
+    @Test
+    void testFollowUpsSendTheContextBack() throws Exception {
+        GenerateSession session = ollamaAPI.generateSession("m", new OptionsBuilder().setTemperature(0).build())
+                .withSystem("You are terse.")
+                .withKeepAlive("30m");
+        OllamaGenerateResponseModel first = session.generate("Name a colour.");
+        assertEquals("ok", first.getResponse());
+        assertEquals(6, first.getPromptEvalCount());
+        assertEquals(7, session.getContextLength());
+        assertEquals(7, first.getContext().size());
+
+        List<String> streamed = new ArrayList<>();
+        OllamaGenerateResponseModel second = session.generate("And another one?", streamed::add);
+        assertEquals("ok", second.getResponse());
+        assertEquals(List.of("o", "ok"), streamed);
+        // only the new prompt is evaluated
+        assertEquals(3, second.getPromptEvalCount());
+        assertEquals(11, session.getContextLength());
+
+        JsonNode firstRequest = requests.get(0);
+        JsonNode secondRequest = requests.get(1);
+        assertEquals("You are terse.", firstRequest.get("system").asText());
+        assertFalse(firstRequest.hasNonNull("context"));
+        assertFalse(secondRequest.hasNonNull("system"));
+        assertTrue(secondRequest.get("context").isArray());
+        assertEquals(7, secondRequest.get("context").size());
+        assertEquals("30m", secondRequest.get("keep_alive").asText());
+        assertEquals(0, secondRequest.get("options").get("temperature").asInt());
+
+        int[] context = session.getContext();
+        context[0] = -1;
+        assertNotEquals(-1, session.getContext()[0]);
+        second.getContext().set(0, -1);
+        assertNotEquals(-1, session.getContext()[0]);
+    }
+
+    @Test
+    void testSnapshotsAndForksShareTheContext() throws Exception {
+        GenerateSession session = ollamaAPI.generateSession("m", null);
+        GenerateSession.Snapshot start = session.snapshot();
+        assertEquals(0, start.getContextLength());
+        session.generate("one two three");
+        GenerateSession.Snapshot afterFirst = session.snapshot();
+        GenerateSession fork = session.fork();
+
+        session.generate("four");
+        assertEquals(6, session.getContextLength());
+        fork.generate("five six");
+        assertEquals(7, fork.getContextLength());
+        // both continued from the same four tokens
+        assertEquals(requests.get(1).get("context"), requests.get(2).get("context"));
+
+        session.restore(afterFirst);
+        assertEquals(4, session.getContextLength());
+        session.generate("seven");
+        assertEquals(requests.get(1).get("context"), requests.get(3).get("context"));
+
+        session.restore(start);
+        session.generate("eight");
+        assertFalse(requests.get(4).hasNonNull("context"));
+        session.reset();
+        assertNull(session.getContext());
+    }
+
+    @Test
+    void testRawResponsesCannotBeContinued() {
+        server.respond("/api/generate", 200, "{\"model\":\"m\",\"response\":\"ok\",\"done\":true}");
+        GenerateSession session = ollamaAPI.generateSession("m", null);
+        assertThrows(OllamaBaseException.class, () -> session.generate("hello"));
+        assertEquals(0, session.getContextLength());
+    }
+}
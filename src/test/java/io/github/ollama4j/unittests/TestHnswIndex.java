@@ -0,0 +1,152 @@
+package io.github.ollama4j.unittests;
+
+import io.github.ollama4j.models.embeddings.FloatEmbeddings;
+import io.github.ollama4j.search.HnswIndex;
+import io.github.ollama4j.search.HnswOptions;
+import io.github.ollama4j.search.SearchHit;
+import io.github.ollama4j.search.SimilarityMetric;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestHnswIndex {
+
+    private static final int DIMENSION = 32;
+
+    private static float[][] randomVectors(int count, long seed) {
+        Random random = new Random(seed);
+        float[][] vectors = new float[count][DIMENSION];
+        for (float[] vector : vectors) {
+            for (int i = 0; i < DIMENSION; i++) {
+                vector[i] = (float) random.nextGaussian();
+            }
+        }
+        return vectors;
+    }
+
+    private static FloatEmbeddings toEmbeddings(float[][] vectors) {
+        float[] data = new float[vectors.length * DIMENSION];
+        for (int i = 0; i < vectors.length; i++) {
+            System.arraycopy(vectors[i], 0, data, i * DIMENSION, DIMENSION);
+        }
+        return new FloatEmbeddings(data, vectors.length, DIMENSION);
+    }
+
+    private static Set<Integer> exactTopK(float[][] vectors, float[] query, int k, SimilarityMetric metric) {
+        return IntStream.range(0, vectors.length).boxed()
+                .sorted(Comparator.comparingDouble(i -> -metric.score(vectors[i], query)))
+                .limit(k)
+                .collect(Collectors.toSet());
+    }
+
+    private static double recall(HnswIndex index, float[][] vectors, float[][] queries, int k) {
+        int found = 0;
+        for (float[] query : queries) {
+            Set<Integer> exact = exactTopK(vectors, query, k, index.getMetric());
+            for (SearchHit hit : index.search(query, k)) {
+                if (exact.contains(hit.getId())) {
+                    found++;
+                }
+            }
+        }
+        return found / (double) (queries.length * k);
+    }
+
+    @Test
+    void testSearchFindsMostExactNeighbours() {
+        float[][] vectors = randomVectors(3000, 1);
+        HnswIndex index = new HnswIndex(DIMENSION, SimilarityMetric.COSINE);
+        assertEquals(0, index.addAll(toEmbeddings(vectors)));
+        assertEquals(3000, index.size());
+
+        List<SearchHit> hits = index.search(vectors[42], 10);
+        assertEquals(10, hits.size());
+        assertEquals(42, hits.get(0).getId());
+        assertEquals(1f, hits.get(0).getScore(), 1e-5);
+        for (int i = 1; i < hits.size(); i++) {
+            assertTrue(hits.get(i - 1).getScore() >= hits.get(i).getScore());
+        }
+        double recall = recall(index, vectors, randomVectors(50, 2), 10);
+        assertTrue(recall >= 0.9, "recall " + recall);
+    }
+
+    @Test
+    void testConcurrentInsertsAndSearches() throws Exception {
+        float[][] vectors = randomVectors(4000, 3);
+        HnswIndex index = new HnswIndex(DIMENSION, SimilarityMetric.DOT_PRODUCT, HnswOptions.builder().m(12).efConstruction(100).build());
+        ExecutorService executor = Executors.newFixedThreadPool(5);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                int thread = t;
+                futures.add(executor.submit(() -> {
+                    for (int i = thread; i < vectors.length; i += 4) {
+                        index.add(vectors[i]);
+                    }
+                }));
+            }
+            futures.add(executor.submit(() -> {
+                while (index.size() < vectors.length) {
+                    assertTrue(index.search(vectors[0], 5).size() <= 5);
+                }
+            }));
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(vectors.length, index.size());
+        // ids are assigned in the order of the inserts, which is interleaved, so compare the stored vectors
+        int selfFound = 0;
+        for (int id = 0; id < vectors.length; id++) {
+            List<SearchHit> hits = index.search(index.getVector(id), 1, 100);
+            if (hits.get(0).getId() == id) {
+                selfFound++;
+            }
+        }
+        assertTrue(selfFound >= vectors.length * 0.98, "found " + selfFound);
+        double recall = recall(index, IntStream.range(0, vectors.length).mapToObj(index::getVector).toArray(float[][]::new), randomVectors(30, 4), 10);
+        assertTrue(recall >= 0.85, "recall " + recall);
+    }
+
+    @Test
+    void testSaveAndLoad(@TempDir Path directory) throws Exception {
+        float[][] vectors = randomVectors(1000, 5);
+        HnswIndex index = new HnswIndex(DIMENSION, SimilarityMetric.COSINE, HnswOptions.builder().m(8).efSearch(40).build());
+        index.addAll(toEmbeddings(vectors));
+        Path file = directory.resolve("index.hnsw");
+        index.save(file);
+
+        HnswIndex loaded = HnswIndex.load(file);
+        assertEquals(1000, loaded.size());
+        assertEquals(SimilarityMetric.COSINE, loaded.getMetric());
+        for (float[] query : randomVectors(20, 6)) {
+            assertEquals(index.search(query, 10), loaded.search(query, 10));
+        }
+        // the loaded index can grow further
+        assertEquals(1000, loaded.add(vectors[0]));
+        assertArrayEquals(loaded.getVector(0), loaded.getVector(1000));
+    }
+
+    @Test
+    void testDimensionMismatchIsRejected() {
+        HnswIndex index = new HnswIndex(DIMENSION, SimilarityMetric.COSINE);
+        assertTrue(index.search(new float[DIMENSION], 3).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> index.add(new float[DIMENSION + 1]));
+        assertThrows(IllegalArgumentException.class, () -> index.search(new float[3], 3));
+    }
+}
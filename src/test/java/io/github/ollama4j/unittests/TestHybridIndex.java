@@ -0,0 +1,108 @@
+package io.github.ollama4j.unittests;
+
+import io.github.ollama4j.OllamaAPI;
+import io.github.ollama4j.models.embeddings.FloatEmbeddings;
+import io.github.ollama4j.models.embeddings.OllamaEmbedFloatResponseModel;
+import io.github.ollama4j.models.embeddings.OllamaEmbedRequestModel;
+import io.github.ollama4j.search.Bm25Index;
+import io.github.ollama4j.search.FlatVectorStore;
+import io.github.ollama4j.search.HnswIndex;
+import io.github.ollama4j.search.HybridIndex;
+import io.github.ollama4j.search.HybridOptions;
+import io.github.ollama4j.search.ReciprocalRankFusion;
+import io.github.ollama4j.search.SearchHit;
+import io.github.ollama4j.search.SimilarityMetric;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+class TestHybridIndex {
+
+    private static final List<String> CHUNKS = Arrays.asList(
+            "How to reset a forgotten password",
+            "Recovering access to a locked account",
+            "Error E1042: the license server is unreachable",
+            "Changing the display language");
+
+    /**
+     * Stands in for an embedding model: the chunks about account access are close to each other.
+     */
+    private static FloatEmbeddings embed(List<String> texts) {
+        float[] data = new float[texts.size() * 3];
+        for (int i = 0; i < texts.size(); i++) {
+            String text = texts.get(i).toLowerCase();
+            data[i * 3] = text.contains("account") ? 1 : text.contains("password") ? 0.8f : 0.1f;
+            data[i * 3 + 1] = text.contains("error") || text.contains("license") ? 1 : 0.1f;
+            data[i * 3 + 2] = text.contains("language") ? 1 : 0.1f;
+        }
+        return new FloatEmbeddings(data, texts.size(), 3);
+    }
+
+    private static List<Integer> ids(List<SearchHit> hits) {
+        return hits.stream().map(SearchHit::getId).collect(Collectors.toList());
+    }
+
+    @Test
+    void testReciprocalRankFusion() {
+        List<SearchHit> first = Arrays.asList(new SearchHit(1, 9), new SearchHit(2, 5), new SearchHit(3, 1));
+        List<SearchHit> second = Arrays.asList(new SearchHit(2, 0.9f), new SearchHit(4, 0.8f), new SearchHit(3, 0.7f));
+        List<SearchHit> fused = ReciprocalRankFusion.fuse(10, first, second);
+        // 3 is ranked third by both rankings, yet above 1, which only one ranking returns
+        assertEquals(Arrays.asList(2, 3, 1, 4), ids(fused));
+        assertEquals(1f / 61 + 1f / 62, fused.get(0).getScore(), 1e-6);
+        assertEquals(2f / 63, fused.get(1).getScore(), 1e-6);
+        assertEquals(1, ReciprocalRankFusion.fuse(1, first, second).size());
+        assertTrue(ReciprocalRankFusion.fuse(5, Collections.emptyList()).isEmpty());
+    }
+
+    @Test
+    void testCombinesLexicalAndSemanticMatches() throws Exception {
+        OllamaAPI ollamaAPI = Mockito.mock(OllamaAPI.class);
+        when(ollamaAPI.embedFloats(any(OllamaEmbedRequestModel.class))).thenAnswer(invocation -> {
+            OllamaEmbedFloatResponseModel response = new OllamaEmbedFloatResponseModel();
+            response.setEmbeddings(embed(invocation.<OllamaEmbedRequestModel>getArgument(0).getInput()));
+            return response;
+        });
+        HybridIndex index = new HybridIndex(ollamaAPI, "embedding-model", new HnswIndex(3, SimilarityMetric.COSINE));
+        assertEquals(0, index.addAll(CHUNKS.subList(0, 2)));
+        assertEquals(2, index.addAll(CHUNKS.subList(2, 4)));
+        assertEquals(4, index.size());
+        assertEquals(4, index.getLexicalIndex().size());
+
+        // only the lexical index knows the error code, only the vector index knows that account access is about passwords
+        assertEquals(2, index.search("what does E1042 mean", 1).get(0).getId());
+        List<Integer> hits = ids(index.search("I cannot log in to my account", 2));
+        assertEquals(1, hits.get(0));
+        assertTrue(hits.contains(0));
+    }
+
+    @Test
+    void testIndexesMustStayAligned() throws Exception {
+        OllamaAPI ollamaAPI = Mockito.mock(OllamaAPI.class);
+        Bm25Index lexical = new Bm25Index();
+        lexical.add("a text without a vector");
+        FlatVectorStore vectors = new FlatVectorStore(3, SimilarityMetric.COSINE);
+        HybridOptions options = HybridOptions.builder().build();
+        assertThrows(IllegalArgumentException.class, () -> new HybridIndex(ollamaAPI, "embedding-model", vectors, lexical, options));
+
+        HybridIndex index = new HybridIndex(ollamaAPI, "embedding-model", vectors);
+        assertThrows(IllegalArgumentException.class, () -> index.addAll(CHUNKS, embed(CHUNKS.subList(0, 1))));
+        // a batch of the wrong dimension is rejected before either index takes it
+        assertThrows(IllegalArgumentException.class, () -> index.addAll(CHUNKS.subList(0, 1), new FloatEmbeddings(new float[4], 1, 4)));
+        assertEquals(0, index.addAll(CHUNKS, embed(CHUNKS)));
+        // an empty batch, e.g. the last one of a bulk embedding, is accepted as well
+        assertEquals(CHUNKS.size(), index.addAll(List.of(), new FloatEmbeddings(new float[0], 0, 0)));
+        assertEquals(CHUNKS.size(), index.addAll(List.of()));
+        Mockito.verifyNoInteractions(ollamaAPI);
+        vectors.addAll(embed(CHUNKS.subList(0, 1)));
+        assertThrows(IllegalStateException.class, () -> index.addAll(CHUNKS, embed(CHUNKS)));
+    }
+}
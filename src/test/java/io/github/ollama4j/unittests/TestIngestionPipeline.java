@@ -0,0 +1,195 @@
+package io.github.ollama4j.unittests;
+
+import io.github.ollama4j.exceptions.OllamaBaseException;
+import io.github.ollama4j.ingest.Chunk;
+import io.github.ollama4j.ingest.DocumentSource;
+import io.github.ollama4j.ingest.EmbeddingSink;
+import io.github.ollama4j.ingest.IngestOptions;
+import io.github.ollama4j.ingest.IngestResult;
+import io.github.ollama4j.ingest.IngestionPipeline;
+import io.github.ollama4j.ingest.JsonLinesSink;
+import io.github.ollama4j.ingest.StageMetrics;
+import io.github.ollama4j.ingest.TokenChunker;
+import io.github.ollama4j.models.embeddings.BulkEmbedOptions;
+import io.github.ollama4j.models.embeddings.BulkEmbedding;
+import io.github.ollama4j.models.embeddings.FloatEmbeddings;
+import io.github.ollama4j.search.FlatVectorStore;
+import io.github.ollama4j.search.SimilarityMetric;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestIngestionPipeline {
+
+    private static final int DIMENSION = 4;
+
+    @TempDir
+    Path directory;
+
+    /**
+     * Embeds a text as a vector derived from its hash code, failing once {@code failAfter} requests were made.
+     */
+    private static BulkEmbedding.ChunkEmbedder embedder(AtomicInteger requests, int failAfter) {
+        return inputs -> {
+            if (requests.incrementAndGet() > failAfter) {
+                throw new OllamaBaseException("embedding model unavailable");
+            }
+            float[] data = new float[inputs.size() * DIMENSION];
+            for (int i = 0; i < inputs.size(); i++) {
+                int hash = inputs.get(i).hashCode();
+                for (int d = 0; d < DIMENSION; d++) {
+                    data[i * DIMENSION + d] = (byte) (hash >>> (8 * d));
+                }
+            }
+            return new FloatEmbeddings(data, inputs.size(), DIMENSION);
+        };
+    }
+
+    private List<String> documents(int count) {
+        List<String> documents = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            // only the first sentence is unique to a document: the second sentence and the copyright notice are ingested
+            // once, and the middle paragraph once per topic
+            documents.add("Document " + i + " starts here. It has a few sentences of its own.\n\n"
+                    + "It talks about topic " + (i % 7) + " at some length.\n\n"
+                    + "Copyright   notice, the same in every document.");
+        }
+        return documents;
+    }
+
+    @Test
+    void chunksDeduplicatesAndWritesInOrder() throws Exception {
+        Path files = Files.createDirectories(directory.resolve("docs"));
+        List<String> texts = documents(30);
+        for (int i = 0; i < texts.size(); i++) {
+            Files.write(files.resolve(String.format("doc-%02d.txt", i)), texts.get(i).getBytes(StandardCharsets.UTF_8));
+        }
+        Files.write(files.resolve("ignored.md"), "not a text file".getBytes(StandardCharsets.UTF_8));
+
+        List<Chunk> written = Collections.synchronizedList(new ArrayList<>());
+        FlatVectorStore store = new FlatVectorStore(DIMENSION, SimilarityMetric.COSINE);
+        EmbeddingSink index = EmbeddingSink.of(store);
+        IngestionPipeline pipeline = new IngestionPipeline(embedder(new AtomicInteger(), Integer.MAX_VALUE),
+                DocumentSource.files(files, "*.txt"), new TokenChunker(16, 0), (chunks, embeddings) -> {
+            assertEquals(chunks.size(), embeddings.size());
+            written.addAll(chunks);
+            index.write(chunks, embeddings);
+        }, IngestOptions.builder()
+                .embedOptions(BulkEmbedOptions.builder().maxChunkInputs(5).parallelism(3).build())
+                .sinkBatchSize(7)
+                .build());
+        IngestResult result = pipeline.run();
+
+        assertEquals(30, result.getDocuments());
+        assertEquals(120, result.getChunks());
+        assertEquals(81, result.getDuplicates());
+        assertEquals(39, result.getWritten());
+        assertEquals(39, store.size());
+        for (int i = 0; i < written.size(); i++) {
+            Chunk chunk = written.get(i);
+            assertEquals(i, chunk.getId());
+            assertTrue(texts.get((int) chunk.getDocumentNumber()).contains(chunk.getText()));
+            assertEquals(String.format("doc-%02d.txt", chunk.getDocumentNumber()), chunk.getDocumentId());
+        }
+        assertEquals(30 + 1 + 7 + 1, written.size());
+        assertEquals(1, written.stream().filter(chunk -> chunk.getText().startsWith("Copyright")).count());
+
+        List<StageMetrics> metrics = pipeline.getMetrics();
+        assertEquals(List.of("read", "chunk", "deduplicate", "embed", "sink"),
+                metrics.stream().map(StageMetrics::getStage).collect(Collectors.toList()));
+        assertEquals(30, metrics.get(0).getProcessed());
+        assertEquals(120, metrics.get(2).getProcessed());
+        assertEquals(39, metrics.get(2).getEmitted());
+        assertEquals(39, metrics.get(4).getProcessed());
+        assertThrows(IllegalStateException.class, pipeline::run);
+    }
+
+    @Test
+    void resumesFromTheLastCheckpoint() throws Exception {
+        List<String> texts = documents(40);
+        IngestOptions options = IngestOptions.builder()
+                .embedOptions(BulkEmbedOptions.builder().maxChunkInputs(3).parallelism(2).maxRetries(0).build())
+                .sinkBatchSize(4)
+                .checkpointDirectory(directory.resolve("checkpoint"))
+                .checkpointInterval(10)
+                .build();
+        Path output = directory.resolve("chunks.jsonl");
+
+        AtomicInteger requests = new AtomicInteger();
+        try (JsonLinesSink sink = new JsonLinesSink(output)) {
+            IngestionPipeline crashing = new IngestionPipeline(embedder(requests, 12), DocumentSource.texts(texts),
+                    new TokenChunker(16, 0), sink, options);
+            OllamaBaseException e = assertThrows(OllamaBaseException.class, crashing::run);
+            assertEquals("embedding model unavailable", e.getMessage());
+        }
+        IngestResult resumed;
+        try (JsonLinesSink sink = new JsonLinesSink(output)) {
+            resumed = new IngestionPipeline(embedder(new AtomicInteger(), Integer.MAX_VALUE), DocumentSource.texts(texts),
+                    new TokenChunker(16, 0), sink, options).run();
+        }
+        assertTrue(resumed.getSkippedDocuments() > 0);
+
+        Path expected = directory.resolve("expected.jsonl");
+        try (JsonLinesSink sink = new JsonLinesSink(expected)) {
+            IngestResult clean = new IngestionPipeline(embedder(new AtomicInteger(), Integer.MAX_VALUE),
+                    DocumentSource.texts(texts), new TokenChunker(16, 0), sink,
+                    IngestOptions.builder().embedOptions(options.getEmbedOptions()).sinkBatchSize(4).build()).run();
+            assertEquals(40 + 1 + 7 + 1, clean.getWritten());
+        }
+        assertEquals(Files.readAllLines(expected), Files.readAllLines(output));
+    }
+
+    @Test
+    void aSlowSinkHoldsBackTheReader() throws Exception {
+        List<String> texts = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            texts.add("Text number " + i + ".");
+        }
+        CountDownLatch release = new CountDownLatch(1);
+        IngestionPipeline pipeline = new IngestionPipeline(embedder(new AtomicInteger(), Integer.MAX_VALUE),
+                DocumentSource.texts(texts), new TokenChunker(16, 0), (chunks, embeddings) -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new IOException(e);
+            }
+        }, IngestOptions.builder()
+                .documentQueueCapacity(2)
+                .chunkQueueCapacity(2)
+                .embedOptions(BulkEmbedOptions.builder().maxChunkInputs(1).parallelism(1).build())
+                .sinkBatchSize(1)
+                .build());
+        Thread runner = new Thread(() -> {
+            try {
+                pipeline.run();
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+        runner.start();
+        Thread.sleep(500);
+
+        long read = pipeline.getMetrics().get(0).getProcessed();
+        assertTrue(read < 20, "read " + read + " documents ahead of a blocked sink");
+        assertEquals(2, pipeline.getMetrics().get(1).getQueueCapacity());
+
+        release.countDown();
+        runner.join(TimeUnit.SECONDS.toMillis(30));
+        assertFalse(runner.isAlive());
+        assertEquals(1000, pipeline.getMetrics().get(4).getProcessed());
+        assertTrue(pipeline.getMetrics().get(4).getThroughput() > 0);
+    }
+}
@@ -0,0 +1,158 @@
+package io.github.ollama4j.unittests;
+
+import io.github.ollama4j.models.embeddings.FloatEmbeddings;
+import io.github.ollama4j.search.FlatVectorStore;
+import io.github.ollama4j.search.IvfPqBuilder;
+import io.github.ollama4j.search.IvfPqIndex;
+import io.github.ollama4j.search.IvfPqOptions;
+import io.github.ollama4j.search.SearchHit;
+import io.github.ollama4j.search.SimilarityMetric;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestIvfPqIndex {
+
+    private static final int DIMENSION = 64;
+    private static final IvfPqOptions OPTIONS = IvfPqOptions.builder().lists(32).subspaces(16).iterations(10).probes(8).build();
+
+    @TempDir
+    Path directory;
+
+    /**
+     * Vectors scattered around 64 centroids, like the embeddings of a corpus about a handful of topics.
+     */
+    private static FloatEmbeddings randomEmbeddings(int count, long seed) {
+        Random centroids = new Random(0);
+        float[][] centers = new float[64][DIMENSION];
+        for (float[] center : centers) {
+            for (int i = 0; i < DIMENSION; i++) {
+                center[i] = (float) centroids.nextGaussian();
+            }
+        }
+        Random random = new Random(seed);
+        float[] data = new float[count * DIMENSION];
+        for (int v = 0; v < count; v++) {
+            float[] center = centers[random.nextInt(centers.length)];
+            for (int i = 0; i < DIMENSION; i++) {
+                data[v * DIMENSION + i] = center[i] + 0.5f * (float) random.nextGaussian();
+            }
+        }
+        return new FloatEmbeddings(data, count, DIMENSION);
+    }
+
+    private IvfPqIndex build(Path indexDirectory, SimilarityMetric metric, FloatEmbeddings corpus) throws IOException {
+        try (IvfPqBuilder builder = IvfPqBuilder.train(indexDirectory, randomEmbeddings(2000, 7), metric, OPTIONS)) {
+            // streamed in batches, and one by one
+            for (int first = 0; first < corpus.size() - 10; first += 1000) {
+                int count = Math.min(1000, corpus.size() - 10 - first);
+                float[] batch = new float[count * DIMENSION];
+                for (int i = 0; i < count; i++) {
+                    corpus.copyVector(first + i, batch, i * DIMENSION);
+                }
+                assertEquals(first, builder.addAll(new FloatEmbeddings(batch, count, DIMENSION)));
+            }
+            for (int id = corpus.size() - 10; id < corpus.size(); id++) {
+                assertEquals(id, builder.add(corpus.getVector(id)));
+            }
+            return builder.build();
+        }
+    }
+
+    /**
+     * @return the share of queries whose exact nearest neighbour is among the first {@code k} approximate hits
+     */
+    private static double recall(IvfPqIndex index, FlatVectorStore exact, FloatEmbeddings queries, int k) {
+        int found = 0;
+        for (int q = 0; q < queries.size(); q++) {
+            int nearest = exact.search(queries.getVector(q), 1).get(0).getId();
+            if (index.search(queries.getVector(q), k).stream().anyMatch(hit -> hit.getId() == nearest)) {
+                found++;
+            }
+        }
+        return found / (double) queries.size();
+    }
+
+    @Test
+    void testStreamedIndexFindsMostExactNeighbours() throws IOException {
+        for (SimilarityMetric metric : SimilarityMetric.values()) {
+            FloatEmbeddings corpus = randomEmbeddings(8000, 1);
+            FlatVectorStore exact = new FlatVectorStore(DIMENSION, metric);
+            exact.addAll(corpus);
+            Path indexDirectory = directory.resolve(metric.name());
+            try (IvfPqIndex index = build(indexDirectory, metric, corpus)) {
+                assertEquals(8000, index.size());
+                assertEquals(32, index.getListCount());
+                assertFalse(Files.exists(indexDirectory.resolve("ivfpq.spill")));
+                // without reranking, the codes cannot order near ties, but the nearest neighbour ranks high
+                double recall = recall(index, exact, randomEmbeddings(100, 2), 50);
+                assertTrue(recall >= 0.9, metric + " recall " + recall);
+                if (metric != SimilarityMetric.DOT_PRODUCT) {
+                    // a stored vector finds itself among its nearest neighbours
+                    assertTrue(index.search(corpus.getVector(4321), 10, 32).stream().anyMatch(hit -> hit.getId() == 4321));
+                }
+            }
+        }
+    }
+
+    @Test
+    void testReopenedIndexGivesTheSameHits() throws IOException {
+        FloatEmbeddings corpus = randomEmbeddings(3000, 3);
+        FloatEmbeddings queries = randomEmbeddings(5, 4);
+        List<List<SearchHit>> hits;
+        try (IvfPqIndex index = build(directory, SimilarityMetric.COSINE, corpus)) {
+            hits = index.search(queries, 5);
+        }
+        try (IvfPqIndex index = IvfPqIndex.open(directory)) {
+            assertEquals(3000, index.size());
+            assertEquals(SimilarityMetric.COSINE, index.getMetric());
+            assertEquals(hits, index.search(queries, 5));
+        }
+    }
+
+    @Test
+    void testRebuildReplacesThePreviousIndexOnlyWhenBuilt() throws IOException {
+        FloatEmbeddings queries = randomEmbeddings(5, 4);
+        try (IvfPqIndex previous = build(directory, SimilarityMetric.COSINE, randomEmbeddings(1000, 3))) {
+            List<List<SearchHit>> hits = previous.search(queries, 5);
+            // a rebuild that does not complete leaves the previous index as it was
+            try (IvfPqBuilder builder = IvfPqBuilder.train(directory, randomEmbeddings(100, 5), SimilarityMetric.COSINE, OPTIONS)) {
+                builder.addAll(randomEmbeddings(100, 6));
+            }
+            try (IvfPqIndex index = IvfPqIndex.open(directory)) {
+                assertEquals(1000, index.size());
+                assertEquals(hits, index.search(queries, 5));
+            }
+            try (IvfPqIndex rebuilt = build(directory, SimilarityMetric.COSINE, randomEmbeddings(2000, 8))) {
+                assertEquals(2000, rebuilt.size());
+                // the open instance still reads the postings it was opened with
+                assertEquals(hits, previous.search(queries, 5));
+            }
+            try (IvfPqIndex index = IvfPqIndex.open(directory)) {
+                assertEquals(2000, index.size());
+            }
+            try (Stream<Path> files = Files.list(directory)) {
+                assertEquals(List.of("ivfpq.meta", "ivfpq.postings"), files.map(file -> file.getFileName().toString()).sorted().collect(Collectors.toList()));
+            }
+        }
+    }
+
+    @Test
+    void testIncompleteIndexIsRejected() throws IOException {
+        try (IvfPqBuilder builder = IvfPqBuilder.train(directory, randomEmbeddings(100, 5), SimilarityMetric.COSINE, OPTIONS)) {
+            builder.addAll(randomEmbeddings(100, 6));
+        }
+        assertThrows(IOException.class, () -> IvfPqIndex.open(directory));
+        IvfPqOptions options = IvfPqOptions.builder().lists(4).subspaces(6).build();
+        assertThrows(IllegalArgumentException.class, () -> IvfPqBuilder.train(directory, randomEmbeddings(100, 5), SimilarityMetric.COSINE, options));
+    }
+}
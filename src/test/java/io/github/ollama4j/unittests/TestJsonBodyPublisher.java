@@ -0,0 +1,169 @@
+package io.github.ollama4j.unittests;
+
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import io.github.ollama4j.models.chat.OllamaChatMessage;
+import io.github.ollama4j.models.chat.OllamaChatMessageRole;
+import io.github.ollama4j.models.chat.OllamaChatRequest;
+import io.github.ollama4j.models.chat.OllamaChatRequestBuilder;
+import io.github.ollama4j.utils.JsonBodyPublisher;
+import io.github.ollama4j.utils.Utils;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Base64;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestJsonBodyPublisher {
+
+    private static OllamaChatRequest requestWithImage(int imageBytes) {
+        byte[] image = new byte[imageBytes];
+        new Random(42).nextBytes(image);
+        OllamaChatMessage message = new OllamaChatMessage(OllamaChatMessageRole.USER, "What is in this picture?");
+        message.setImages(List.of(image));
+        return OllamaChatRequestBuilder.getInstance("llava").withMessages(List.of(message)).build();
+    }
+
+    @Test
+    void testStreamsSameJsonAsObjectMapper() throws Exception {
+        OllamaChatRequest request = requestWithImage(100_000);
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        CompletableFuture<Void> completed = new CompletableFuture<>();
+        new JsonBodyPublisher(request).subscribe(new Flow.Subscriber<>() {
+            private Flow.Subscription subscription;
+
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                this.subscription = subscription;
+                subscription.request(1);
+            }
+
+            @Override
+            public void onNext(ByteBuffer item) {
+                byte[] bytes = new byte[item.remaining()];
+                item.get(bytes);
+                body.write(bytes, 0, bytes.length);
+                subscription.request(1);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                completed.completeExceptionally(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+                completed.complete(null);
+            }
+        });
+        completed.get(5, TimeUnit.SECONDS);
+        assertArrayEquals(Utils.getObjectMapper().writeValueAsBytes(request), body.toByteArray());
+        String expectedImage = Base64.getEncoder().encodeToString(request.getMessages().get(0).getImages().get(0));
+        assertTrue(body.toString().contains("\"images\":[\"" + expectedImage + "\"]"));
+    }
+
+    @Test
+    void testCancelStopsWriting() throws Exception {
+        CompletableFuture<Integer> firstChunk = new CompletableFuture<>();
+        CompletableFuture<Void> terminated = new CompletableFuture<>();
+        new JsonBodyPublisher(requestWithImage(1_000_000)).subscribe(new Flow.Subscriber<>() {
+            private Flow.Subscription subscription;
+
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                this.subscription = subscription;
+                subscription.request(1);
+            }
+
+            @Override
+            public void onNext(ByteBuffer item) {
+                firstChunk.complete(item.remaining());
+                subscription.cancel();
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                terminated.completeExceptionally(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+                terminated.complete(null);
+            }
+        });
+        assertTrue(firstChunk.get(5, TimeUnit.SECONDS) > 0);
+        Thread.sleep(100);
+        assertFalse(terminated.isDone());
+    }
+
+    /**
+     * A large binary field followed by a property that records when the generator gets to it.
+     */
+    @JsonPropertyOrder({"image", "tail"})
+    static class LargeValue {
+        private final byte[] image = new byte[2_000_000];
+        private final AtomicBoolean tailWritten = new AtomicBoolean();
+
+        public byte[] getImage() {
+            return image;
+        }
+
+        public String getTail() {
+            tailWritten.set(true);
+            return "end";
+        }
+    }
+
+    @Test
+    void testWriterWaitsForDemand() throws Exception {
+        LargeValue value = new LargeValue();
+        AtomicInteger received = new AtomicInteger();
+        CompletableFuture<Flow.Subscription> firstChunk = new CompletableFuture<>();
+        CompletableFuture<Void> completed = new CompletableFuture<>();
+        new JsonBodyPublisher(value).subscribe(new Flow.Subscriber<>() {
+            private Flow.Subscription subscription;
+
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                this.subscription = subscription;
+                subscription.request(1);
+            }
+
+            @Override
+            public void onNext(ByteBuffer item) {
+                received.incrementAndGet();
+                firstChunk.complete(subscription);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                completed.completeExceptionally(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+                completed.complete(null);
+            }
+        });
+        Flow.Subscription subscription = firstChunk.get(5, TimeUnit.SECONDS);
+        Thread.sleep(200);
+        // the first chunk was sent long before the whole body (about 163 chunks) could be written
+        assertEquals(1, received.get());
+        assertFalse(value.tailWritten.get());
+        assertFalse(completed.isDone());
+
+        subscription.request(Long.MAX_VALUE);
+        completed.get(5, TimeUnit.SECONDS);
+        assertTrue(value.tailWritten.get());
+        int expectedChunks = (Utils.getObjectMapper().writeValueAsBytes(new LargeValue()).length + 16 * 1024 - 1) / (16 * 1024);
+        assertEquals(expectedChunks, received.get());
+    }
+}
@@ -0,0 +1,125 @@
+package io.github.ollama4j.unittests;
+
+import io.github.ollama4j.models.embeddings.FloatEmbeddings;
+import io.github.ollama4j.search.FlatVectorStore;
+import io.github.ollama4j.search.Quantization;
+import io.github.ollama4j.search.QuantizedVectorStore;
+import io.github.ollama4j.search.SearchHit;
+import io.github.ollama4j.search.SimilarityMetric;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestQuantizedVectorStore {
+
+    private static final int DIMENSION = 128;
+
+    @TempDir
+    Path directory;
+
+    /**
+     * Vectors scattered around 64 centroids, like the embeddings of a corpus about a handful of topics.
+     */
+    private static FloatEmbeddings randomEmbeddings(int count, long seed) {
+        Random centroids = new Random(0);
+        float[][] centers = new float[64][DIMENSION];
+        for (float[] center : centers) {
+            for (int i = 0; i < DIMENSION; i++) {
+                center[i] = (float) centroids.nextGaussian();
+            }
+        }
+        Random random = new Random(seed);
+        float[] data = new float[count * DIMENSION];
+        for (int v = 0; v < count; v++) {
+            float[] center = centers[random.nextInt(centers.length)];
+            for (int i = 0; i < DIMENSION; i++) {
+                data[v * DIMENSION + i] = center[i] + (float) (float) random.nextGaussian();
+            }
+        }
+        return new FloatEmbeddings(data, count, DIMENSION);
+    }
+
+    private static double recall(QuantizedVectorStore store, FlatVectorStore exact, FloatEmbeddings queries, int k) {
+        int found = 0;
+        for (int q = 0; q < queries.size(); q++) {
+            Set<Integer> expected = exact.search(queries.getVector(q), k).stream().map(SearchHit::getId).collect(Collectors.toSet());
+            for (SearchHit hit : store.search(queries.getVector(q), k)) {
+                if (expected.contains(hit.getId())) {
+                    found++;
+                }
+            }
+        }
+        return found / (double) (queries.size() * k);
+    }
+
+    private double recall(Quantization quantization, SimilarityMetric metric) throws IOException {
+        FloatEmbeddings embeddings = randomEmbeddings(6000, 1);
+        FlatVectorStore exact = new FlatVectorStore(DIMENSION, metric);
+        exact.addAll(embeddings);
+        try (QuantizedVectorStore store = QuantizedVectorStore.create(directory.resolve(quantization + "-" + metric), DIMENSION, metric, quantization)) {
+            assertEquals(0, store.addAll(embeddings));
+            assertEquals(6000, store.size());
+            assertArrayEquals(exact.getVector(5999), store.getVector(5999));
+            return recall(store, exact, randomEmbeddings(50, 2), 10);
+        }
+    }
+
+    @Test
+    void testInt8SearchFindsNearlyAllExactNeighbours() throws IOException {
+        for (SimilarityMetric metric : SimilarityMetric.values()) {
+            double recall = recall(Quantization.INT8, metric);
+            assertTrue(recall >= 0.97, metric + " recall " + recall);
+        }
+    }
+
+    @Test
+    void testBinarySearchFindsMostExactNeighbours() throws IOException {
+        double recall = recall(Quantization.BINARY, SimilarityMetric.COSINE);
+        assertTrue(recall >= 0.9, "recall " + recall);
+    }
+
+    @Test
+    void testCodesTakeAFractionOfTheMemory() throws IOException {
+        try (QuantizedVectorStore int8 = QuantizedVectorStore.create(directory.resolve("int8"), DIMENSION, SimilarityMetric.DOT_PRODUCT, Quantization.INT8);
+             QuantizedVectorStore binary = QuantizedVectorStore.create(directory.resolve("binary"), DIMENSION, SimilarityMetric.DOT_PRODUCT, Quantization.BINARY)) {
+            FloatEmbeddings embeddings = randomEmbeddings(100, 3);
+            int8.addAll(embeddings);
+            binary.addAll(embeddings);
+            // codes plus a scale factor and a norm per vector
+            assertEquals(100 * (DIMENSION + 8), int8.getMemoryBytes());
+            assertEquals(100 * (DIMENSION / 8 + 8), binary.getMemoryBytes());
+        }
+    }
+
+    @Test
+    void testReopenedStoreQuantizesItsVectorsAgain() throws IOException {
+        Path file = directory.resolve("store");
+        FloatEmbeddings embeddings = randomEmbeddings(500, 4);
+        float[] query = randomEmbeddings(1, 5).getVector(0);
+        List<SearchHit> hits;
+        try (QuantizedVectorStore store = QuantizedVectorStore.create(file, DIMENSION, SimilarityMetric.EUCLIDEAN, Quantization.INT8)) {
+            store.addAll(embeddings.toLists().subList(0, 250));
+            for (int i = 250; i < 500; i++) {
+                assertEquals(i, store.add(embeddings.getVector(i)));
+            }
+            hits = store.search(query, 5);
+        }
+        assertThrows(FileAlreadyExistsException.class, () -> QuantizedVectorStore.create(file, DIMENSION, SimilarityMetric.COSINE, Quantization.INT8));
+        try (QuantizedVectorStore store = QuantizedVectorStore.open(file)) {
+            assertEquals(500, store.size());
+            assertEquals(SimilarityMetric.EUCLIDEAN, store.getMetric());
+            assertEquals(Quantization.INT8, store.getQuantization());
+            assertEquals(hits, store.search(query, 5));
+            assertArrayEquals(embeddings.getVector(42), store.getVector(42));
+        }
+    }
+}
@@ -0,0 +1,278 @@
+package io.github.ollama4j.unittests;
+
+import io.github.ollama4j.OllamaAPI;
+import io.github.ollama4j.exceptions.OllamaBaseException;
+import io.github.ollama4j.models.embeddings.OllamaEmbedRequestModel;
+import io.github.ollama4j.models.generate.OllamaStreamDeltaHandler;
+import io.github.ollama4j.models.response.OllamaResult;
+import io.github.ollama4j.utils.OptionsBuilder;
+import io.github.ollama4j.utils.RequestCoalescer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestRequestCoalescer {
+
+    private FakeOllamaServer server;
+    private OllamaAPI ollamaAPI;
+    private final AtomicInteger generateRequests = new AtomicInteger();
+    private final AtomicInteger embedRequests = new AtomicInteger();
+    private final CountDownLatch releaseResponse = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new FakeOllamaServer()
+                .handle("/api/generate", exchange -> {
+                    generateRequests.incrementAndGet();
+                    exchange.getRequestBody().readAllBytes();
+                    exchange.sendResponseHeaders(200, 0);
+                    try (OutputStream out = exchange.getResponseBody()) {
+                        out.write("{\"model\":\"m\",\"response\":\"Hello\",\"done\":false}\n".getBytes(StandardCharsets.UTF_8));
+                        out.flush();
+                        releaseResponse.await(5, TimeUnit.SECONDS);
+                        out.write(("{\"model\":\"m\",\"response\":\" World\",\"done\":false}\n"
+                                + "{\"model\":\"m\",\"response\":\"\",\"done\":true}\n").getBytes(StandardCharsets.UTF_8));
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                })
+                .handle("/api/embed", exchange -> {
+                    embedRequests.incrementAndGet();
+                    try {
+                        releaseResponse.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    FakeOllamaServer.respond(exchange, 500, "{\"error\":\"model crashed\"}");
+                });
+        ollamaAPI = server.client();
+        ollamaAPI.setCoalesceRequests(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        releaseResponse.countDown();
+        server.close();
+    }
+
+    private static OllamaStreamDeltaHandler collectingHandler(StringBuilder text, CountDownLatch firstToken) {
+        return delta -> {
+            synchronized (text) {
+                text.append(delta);
+            }
+            firstToken.countDown();
+        };
+    }
+
+    @Test
+    void testIdenticalGenerateRequestsShareOneServerCall() throws Exception {
+        StringBuilder leaderText = new StringBuilder();
+        StringBuilder followerText = new StringBuilder();
+        CountDownLatch leaderStarted = new CountDownLatch(1);
+        CountDownLatch followerAttached = new CountDownLatch(1);
+
+        CompletableFuture<OllamaResult> leader = CompletableFuture.supplyAsync(() -> generate(collectingHandler(leaderText, leaderStarted)));
+        assertTrue(leaderStarted.await(5, TimeUnit.SECONDS));
+        // the follower attaches while the response is still streaming and is replayed the tokens received so far
+        CompletableFuture<OllamaResult> follower = CompletableFuture.supplyAsync(() -> generate(collectingHandler(followerText, followerAttached)));
+        assertTrue(followerAttached.await(5, TimeUnit.SECONDS));
+        releaseResponse.countDown();
+
+        assertEquals("Hello World", leader.get(5, TimeUnit.SECONDS).getResponse());
+        assertEquals("Hello World", follower.get(5, TimeUnit.SECONDS).getResponse());
+        assertEquals("Hello World", leaderText.toString());
+        assertEquals("Hello World", followerText.toString());
+        assertEquals(1, generateRequests.get());
+
+        // once completed, the next identical request is sent again
+        assertEquals("Hello World", generate(null).getResponse());
+        assertEquals(2, generateRequests.get());
+    }
+
+    @Test
+    void testErrorIsReportedToEveryCaller() throws Exception {
+        List<CompletableFuture<Void>> callers = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            callers.add(CompletableFuture.runAsync(() -> {
+                try {
+                    ollamaAPI.embed(new OllamaEmbedRequestModel("m", List.of("a", "b")));
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            }));
+        }
+        Thread.sleep(200);
+        releaseResponse.countDown();
+        for (CompletableFuture<Void> caller : callers) {
+            ExecutionException exception = assertThrows(ExecutionException.class, () -> caller.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(OllamaBaseException.class, exception.getCause().getCause());
+            assertTrue(exception.getCause().getCause().getMessage().contains("model crashed"));
+        }
+        assertEquals(1, embedRequests.get());
+    }
+
+    @Test
+    void testLateJoinerIsReplayedPartsAndSharesResult() throws Exception {
+        RequestCoalescer coalescer = new RequestCoalescer();
+        CountDownLatch firstPartSent = new CountDownLatch(1);
+        CountDownLatch followerAttached = new CountDownLatch(1);
+        List<String> followerParts = Collections.synchronizedList(new ArrayList<>());
+
+        CompletableFuture<String> leader = CompletableFuture.supplyAsync(() -> {
+            try {
+                return coalescer.execute("key", null, (Consumer<String> sink) -> {
+                    sink.accept("a");
+                    firstPartSent.countDown();
+                    assertTrue(followerAttached.await(5, TimeUnit.SECONDS));
+                    sink.accept("b");
+                    return "ab";
+                });
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+        assertTrue(firstPartSent.await(5, TimeUnit.SECONDS));
+        assertEquals(1, coalescer.inFlightCount());
+        String followerResult = coalescer.<String, String>execute("key", part -> {
+            followerParts.add(part);
+            followerAttached.countDown();
+        }, sink -> fail("identical request must not be sent again"));
+
+        assertEquals("ab", followerResult);
+        assertEquals("ab", leader.get(5, TimeUnit.SECONDS));
+        assertEquals(List.of("a", "b"), followerParts);
+        assertEquals(0, coalescer.inFlightCount());
+    }
+
+    @Test
+    void testFollowerConsumesPartsOnItsOwnThread() throws Exception {
+        RequestCoalescer coalescer = new RequestCoalescer();
+        CountDownLatch firstPartSent = new CountDownLatch(1);
+        CountDownLatch releaseFollower = new CountDownLatch(1);
+        List<String> followerThreads = Collections.synchronizedList(new ArrayList<>());
+        AtomicReference<String> leaderThread = new AtomicReference<>();
+
+        CompletableFuture<String> leader = CompletableFuture.supplyAsync(() -> {
+            try {
+                return coalescer.execute("key", null, (Consumer<String> sink) -> {
+                    leaderThread.set(Thread.currentThread().getName());
+                    sink.accept("a");
+                    firstPartSent.countDown();
+                    Thread.sleep(100);
+                    sink.accept("b");
+                    return "ab";
+                });
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+        assertTrue(firstPartSent.await(5, TimeUnit.SECONDS));
+        CompletableFuture<String> follower = CompletableFuture.supplyAsync(() -> {
+            try {
+                return coalescer.<String, String>execute("key", part -> {
+                    followerThreads.add(Thread.currentThread().getName());
+                    try {
+                        // a blocked consumer of a follower does not hold up the request
+                        releaseFollower.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }, sink -> fail("identical request must not be sent again"));
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+
+        assertEquals("ab", leader.get(5, TimeUnit.SECONDS));
+        assertFalse(follower.isDone());
+        releaseFollower.countDown();
+        assertEquals("ab", follower.get(5, TimeUnit.SECONDS));
+        assertEquals(2, followerThreads.size());
+        assertNotEquals(leaderThread.get(), followerThreads.get(0));
+    }
+
+    @Test
+    void testPartsBeyondReplayLimitAreNotRetained() throws Exception {
+        RequestCoalescer coalescer = new RequestCoalescer();
+        CountDownLatch partsSent = new CountDownLatch(1);
+        CountDownLatch followerDone = new CountDownLatch(1);
+        AtomicInteger followerRequests = new AtomicInteger();
+
+        CompletableFuture<String> leader = CompletableFuture.supplyAsync(() -> {
+            try {
+                return coalescer.execute("key", null, (Consumer<String> sink) -> {
+                    for (int i = 0; i <= RequestCoalescer.MAX_REPLAYED_PARTS; i++) {
+                        sink.accept("part");
+                    }
+                    partsSent.countDown();
+                    assertTrue(followerDone.await(5, TimeUnit.SECONDS));
+                    return "leader";
+                });
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+        assertTrue(partsSent.await(5, TimeUnit.SECONDS));
+        List<String> followerParts = new ArrayList<>();
+        // the parts streamed so far cannot be replayed, so a streaming caller sends its own request
+        String followerResult = coalescer.<String, String>execute("key", followerParts::add, sink -> {
+            followerRequests.incrementAndGet();
+            sink.accept("own");
+            return "follower";
+        });
+        // a caller not streaming parts still attaches
+        CompletableFuture<String> attached = CompletableFuture.supplyAsync(() -> {
+            try {
+                return coalescer.<String, String>execute("key", null, sink -> fail("identical request must not be sent again"));
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+        Thread.sleep(100);
+        followerDone.countDown();
+
+        assertEquals("follower", followerResult);
+        assertEquals(List.of("own"), followerParts);
+        assertEquals(1, followerRequests.get());
+        assertEquals("leader", leader.get(5, TimeUnit.SECONDS));
+        assertEquals("leader", attached.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testFingerprintIsIndependentOfMapOrder() throws IOException {
+        OllamaEmbedRequestModel first = new OllamaEmbedRequestModel("m", List.of("a"));
+        first.setOptions(Map.of("temperature", 0.5, "seed", 42, "top_k", 10));
+        OllamaEmbedRequestModel second = new OllamaEmbedRequestModel("m", List.of("a"));
+        second.setOptions(new OptionsBuilder().setTopK(10).setSeed(42).setTemperature(0.5f).build().getOptionsMap());
+        assertEquals(RequestCoalescer.fingerprint("/api/embed", first), RequestCoalescer.fingerprint("/api/embed", second));
+        assertNotEquals(RequestCoalescer.fingerprint("/api/embed", first), RequestCoalescer.fingerprint("/api/chat", first));
+        second.setInput(List.of("b"));
+        assertNotEquals(RequestCoalescer.fingerprint("/api/embed", first), RequestCoalescer.fingerprint("/api/embed", second));
+    }
+
+    private OllamaResult generate(OllamaStreamDeltaHandler handler) {
+        try {
+            return ollamaAPI.generate("m", "Why is the sky blue?", false, new OptionsBuilder().build(), handler);
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package io.github.ollama4j.unittests;
+
+import io.github.ollama4j.OllamaAPI;
+import io.github.ollama4j.models.chat.OllamaChatMessageRole;
+import io.github.ollama4j.models.chat.OllamaChatRequestBuilder;
+import io.github.ollama4j.models.chat.OllamaChatResult;
+import io.github.ollama4j.models.generate.OllamaStreamDeltaHandler;
+import io.github.ollama4j.utils.DiskResponseCache;
+import io.github.ollama4j.utils.MemoryResponseCache;
+import io.github.ollama4j.utils.Options;
+import io.github.ollama4j.utils.OptionsBuilder;
+import io.github.ollama4j.utils.ResponseCache;
+import io.github.ollama4j.utils.TieredResponseCache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestResponseCache {
+
+    @TempDir
+    Path tempDir;
+
+    private FakeOllamaServer server;
+    private OllamaAPI ollamaAPI;
+    private volatile String digest = "sha256:aaaa";
+    private final AtomicInteger generateRequests = new AtomicInteger();
+    private final AtomicInteger chatRequests = new AtomicInteger();
+    private final AtomicInteger tagRequests = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new FakeOllamaServer()
+                .handle("/api/tags", exchange -> {
+                    tagRequests.incrementAndGet();
+                    FakeOllamaServer.respond(exchange, 200,
+                            "{\"models\":[{\"name\":\"m:latest\",\"model\":\"m:latest\",\"digest\":\"" + digest + "\",\"size\":1}]}");
+                })
+                .handle("/api/generate", exchange -> {
+                    generateRequests.incrementAndGet();
+                    FakeOllamaServer.respond(exchange, 200, "{\"model\":\"m\",\"response\":\"Hello\",\"done\":false}\n"
+                            + "{\"model\":\"m\",\"response\":\" World\",\"done\":false}\n"
+                            + "{\"model\":\"m\",\"response\":\"\",\"done\":true}\n");
+                })
+                .handle("/api/chat", exchange -> {
+                    chatRequests.incrementAndGet();
+                    FakeOllamaServer.respond(exchange, 200,
+                            "{\"model\":\"m\",\"message\":{\"role\":\"assistant\",\"content\":\"Hi there\"},\"done\":true}\n");
+                });
+        ollamaAPI = server.client();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+
+    private static Options deterministic() {
+        return new OptionsBuilder().setSeed(42).setTemperature(0).build();
+    }
+
+    @Test
+    void testGenerateIsServedFromCacheAndReplayedToStreamHandler() throws Exception {
+        ollamaAPI.setResponseCache(ResponseCache.inMemory(10));
+        assertEquals("Hello World", ollamaAPI.generate("m", "prompt", false, deterministic()).getResponse());
+
+        StringBuilder streamed = new StringBuilder();
+        OllamaStreamDeltaHandler handler = streamed::append;
+        assertEquals("Hello World", ollamaAPI.generate("m", "prompt", false, deterministic(), handler).getResponse());
+        assertEquals("Hello World", streamed.toString());
+        assertEquals("Hello World", ollamaAPI.generate("m", "prompt", false, deterministic(), handler).getResponse());
+        // streaming and non-streaming requests are cached separately
+        assertEquals(2, generateRequests.get());
+
+        ollamaAPI.generate("m", "other prompt", false, deterministic());
+        assertEquals(3, generateRequests.get());
+    }
+
+    @Test
+    void testNonDeterministicRequestsAreNotCached() throws Exception {
+        ollamaAPI.setResponseCache(ResponseCache.inMemory(10));
+        Options seedOnly = new OptionsBuilder().setSeed(42).setTemperature(0.8f).build();
+        ollamaAPI.generate("m", "prompt", false, seedOnly);
+        ollamaAPI.generate("m", "prompt", false, seedOnly);
+        ollamaAPI.generate("m", "prompt", false, new OptionsBuilder().build());
+        ollamaAPI.generate("m", "prompt", false, new OptionsBuilder().build());
+        assertEquals(4, generateRequests.get());
+    }
+
+    @Test
+    void testChangedModelDigestInvalidatesCache() throws Exception {
+        MemoryResponseCache cache = new MemoryResponseCache(10);
+        ollamaAPI.setResponseCache(cache);
+        ollamaAPI.generate("m", "prompt", false, deterministic());
+        ollamaAPI.generate("m", "prompt", false, deterministic());
+        assertEquals(1, generateRequests.get());
+        // the digest is listed once and reused
+        assertEquals(1, tagRequests.get());
+
+        digest = "sha256:bbbb";
+        ollamaAPI.generate("m", "prompt", false, deterministic());
+        assertEquals(1, generateRequests.get());
+        ollamaAPI.setModelDigestTtl(Duration.ZERO);
+        ollamaAPI.generate("m", "prompt", false, deterministic());
+        assertEquals(2, generateRequests.get());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void testChatIsServedFromCacheWithCallersHistory() throws Exception {
+        ollamaAPI.setResponseCache(ResponseCache.inMemory(10));
+        OllamaChatRequestBuilder builder = OllamaChatRequestBuilder.getInstance("m").withOptions(deterministic());
+        OllamaChatResult first = ollamaAPI.chat(builder.withMessage(OllamaChatMessageRole.USER, "Hello").build());
+        builder.reset();
+        OllamaChatResult second = ollamaAPI.chat(builder.withOptions(deterministic()).withMessage(OllamaChatMessageRole.USER, "Hello").build());
+        assertEquals(1, chatRequests.get());
+        assertEquals("Hi there", second.getResponseModel().getMessage().getContent());
+        assertEquals(first.getChatHistory().size(), second.getChatHistory().size());
+        assertEquals("Hi there", second.getChatHistory().get(1).getContent());
+    }
+
+    @Test
+    void testDiskCacheSurvivesRestart() throws Exception {
+        Path file = tempDir.resolve("responses.jsonl");
+        try (DiskResponseCache cache = new DiskResponseCache(file)) {
+            cache.put("m@1/a", "{\"response\":\"a\"}");
+            cache.put("m@1/b", "line\nbreak");
+            cache.put("m@1/a", "updated");
+            cache.put("n@1/c", "c");
+            cache.invalidate("n@");
+        }
+        // a crash while appending leaves an incomplete line behind
+        Files.write(file, "{\"key\":\"m@1/d\",\"va".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+        try (DiskResponseCache cache = new DiskResponseCache(file)) {
+            assertEquals(2, cache.size());
+            assertEquals("updated", cache.get("m@1/a"));
+            assertEquals("line\nbreak", cache.get("m@1/b"));
+            assertNull(cache.get("n@1/c"));
+            assertNull(cache.get("m@1/d"));
+            cache.put("m@1/e", "e");
+        }
+        try (DiskResponseCache cache = new DiskResponseCache(file)) {
+            assertEquals("e", cache.get("m@1/e"));
+        }
+    }
+
+    @Test
+    void testTieredCachePromotesDiskHits() throws Exception {
+        Path file = tempDir.resolve("responses.jsonl");
+        try (DiskResponseCache disk = new DiskResponseCache(file)) {
+            disk.put("m@1/a", "a");
+        }
+        MemoryResponseCache memory = new MemoryResponseCache(1);
+        DiskResponseCache disk = new DiskResponseCache(file);
+        try (TieredResponseCache cache = new TieredResponseCache(memory, disk)) {
+            assertEquals("a", cache.get("m@1/a"));
+            assertEquals("a", memory.get("m@1/a"));
+            cache.put("m@1/b", "b");
+            assertNull(memory.get("m@1/a"));
+            assertEquals("a", cache.get("m@1/a"));
+        }
+        // closing the tiered cache closed the file
+        assertThrows(IOException.class, () -> disk.put("m@1/c", "c"));
+    }
+}
@@ -0,0 +1,93 @@
+package io.github.ollama4j.unittests;
+
+import io.github.ollama4j.models.chat.OllamaChatMessage;
+import io.github.ollama4j.models.chat.OllamaChatMessageRole;
+import io.github.ollama4j.models.chat.OllamaChatRequestBuilder;
+import io.github.ollama4j.models.chat.OllamaChatResponseModel;
+import io.github.ollama4j.models.chat.OllamaChatStreamObserver;
+import io.github.ollama4j.models.generate.OllamaGenerateResponseModel;
+import io.github.ollama4j.models.generate.OllamaGenerateStreamObserver;
+import io.github.ollama4j.models.generate.OllamaGenerateRequestBuilder;
+import io.github.ollama4j.models.generate.OllamaStreamDeltaHandler;
+import io.github.ollama4j.models.response.OllamaResult;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestStreamObservers {
+
+    private static OllamaGenerateResponseModel generatePart(String response) {
+        OllamaGenerateResponseModel part = new OllamaGenerateResponseModel();
+        part.setResponse(response);
+        return part;
+    }
+
+    private static OllamaChatResponseModel chatPart(String content) {
+        OllamaChatResponseModel part = new OllamaChatResponseModel();
+        part.setMessage(new OllamaChatMessage(OllamaChatMessageRole.ASSISTANT, content));
+        return part;
+    }
+
+    @Test
+    void testGenerateObserverPassesAccumulatedText() {
+        List<String> received = new ArrayList<>();
+        OllamaGenerateStreamObserver observer = new OllamaGenerateStreamObserver(received::add);
+        observer.notify(generatePart("Hello"));
+        observer.notify(generatePart(" World"));
+        assertEquals(List.of("Hello", "Hello World"), received);
+        assertEquals("Hello World", observer.getResponse().toString());
+        assertTrue(observer.getResponseParts().isEmpty());
+    }
+
+    @Test
+    void testGenerateObserverPassesDeltas() {
+        List<String> received = new ArrayList<>();
+        OllamaStreamDeltaHandler handler = received::add;
+        OllamaGenerateStreamObserver observer = new OllamaGenerateStreamObserver(handler, true);
+        CharSequence response = observer.getResponse();
+        observer.notify(generatePart("Hello"));
+        observer.notify(generatePart(" World"));
+        assertEquals(List.of("Hello", " World"), received);
+        assertEquals("Hello World", response.toString());
+        assertEquals(2, observer.getResponseParts().size());
+    }
+
+    @Test
+    void testChatObserverPassesDeltas() {
+        List<String> received = new ArrayList<>();
+        OllamaStreamDeltaHandler handler = received::add;
+        OllamaChatStreamObserver observer = new OllamaChatStreamObserver(handler);
+        observer.accept(chatPart("Hi"));
+        observer.accept(chatPart(" there"));
+        assertEquals(List.of("Hi", " there"), received);
+        assertEquals("Hi there", observer.getResponse().toString());
+    }
+
+    @Test
+    void testRunningTextIsReadableThroughTheApi() throws Exception {
+        try (FakeOllamaServer server = new FakeOllamaServer()) {
+            server.respond("/api/generate", 200, "{\"response\":\"Hello\",\"done\":false}\n{\"response\":\" World\",\"done\":true}\n");
+            server.respond("/api/chat", 200, "{\"message\":{\"role\":\"assistant\",\"content\":\"Hi\"},\"done\":false}\n"
+                    + "{\"message\":{\"role\":\"assistant\",\"content\":\" there\"},\"done\":true}\n");
+
+            List<String> texts = new ArrayList<>();
+            OllamaGenerateStreamObserver[] generateObserver = new OllamaGenerateStreamObserver[1];
+            OllamaStreamDeltaHandler handler = delta -> texts.add(generateObserver[0].getResponse().toString());
+            generateObserver[0] = new OllamaGenerateStreamObserver(handler);
+            OllamaResult result = server.client().generateStreaming(
+                    OllamaGenerateRequestBuilder.getInstance("m").withPrompt("prompt").build(), generateObserver[0]);
+            assertEquals("Hello World", result.getResponse());
+            assertEquals(List.of("Hello", "Hello World"), texts);
+
+            List<String> deltas = new ArrayList<>();
+            OllamaChatStreamObserver chatObserver = new OllamaChatStreamObserver((OllamaStreamDeltaHandler) deltas::add);
+            server.client().chatStreaming(OllamaChatRequestBuilder.getInstance("m")
+                    .withMessage(OllamaChatMessageRole.USER, "Hello").build(), chatObserver);
+            assertEquals(List.of("Hi", " there"), deltas);
+            assertEquals("Hi there", chatObserver.getResponse().toString());
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package io.github.ollama4j.unittests;
+
+import io.github.ollama4j.ingest.TokenChunker;
+import io.github.ollama4j.utils.TokenCounter;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestTokenChunker {
+
+    // one token per word, so that the budgets are easy to check
+    private static final TokenCounter WORDS = text -> text.trim().isEmpty() ? 0 : text.trim().split("\\s+").length;
+
+    @Test
+    void keepsParagraphsAndSentencesTogether() {
+        String text = "One two three. Four five six.\n\nSeven eight nine ten. Eleven twelve thirteen.";
+        List<String> chunks = new TokenChunker(WORDS, 6, 0).chunk(text);
+
+        assertEquals(List.of("One two three. Four five six.", "Seven eight nine ten.", "Eleven twelve thirteen."), chunks);
+        for (String chunk : chunks) {
+            assertTrue(text.contains(chunk));
+        }
+    }
+
+    @Test
+    void repeatsTheEndOfThePreviousChunk() {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 20; i++) {
+            text.append("w").append(i).append(' ');
+        }
+        List<String> chunks = new TokenChunker(WORDS, 8, 3).chunk(text.toString());
+
+        assertEquals("w0 w1 w2 w3 w4 w5 w6 w7", chunks.get(0));
+        assertEquals("w5 w6 w7 w8 w9 w10 w11 w12", chunks.get(1));
+        for (String chunk : chunks) {
+            assertTrue(WORDS.countTokens(chunk) <= 8);
+        }
+        assertTrue(chunks.get(chunks.size() - 1).endsWith("w19"));
+    }
+
+    @Test
+    void splitsWordsOverTheBudget() {
+        String word = "abcdefghijklmnopqrstuvwxyz".repeat(10);
+        TokenChunker chunker = new TokenChunker(8, 0);
+        List<String> chunks = chunker.chunk("short " + word);
+
+        assertEquals("short" + word, String.join("", chunks));
+        for (String chunk : chunks) {
+            assertTrue(TokenCounter.approximate().countTokens(chunk) <= 8, chunk);
+        }
+        assertTrue(chunker.chunk(" \n\n ").isEmpty());
+    }
+}
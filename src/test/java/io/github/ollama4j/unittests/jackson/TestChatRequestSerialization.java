@@ -1,9 +1,14 @@
 package io.github.ollama4j.unittests.jackson;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrowsExactly;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Collections;
 import java.util.List;
 
@@ -12,6 +17,7 @@ import org.json.JSONObject;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import io.github.ollama4j.models.chat.OllamaChatMessage;
 import io.github.ollama4j.models.chat.OllamaChatMessageRole;
 import io.github.ollama4j.models.chat.OllamaChatRequestBuilder;
 import io.github.ollama4j.utils.OptionsBuilder;
@@ -49,6 +55,38 @@ public class TestChatRequestSerialization extends AbstractSerializationTest<Olla
         assertEqualsAfterUnmarshalling(deserialize(jsonRequest, OllamaChatRequest.class), req);
     }
 
+    @Test
+    public void testImageFileIsReadWhenSerialized() throws IOException {
+        Path image = Files.createTempFile("ollama4j-image", ".bin");
+        try {
+            Files.write(image, new byte[]{1, 2, 3});
+            OllamaChatRequest req = builder.withMessage(OllamaChatMessageRole.USER, "Some prompt", Collections.emptyList(),
+                    List.of(image.toFile())).build();
+            assertNull(req.getMessages().get(0).getImages());
+            Files.write(image, new byte[]{4, 5, 6});
+
+            OllamaChatRequest deserialized = deserialize(serialize(req), OllamaChatRequest.class);
+            assertArrayEquals(new byte[]{4, 5, 6}, deserialized.getMessages().get(0).getImages().get(0));
+        } finally {
+            Files.delete(image);
+        }
+    }
+
+    @Test
+    public void testImageFilesAreAttachmentsNotImages() throws IOException {
+        Path image = Files.createTempFile("ollama4j-image", ".bin");
+        try {
+            OllamaChatRequest req = builder.withMessage(OllamaChatMessageRole.USER, "Some prompt", Collections.emptyList(),
+                    List.of(image.toFile(), new File("src/test/resources/does-not-exist.jpg"))).build();
+            OllamaChatMessage message = req.getMessages().get(0);
+            assertNull(message.getImages());
+            assertEquals(1, message.getImageAttachments().size());
+            assertEquals("ImageAttachment(" + image + ")", message.getImageAttachments().get(0).toString());
+        } finally {
+            Files.delete(image);
+        }
+    }
+
     @Test
     public void testRequestWithOptions() {
         OptionsBuilder b = new OptionsBuilder();
@@ -3,6 +3,7 @@ package io.github.ollama4j.unittests.jackson;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
 import io.github.ollama4j.models.generate.OllamaGenerateRequest;
+import io.github.ollama4j.models.request.ImageAttachment;
 import org.json.JSONObject;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -11,6 +12,12 @@ import org.junit.jupiter.api.Test;
 import io.github.ollama4j.models.generate.OllamaGenerateRequestBuilder;
 import io.github.ollama4j.utils.OptionsBuilder;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Base64;
+import java.util.List;
+
 public class TestGenerateRequestSerialization extends AbstractSerializationTest<OllamaGenerateRequest> {
 
     private OllamaGenerateRequestBuilder builder;
@@ -53,4 +60,17 @@ public class TestGenerateRequestSerialization extends AbstractSerializationTest<
         assertEquals("json", requestFormatProperty);
     }
 
+    @Test
+    public void testRequestWithImageAttachments() throws IOException {
+        Path image = Path.of("src/test/resources/dog-on-a-boat.jpg");
+        OllamaGenerateRequest req = builder.withPrompt("Some prompt")
+                .withImages(List.of(ImageAttachment.of(image), ImageAttachment.map(image))).build();
+
+        String jsonRequest = serialize(req);
+        OllamaGenerateRequest deserializeRequest = deserialize(jsonRequest, OllamaGenerateRequest.class);
+        assertEqualsAfterUnmarshalling(deserializeRequest, req);
+        String expectedImage = Base64.getEncoder().encodeToString(Files.readAllBytes(image));
+        assertEquals(List.of(expectedImage, expectedImage), deserializeRequest.getImages());
+    }
+
 }